@@ -22,6 +22,13 @@ public class ChangedSign {
     private String[] lines;
     private String[] oldLines;
 
+    /**
+     * The last parse of each line, the raw line it was parsed from, and the variable version it was parsed at.
+     */
+    private String[] parsedLines;
+    private String[] parsedFrom;
+    private long[] parsedVersions;
+
     public ChangedSign(Block block, String[] lines, CraftBookPlayer player) {
         this(block, lines);
 
@@ -109,7 +116,26 @@ public class ChangedSign {
 
     public String getLine(int index) throws IndexOutOfBoundsException {
 
-        return ParsingUtil.parseLine(lines[index], null);
+        String line = lines[index];
+        if (line == null || line.indexOf('%') < 0)
+            return line;
+
+        // Variables are only parsed again once the line or a variable has changed.
+        long version = VariableManager.getVersion();
+        if (parsedLines == null || parsedLines.length <= index) {
+            int length = Math.max(index + 1, lines.length);
+            parsedLines = parsedLines == null ? new String[length] : Arrays.copyOf(parsedLines, length);
+            parsedFrom = parsedFrom == null ? new String[length] : Arrays.copyOf(parsedFrom, length);
+            parsedVersions = parsedVersions == null ? new long[length] : Arrays.copyOf(parsedVersions, length);
+        } else if (parsedFrom[index] == line && parsedVersions[index] == version) {
+            return parsedLines[index];
+        }
+
+        String parsed = ParsingUtil.parseLine(line, null);
+        parsedLines[index] = parsed;
+        parsedFrom[index] = line;
+        parsedVersions[index] = version;
+        return parsed;
     }
 
     public String getRawLine(int index) throws IndexOutOfBoundsException {
@@ -21,6 +21,8 @@ public class BukkitConfiguration {
     public boolean useBlockDistance;
     public boolean safeDestruction;
     public int stThinkRate;
+    public long stThinkBudget;
+    public long stDiscoveryBudget;
     public boolean obeyWorldguard;
     public boolean advancedBlockChecks;
     public boolean pedanticBlockChecks;
@@ -40,6 +42,7 @@ public class BukkitConfiguration {
     public List<String> debugFlags;
 
     public String persistentStorageType;
+    public int persistentStorageSaveInterval;
 
     public YAMLProcessor config;
     public Logger logger;
@@ -98,6 +101,12 @@ public class BukkitConfiguration {
         config.setComment("st-think-ticks", "WARNING! Changing this can result in all ST mechanics acting very weirdly, only change this if you know what you are doing!");
         stThinkRate = config.getInt("st-think-ticks", 2);
 
+        config.setComment("st-think-budget", "The maximum time in nanoseconds that self-triggered mechanics can think for each run. Mechanics that don't get to think are run first on the next run. 0 means no limit.");
+        stThinkBudget = config.getInt("st-think-budget", 0);
+
+        config.setComment("st-discovery-budget", "The maximum time in nanoseconds that can be spent each tick searching loaded chunks for self-triggered mechanics. Chunks that aren't searched are searched on the next tick. 0 means no limit.");
+        stDiscoveryBudget = config.getInt("st-discovery-budget", 5000000);
+
         config.setComment("safe-destruction", "Causes many mechanics to require sufficient blocks to function, for example gates, bridges and doors.");
         safeDestruction = config.getBoolean("safe-destruction", true);
 
@@ -149,9 +158,12 @@ public class BukkitConfiguration {
         config.setComment("show-permission-messages", "Show messages when a player does not have permission to do something.");
         showPermissionMessages = config.getBoolean("show-permission-messages", true);
 
-        config.setComment("persistent-storage-type", "PersistentStorage stores data that can be accessed across server restart. Method of PersistentStorage storage (Note: DUMMY is practically off, and may cause issues). Can currently be any of the following: YAML, DUMMY, SQLite");
+        config.setComment("persistent-storage-type", "PersistentStorage stores data that can be accessed across server restart. Method of PersistentStorage storage (Note: DUMMY is practically off, and may cause issues). Can currently be any of the following: YAML, DUMMY, SQLite, BatchedSQLite");
         persistentStorageType = config.getString("persistent-storage-type", "YAML");
 
+        config.setComment("persistent-storage-save-interval", "The amount of ticks between each save of changed persistent data, for storage methods that save in the background (BatchedSQLite).");
+        persistentStorageSaveInterval = config.getInt("persistent-storage-save-interval", 200);
+
         config.setComment("convert-names-to-cbids", "Causes mechanics to attempt to convert names to use CBIDs. This can and should be disabled after you believe your servers transition to UUIDs v Names is complete.");
         convertNamesToCBID = config.getBoolean("convert-names-to-cbids", false);
 
@@ -7,6 +7,8 @@ import com.sk89q.craftbook.CraftBookPlayer;
 import com.sk89q.craftbook.bukkit.commands.TopLevelCommands;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
 import com.sk89q.craftbook.core.LanguageManager;
+import com.sk89q.craftbook.core.BlockTargets;
+import com.sk89q.craftbook.core.RedstoneTargets;
 import com.sk89q.craftbook.core.st.MechanicClock;
 import com.sk89q.craftbook.core.st.SelfTriggeringManager;
 import com.sk89q.craftbook.mechanics.AIMechanic;
@@ -82,16 +84,19 @@ import com.sk89q.craftbook.mechanics.minecart.blocks.CartReverser;
 import com.sk89q.craftbook.mechanics.minecart.blocks.CartSorter;
 import com.sk89q.craftbook.mechanics.minecart.blocks.CartStation;
 import com.sk89q.craftbook.mechanics.minecart.blocks.CartTeleporter;
+import com.sk89q.craftbook.mechanics.minecart.events.CartBlockImpactEvent;
 import com.sk89q.craftbook.mechanics.pipe.Pipes;
 import com.sk89q.craftbook.mechanics.signcopier.SignCopier;
 import com.sk89q.craftbook.mechanics.variables.VariableManager;
 import com.sk89q.craftbook.util.ArrayUtil;
 import com.sk89q.craftbook.util.CompatabilityUtil;
+import com.sk89q.craftbook.util.DebugFlags;
+import com.sk89q.craftbook.util.DebugLogWriter;
 import com.sk89q.craftbook.util.ItemSyntax;
-import com.sk89q.craftbook.util.RegexUtil;
 import com.sk89q.craftbook.util.UUIDMappings;
 import com.sk89q.craftbook.util.compat.companion.CompanionPlugins;
 import com.sk89q.craftbook.util.compat.nms.NMSAdapter;
+import com.sk89q.craftbook.util.jinglenote.JingleNoteDispatcher;
 import com.sk89q.craftbook.util.persistent.PersistentStorage;
 import com.sk89q.minecraft.util.commands.CommandException;
 import com.sk89q.minecraft.util.commands.CommandPermissionsException;
@@ -106,9 +111,7 @@ import com.sk89q.wepif.PermissionsResolverManager;
 import io.papermc.lib.PaperLib;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
-import org.bukkit.Chunk;
 import org.bukkit.Server;
-import org.bukkit.World;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.entity.Player;
@@ -134,12 +137,12 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -212,6 +215,16 @@ public class CraftBookPlugin extends JavaPlugin {
      */
     private SelfTriggeringManager selfTriggerManager;
 
+    /**
+     * The block types that mechanics handle redstone for.
+     */
+    private RedstoneTargets redstoneTargets = new RedstoneTargets();
+
+    /**
+     * The base block types that cart mechanisms react to.
+     */
+    private BlockTargets cartMechanismTargets = new BlockTargets(CartBlockImpactEvent.getHandlerList());
+
     /**
      * The NMS Adapter.
      */
@@ -516,8 +529,8 @@ public class CraftBookPlugin extends JavaPlugin {
 
         if(config.debugLogToFile) {
             try {
-                debugLogger = new PrintWriter(new File(getDataFolder(), "debug.log"));
-            } catch (FileNotFoundException e1) {
+                debugLogger = new DebugLogWriter(new File(getDataFolder(), "debug.log"));
+            } catch (IOException e1) {
                 e1.printStackTrace();
             }
         }
@@ -530,6 +543,8 @@ public class CraftBookPlugin extends JavaPlugin {
         getServer().getScheduler().runTask(this, CompatabilityUtil::init);
 
         mechanics = new ArrayList<>();
+        redstoneTargets = new RedstoneTargets();
+        cartMechanismTargets = new BlockTargets(CartBlockImpactEvent.getHandlerList());
 
         logDebugMessage("Initializing Mechanisms!", "startup");
 
@@ -637,6 +652,9 @@ public class CraftBookPlugin extends JavaPlugin {
                     return false;
                 }
                 getServer().getPluginManager().registerEvents(mech, this);
+                // Signs that didn't register anything before may now be mechanics.
+                if(selfTriggerManager != null)
+                    selfTriggerManager.clearInertSigns();
             } else
                 return false;
         } catch (Throwable t) {
@@ -748,6 +766,8 @@ public class CraftBookPlugin extends JavaPlugin {
             mechanics = null;
         }
 
+        JingleNoteDispatcher.inst().stopAll();
+
         if(hasPersistentStorage()) {
 
             persistentStorage.close();
@@ -755,6 +775,11 @@ public class CraftBookPlugin extends JavaPlugin {
 
         if(uuidMappings != null)
             uuidMappings.disable();
+
+        if(debugLogger != null) {
+            debugLogger.close();
+            debugLogger = null;
+        }
     }
 
     /**
@@ -831,27 +856,13 @@ public class CraftBookPlugin extends JavaPlugin {
     private void setupSelfTriggered() {
 
         mechanicClock = new MechanicClock();
-        selfTriggerManager = new SelfTriggeringManager();
+        selfTriggerManager = new SelfTriggeringManager(config.stThinkBudget, config.stDiscoveryBudget);
 
         getLogger().info("Enumerating chunks for self-triggered components...");
 
-        long start = System.currentTimeMillis();
-        int numWorlds = 0;
-        int numChunks = 0;
-
-        for (World world : getServer().getWorlds()) {
-            for (Chunk chunk : world.getLoadedChunks()) {
-
-                selfTriggerManager.registerSelfTrigger(chunk);
-                numChunks++;
-            }
-
-            numWorlds++;
-        }
-
-        long time = System.currentTimeMillis() - start;
-
-        getLogger().info(numChunks + " chunk(s) for " + numWorlds + " world(s) processed " + "(" + time + "ms elapsed)");
+        // The chunks are searched a few at a time by the discovery task, rather than all at once here.
+        selfTriggerManager.getDiscovery().queueLoadedChunks(getServer().getWorlds());
+        getServer().getScheduler().runTaskTimer(this, selfTriggerManager.getDiscovery(), 1, 1);
 
         // Set up the clock for self-triggered ICs.
 
@@ -1069,6 +1080,22 @@ public class CraftBookPlugin extends JavaPlugin {
         return selfTriggerManager;
     }
 
+    /**
+     * Grabs the block types that mechanics handle redstone for.
+     */
+    public RedstoneTargets getRedstoneTargets() {
+
+        return redstoneTargets;
+    }
+
+    /**
+     * Grabs the base block types that cart mechanisms react to when a cart moves onto them.
+     */
+    public BlockTargets getCartMechanismTargets() {
+
+        return cartMechanismTargets;
+    }
+
     /**
      * Reload configuration
      */
@@ -1081,7 +1108,7 @@ public class CraftBookPlugin extends JavaPlugin {
         getServer().getScheduler().cancelTasks(inst());
         HandlerList.unregisterAll(inst());
 
-        if(config.debugLogToFile) {
+        if(debugLogger != null) {
             debugLogger.close();
             debugLogger = null;
         }
@@ -1179,35 +1206,27 @@ public class CraftBookPlugin extends JavaPlugin {
         return out.toString();
     }
 
+    private static volatile DebugFlags debugFlags = DebugFlags.NONE;
+    private static volatile List<String> debugFlagSource;
+
     public static boolean isDebugFlagEnabled(String flag) {
 
         if(inst() == null) return false;
 
-        if(!inst().config.debugMode || inst().config.debugFlags == null || inst().config.debugFlags.isEmpty())
+        BukkitConfiguration config = inst().config;
+        if(!config.debugMode || config.debugFlags == null || config.debugFlags.isEmpty())
             return false;
 
-        String[] flagBits = RegexUtil.PERIOD_PATTERN.split(flag);
-
-        String tempFlag = "";
-
-        for(int i = 0; i < flagBits.length; i++) {
-
-            if(i == 0)
-                tempFlag = flagBits[i];
-            else
-                tempFlag = tempFlag + "." + flagBits[i];
-
-            for(String testflag : inst().config.debugFlags) {
-
-                if(testflag.toLowerCase(Locale.ENGLISH).equals(tempFlag))
-                    return true;
-            }
+        if(debugFlagSource != config.debugFlags) {
+            // The configuration has been reloaded.
+            debugFlags = new DebugFlags(config.debugFlags);
+            debugFlagSource = config.debugFlags;
         }
 
-        return false;
+        return debugFlags.isEnabled(flag);
     }
 
-    private static PrintWriter debugLogger;
+    private static DebugLogWriter debugLogger;
 
     public static void logDebugMessage(String message, String code) {
 
@@ -1216,10 +1235,24 @@ public class CraftBookPlugin extends JavaPlugin {
 
         logger().info("[Debug][" + code + "] " + message);
 
-        if(CraftBookPlugin.inst().config.debugLogToFile)
+        if(debugLogger != null)
             debugLogger.println("[" + code + "] " + message);
     }
 
+    /**
+     * Logs a debug message, only building the message if the debug code is enabled.
+     *
+     * @param message Builds the message
+     * @param code The debug code
+     */
+    public static void logDebugMessage(Supplier<String> message, String code) {
+
+        if(!isDebugFlagEnabled(code))
+            return;
+
+        logDebugMessage(message.get(), code);
+    }
+
     public boolean hasPersistentStorage() {
 
         return persistentStorage != null && persistentStorage.isValid();
@@ -17,6 +17,8 @@
 package com.sk89q.craftbook.bukkit;
 
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
+import com.sk89q.craftbook.core.BlockTargets;
+import com.sk89q.craftbook.core.RedstoneTargets;
 import com.sk89q.craftbook.mechanics.minecart.blocks.CartBlockMechanism;
 import com.sk89q.craftbook.mechanics.minecart.blocks.CartMechanismBlocks;
 import com.sk89q.craftbook.mechanics.minecart.events.CartBlockEnterEvent;
@@ -25,6 +27,7 @@ import com.sk89q.craftbook.mechanics.minecart.events.CartBlockRedstoneEvent;
 import com.sk89q.craftbook.util.EventUtil;
 import com.sk89q.craftbook.util.LocationUtil;
 import com.sk89q.craftbook.util.ProtectionUtil;
+import com.sk89q.craftbook.util.RailUtil;
 import com.sk89q.craftbook.util.SignUtil;
 import com.sk89q.craftbook.util.events.SignClickEvent;
 import com.sk89q.craftbook.util.events.SourcedBlockRedstoneEvent;
@@ -337,14 +340,22 @@ final class MechanicListenerAdapter implements Listener {
      */
     private static void handleDirectWireInput(int x, int y, int z, Block sourceBlock, int oldLevel, int newLevel) {
 
+        if(sourceBlock.getX() == x && sourceBlock.getY() == y && sourceBlock.getZ() == z) //The same block, don't run.
+            return;
         Block block = sourceBlock.getWorld().getBlockAt(x, y, z);
-        if(CraftBookBukkitUtil.equals(sourceBlock.getLocation(), block.getLocation())) //The same block, don't run.
+
+        boolean legacyCarts = CraftBookPlugin.inst().useLegacyCartSystem;
+        RedstoneTargets targets = CraftBookPlugin.inst().getRedstoneTargets();
+        boolean dispatch = !targets.isFiltering() || targets.isTarget(block.getType());
+        if(!dispatch && !legacyCarts)
             return;
+
         final SourcedBlockRedstoneEvent event = new SourcedBlockRedstoneEvent(sourceBlock, block, oldLevel, newLevel);
 
-        CraftBookPlugin.inst().getServer().getPluginManager().callEvent(event);
+        if(dispatch)
+            CraftBookPlugin.inst().getServer().getPluginManager().callEvent(event);
 
-        if(CraftBookPlugin.inst().useLegacyCartSystem) {
+        if(legacyCarts) {
             CraftBookPlugin.server().getScheduler().runTask(CraftBookPlugin.inst(), () -> {
                 try {
                     CartMechanismBlocks cmb = CartMechanismBlocks.find(event.getBlock());
@@ -364,19 +375,23 @@ final class MechanicListenerAdapter implements Listener {
 
         if(CraftBookPlugin.inst().useLegacyCartSystem) {
             if (event.getVehicle() instanceof Minecart) {
-                try {
-                    Minecart cart = (Minecart) event.getVehicle();
-                    CartMechanismBlocks cmb = CartMechanismBlocks.findByRail(event.getTo().getBlock());
-                    cmb.setFromBlock(event.getFrom().getBlock());
-                    Location from = event.getFrom();
-                    Location to = event.getTo();
-                    if (LocationUtil.getDistanceSquared(from, to) > 2 * 2) //Further than max distance
-                        return;
-                    boolean minor = from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ();
-                    CartBlockImpactEvent ev = new CartBlockImpactEvent(cart, from, to, cmb, minor);
-                    CraftBookPlugin.inst().getServer().getPluginManager().callEvent(ev);
-                } catch (InvalidMechanismException ignored) {
-                }
+                Minecart cart = (Minecart) event.getVehicle();
+                Location from = event.getFrom();
+                Location to = event.getTo();
+                if (LocationUtil.getDistanceSquared(from, to) > 2 * 2) //Further than max distance
+                    return;
+                Block rail = to.getBlock();
+                if (!RailUtil.isTrack(rail.getType()))
+                    return;
+                // Most track isn't on a mechanism, so check the base before looking for a sign.
+                BlockTargets targets = CraftBookPlugin.inst().getCartMechanismTargets();
+                if (targets.isFiltering() && !targets.isTarget(CartMechanismBlocks.getBaseByTrack(rail).getType()))
+                    return;
+                CartMechanismBlocks cmb = CartMechanismBlocks.findByTrack(rail);
+                cmb.setFromBlock(from.getBlock());
+                boolean minor = from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY() && from.getBlockZ() == to.getBlockZ();
+                CartBlockImpactEvent ev = new CartBlockImpactEvent(cart, from, to, cmb, minor);
+                CraftBookPlugin.inst().getServer().getPluginManager().callEvent(ev);
             }
         }
     }
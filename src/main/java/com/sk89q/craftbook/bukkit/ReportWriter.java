@@ -6,8 +6,13 @@ import com.sk89q.craftbook.mechanics.crafting.RecipeManager;
 import com.sk89q.craftbook.mechanics.crafting.RecipeManager.Recipe;
 import com.sk89q.craftbook.mechanics.crafting.RecipeManager.RecipeType;
 import com.sk89q.craftbook.mechanics.ic.IC;
+import com.sk89q.craftbook.mechanics.ic.ICInputScheduler;
 import com.sk89q.craftbook.mechanics.ic.ICManager;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
+import com.sk89q.craftbook.util.CandidateIndexManager;
 import com.sk89q.craftbook.util.LogListBlock;
+import com.sk89q.craftbook.util.VolumeScanner;
+import com.sk89q.craftbook.util.jinglenote.JingleNoteDispatcher;
 import org.bukkit.Location;
 import org.bukkit.Server;
 import org.bukkit.plugin.Plugin;
@@ -184,7 +189,32 @@ public class ReportWriter {
 
         int i = CraftBookPlugin.inst().getMechanics().size();
         log.put("Mechanics Loaded", "%d", i);
-        log.put("ST Mechanics Loaded", "%d", plugin.getSelfTriggerManager() == null ? 0 : plugin.getSelfTriggerManager().getSelfTriggeringMechanics().size());
+        log.put("ST Mechanics Loaded", "%d", plugin.getSelfTriggerManager() == null ? 0 : plugin.getSelfTriggerManager().getSelfTriggerCount());
+        log.put("ICs Cached", "%d", ICManager.getCache().size());
+        log.put("IC Cache Hits/Misses/Evictions", "%d/%d/%d", ICManager.getCache().getHits(), ICManager.getCache().getMisses(), ICManager.getCache().getEvictions());
+        log.put("IC Cache Resolved Hits", "%d", ICManager.getCache().getResolvedHits());
+        if(ICMechanic.instance != null && ICMechanic.instance.getCandidateIndexes() != null) {
+            CandidateIndexManager candidates = ICMechanic.instance.getCandidateIndexes();
+            log.put("IC Candidate Indexes/Blocks", "%d/%d", candidates.size(), candidates.getCandidateCount());
+            log.put("IC Candidate Samples/Hits", "%d/%d", candidates.getSamples(), candidates.getHits());
+        }
+        if(ICMechanic.instance != null && ICMechanic.instance.getVolumeScanner() != null) {
+            VolumeScanner volumes = ICMechanic.instance.getVolumeScanner();
+            log.put("IC Volume Scans (Total/Pending)", "%d/%d", volumes.getScanCount(), volumes.getPending());
+            log.put("IC Volume Chunk Snapshots", "%d", volumes.getSnapshotCount());
+            log.put("IC Volume Changes (Applied/Skipped)", "%d/%d", volumes.getAppliedCount(), volumes.getSkippedCount());
+        }
+        if(ICMechanic.instance != null && ICMechanic.instance.getInputScheduler() != null) {
+            ICInputScheduler inputs = ICMechanic.instance.getInputScheduler();
+            log.put("IC Input Queue Depth (Current/Max)", "%d/%d", inputs.getQueueDepth(), inputs.getMaxQueueDepth());
+            log.put("IC Input Merge Ratio", "%.2f", inputs.getMergeRatio());
+        }
+        log.put("ST Think Budget Overruns", "%d", plugin.getSelfTriggerManager() == null ? 0 : plugin.getSelfTriggerManager().getBudgetOverruns());
+        JingleNoteDispatcher jingleNotes = JingleNoteDispatcher.inst();
+        log.put("JingleNote Threads/Queued/Listeners", "%d/%d/%d", jingleNotes.getThreadCount(), jingleNotes.getQueueDepth(), jingleNotes.getListenerCount());
+        log.put("JingleNote Songs Playing", "%d", jingleNotes.getSequencerCount());
+        if(ICManager.inst() != null && ICManager.inst().getSongCache() != null)
+            log.put("Songs Cached", "%d (%d KB)", ICManager.inst().getSongCache().size(), ICManager.inst().getSongCache().getMemorySize() / 1024);
 
         append(log);
         appendln();
@@ -0,0 +1,96 @@
+package com.sk89q.craftbook.core;
+
+import org.bukkit.Material;
+import org.bukkit.Tag;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.plugin.RegisteredListener;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Keeps track of the block types that the listeners of an event react to.
+ *
+ * <p>
+ *     Mechanics declare the block types they handle when they are enabled. If every listener of the event has
+ *     declared its targets, the event only needs to be fired for blocks of those types. As soon as an undeclared
+ *     listener is registered, for example by another plugin, every block is a target again.
+ * </p>
+ */
+public class BlockTargets {
+
+    private final HandlerList handlers;
+
+    private final boolean[] targets = new boolean[Material.values().length];
+
+    private final Set<Listener> declared = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private RegisteredListener[] checkedListeners;
+    private boolean filtering;
+
+    public BlockTargets(HandlerList handlers) {
+
+        this.handlers = handlers;
+    }
+
+    /**
+     * Declares that the given listener reacts to blocks of the given types.
+     *
+     * @param listener The listener
+     * @param types The block types
+     */
+    public void addTargets(Listener listener, Material... types) {
+
+        declared.add(listener);
+        for (Material type : types)
+            targets[type.ordinal()] = true;
+        checkedListeners = null;
+    }
+
+    /**
+     * Declares that the given listener reacts to blocks tagged with the given tag.
+     *
+     * @param listener The listener
+     * @param tag The block tag
+     */
+    public void addTargets(Listener listener, Tag<Material> tag) {
+
+        addTargets(listener, tag.getValues().toArray(new Material[0]));
+    }
+
+    /**
+     * Checks if the event can be limited to declared target blocks.
+     *
+     * @return If the event can be filtered
+     */
+    public boolean isFiltering() {
+
+        RegisteredListener[] listeners = handlers.getRegisteredListeners();
+        if (listeners != checkedListeners) {
+            // The baked listener array is replaced whenever a listener is (un)registered.
+            boolean allDeclared = true;
+            for (RegisteredListener listener : listeners) {
+                if (!declared.contains(listener.getListener())) {
+                    allDeclared = false;
+                    break;
+                }
+            }
+            filtering = allDeclared;
+            checkedListeners = listeners;
+        }
+        return filtering;
+    }
+
+    /**
+     * Checks if a block of the given type is a declared target.
+     *
+     * @param type The block type
+     * @return If it's a target
+     */
+    public boolean isTarget(Material type) {
+
+        return targets[type.ordinal()];
+    }
+}
@@ -0,0 +1,15 @@
+package com.sk89q.craftbook.core;
+
+import com.sk89q.craftbook.util.events.SourcedBlockRedstoneEvent;
+
+/**
+ * Keeps track of the block types that {@link SourcedBlockRedstoneEvent} listeners react to, so redstone fan-out only
+ * needs to dispatch events to blocks of those types.
+ */
+public class RedstoneTargets extends BlockTargets {
+
+    public RedstoneTargets() {
+
+        super(SourcedBlockRedstoneEvent.getHandlerList());
+    }
+}
@@ -0,0 +1,207 @@
+package com.sk89q.craftbook.core.st;
+
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
+import com.sk89q.craftbook.util.LocationUtil;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds self-triggering mechanics in chunks, a few chunks at a time.
+ *
+ * <p>
+ *     Chunks are queued, either all at once on startup or as they load, and run once per tick. Each run processes
+ *     queued chunks until it has used up its time budget, and the rest wait for the next tick. Chunks that unload
+ *     while queued are skipped.
+ * </p>
+ */
+public class SelfTriggerDiscovery implements Runnable {
+
+    /**
+     * How often, in ticks, the progress of the startup discovery is logged.
+     */
+    private static final int PROGRESS_INTERVAL = 100;
+
+    private final SelfTriggeringManager manager;
+
+    /**
+     * Maximum time in nanoseconds a single run may spend discovering. 0 is unlimited.
+     */
+    private final long budget;
+
+    private final Deque<PendingChunk> queue = new ArrayDeque<>();
+    private final Set<PendingChunk> queued = new HashSet<>();
+
+    private long currentTick;
+
+    private long processedChunks;
+    private long workTime;
+
+    private int startupChunks;
+    private int startupRemaining;
+    private int startupWorlds;
+    private long startupTick;
+    private long startupWorkTime;
+
+    public SelfTriggerDiscovery(SelfTriggeringManager manager, long budget) {
+
+        this.manager = manager;
+        this.budget = budget;
+    }
+
+    /**
+     * Queues a chunk to be searched for self-triggering mechanics.
+     *
+     * @param chunk The chunk
+     * @param delay The minimum amount of ticks before it is searched
+     */
+    public void queue(Chunk chunk, int delay) {
+
+        queue(chunk.getWorld(), chunk.getX(), chunk.getZ(), delay, false);
+    }
+
+    /**
+     * Queues every loaded chunk of the given worlds, and logs the progress until they have all been searched.
+     *
+     * @param worlds The worlds
+     */
+    public void queueLoadedChunks(List<World> worlds) {
+
+        for(World world : worlds) {
+            for(Chunk chunk : world.getLoadedChunks())
+                if(queue(world, chunk.getX(), chunk.getZ(), 0, true))
+                    startupChunks++;
+            startupWorlds++;
+        }
+        startupRemaining = startupChunks;
+        startupTick = currentTick;
+        startupWorkTime = workTime;
+
+        CraftBookPlugin.logger().info("Queued " + startupChunks + " chunk(s) in " + startupWorlds + " world(s) for self-triggered components.");
+        if(startupRemaining == 0)
+            logStartupComplete();
+    }
+
+    private boolean queue(World world, int chunkX, int chunkZ, int delay, boolean startup) {
+
+        PendingChunk pending = new PendingChunk(world, chunkX, chunkZ, currentTick + delay, startup);
+        if(!queued.add(pending))
+            return false;
+        queue.add(pending);
+        return true;
+    }
+
+    @Override
+    public void run() {
+
+        currentTick++;
+
+        if(queue.isEmpty())
+            return;
+
+        long start = System.nanoTime();
+        long deadline = budget > 0 ? start + budget : 0;
+
+        // Chunks are queued in order of when they're ready, so the first one that isn't ready ends the run.
+        while(!queue.isEmpty() && queue.peek().readyTick <= currentTick) {
+            PendingChunk pending = queue.poll();
+            queued.remove(pending);
+
+            if(pending.world.isChunkLoaded(pending.chunkX, pending.chunkZ))
+                manager.registerSelfTrigger(pending.world.getChunkAt(pending.chunkX, pending.chunkZ));
+            processedChunks++;
+
+            if(pending.startup)
+                startupRemaining--;
+
+            if(deadline != 0 && System.nanoTime() - deadline > 0)
+                break;
+        }
+
+        workTime += System.nanoTime() - start;
+
+        if(startupChunks > 0) {
+            if(startupRemaining == 0)
+                logStartupComplete();
+            else if((currentTick - startupTick) % PROGRESS_INTERVAL == 0)
+                CraftBookPlugin.logger().info("Searching for self-triggered components... " + (startupChunks - startupRemaining) + '/' + startupChunks + " chunk(s) done.");
+        }
+    }
+
+    private void logStartupComplete() {
+
+        long time = TimeUnit.NANOSECONDS.toMillis(workTime - startupWorkTime);
+        CraftBookPlugin.logger().info(startupChunks + " chunk(s) for " + startupWorlds + " world(s) processed (" + time + "ms elapsed over "
+                + (currentTick - startupTick) + " tick(s))");
+        startupChunks = 0;
+    }
+
+    /**
+     * Gets the amount of chunks waiting to be searched.
+     *
+     * @return The amount of chunks
+     */
+    public int getPendingCount() {
+
+        return queue.size();
+    }
+
+    /**
+     * Gets the amount of chunks that have been searched.
+     *
+     * @return The amount of chunks
+     */
+    public long getProcessedCount() {
+
+        return processedChunks;
+    }
+
+    /**
+     * Gets the total time spent searching chunks.
+     *
+     * @return The time in nanoseconds
+     */
+    public long getWorkTime() {
+
+        return workTime;
+    }
+
+    private static final class PendingChunk {
+
+        private final World world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final long readyTick;
+        private final boolean startup;
+
+        PendingChunk(World world, int chunkX, int chunkZ, long readyTick, boolean startup) {
+
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.readyTick = readyTick;
+            this.startup = startup;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if(!(o instanceof PendingChunk))
+                return false;
+            PendingChunk other = (PendingChunk) o;
+            return chunkX == other.chunkX && chunkZ == other.chunkZ && world.equals(other.world);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return Long.hashCode(LocationUtil.getChunkKey(chunkX, chunkZ)) * 31 + world.hashCode();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.sk89q.craftbook.core.st;
+
+import org.bukkit.block.Block;
+
+/**
+ * A handler that is called directly by the {@link SelfTriggeringManager}, instead of broadcasting a
+ * {@link com.sk89q.craftbook.util.events.SelfTriggerThinkEvent} for every think.
+ */
+public interface SelfTriggerHandler {
+
+    /**
+     * Causes the mechanic at the given block to think.
+     *
+     * @param block The block of the mechanic
+     * @return If the mechanic was handled. If false, the self-trigger is unregistered.
+     */
+    boolean think(Block block);
+}
@@ -3,6 +3,8 @@ package com.sk89q.craftbook.core.st;
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
 import com.sk89q.craftbook.util.EventUtil;
+import com.sk89q.craftbook.util.LocationUtil;
+import com.sk89q.craftbook.util.LongHashMap;
 import com.sk89q.craftbook.util.events.SelfTriggerPingEvent;
 import com.sk89q.craftbook.util.events.SelfTriggerThinkEvent;
 import com.sk89q.craftbook.util.events.SelfTriggerUnregisterEvent;
@@ -10,6 +12,8 @@ import com.sk89q.craftbook.util.events.SelfTriggerUnregisterEvent.UnregisterReas
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
 import org.bukkit.block.Sign;
 import org.bukkit.event.EventHandler;
@@ -17,29 +21,158 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.world.ChunkLoadEvent;
 import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.RegisteredListener;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.logging.Level;
 
+/**
+ * Schedules self-triggered mechanics.
+ *
+ * <p>
+ *     Triggers are grouped into buckets by chunk, so a chunk's triggers can be found without scanning every
+ *     registered trigger, and the loaded state of a chunk is only checked once per bucket. Each trigger has a
+ *     think interval measured in clock runs. When a think budget is set, a clock run stops once the budget is used
+ *     up, and the next run resumes where it stopped.
+ * </p>
+ *
+ * <p>
+ *     Chunks are searched for mechanics by a {@link SelfTriggerDiscovery}, within its own time budget. Signs that
+ *     didn't register a mechanic when pinged are remembered by their position and exact text, and aren't pinged
+ *     again until either changes. Whether a ping registers can also depend on things other than the text, such as
+ *     nearby blocks or the configuration, so they are only trusted for a while after they were pinged, and are
+ *     forgotten when a mechanic is enabled. The amount of remembered signs is limited.
+ * </p>
+ *
+ * <p>
+ *     Triggers registered with a {@link SelfTriggerHandler} are thought directly. The
+ *     {@link SelfTriggerThinkEvent} is then only fired for them when another plugin listens for it.
+ * </p>
+ */
 public class SelfTriggeringManager implements Listener {
 
     /**
-     * List of mechanics that think on a routine basis.
+     * The interval of triggers that only think after being woken through {@link #wakeSelfTrigger(Location)}.
      */
-    private final Collection<Location> thinkingMechanics = new HashSet<>();
+    public static final int WAKE_ONLY = 0;
+
+    /**
+     * Chunk buckets of mechanics that think on a routine basis, by world.
+     */
+    private final Map<UUID, LongHashMap<ChunkBucket>> buckets = new HashMap<>();
+
+    /**
+     * The round-robin order buckets are thought in. Removed buckets are dropped lazily.
+     */
+    private final List<ChunkBucket> schedule = new ArrayList<>();
+
+    /**
+     * The text of the signs in each chunk that were pinged without registering a mechanic, by world.
+     */
+    private final Map<UUID, LongHashMap<InertChunk>> inertSigns = new HashMap<>();
+
+    /**
+     * Milliseconds the inert signs of a chunk are trusted after they were pinged.
+     */
+    private static final long INERT_EXPIRY = 5 * 60 * 1000;
+    /**
+     * The maximum amount of inert signs remembered over all chunks.
+     */
+    private static final int MAX_INERT_SIGNS = 16384;
+    private long lastInertPrune;
+    private int inertCount;
+
+    private final SelfTriggerDiscovery discovery;
+
+    /**
+     * Maximum time in nanoseconds a single clock run may spend thinking. 0 is unlimited.
+     */
+    private final long thinkBudget;
+
+    private int cursor;
+    private boolean scheduleDirty;
+    private long currentTick;
+    private int triggerCount;
+
+    private int lastThinkCount;
+    private long budgetOverruns;
+    private long skippedPings;
+
+    public SelfTriggeringManager() {
+
+        this(0);
+    }
+
+    public SelfTriggeringManager(long thinkBudget) {
+
+        this(thinkBudget, 0);
+    }
+
+    public SelfTriggeringManager(long thinkBudget, long discoveryBudget) {
+
+        this.thinkBudget = thinkBudget;
+        this.discovery = new SelfTriggerDiscovery(this, discoveryBudget);
+    }
+
+    /**
+     * Gets the discovery that searches chunks for mechanics. It has to be scheduled to run every tick.
+     *
+     * @return The discovery
+     */
+    public SelfTriggerDiscovery getDiscovery() {
+
+        return discovery;
+    }
 
     public void registerSelfTrigger(Chunk chunk) {
         if (!chunk.getWorld().isChunkLoaded(chunk))
             return;
         try {
+            long now = System.currentTimeMillis();
+            LongHashMap<InertChunk> worldInert = inertSigns.get(chunk.getWorld().getUID());
+            long chunkKey = LocationUtil.getChunkKey(chunk);
+            InertChunk known = worldInert == null ? null : worldInert.get(chunkKey);
+            if(known != null) {
+                worldInert.remove(chunkKey);
+                inertCount -= known.signs.size();
+                // Ping the signs again once in a while, in case something other than their text has changed.
+                if(now - known.pingedAt > INERT_EXPIRY)
+                    known = null;
+            }
+            LongHashMap<String[]> inert = new LongHashMap<>();
+
             for(BlockState state : chunk.getTileEntities()) {
                 if(!(state instanceof Sign)) continue;
-                if(thinkingMechanics.contains(state.getLocation())) continue;
+                if(getTrigger(state.getWorld(), state.getX(), state.getY(), state.getZ()) != null) continue;
+
+                long blockKey = LocationUtil.getBlockKey(state.getX(), state.getY(), state.getZ());
+                String[] lines = ((Sign) state).getLines().clone();
+                if(known != null && Arrays.equals(known.signs.get(blockKey), lines)) {
+                    inert.put(blockKey, lines);
+                    skippedPings++;
+                    continue;
+                }
+
                 SelfTriggerPingEvent event = new SelfTriggerPingEvent(state.getBlock());
                 Bukkit.getServer().getPluginManager().callEvent(event);
+                if(getTrigger(state.getWorld(), state.getX(), state.getY(), state.getZ()) == null)
+                    inert.put(blockKey, lines);
             }
+
+            // When full, the signs are simply pinged again next time.
+            if(!inert.isEmpty() && inertCount + inert.size() <= MAX_INERT_SIGNS) {
+                inertSigns.computeIfAbsent(chunk.getWorld().getUID(), k -> new LongHashMap<>()).put(chunkKey, new InertChunk(inert, known != null ? known.pingedAt : now));
+                inertCount += inert.size();
+            }
+            if(worldInert != null && worldInert.isEmpty())
+                inertSigns.remove(chunk.getWorld().getUID());
         } catch (Throwable e) {
             Bukkit.getLogger().warning("A corrupt tile entity was found in the chunk: (world: " + chunk.getWorld().getName() + " x: " + chunk.getX() + " z: " + chunk.getZ() + ") Self-Triggering mechanics may not work here until the issue is resolved.");
             if(CraftBookPlugin.inst().getConfiguration().debugMode)
@@ -47,76 +180,347 @@ public class SelfTriggeringManager implements Listener {
         }
     }
 
+    /**
+     * Drops the inert signs of chunks that have been unloaded for longer than {@link #INERT_EXPIRY}, or that are no
+     * longer trusted.
+     */
+    private void pruneInertSigns() {
+
+        long now = System.currentTimeMillis();
+        if(now - lastInertPrune < INERT_EXPIRY) return;
+        lastInertPrune = now;
+
+        for(LongHashMap<InertChunk> worldInert : inertSigns.values()) {
+            for(long chunkKey : worldInert.keys()) {
+                InertChunk inert = worldInert.get(chunkKey);
+                if(inert.unloadedAt != 0 && now - inert.unloadedAt > INERT_EXPIRY || now - inert.pingedAt > INERT_EXPIRY) {
+                    worldInert.remove(chunkKey);
+                    inertCount -= inert.signs.size();
+                }
+            }
+        }
+        inertSigns.values().removeIf(LongHashMap::isEmpty);
+    }
+
+    /**
+     * Forgets all inert signs, so they are pinged again. Called when what a ping registers may have changed, such as
+     * when a mechanic is enabled.
+     */
+    public void clearInertSigns() {
+
+        inertSigns.clear();
+        inertCount = 0;
+    }
+
     public void registerSelfTrigger(Location location) {
 
-        if(thinkingMechanics.contains(location)) return;
-        hasChanged = true;
-        thinkingMechanics.add(location);
+        registerSelfTrigger(location, 1);
+    }
+
+    /**
+     * Registers a self-triggering mechanic at the given location.
+     *
+     * @param location The location of the mechanic
+     * @param interval The amount of clock runs between each think
+     */
+    public void registerSelfTrigger(Location location, int interval) {
+
+        registerSelfTrigger(location, interval, null);
+    }
+
+    /**
+     * Registers a self-triggering mechanic at the given location, that is thought by the given handler.
+     * If a mechanic is already registered at the location, its interval and handler are replaced.
+     *
+     * @param location The location of the mechanic
+     * @param interval The amount of clock runs between each think, or {@link #WAKE_ONLY}
+     * @param handler The handler, or null to think through a {@link SelfTriggerThinkEvent}
+     */
+    public void registerSelfTrigger(Location location, int interval, SelfTriggerHandler handler) {
+
+        if(interval != WAKE_ONLY)
+            interval = Math.max(1, interval);
+
+        Trigger trigger = getTrigger(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if(trigger != null) {
+            trigger.interval = interval;
+            trigger.handler = handler;
+            return;
+        }
+
+        LongHashMap<ChunkBucket> worldBuckets = buckets.computeIfAbsent(location.getWorld().getUID(), k -> new LongHashMap<>());
+        long chunkKey = LocationUtil.getChunkKeyAt(location.getBlockX(), location.getBlockZ());
+        ChunkBucket bucket = worldBuckets.get(chunkKey);
+        if(bucket == null) {
+            bucket = new ChunkBucket(location.getWorld(), location.getBlockX() >> 4, location.getBlockZ() >> 4, chunkKey);
+            worldBuckets.put(chunkKey, bucket);
+            schedule.add(bucket);
+        }
+
+        long blockKey = LocationUtil.getBlockKey(location);
+        trigger = new Trigger(bucket, location.getBlock(), blockKey, interval);
+        trigger.handler = handler;
+        // Spread triggers with longer intervals across clock runs. Wake-only triggers think once to catch up.
+        trigger.nextTick = currentTick + 1 + (interval == WAKE_ONLY ? 0 : Math.floorMod(blockKey, interval));
+        bucket.add(trigger);
+        triggerCount++;
+    }
+
+    /**
+     * Makes the mechanic at the given location think on the next clock run, regardless of its interval.
+     *
+     * @param location The location of the mechanic
+     */
+    public void wakeSelfTrigger(Location location) {
+
+        if(triggerCount == 0) return;
+
+        Trigger trigger = getTrigger(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if(trigger != null && trigger.nextTick > currentTick + 1)
+            trigger.nextTick = currentTick + 1;
     }
 
     public void unregisterSelfTrigger(Location location, UnregisterReason reason) {
 
-        if(thinkingMechanics.isEmpty()) return; //Skip the checks this round. Save a little CPU with the array creation.
+        if(triggerCount == 0) return;
 
-        if(!thinkingMechanics.contains(location)) return;
-        SelfTriggerUnregisterEvent event = new SelfTriggerUnregisterEvent(location.getBlock(), reason);
+        Trigger trigger = getTrigger(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        if(trigger == null) return;
+        unregisterSelfTrigger(trigger, reason);
+    }
+
+    private boolean unregisterSelfTrigger(Trigger trigger, UnregisterReason reason) {
+
+        SelfTriggerUnregisterEvent event = new SelfTriggerUnregisterEvent(trigger.block, reason);
         Bukkit.getServer().getPluginManager().callEvent(event);
-        if(!event.isCancelled()) {
-            hasChanged = true;
-            thinkingMechanics.remove(location);
-            CraftBookPlugin.logDebugMessage("Unregistered ST at: " + location.toString() + " for reason: " + reason.name(), "st.unregister");
-        }
+        if(event.isCancelled())
+            return false;
+
+        removeTrigger(trigger);
+        CraftBookPlugin.logDebugMessage(() -> "Unregistered ST at: " + trigger.block.getLocation().toString() + " for reason: " + reason.name(), "st.unregister");
+        return true;
     }
 
     public void unregisterSelfTrigger(Chunk chunk) {
 
-        if(thinkingMechanics.isEmpty()) return; //Skip the checks this round. Save a little CPU with the array creation.
+        if(triggerCount == 0) return;
+
+        LongHashMap<ChunkBucket> worldBuckets = buckets.get(chunk.getWorld().getUID());
+        if(worldBuckets == null) return;
+        ChunkBucket bucket = worldBuckets.get(LocationUtil.getChunkKey(chunk));
+        if(bucket == null) return;
 
-        if(hasChanged || registeredLocations == null) {
-            registeredLocations = thinkingMechanics.toArray(new Location[thinkingMechanics.size()]);
+        unloadBucket(bucket);
+    }
+
+    private void unloadBucket(ChunkBucket bucket) {
+
+        // Mechanics can cancel the unregister to stay loaded, so each trigger still gets its own event.
+        for(int i = 0, size = bucket.triggers.size(); i < size; i++) {
+            Trigger trigger = bucket.triggers.get(i);
+            if(!trigger.removed)
+                unregisterSelfTrigger(trigger, UnregisterReason.UNLOAD);
         }
+    }
+
+    private void removeTrigger(Trigger trigger) {
+
+        if(trigger.removed) return;
+        trigger.removed = true;
+        triggerCount--;
 
-        for (Location location : registeredLocations) {
-            if(location.getChunk().equals(chunk))
-                unregisterSelfTrigger(location, UnregisterReason.UNLOAD);
+        ChunkBucket bucket = trigger.bucket;
+        bucket.remove(trigger);
+        if(bucket.isEmpty()) {
+            bucket.removed = true;
+            scheduleDirty = true;
+            LongHashMap<ChunkBucket> worldBuckets = buckets.get(bucket.world.getUID());
+            if(worldBuckets != null) {
+                worldBuckets.remove(bucket.chunkKey);
+                if(worldBuckets.isEmpty())
+                    buckets.remove(bucket.world.getUID());
+            }
         }
     }
 
+    private Trigger getTrigger(World world, int x, int y, int z) {
+
+        LongHashMap<ChunkBucket> worldBuckets = buckets.get(world.getUID());
+        if(worldBuckets == null) return null;
+        ChunkBucket bucket = worldBuckets.get(LocationUtil.getChunkKeyAt(x, z));
+        if(bucket == null) return null;
+        return bucket.get(LocationUtil.getBlockKey(x, y, z));
+    }
+
+    public boolean isSelfTriggering(Location location) {
+
+        return getTrigger(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ()) != null;
+    }
+
     public Collection<Location> getSelfTriggeringMechanics() {
 
-        return new ArrayList<>(thinkingMechanics);
+        List<Location> locations = new ArrayList<>(triggerCount);
+        for(ChunkBucket bucket : schedule) {
+            if(bucket.removed) continue;
+            for(Trigger trigger : bucket.triggers)
+                if(!trigger.removed)
+                    locations.add(trigger.block.getLocation());
+        }
+        return locations;
     }
 
-    private Location[] registeredLocations;
-    private boolean hasChanged = false;
+    /**
+     * Gets the amount of registered self-triggering mechanics.
+     *
+     * @return The amount of mechanics
+     */
+    public int getSelfTriggerCount() {
+
+        return triggerCount;
+    }
 
     /**
-     * Causes all thinking mechanics to think.
+     * Gets the amount of mechanics that thought during the last clock run.
+     *
+     * @return The amount of mechanics
      */
-    public void think() {
+    public int getLastThinkCount() {
+
+        return lastThinkCount;
+    }
+
+    /**
+     * Gets the amount of clock runs that ran out of think budget, deferring mechanics to the next run.
+     *
+     * @return The amount of overruns
+     */
+    public long getBudgetOverruns() {
+
+        return budgetOverruns;
+    }
+
+    /**
+     * Gets the amount of signs that weren't pinged during discovery, as they hadn't changed since they last failed to
+     * register a mechanic.
+     *
+     * @return The amount of signs
+     */
+    public long getSkippedPings() {
 
-        if(thinkingMechanics.isEmpty()) return; //Skip the checks this round. Save a little CPU with the array creation.
+        return skippedPings;
+    }
+
+    private void compactSchedule() {
 
-        if(hasChanged || registeredLocations == null) {
-            registeredLocations = thinkingMechanics.toArray(new Location[thinkingMechanics.size()]);
+        int newCursor = 0;
+        int j = 0;
+        for(int i = 0; i < schedule.size(); i++) {
+            ChunkBucket bucket = schedule.get(i);
+            if(bucket.removed) continue;
+            if(i < cursor) newCursor++;
+            schedule.set(j++, bucket);
         }
+        schedule.subList(j, schedule.size()).clear();
+        cursor = j == 0 ? 0 : newCursor % j;
+        scheduleDirty = false;
+    }
 
-        for (Location location : registeredLocations) {
-            if(!location.getWorld().isChunkLoaded(location.getBlockX() >> 4, location.getBlockZ() >> 4)) {
-                unregisterSelfTrigger(location, UnregisterReason.UNLOAD);
+    /**
+     * Causes all thinking mechanics that are due to think.
+     */
+    public void think() {
+
+        currentTick++;
+        lastThinkCount = 0;
+
+        pruneInertSigns();
+
+        if(triggerCount == 0) return; //Skip the checks this round.
+
+        if(scheduleDirty)
+            compactSchedule();
+
+        long deadline = thinkBudget > 0 ? System.nanoTime() + thinkBudget : 0;
+        boolean externalListeners = hasExternalThinkListeners();
+
+        // Buckets registered during this run are picked up next run.
+        int bucketCount = schedule.size();
+        for(int visited = 0; visited < bucketCount; visited++) {
+            int index = (cursor + visited) % bucketCount;
+            ChunkBucket bucket = schedule.get(index);
+            if(bucket.removed) continue;
+
+            if(!bucket.world.isChunkLoaded(bucket.chunkX, bucket.chunkZ)) {
+                unloadBucket(bucket);
                 continue;
             }
-            try {
-                SelfTriggerThinkEvent event = new SelfTriggerThinkEvent(location.getBlock());
-                Bukkit.getServer().getPluginManager().callEvent(event);
-                if(!event.isHandled()) {
-                    unregisterSelfTrigger(location, UnregisterReason.NOT_HANDLED);
+
+            // Start where the last run ran out of time in this bucket, so the triggers at its tail get their turn.
+            int size = bucket.triggers.size();
+            int start = bucket.resume < size ? bucket.resume : 0;
+            for(int n = 0; n < size; n++) {
+                int i = (start + n) % size;
+                Trigger trigger = bucket.triggers.get(i);
+                if(trigger.removed || trigger.nextTick > currentTick) continue;
+                trigger.nextTick = trigger.interval == WAKE_ONLY ? Long.MAX_VALUE : currentTick + trigger.interval;
+                think(trigger, externalListeners);
+                lastThinkCount++;
+
+                if(deadline != 0 && System.nanoTime() - deadline > 0) {
+                    // Out of time, the rest are still due and will think first next run.
+                    budgetOverruns++;
+                    cursor = index;
+                    bucket.resume = i + 1;
+                    bucket.compact();
+                    return;
                 }
-            } catch (Throwable t) { // Mechanic failed to think for some reason
-                CraftBookPlugin.logger().log(Level.WARNING, "CraftBook mechanic: Failed to think for " + location.toString());
-                CraftBookBukkitUtil.printStacktrace(t);
-                unregisterSelfTrigger(location, UnregisterReason.ERROR);
             }
+
+            bucket.resume = 0;
+            bucket.compact();
+        }
+    }
+
+    /**
+     * Checks if a plugin other than CraftBook is listening for {@link SelfTriggerThinkEvent}s.
+     *
+     * @return If there is an external listener
+     */
+    private static boolean hasExternalThinkListeners() {
+
+        for(RegisteredListener listener : SelfTriggerThinkEvent.getHandlerList().getRegisteredListeners()) {
+            if(listener.getPlugin() != CraftBookPlugin.inst())
+                return true;
+        }
+        return false;
+    }
+
+    private void think(Trigger trigger, boolean externalListeners) {
+
+        try {
+            if(trigger.handler != null) {
+                if(!trigger.handler.think(trigger.block)) {
+                    unregisterSelfTrigger(trigger, UnregisterReason.NOT_HANDLED);
+                    return;
+                }
+                if(externalListeners) {
+                    // Already handled, so CraftBook's own listeners skip it.
+                    SelfTriggerThinkEvent event = new SelfTriggerThinkEvent(trigger.block);
+                    event.setHandled(true);
+                    Bukkit.getServer().getPluginManager().callEvent(event);
+                }
+                return;
+            }
+
+            SelfTriggerThinkEvent event = new SelfTriggerThinkEvent(trigger.block);
+            Bukkit.getServer().getPluginManager().callEvent(event);
+            if(!event.isHandled()) {
+                unregisterSelfTrigger(trigger, UnregisterReason.NOT_HANDLED);
+            }
+        } catch (Throwable t) { // Mechanic failed to think for some reason
+            CraftBookPlugin.logger().log(Level.WARNING, "CraftBook mechanic: Failed to think for " + trigger.block.getLocation().toString());
+            CraftBookBukkitUtil.printStacktrace(t);
+            unregisterSelfTrigger(trigger, UnregisterReason.ERROR);
         }
     }
 
@@ -126,7 +530,7 @@ public class SelfTriggeringManager implements Listener {
         if (!EventUtil.passesFilter(event))
             return;
 
-        CraftBookPlugin.server().getScheduler().runTaskLater(CraftBookPlugin.inst(), () -> registerSelfTrigger(event.getChunk()), 2);
+        discovery.queue(event.getChunk(), 2);
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -136,5 +540,123 @@ public class SelfTriggeringManager implements Listener {
             return;
 
         unregisterSelfTrigger(event.getChunk());
+
+        LongHashMap<InertChunk> worldInert = inertSigns.get(event.getWorld().getUID());
+        if(worldInert != null) {
+            InertChunk inert = worldInert.get(LocationUtil.getChunkKey(event.getChunk()));
+            if(inert != null)
+                inert.unloadedAt = System.currentTimeMillis();
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent event) {
+
+        LongHashMap<InertChunk> worldInert = inertSigns.remove(event.getWorld().getUID());
+        if(worldInert != null)
+            for(InertChunk inert : worldInert.values())
+                inertCount -= inert.signs.size();
+    }
+
+    private static final class ChunkBucket {
+
+        private final World world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final long chunkKey;
+
+        private final LongHashMap<Trigger> byPosition = new LongHashMap<>();
+        private final List<Trigger> triggers = new ArrayList<>();
+        private boolean dirty;
+        private boolean removed;
+
+        /**
+         * The index of the trigger to start at on the next run, after a run ran out of time in this bucket.
+         */
+        private int resume;
+
+        ChunkBucket(World world, int chunkX, int chunkZ, long chunkKey) {
+
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.chunkKey = chunkKey;
+        }
+
+        Trigger get(long blockKey) {
+
+            return byPosition.get(blockKey);
+        }
+
+        void add(Trigger trigger) {
+
+            byPosition.put(trigger.blockKey, trigger);
+            triggers.add(trigger);
+        }
+
+        void remove(Trigger trigger) {
+
+            byPosition.remove(trigger.blockKey);
+            // Removal from the list is deferred, as it may be mid-iteration.
+            dirty = true;
+        }
+
+        boolean isEmpty() {
+
+            return byPosition.isEmpty();
+        }
+
+        void compact() {
+
+            if(!dirty) return;
+            // Keep the resume index on the same trigger.
+            int removedBefore = 0;
+            for(int i = 0; i < resume && i < triggers.size(); i++)
+                if(triggers.get(i).removed)
+                    removedBefore++;
+            resume -= removedBefore;
+            triggers.removeIf(trigger -> trigger.removed);
+            dirty = false;
+        }
+    }
+
+    private static final class InertChunk {
+
+        private final LongHashMap<String[]> signs;
+
+        /**
+         * When the signs were pinged.
+         */
+        private final long pingedAt;
+
+        /**
+         * When the chunk was unloaded, or 0 while it is loaded.
+         */
+        private long unloadedAt;
+
+        InertChunk(LongHashMap<String[]> signs, long pingedAt) {
+
+            this.signs = signs;
+            this.pingedAt = pingedAt;
+        }
+    }
+
+    private static final class Trigger {
+
+        private final ChunkBucket bucket;
+        private final Block block;
+        private final long blockKey;
+        private int interval;
+        private SelfTriggerHandler handler;
+        private long nextTick;
+        private boolean removed;
+
+        Trigger(ChunkBucket bucket, Block block, long blockKey, int interval) {
+
+            this.bucket = bucket;
+            this.block = block;
+            this.blockKey = blockKey;
+            this.interval = interval;
+        }
     }
-}
\ No newline at end of file
+}
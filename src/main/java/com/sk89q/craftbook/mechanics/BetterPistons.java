@@ -55,6 +55,7 @@ public class BetterPistons extends AbstractCraftBookMechanic {
     @Override
     public boolean enable() {
         instance = this;
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Material.PISTON, Material.STICKY_PISTON);
         return true;
     }
 
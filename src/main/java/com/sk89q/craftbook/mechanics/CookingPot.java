@@ -30,6 +30,13 @@ import java.util.List;
 
 public class CookingPot extends AbstractCraftBookMechanic {
 
+    @Override
+    public boolean enable() {
+
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Tag.SIGNS);
+        return true;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onSignChange(SignChangeEvent event) {
 
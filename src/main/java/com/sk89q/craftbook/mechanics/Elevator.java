@@ -77,6 +77,10 @@ public class Elevator extends AbstractCraftBookMechanic {
             playerVehicles = new HashMap<>();
         }
 
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Tag.SIGNS);
+        if(elevatorButtonEnabled)
+            CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Tag.BUTTONS);
+
         return true;
     }
 
@@ -17,6 +17,7 @@
 package com.sk89q.craftbook.mechanics;
 
 import com.sk89q.craftbook.AbstractCraftBookMechanic;
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.util.BlockSyntax;
 import com.sk89q.craftbook.util.EventUtil;
 import com.sk89q.craftbook.util.events.SourcedBlockRedstoneEvent;
@@ -36,6 +37,13 @@ import org.bukkit.event.block.BlockBreakEvent;
  */
 public class GlowStone extends AbstractCraftBookMechanic {
 
+    @Override
+    public boolean enable() {
+
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, BukkitAdapter.adapt(offBlock.getBlockType()), Material.GLOWSTONE);
+        return true;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockRedstoneChange(SourcedBlockRedstoneEvent event) {
 
@@ -5,11 +5,19 @@ import org.bukkit.block.Jukebox;
 import org.bukkit.event.EventHandler;
 
 import com.sk89q.craftbook.AbstractCraftBookMechanic;
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.util.events.SourcedBlockRedstoneEvent;
 import com.sk89q.util.yaml.YAMLProcessor;
 
 public class RedstoneJukebox extends AbstractCraftBookMechanic {
 
+    @Override
+    public boolean enable() {
+
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Material.JUKEBOX);
+        return true;
+    }
+
     @EventHandler
     public void onRedstonePower(SourcedBlockRedstoneEvent event) {
 
@@ -23,6 +23,15 @@ public class Sponge extends AbstractCraftBookMechanic {
         return block.getType() == Material.SPONGE || (includeWet && block.getType() == Material.WET_SPONGE);
     }
 
+    @Override
+    public boolean enable() {
+
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Material.SPONGE);
+        if(includeWet)
+            CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Material.WET_SPONGE);
+        return true;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockFromTo(BlockFromToEvent event) {
 
@@ -21,6 +21,7 @@ import com.sk89q.worldedit.extent.clipboard.BlockArrayClipboard;
 import org.apache.commons.lang.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.Tag;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.Action;
@@ -44,6 +45,7 @@ public class Area extends AbstractCraftBookMechanic {
     public boolean enable() {
 
         instance = this;
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Tag.SIGNS);
         return true;
     }
 
@@ -41,6 +41,7 @@ import com.sk89q.worldedit.world.block.BlockType;
 import com.sk89q.worldedit.world.block.BlockTypes;
 import org.bukkit.GameMode;
 import org.bukkit.Material;
+import org.bukkit.Tag;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.BlockData;
 import org.bukkit.event.EventHandler;
@@ -135,7 +136,7 @@ public class Gate extends AbstractCraftBookMechanic {
 
         if (!isValidGateBlock(sign, smallSearchSize, BukkitAdapter.adapt(block.getBlockData()), true)) return false;
 
-        CraftBookPlugin.logDebugMessage("Found a possible gate column at " + block.getX() + ':' + block.getY() + ':' + block.getZ(), "gates.search");
+        CraftBookPlugin.logDebugMessage(() -> "Found a possible gate column at " + block.getX() + ':' + block.getY() + ':' + block.getZ(), "gates.search");
 
         int x = block.getX();
         int z = block.getZ();
@@ -154,7 +155,7 @@ public class Gate extends AbstractCraftBookMechanic {
             close = !isValidGateBlock(sign, smallSearchSize, BukkitAdapter.adapt(block.getWorld().getBlockAt(x, column.getStartingY() - 1, z).getBlockData()), true);
 
         CraftBookPlugin.logDebugMessage("Valid column at " + block.getX() + ':' + block.getY() + ':' + block.getZ() + " is being " + (close ? "closed" : "opened"), "gates.search");
-        CraftBookPlugin.logDebugMessage("Column Top: " + column.getStartingY() + " End: " + column.getEndingY(), "gates.search");
+        CraftBookPlugin.logDebugMessage(() -> "Column Top: " + column.getStartingY() + " End: " + column.getEndingY(), "gates.search");
         // Recursively go to connected fence blocks of the same level
         // and 'close' or 'open' them
         return toggleColumn(player, sign, block, column, close, visitedColumns, smallSearchSize);
@@ -180,7 +181,7 @@ public class Gate extends AbstractCraftBookMechanic {
         else
             item = Material.AIR.createBlockData();
 
-        CraftBookPlugin.logDebugMessage("Setting column at " + block.getX() + ':' + block.getY() + ':' + block.getZ() + " to " + item.toString(), "gates.search");
+        CraftBookPlugin.logDebugMessage(() -> "Setting column at " + block.getX() + ':' + block.getY() + ':' + block.getZ() + " to " + item.toString(), "gates.search");
 
         if(sign == null) {
             CraftBookPlugin.logDebugMessage("Invalid Sign!", "gates.search");
@@ -224,7 +225,7 @@ public class Gate extends AbstractCraftBookMechanic {
             } else
                 blo.setBlockData(item, true);
 
-            CraftBookPlugin.logDebugMessage("Set block " + bl.getX() + ':' + bl.getY() + ':' + bl.getZ() + " to " + item.toString(), "gates.search");
+            CraftBookPlugin.logDebugMessage(() -> "Set block " + bl.getX() + ':' + bl.getY() + ':' + bl.getZ() + " to " + item.toString(), "gates.search");
 
             recurseColumn(player, sign, blo.getRelative(1, 0, 0), visitedColumns, close, smallSearchSize);
             recurseColumn(player, sign, blo.getRelative(-1, 0, 0), visitedColumns, close, smallSearchSize);
@@ -249,6 +250,13 @@ public class Gate extends AbstractCraftBookMechanic {
      *
      * @param event SignClickEvent
      */
+    @Override
+    public boolean enable() {
+
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Tag.SIGNS);
+        return true;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onRightClick(SignClickEvent event) {
         if (!EventUtil.passesFilter(event))
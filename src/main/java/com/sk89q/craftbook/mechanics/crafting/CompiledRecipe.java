@@ -0,0 +1,113 @@
+package com.sk89q.craftbook.mechanics.crafting;
+
+import com.google.common.base.MoreObjects;
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
+import com.sk89q.craftbook.mechanics.crafting.RecipeManager.RecipeType;
+import com.sk89q.craftbook.util.ItemUtil;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+
+/**
+ * A registered recipe with advanced data, with its ingredients laid out in the order they are compared against a
+ * crafting matrix. This is worked out once when the recipe is added, instead of on every craft.
+ */
+public class CompiledRecipe {
+
+    /**
+     * The result of comparing a crafting matrix against a recipe.
+     */
+    public enum MatchResult {
+
+        /**
+         * Every item in the matrix is an ingredient of the recipe.
+         */
+        MATCHED,
+        /**
+         * An item in the matrix is the right type for an ingredient, but has the wrong metadata.
+         */
+        WRONG_META,
+        /**
+         * The matrix has items that aren't ingredients of the recipe.
+         */
+        INCOMPLETE
+    }
+
+    private final Recipe bukkitRecipe;
+    private final RecipeManager.Recipe recipe;
+    private final CraftingItemStack[] ingredients;
+
+    public CompiledRecipe(Recipe bukkitRecipe, RecipeManager.Recipe recipe) {
+
+        this.bukkitRecipe = bukkitRecipe;
+        this.recipe = recipe;
+
+        if (recipe.getType() == RecipeType.SHAPED) {
+            List<CraftingItemStack> stacks = new ArrayList<>();
+            for (String s : recipe.getShape())
+                for (char c : s.toCharArray())
+                    for (Entry<CraftingItemStack, Character> entry : recipe.getShapedIngredients().entrySet())
+                        if (entry.getValue() == c)
+                            stacks.add(entry.getKey());
+            ingredients = stacks.toArray(new CraftingItemStack[0]);
+        } else
+            ingredients = recipe.getIngredients().toArray(new CraftingItemStack[0]);
+    }
+
+    public Recipe getBukkitRecipe() {
+
+        return bukkitRecipe;
+    }
+
+    public RecipeManager.Recipe getRecipe() {
+
+        return recipe;
+    }
+
+    public CraftingItemStack[] getIngredients() {
+
+        return ingredients;
+    }
+
+    /**
+     * Compares the contents of a crafting matrix against this recipe's ingredients.
+     *
+     * @param matrix The crafting matrix
+     * @return The result of the comparison
+     */
+    public MatchResult match(ItemStack[] matrix) {
+
+        List<ItemStack> leftovers = new ArrayList<>(Arrays.asList(matrix));
+        leftovers.removeAll(Collections.singleton(null));
+
+        for (ItemStack it : matrix) {
+
+            if (!ItemUtil.isStackValid(it)) {
+                if (it != null) {
+                    CraftBookPlugin.logDebugMessage(() -> "Invalid item in recipe: " + MoreObjects.toStringHelper(it).toString(), "advanced-data");
+                }
+                continue;
+            }
+            for (CraftingItemStack cit : ingredients) {
+
+                if (ItemUtil.areBaseItemsIdentical(cit.getItemStack(), it)) {
+                    CraftBookPlugin.logDebugMessage("Recipe base item is correct!", "advanced-data");
+                    if (ItemUtil.areItemsIdentical(cit.getItemStack(), it)) {
+                        leftovers.remove(it);
+                        CraftBookPlugin.logDebugMessage("MetaData is correct!", "advanced-data");
+                    } else {
+                        CraftBookPlugin.logDebugMessage("MetaData is incorrect!", "advanced-data");
+                        return MatchResult.WRONG_META;
+                    }
+                }
+            }
+        }
+
+        return leftovers.isEmpty() ? MatchResult.MATCHED : MatchResult.INCOMPLETE;
+    }
+}
@@ -1,11 +1,10 @@
 package com.sk89q.craftbook.mechanics.crafting;
 
-import com.google.common.base.*;
 import com.sk89q.craftbook.AbstractCraftBookMechanic;
 import com.sk89q.craftbook.CraftBookPlayer;
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
-import com.sk89q.craftbook.mechanics.crafting.RecipeManager.RecipeType;
+import com.sk89q.craftbook.mechanics.crafting.CompiledRecipe.MatchResult;
 import com.sk89q.craftbook.util.EventUtil;
 import com.sk89q.craftbook.util.ItemUtil;
 import com.sk89q.craftbook.util.ParsingUtil;
@@ -37,7 +36,7 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
 
     public static final Set<String> registeredNames = new HashSet<>();
 
-    private static final Map<Recipe, RecipeManager.Recipe> advancedRecipes = new HashMap<>();
+    private static final RecipeIndex advancedRecipes = new RecipeIndex();
 
     @Override
     public boolean enable() {
@@ -106,7 +105,7 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
             CraftBookPlugin.inst().getServer().addRecipe(sh);
             registeredNames.add(r.getId());
             if(r.hasAdvancedData()) {
-                advancedRecipes.put(sh, r);
+                advancedRecipes.add(sh, r);
                 CraftBookPlugin.logDebugMessage("Adding a new recipe with advanced data!", "advanced-data.init");
             }
 
@@ -137,77 +136,38 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
         CraftBookPlugin.logDebugMessage("Pre-Crafting has been initiated!", "advanced-data");
         try {
             boolean hasFailed = false;
-            for(Entry<Recipe, RecipeManager.Recipe> recipeRecipeEntry : advancedRecipes.entrySet()) {
+            ItemStack[] matrix = null;
+            for(CompiledRecipe compiled : advancedRecipes.getCandidates(event.getRecipe())) {
 
-                if(ItemUtil.areRecipesIdentical(recipeRecipeEntry.getKey(), event.getRecipe())) {
+                if(matrix == null)
+                    matrix = ((CraftingInventory)event.getView().getTopInventory()).getMatrix();
 
-                    thisrecipe: {
-                    RecipeManager.Recipe recipe = recipeRecipeEntry.getValue();
-
-                    ItemStack[] tests = ((CraftingInventory)event.getView().getTopInventory()).getMatrix();
-                    CraftingItemStack[] tests2;
-                    if(recipe.getType() == RecipeType.SHAPED) {
-                        List<CraftingItemStack> stacks = new ArrayList<>();
-
-                        for(String s : recipe.getShape())
-                            for(char c : s.toCharArray())
-                                for(Entry<CraftingItemStack, Character> entry : recipe.getShapedIngredients().entrySet())
-                                    if(entry.getValue() == c)
-                                        stacks.add(entry.getKey());
-                        tests2 = stacks.toArray(new CraftingItemStack[0]);
-                    } else
-                        tests2 = recipe.getIngredients().toArray(new CraftingItemStack[0]);
-
-                    ArrayList<ItemStack> leftovers = new ArrayList<>(Arrays.asList(tests));
-                    leftovers.removeAll(Collections.singleton(null));
-
-                    for(ItemStack it : tests) {
-
-                        if(!ItemUtil.isStackValid(it)) {
-                            if (it != null) {
-                                CraftBookPlugin.logDebugMessage("Invalid item in recipe: " +
-                                                MoreObjects.toStringHelper(it).toString(), "advanced-data");
-                            }
-                            continue;
-                        }
-                        for(CraftingItemStack cit : tests2) {
-
-                            if(ItemUtil.areBaseItemsIdentical(cit.getItemStack(), it)) {
-                                CraftBookPlugin.logDebugMessage("Recipe base item is correct!", "advanced-data");
-                                if(ItemUtil.areItemsIdentical(cit.getItemStack(), it)) {
-                                    leftovers.remove(it);
-                                    CraftBookPlugin.logDebugMessage("MetaData is correct!", "advanced-data");
-                                } else {
-                                    CraftBookPlugin.logDebugMessage("MetaData is incorrect!", "advanced-data");
-                                    hasFailed = true;
-                                    break thisrecipe;
-                                }
-                            }
-                        }
-                    }
-
-                    if(!leftovers.isEmpty())
-                        continue;
-
-                    hasFailed = false;
-
-                    if(p != null && recipe.hasAdvancedData("permission-node")) {
-                        CraftBookPlugin.logDebugMessage("A recipe with permission nodes detected!", "advanced-data");
-                        if(!p.hasPermission((String) recipe.getAdvancedData("permission-node"))) {
-                            if(recipe.hasAdvancedData("permission-error"))
-                                lp.printError((String) recipe.getAdvancedData("permission-error"));
-                            else
-                                lp.printError("mech.custom-crafting.recipe-permission");
-                            ((CraftingInventory)event.getView().getTopInventory()).setResult(null);
-                            return;
-                        }
-                    }
-
-                    CraftBookPlugin.logDebugMessage("A recipe with custom data is being crafted!", "advanced-data");
-                    bits = applyAdvancedEffects(event.getRecipe().getResult(), recipeRecipeEntry.getKey(), p);
-                    break;
+                MatchResult result = advancedRecipes.match(compiled, matrix);
+                if(result == MatchResult.WRONG_META) {
+                    hasFailed = true;
+                    continue;
                 }
+                if(result == MatchResult.INCOMPLETE)
+                    continue;
+
+                hasFailed = false;
+
+                RecipeManager.Recipe recipe = compiled.getRecipe();
+                if(p != null && recipe.hasAdvancedData("permission-node")) {
+                    CraftBookPlugin.logDebugMessage("A recipe with permission nodes detected!", "advanced-data");
+                    if(!p.hasPermission((String) recipe.getAdvancedData("permission-node"))) {
+                        if(recipe.hasAdvancedData("permission-error"))
+                            lp.printError((String) recipe.getAdvancedData("permission-error"));
+                        else
+                            lp.printError("mech.custom-crafting.recipe-permission");
+                        ((CraftingInventory)event.getView().getTopInventory()).setResult(null);
+                        return;
+                    }
                 }
+
+                CraftBookPlugin.logDebugMessage("A recipe with custom data is being crafted!", "advanced-data");
+                bits = applyAdvancedEffects(event.getRecipe().getResult(), compiled.getBukkitRecipe(), p);
+                break;
             }
             if(hasFailed)
                 throw new InvalidCraftingException("Unmet Item Meta");
@@ -235,12 +195,11 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
 
         boolean shouldCancel = false;
 
-        for(Entry<Recipe, RecipeManager.Recipe> recipeRecipeEntry : advancedRecipes.entrySet()) {
-            if(!(recipeRecipeEntry.getKey() instanceof FurnaceRecipe)) continue;
-            FurnaceRecipe frec = (FurnaceRecipe) recipeRecipeEntry.getKey();
+        for(CompiledRecipe compiled : advancedRecipes.getFurnaceRecipes()) {
+            FurnaceRecipe frec = (FurnaceRecipe) compiled.getBukkitRecipe();
             if(ItemUtil.areBaseItemsIdentical(frec.getInput(), event.getCurrentItem())) {
 
-                RecipeManager.Recipe recipe = recipeRecipeEntry.getValue();
+                RecipeManager.Recipe recipe = compiled.getRecipe();
                 if(ItemUtil.areItemsIdentical(event.getCurrentItem(), recipe.getIngredients().get(0).getItemStack())) {
                     shouldCancel = false;
                     break;
@@ -260,12 +219,11 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
 
         ItemStack bits = null;
         CraftBookPlugin.logDebugMessage("Smelting has been initiated!", "advanced-data");
-        for(Entry<Recipe, RecipeManager.Recipe> recipeRecipeEntry : advancedRecipes.entrySet()) {
-            if(!(recipeRecipeEntry.getKey() instanceof FurnaceRecipe)) continue;
+        for(CompiledRecipe compiled : advancedRecipes.getFurnaceRecipes()) {
             try {
-                if(checkFurnaceRecipes((FurnaceRecipe) recipeRecipeEntry.getKey(), event.getSource(), event.getResult())) {
+                if(checkFurnaceRecipes((FurnaceRecipe) compiled.getBukkitRecipe(), event.getSource(), event.getResult())) {
 
-                    RecipeManager.Recipe recipe = recipeRecipeEntry.getValue();
+                    RecipeManager.Recipe recipe = compiled.getRecipe();
 
                     ArrayList<ItemStack> leftovers = new ArrayList<>();
                     leftovers.add(event.getSource());
@@ -291,7 +249,7 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
                         continue;
 
                     CraftBookPlugin.logDebugMessage("A recipe with custom data is being smelted!", "advanced-data");
-                    bits = applyAdvancedEffects(event.getResult(), recipeRecipeEntry.getKey(), null);
+                    bits = applyAdvancedEffects(event.getResult(), compiled.getBukkitRecipe(), null);
                     break;
                 }
             } catch(InvalidCraftingException e){
@@ -313,15 +271,11 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
 
         CraftBookPlugin.logDebugMessage("Crafting has been initiated!", "advanced-data");
         Player p = (Player) event.getWhoClicked();
-        for(Entry<Recipe, RecipeManager.Recipe> recipeRecipeEntry : advancedRecipes.entrySet()) {
-
-            if(ItemUtil.areRecipesIdentical(recipeRecipeEntry.getKey(), event.getRecipe())) {
-                CraftBookPlugin.logDebugMessage("A recipe with custom data is being crafted!", "advanced-data");
-                RecipeManager.Recipe recipe = recipeRecipeEntry.getValue();
-                applyPostData(recipe, p, event);
-                event.setCurrentItem(applyAdvancedEffects(event.getCurrentItem(), event.getRecipe(), (Player) event.getWhoClicked()));
-                break;
-            }
+        List<CompiledRecipe> candidates = advancedRecipes.getCandidates(event.getRecipe());
+        if(!candidates.isEmpty()) {
+            CraftBookPlugin.logDebugMessage("A recipe with custom data is being crafted!", "advanced-data");
+            applyPostData(candidates.get(0).getRecipe(), p, event);
+            event.setCurrentItem(applyAdvancedEffects(event.getCurrentItem(), event.getRecipe(), (Player) event.getWhoClicked()));
         }
     }
 
@@ -374,20 +328,21 @@ public class CustomCrafting extends AbstractCraftBookMechanic {
     }
 
     public static ItemStack craftItem(Recipe recipe) {
-        for(Recipe rec : advancedRecipes.keySet()) {
-            if(ItemUtil.areRecipesIdentical(rec, recipe))
-                return applyAdvancedEffects(recipe.getResult(),rec, null);
-        }
+        List<CompiledRecipe> candidates = advancedRecipes.getCandidates(recipe);
+        if(!candidates.isEmpty())
+            return applyAdvancedEffects(recipe.getResult(), candidates.get(0).getBukkitRecipe(), null);
 
         return recipe.getResult();
     }
 
     private static ItemStack applyAdvancedEffects(ItemStack stack, Recipe rep, Player player) {
-        RecipeManager.Recipe recipe = advancedRecipes.get(rep);
+        CompiledRecipe compiled = advancedRecipes.get(rep);
 
-        if(recipe == null)
+        if(compiled == null)
             return stack;
 
+        RecipeManager.Recipe recipe = compiled.getRecipe();
+
         ItemStack res = stack.clone();
         if(recipe.getResult().hasAdvancedData("item-meta"))
             res.setItemMeta(recipe.getResult().getItemStack().getItemMeta());
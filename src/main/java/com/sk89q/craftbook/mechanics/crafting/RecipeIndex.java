@@ -0,0 +1,186 @@
+package com.sk89q.craftbook.mechanics.crafting;
+
+import com.sk89q.craftbook.mechanics.crafting.CompiledRecipe.MatchResult;
+import com.sk89q.craftbook.util.ItemUtil;
+import org.bukkit.Keyed;
+import org.bukkit.Material;
+import org.bukkit.NamespacedKey;
+import org.bukkit.inventory.FurnaceRecipe;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the recipes with advanced data that a crafted recipe could be, without comparing it against every recipe.
+ *
+ * <p>
+ *     Recipes are indexed by their key, and by the type of their result. Recipes registered by CraftBook are found by
+ *     key directly, and any other recipe only needs to be compared against the recipes with the same result type, as
+ *     recipes with different results are never identical.
+ * </p>
+ *
+ * <p>
+ *     The result of comparing a crafting matrix against a recipe is cached for the most recent matrices, as the
+ *     prepare event fires again on every click in the crafting grid, usually with a matrix that was just checked.
+ * </p>
+ */
+public class RecipeIndex {
+
+    private static final int MATRIX_CACHE_SIZE = 256;
+
+    private final Map<Recipe, CompiledRecipe> byRecipe = new HashMap<>();
+    private final Map<NamespacedKey, CompiledRecipe> byKey = new HashMap<>();
+    private final Map<Material, List<CompiledRecipe>> byResult = new HashMap<>();
+    private final List<CompiledRecipe> furnaceRecipes = new ArrayList<>();
+
+    private final Map<MatrixKey, MatchResult> matrixCache = new LinkedHashMap<MatrixKey, MatchResult>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<MatrixKey, MatchResult> eldest) {
+            return size() > MATRIX_CACHE_SIZE;
+        }
+    };
+
+    public void add(Recipe bukkitRecipe, RecipeManager.Recipe recipe) {
+
+        CompiledRecipe compiled = new CompiledRecipe(bukkitRecipe, recipe);
+        byRecipe.put(bukkitRecipe, compiled);
+        if (bukkitRecipe instanceof Keyed)
+            byKey.put(((Keyed) bukkitRecipe).getKey(), compiled);
+        byResult.computeIfAbsent(getResultType(bukkitRecipe), k -> new ArrayList<>()).add(compiled);
+        if (bukkitRecipe instanceof FurnaceRecipe)
+            furnaceRecipes.add(compiled);
+        matrixCache.clear();
+    }
+
+    public void clear() {
+
+        byRecipe.clear();
+        byKey.clear();
+        byResult.clear();
+        furnaceRecipes.clear();
+        matrixCache.clear();
+    }
+
+    public boolean isEmpty() {
+
+        return byRecipe.isEmpty();
+    }
+
+    /**
+     * Gets the compiled form of a recipe that was added to this index.
+     *
+     * @param bukkitRecipe The added recipe
+     * @return The compiled recipe, or null if it wasn't added
+     */
+    public CompiledRecipe get(Recipe bukkitRecipe) {
+
+        return byRecipe.get(bukkitRecipe);
+    }
+
+    /**
+     * Gets all recipes that are identical to the given recipe, as decided by
+     * {@link ItemUtil#areRecipesIdentical(Recipe, Recipe)}. A recipe with the same key comes first.
+     *
+     * @param recipe The recipe
+     * @return The identical recipes
+     */
+    public List<CompiledRecipe> getCandidates(Recipe recipe) {
+
+        if (recipe == null)
+            return Collections.emptyList();
+
+        List<CompiledRecipe> sameResult = byResult.get(getResultType(recipe));
+        if (sameResult == null)
+            return Collections.emptyList();
+
+        CompiledRecipe keyed = recipe instanceof Keyed ? byKey.get(((Keyed) recipe).getKey()) : null;
+        List<CompiledRecipe> candidates = new ArrayList<>(1);
+        if (keyed != null)
+            candidates.add(keyed);
+        for (CompiledRecipe compiled : sameResult)
+            if (compiled != keyed && ItemUtil.areRecipesIdentical(compiled.getBukkitRecipe(), recipe))
+                candidates.add(compiled);
+        return candidates;
+    }
+
+    public List<CompiledRecipe> getFurnaceRecipes() {
+
+        return furnaceRecipes;
+    }
+
+    /**
+     * Compares a crafting matrix against a recipe, using the cached result if the same matrix was recently compared.
+     *
+     * @param recipe The recipe
+     * @param matrix The crafting matrix
+     * @return The result of the comparison
+     */
+    public MatchResult match(CompiledRecipe recipe, ItemStack[] matrix) {
+
+        MatrixKey probe = new MatrixKey(recipe, matrix);
+        MatchResult result = matrixCache.get(probe);
+        if (result == null) {
+            result = recipe.match(matrix);
+            matrixCache.put(probe.snapshot(), result);
+        }
+        return result;
+    }
+
+    private static Material getResultType(Recipe recipe) {
+
+        ItemStack result = recipe.getResult();
+        return ItemUtil.isStackValid(result) ? result.getType() : null;
+    }
+
+    /**
+     * A crafting matrix compared against a recipe. Lookups use the live matrix, and only the stored keys copy it.
+     */
+    private static final class MatrixKey {
+
+        private final CompiledRecipe recipe;
+        private final ItemStack[] stacks;
+        private final int hash;
+
+        MatrixKey(CompiledRecipe recipe, ItemStack[] stacks) {
+
+            this(recipe, stacks, 31 * System.identityHashCode(recipe) + Arrays.hashCode(stacks));
+        }
+
+        private MatrixKey(CompiledRecipe recipe, ItemStack[] stacks, int hash) {
+
+            this.recipe = recipe;
+            this.stacks = stacks;
+            this.hash = hash;
+        }
+
+        MatrixKey snapshot() {
+
+            ItemStack[] copy = new ItemStack[stacks.length];
+            for (int i = 0; i < stacks.length; i++)
+                copy[i] = stacks[i] == null ? null : stacks[i].clone();
+            return new MatrixKey(recipe, copy, hash);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof MatrixKey))
+                return false;
+            MatrixKey other = (MatrixKey) o;
+            return recipe == other.recipe && hash == other.hash && Arrays.equals(stacks, other.stacks);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return hash;
+        }
+    }
+}
@@ -4,11 +4,19 @@ import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.mechanics.drops.rewards.DropReward;
 import com.sk89q.craftbook.util.ItemUtil;
 import com.sk89q.craftbook.util.TernaryState;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldguard.WorldGuard;
+import com.sk89q.worldguard.protection.managers.RegionManager;
+import com.sk89q.worldguard.protection.regions.ProtectedRegion;
+import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Biome;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 public abstract class CustomDropDefinition {
 
@@ -29,6 +37,15 @@ public abstract class CustomDropDefinition {
     private List<ItemStack> items;
     private List<Biome> biomes;
 
+    // Compiled requirements, so they can be checked without scanning the lists.
+    private Set<Biome> biomeSet;
+    private Set<Material> itemTypes;
+
+    // Statistics
+    private long evaluations;
+    private long evaluationTime;
+    private long hits;
+
     public CustomDropDefinition(String name, List<DropItemStack> drops, List<DropReward> extraRewards, TernaryState silkTouch) {
         this.drops = drops.toArray(new DropItemStack[drops.size()]);
         if(extraRewards != null)
@@ -70,6 +87,7 @@ public abstract class CustomDropDefinition {
 
     public void setBiomes(List<Biome> biomes) {
         this.biomes = biomes;
+        this.biomeSet = biomes == null || biomes.isEmpty() ? null : EnumSet.copyOf(biomes);
     }
 
     public List<ItemStack> getItems() {
@@ -81,6 +99,102 @@ public abstract class CustomDropDefinition {
         if (this.items.isEmpty()) {
             this.items = null;
         }
+        itemTypes = null;
+        if (this.items != null) {
+            itemTypes = EnumSet.noneOf(Material.class);
+            for (ItemStack item : this.items)
+                if (item != null)
+                    itemTypes.add(item.getType());
+        }
+    }
+
+    /**
+     * Checks if the given position is within one of the required regions, if there are any.
+     *
+     * @param world The world
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return If the region requirement passes
+     */
+    public boolean matchesRegions(World world, int x, int y, int z) {
+
+        if (regions == null)
+            return true;
+        RegionManager manager = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(world));
+        if (manager == null)
+            return false;
+        for (String region : regions) {
+            ProtectedRegion r = manager.getRegion(region);
+            if (r != null && r.contains(x, y, z))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given biome is one of the required biomes, if there are any.
+     *
+     * @param biome The biome
+     * @return If the biome requirement passes
+     */
+    public boolean matchesBiome(Biome biome) {
+
+        return biomeSet == null || biomeSet.contains(biome);
+    }
+
+    /**
+     * Checks if the given item is one of the required items, if there are any.
+     *
+     * @param item The held item
+     * @return If the item requirement passes
+     */
+    public boolean matchesItem(ItemStack item) {
+
+        if (items == null)
+            return true;
+        // Valid items can only be identical to items of the same type.
+        if (ItemUtil.isStackValid(item) && !itemTypes.contains(item.getType()))
+            return false;
+        for (ItemStack required : items)
+            if (ItemUtil.areItemsIdentical(item, required))
+                return true;
+        return false;
+    }
+
+    void recordEvaluation(long time, boolean hit) {
+
+        evaluations++;
+        evaluationTime += time;
+        if (hit)
+            hits++;
+    }
+
+    /**
+     * Gets the amount of times this definition has been checked against a broken block or killed entity of its type.
+     *
+     * @return The amount of evaluations
+     */
+    public long getEvaluationCount() {
+        return evaluations;
+    }
+
+    /**
+     * Gets the total time spent checking this definition's requirements.
+     *
+     * @return The time, in nanoseconds
+     */
+    public long getEvaluationTime() {
+        return evaluationTime;
+    }
+
+    /**
+     * Gets the amount of times this definition's requirements passed.
+     *
+     * @return The amount of hits
+     */
+    public long getHitCount() {
+        return hits;
     }
 
     public DropReward[] getRewards() {
@@ -0,0 +1,73 @@
+package com.sk89q.craftbook.mechanics.drops;
+
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import org.bukkit.Material;
+import org.bukkit.entity.EntityType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Custom drop definitions by the block or entity type they apply to, so a break or death only checks the definitions
+ * for its own type. Definitions keep the order they were added in.
+ */
+public class CustomDropIndex {
+
+    private final List<BlockCustomDropDefinition>[] blocks;
+    private final Map<EntityType, List<EntityCustomDropDefinition>> entities = new EnumMap<>(EntityType.class);
+
+    @SuppressWarnings("unchecked")
+    public CustomDropIndex() {
+
+        blocks = new List[Material.values().length];
+    }
+
+    public void add(CustomDropDefinition definition) {
+
+        if (definition instanceof BlockCustomDropDefinition) {
+            BlockCustomDropDefinition blockDefinition = (BlockCustomDropDefinition) definition;
+            if (blockDefinition.getBlockType() == null)
+                return;
+            int type = BukkitAdapter.adapt(blockDefinition.getBlockType().getBlockType()).ordinal();
+            if (blocks[type] == null)
+                blocks[type] = new ArrayList<>();
+            blocks[type].add(blockDefinition);
+        } else if (definition instanceof EntityCustomDropDefinition) {
+            EntityCustomDropDefinition entityDefinition = (EntityCustomDropDefinition) definition;
+            entities.computeIfAbsent(entityDefinition.getEntityType(), k -> new ArrayList<>()).add(entityDefinition);
+        }
+    }
+
+    public void clear() {
+
+        for (int i = 0; i < blocks.length; i++)
+            blocks[i] = null;
+        entities.clear();
+    }
+
+    /**
+     * Gets the definitions that may apply to a block of the given type. Their block state still needs to be checked.
+     *
+     * @param type The block type
+     * @return The definitions
+     */
+    public List<BlockCustomDropDefinition> getBlockDefinitions(Material type) {
+
+        List<BlockCustomDropDefinition> definitions = blocks[type.ordinal()];
+        return definitions == null ? Collections.emptyList() : definitions;
+    }
+
+    /**
+     * Gets the definitions that apply to an entity of the given type.
+     *
+     * @param type The entity type
+     * @return The definitions
+     */
+    public List<EntityCustomDropDefinition> getEntityDefinitions(EntityType type) {
+
+        return entities.getOrDefault(type, Collections.emptyList());
+    }
+}
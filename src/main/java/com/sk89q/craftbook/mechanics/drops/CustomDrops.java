@@ -15,11 +15,11 @@ import com.sk89q.util.yaml.YAMLFormat;
 import com.sk89q.util.yaml.YAMLProcessor;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
-import com.sk89q.worldguard.WorldGuard;
-import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.bukkit.GameMode;
+import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.block.Biome;
+import org.bukkit.block.Block;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.EntityType;
 import org.bukkit.entity.ExperienceOrb;
@@ -33,6 +33,8 @@ import org.bukkit.inventory.ItemStack;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -42,11 +44,13 @@ public class CustomDrops extends AbstractCraftBookMechanic {
     private YAMLProcessor config;
 
     private Set<CustomDropDefinition> definitions;
+    private CustomDropIndex index;
 
     @Override
     public boolean enable() {
 
         definitions = new LinkedHashSet<>();
+        index = new CustomDropIndex();
 
         CraftBookPlugin.inst().createDefaultConfiguration(new File(CraftBookPlugin.inst().getDataFolder(), "custom-drops.yml"), "custom-drops.yml");
         config = new YAMLProcessor(new File(CraftBookPlugin.inst().getDataFolder(), "custom-drops.yml"), false, YAMLFormat.EXTENDED);
@@ -59,6 +63,7 @@ public class CustomDrops extends AbstractCraftBookMechanic {
     public boolean load() {
 
         definitions.clear();
+        index.clear();
 
         try {
             config.load();
@@ -156,6 +161,7 @@ public class CustomDrops extends AbstractCraftBookMechanic {
                     def.setBiomes(biomes);
                 }
                 definitions.add(def);
+                index.add(def);
             }
         }
 
@@ -221,10 +227,21 @@ public class CustomDrops extends AbstractCraftBookMechanic {
 
     public void addDefinition(CustomDropDefinition definition) {
 
-        definitions.add(definition);
+        if (definitions.add(definition))
+            index.add(definition);
         save();
     }
 
+    /**
+     * Gets all loaded definitions, along with their statistics.
+     *
+     * @return The definitions
+     */
+    public Collection<CustomDropDefinition> getDefinitions() {
+
+        return Collections.unmodifiableCollection(definitions);
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockBreak(BlockBreakEvent event) {
 
@@ -236,83 +253,71 @@ public class CustomDrops extends AbstractCraftBookMechanic {
         if(!EventUtil.passesFilter(event))
             return;
 
-        for(CustomDropDefinition def : definitions) {
-            if(!(def instanceof BlockCustomDropDefinition)) continue; //Nope, we only want block drop definitions.
-
-            if(!((BlockCustomDropDefinition) def).getBlockType().equalsFuzzy(BukkitAdapter.adapt(event.getBlock().getBlockData()))) continue;
-
-            if (def.getPermissionNode() != null && !CraftBookPlugin.inst().wrapPlayer(event.getPlayer()).hasPermission(def.getPermissionNode())) {
-                return;
-            }
-
-            if (def.getRegions() != null) {
-                boolean found = false;
-                for (String region : def.getRegions()) {
-                    ProtectedRegion r = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(event.getBlock().getWorld())).getRegion(region);
-                    if (r != null && r.contains(event.getBlock().getX(), event.getBlock().getY(),
-                            event.getBlock().getZ())) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found)
-                    continue;
-            }
-
-            if (def.getBiomes() != null) {
-                boolean found = false;
-
-                for (Biome biome : def.getBiomes()) {
-                    if (event.getBlock().getBiome().equals(biome)) {
-                        found = true;
-                        break;
-                    }
-                }
-
-                if (!found) {
-                    continue;
-                }
-            }
-
-            if (def.getItems() != null) {
-                boolean found = false;
-
-                for (ItemStack item : def.getItems()) {
-                    if (ItemUtil.areItemsIdentical(event.getPlayer().getItemInHand(), item)) {
-                        found = true;
-                        break;
-                    }
-                }
+        Block block = event.getBlock();
+        List<BlockCustomDropDefinition> candidates = index.getBlockDefinitions(block.getType());
+        if (!candidates.isEmpty() && !dropForBlock(event, candidates, BukkitAdapter.adapt(block.getBlockData())))
+            return;
 
-                if (!found) {
-                    continue;
-                }
-            }
+        if (removeVanillaDrops) {
+            event.setCancelled(true);
+            block.setType(Material.AIR);
+        }
+    }
 
-            boolean isSilkTouch = event.getPlayer().getInventory().getItemInMainHand() != null && event.getPlayer().getInventory().getItemInMainHand().getEnchantmentLevel(Enchantment.SILK_TOUCH) > 0;
-            if(!def.getSilkTouch().doesPass(isSilkTouch))
+    /**
+     * Drops the items of the definitions that match a broken block, in order.
+     *
+     * @param event The break event
+     * @param candidates The definitions for the type of the block
+     * @param blockState The state of the block when it was broken
+     * @return False if the player isn't permitted to use a matching definition
+     */
+    boolean dropForBlock(BlockBreakEvent event, List<BlockCustomDropDefinition> candidates, BlockStateHolder blockState) {
+
+        Block block = event.getBlock();
+        ItemStack held = event.getPlayer().getInventory().getItemInMainHand();
+        boolean isSilkTouch = held != null && held.getEnchantmentLevel(Enchantment.SILK_TOUCH) > 0;
+        Biome biome = null;
+
+        for(BlockCustomDropDefinition def : candidates) {
+            long start = System.nanoTime();
+            if (biome == null && def.getBiomes() != null)
+                biome = block.getBiome();
+            boolean passes = def.getBlockType().equalsFuzzy(blockState)
+                    && def.matchesRegions(block.getWorld(), block.getX(), block.getY(), block.getZ())
+                    && def.matchesBiome(biome)
+                    && def.matchesItem(held)
+                    && def.getSilkTouch().doesPass(isSilkTouch);
+            // The permission is checked last, as it's the most expensive.
+            boolean permitted = !passes || def.getPermissionNode() == null
+                    || CraftBookPlugin.inst().wrapPlayer(event.getPlayer()).hasPermission(def.getPermissionNode());
+            def.recordEvaluation(System.nanoTime() - start, passes && permitted);
+
+            if (!permitted)
+                return false;
+            if (!passes)
                 continue;
 
             if(!def.getAppend()) {
                 event.setCancelled(true);
-                event.getBlock().setType(Material.AIR);
+                block.setType(Material.AIR);
                 if(event.getExpToDrop() > 0)
-                    ((ExperienceOrb) event.getBlock().getWorld().spawnEntity(BlockUtil.getBlockCentre(event.getBlock()), EntityType.EXPERIENCE_ORB)).setExperience(event.getExpToDrop());
+                    ((ExperienceOrb) block.getWorld().spawnEntity(BlockUtil.getBlockCentre(block), EntityType.EXPERIENCE_ORB)).setExperience(event.getExpToDrop());
             }
 
             for(ItemStack stack : def.getRandomDrops()) {
-                event.getBlock().getWorld().dropItemNaturally(BlockUtil.getBlockCentre(event.getBlock()), stack);
+                block.getWorld().dropItemNaturally(BlockUtil.getBlockCentre(block), stack);
             }
 
             for(DropReward reward : def.getRewards()) {
                 reward.giveReward(event.getPlayer());
             }
-        }
 
-        if (removeVanillaDrops) {
-            event.setCancelled(true);
-            event.getBlock().setType(Material.AIR);
+            // The block is air now, so no later definition matches it.
+            if(!def.getAppend())
+                break;
         }
+        return true;
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -321,83 +326,46 @@ public class CustomDrops extends AbstractCraftBookMechanic {
         if(!EventUtil.passesFilter(event))
             return;
 
-        for(CustomDropDefinition def : definitions) {
-            if(!(def instanceof EntityCustomDropDefinition)) continue; //Nope, we only want entity drop definitions.
-
-            if(!((EntityCustomDropDefinition) def).getEntityType().equals(event.getEntityType())) continue;
-
-            if (def.getPermissionNode() != null) {
-                if (event.getEntity().getKiller() == null
-                        || !CraftBookPlugin.inst().wrapPlayer(event.getEntity().getKiller()).hasPermission(def.getPermissionNode()))
+        List<EntityCustomDropDefinition> candidates = index.getEntityDefinitions(event.getEntityType());
+        if (!candidates.isEmpty()) {
+            Location location = event.getEntity().getLocation();
+            Player killer = event.getEntity().getKiller();
+            ItemStack held = killer == null ? null : killer.getInventory().getItemInMainHand();
+            boolean isSilkTouch = held != null && held.getEnchantmentLevel(Enchantment.SILK_TOUCH) > 0;
+            Biome biome = null;
+
+            for(EntityCustomDropDefinition def : candidates) {
+                long start = System.nanoTime();
+                if (biome == null && def.getBiomes() != null)
+                    biome = location.getBlock().getBiome();
+                boolean passes = def.matchesRegions(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ())
+                        && def.matchesBiome(biome)
+                        && (def.getItems() == null || killer != null && def.matchesItem(held))
+                        && def.getSilkTouch().doesPass(isSilkTouch);
+                // The permission is checked last, as it's the most expensive.
+                boolean permitted = !passes || def.getPermissionNode() == null
+                        || killer != null && CraftBookPlugin.inst().wrapPlayer(killer).hasPermission(def.getPermissionNode());
+                def.recordEvaluation(System.nanoTime() - start, passes && permitted);
+
+                if (!permitted)
                     return;
-            }
-
-            if (def.getRegions() != null) {
-                boolean found = false;
-                for (String region : def.getRegions()) {
-                    ProtectedRegion r = WorldGuard.getInstance().getPlatform().getRegionContainer().get(BukkitAdapter.adapt(event.getEntity().getWorld())).getRegion(region);
-                    if (r != null && r.contains(event.getEntity().getLocation().getBlockX(),
-                            event.getEntity().getLocation().getBlockY(),
-                            event.getEntity().getLocation().getBlockZ())) {
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found)
+                if (!passes)
                     continue;
-            }
-
-            if (def.getBiomes() != null) {
-                boolean found = false;
 
-                for (Biome biome : def.getBiomes()) {
-                    if (event.getEntity().getLocation().getBlock().getBiome().equals(biome)) {
-                        found = true;
-                        break;
-                    }
+                if(!def.getAppend()) {
+                    event.getDrops().clear();
+                    if(event.getDroppedExp() > 0)
+                        ((ExperienceOrb) event.getEntity().getWorld().spawnEntity(location, EntityType.EXPERIENCE_ORB)).setExperience(event.getDroppedExp());
                 }
 
-                if (!found) {
-                    continue;
+                for(ItemStack stack : def.getRandomDrops()) {
+                    event.getEntity().getWorld().dropItemNaturally(location, stack);
                 }
-            }
-
-            Player killer = event.getEntity().getKiller();
 
-            if (def.getItems() != null) {
-                boolean found = false;
-
-                if (killer != null) {
-                    for (ItemStack item : def.getItems()) {
-                        if (ItemUtil.areItemsIdentical(killer.getInventory().getItemInMainHand(), item)) {
-                            found = true;
-                            break;
-                        }
-                    }
+                for(DropReward reward : def.getRewards()) {
+                    if(killer == null && reward.doesRequirePlayer()) continue;
+                    reward.giveReward(killer);
                 }
-
-                if (!found) {
-                    continue;
-                }
-            }
-
-            boolean isSilkTouch = killer != null && killer.getInventory().getItemInMainHand() != null && killer.getInventory().getItemInMainHand().getEnchantmentLevel(Enchantment.SILK_TOUCH) > 0;
-            if(!def.getSilkTouch().doesPass(isSilkTouch))
-                continue;
-
-            if(!def.getAppend()) {
-                event.getDrops().clear();
-                if(event.getDroppedExp() > 0)
-                    ((ExperienceOrb) event.getEntity().getWorld().spawnEntity(event.getEntity().getLocation(), EntityType.EXPERIENCE_ORB)).setExperience(event.getDroppedExp());
-            }
-
-            for(ItemStack stack : def.getRandomDrops()) {
-                event.getEntity().getWorld().dropItemNaturally(event.getEntity().getLocation(), stack);
-            }
-
-            for(DropReward reward : def.getRewards()) {
-                if(killer == null && reward.doesRequirePlayer()) continue;
-                reward.giveReward(killer);
             }
         }
 
@@ -0,0 +1,402 @@
+package com.sk89q.craftbook.mechanics.ic;
+
+import com.sk89q.craftbook.util.LocationUtil;
+import com.sk89q.craftbook.util.LongHashMap;
+import org.bukkit.Location;
+import org.bukkit.World;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * A cache of loaded ICs, keyed by world and packed block position.
+ *
+ * <p>
+ *     Every world has its own position map, plus an index of the ICs in each chunk so an unloaded chunk can be
+ *     evicted without scanning the whole cache. When a maximum size is set, the least recently used IC is evicted
+ *     to make room for a new one.
+ * </p>
+ *
+ * <p>
+ *     ICs that are dropped by the cache itself, through eviction, chunk removal or a filter, are passed to the
+ *     eviction listener so they can be unloaded. ICs removed by position are left to the caller.
+ * </p>
+ */
+public class ICCache {
+
+    private final Map<UUID, WorldCache> worlds = new HashMap<>();
+
+    /**
+     * The maximum amount of cached ICs, 0 is unbounded.
+     */
+    private final int maxSize;
+
+    /**
+     * Called with each IC the cache drops by itself, may be null.
+     */
+    private final Consumer<IC> evictionListener;
+
+    private int size;
+
+    private Entry head;
+    private Entry tail;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long resolvedHits;
+
+    public ICCache(int maxSize) {
+
+        this(maxSize, null);
+    }
+
+    public ICCache(int maxSize, Consumer<IC> evictionListener) {
+
+        this.maxSize = Math.max(0, maxSize);
+        this.evictionListener = evictionListener;
+    }
+
+    private Entry getEntry(World world, int x, int y, int z) {
+
+        WorldCache cache = worlds.get(world.getUID());
+        if (cache == null)
+            return null;
+        return cache.byPosition.get(LocationUtil.getBlockKey(x, y, z));
+    }
+
+    public boolean contains(World world, int x, int y, int z) {
+
+        return getEntry(world, x, y, z) != null;
+    }
+
+    /**
+     * Gets the IC at the given position, marking it as recently used.
+     *
+     * @param world The world
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param z The Z coordinate
+     * @return The IC, or null if not cached
+     */
+    public IC get(World world, int x, int y, int z) {
+
+        Entry entry = getEntry(world, x, y, z);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        if (maxSize > 0 && entry != tail) {
+            unlink(entry);
+            linkLast(entry);
+        }
+        return entry.ic;
+    }
+
+    /**
+     * Caches the IC at the given position, evicting the least recently used IC if the cache is full.
+     *
+     * @param world The world
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param z The Z coordinate
+     * @param ic The IC
+     */
+    public void put(World world, int x, int y, int z, IC ic) {
+
+        WorldCache cache = worlds.computeIfAbsent(world.getUID(), k -> new WorldCache());
+        long blockKey = LocationUtil.getBlockKey(x, y, z);
+
+        Entry entry = cache.byPosition.get(blockKey);
+        if (entry != null) {
+            if (entry.ic != ic)
+                entry.resolved = null;
+            entry.ic = ic;
+            return;
+        }
+
+        if (maxSize > 0 && size >= maxSize && head != null) {
+            evictions++;
+            Entry evicted = head;
+            removeEntry(evicted);
+            evicted(evicted.ic);
+        }
+
+        entry = new Entry(cache, world, x, y, z, blockKey, ic);
+        cache.byPosition.put(blockKey, entry);
+        List<Entry> chunk = cache.byChunk.get(entry.chunkKey);
+        if (chunk == null) {
+            chunk = new ArrayList<>(4);
+            cache.byChunk.put(entry.chunkKey, chunk);
+        }
+        chunk.add(entry);
+        linkLast(entry);
+        size++;
+    }
+
+    /**
+     * Gets what was resolved from the sign of the IC at the given position, marking it as recently used.
+     *
+     * @param world The world
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param z The Z coordinate
+     * @return The resolved IC, or null if not cached or not yet resolved
+     */
+    public ResolvedIC getResolved(World world, int x, int y, int z) {
+
+        Entry entry = getEntry(world, x, y, z);
+        if (entry == null || entry.resolved == null)
+            return null;
+        resolvedHits++;
+        if (maxSize > 0 && entry != tail) {
+            unlink(entry);
+            linkLast(entry);
+        }
+        return entry.resolved;
+    }
+
+    /**
+     * Stores what was resolved from the sign of the IC at the given position. Nothing is stored unless the same IC
+     * is cached there.
+     *
+     * @param world The world
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param z The Z coordinate
+     * @param resolved The resolved IC, or null to make the sign be read again
+     */
+    public void setResolved(World world, int x, int y, int z, ResolvedIC resolved) {
+
+        Entry entry = getEntry(world, x, y, z);
+        if (entry == null || resolved != null && entry.ic != resolved.getIC())
+            return;
+        entry.resolved = resolved;
+    }
+
+    /**
+     * Removes the IC at the given position.
+     *
+     * @param world The world
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param z The Z coordinate
+     * @return The removed IC, or null if not cached
+     */
+    public IC remove(World world, int x, int y, int z) {
+
+        Entry entry = getEntry(world, x, y, z);
+        if (entry == null)
+            return null;
+        removeEntry(entry);
+        return entry.ic;
+    }
+
+    /**
+     * Removes all ICs in the given chunk.
+     *
+     * @param world The world
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return The amount of removed ICs
+     */
+    public int removeChunk(World world, int chunkX, int chunkZ) {
+
+        return removeChunk(world, chunkX, chunkZ, null);
+    }
+
+    /**
+     * Removes the ICs in the given chunk, except those at the locations to keep.
+     *
+     * @param world The world
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @param keep Tests the locations of the ICs to keep, may be null
+     * @return The amount of removed ICs
+     */
+    public int removeChunk(World world, int chunkX, int chunkZ, Predicate<Location> keep) {
+
+        WorldCache cache = worlds.get(world.getUID());
+        if (cache == null)
+            return 0;
+        long chunkKey = LocationUtil.getChunkKey(chunkX, chunkZ);
+        List<Entry> chunk = cache.byChunk.get(chunkKey);
+        if (chunk == null)
+            return 0;
+
+        List<Entry> removed = new ArrayList<>(chunk.size());
+        for (Entry entry : chunk) {
+            if (keep == null || !keep.test(new Location(world, entry.x, entry.y, entry.z)))
+                removed.add(entry);
+        }
+        if (removed.size() == chunk.size())
+            cache.byChunk.remove(chunkKey);
+        else
+            chunk.removeAll(removed);
+
+        for (Entry entry : removed) {
+            cache.byPosition.remove(entry.blockKey);
+            unlink(entry);
+        }
+        size -= removed.size();
+        if (cache.byPosition.isEmpty())
+            worlds.remove(world.getUID());
+        for (Entry entry : removed)
+            evicted(entry.ic);
+        return removed.size();
+    }
+
+    /**
+     * Removes all ICs that match the given filter.
+     *
+     * @param filter The filter
+     */
+    public void removeIf(Predicate<IC> filter) {
+
+        for (Entry entry = head; entry != null; ) {
+            Entry next = entry.next;
+            if (filter.test(entry.ic)) {
+                removeEntry(entry);
+                evicted(entry.ic);
+            }
+            entry = next;
+        }
+    }
+
+    private void evicted(IC ic) {
+
+        if (evictionListener != null)
+            evictionListener.accept(ic);
+    }
+
+    public void clear() {
+
+        worlds.clear();
+        head = tail = null;
+        size = 0;
+    }
+
+    private void removeEntry(Entry entry) {
+
+        WorldCache cache = entry.cache;
+        cache.byPosition.remove(entry.blockKey);
+        List<Entry> chunk = cache.byChunk.get(entry.chunkKey);
+        if (chunk != null) {
+            chunk.remove(entry);
+            if (chunk.isEmpty())
+                cache.byChunk.remove(entry.chunkKey);
+        }
+        unlink(entry);
+        size--;
+        if (cache.byPosition.isEmpty())
+            worlds.remove(entry.world.getUID());
+    }
+
+    private void linkLast(Entry entry) {
+
+        entry.prev = tail;
+        entry.next = null;
+        if (tail == null)
+            head = entry;
+        else
+            tail.next = entry;
+        tail = entry;
+    }
+
+    private void unlink(Entry entry) {
+
+        if (entry.prev == null)
+            head = entry.next;
+        else
+            entry.prev.next = entry.next;
+        if (entry.next == null)
+            tail = entry.prev;
+        else
+            entry.next.prev = entry.prev;
+        entry.prev = entry.next = null;
+    }
+
+    /**
+     * Gets a snapshot of all cached ICs, from least to most recently used.
+     *
+     * @return The cached ICs by location
+     */
+    public Map<Location, IC> asMap() {
+
+        Map<Location, IC> map = new LinkedHashMap<>();
+        for (Entry entry = head; entry != null; entry = entry.next)
+            map.put(new Location(entry.world, entry.x, entry.y, entry.z), entry.ic);
+        return map;
+    }
+
+    public int size() {
+
+        return size;
+    }
+
+    public long getHits() {
+
+        return hits;
+    }
+
+    public long getMisses() {
+
+        return misses;
+    }
+
+    public long getEvictions() {
+
+        return evictions;
+    }
+
+    /**
+     * Gets the amount of lookups that were answered without reading the sign.
+     *
+     * @return The amount of lookups
+     */
+    public long getResolvedHits() {
+
+        return resolvedHits;
+    }
+
+    private static final class WorldCache {
+
+        private final LongHashMap<Entry> byPosition = new LongHashMap<>();
+        private final LongHashMap<List<Entry>> byChunk = new LongHashMap<>();
+    }
+
+    private static final class Entry {
+
+        private final WorldCache cache;
+        private final World world;
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long blockKey;
+        private final long chunkKey;
+        private IC ic;
+        private ResolvedIC resolved;
+
+        private Entry prev;
+        private Entry next;
+
+        Entry(WorldCache cache, World world, int x, int y, int z, long blockKey, IC ic) {
+
+            this.cache = cache;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.blockKey = blockKey;
+            this.chunkKey = LocationUtil.getChunkKeyAt(x, z);
+            this.ic = ic;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.sk89q.craftbook.mechanics.ic;
+
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
+import com.sk89q.craftbook.util.LocationUtil;
+import com.sk89q.craftbook.util.LongHashMap;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Collects redstone input changes for ICs, and evaluates them in batches.
+ *
+ * <p>
+ *     The first input change opens a window, which is flushed by a single task once the window has passed. Changes
+ *     from the same source to the same IC within a window are merged into one evaluation, as the evaluation reads
+ *     the input state at flush time anyway. Changes from different sources are still evaluated separately, so ICs
+ *     can tell which pin was triggered.
+ * </p>
+ */
+public class ICInputScheduler {
+
+    private final TaskScheduler scheduler;
+    private final InputEvaluator evaluator;
+    private final long window;
+
+    private final Map<UUID, LongHashMap<PendingInput>> index = new HashMap<>();
+    private List<PendingInput> queue = new ArrayList<>();
+    private int queueDepth;
+    private boolean flushScheduled;
+
+    private long submitted;
+    private long merged;
+    private long evaluated;
+    private int maxQueueDepth;
+
+    public ICInputScheduler(InputEvaluator evaluator, long window) {
+
+        this((task, delay) -> CraftBookPlugin.server().getScheduler().runTaskLater(CraftBookPlugin.inst(), task, delay), evaluator, window);
+    }
+
+    public ICInputScheduler(TaskScheduler scheduler, InputEvaluator evaluator, long window) {
+
+        this.scheduler = scheduler;
+        this.evaluator = evaluator;
+        this.window = window;
+    }
+
+    /**
+     * Queues an input change for the IC at the given block.
+     *
+     * @param block The IC sign block
+     * @param source The block the input change came from
+     * @param family The family of the IC
+     * @param ic The IC
+     */
+    public void submit(Block block, Block source, ICFamily family, IC ic) {
+
+        submitted++;
+
+        LongHashMap<PendingInput> worldIndex = index.computeIfAbsent(block.getWorld().getUID(), k -> new LongHashMap<>());
+        long blockKey = LocationUtil.getBlockKey(block);
+        PendingInput pending = worldIndex.get(blockKey);
+        if (pending == null) {
+            pending = new PendingInput(block);
+            worldIndex.put(blockKey, pending);
+            queue.add(pending);
+        }
+        // The latest IC instance wins, in case it was replaced within the window.
+        pending.family = family;
+        pending.ic = ic;
+
+        if (pending.addSource(source)) {
+            queueDepth++;
+            maxQueueDepth = Math.max(maxQueueDepth, queueDepth);
+        } else
+            merged++;
+
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.runTaskLater(this::flush, window);
+        }
+    }
+
+    /**
+     * Evaluates all queued input changes.
+     */
+    public void flush() {
+
+        List<PendingInput> toEvaluate = queue;
+        queue = new ArrayList<>();
+        index.clear();
+        queueDepth = 0;
+        flushScheduled = false;
+
+        for (PendingInput pending : toEvaluate) {
+            for (int i = 0; i < pending.sourceCount; i++) {
+                evaluated++;
+                try {
+                    evaluator.evaluate(pending.block, pending.sources[i], pending.family, pending.ic);
+                } catch (RuntimeException e) {
+                    CraftBookPlugin.logger().log(Level.WARNING, "Failed to evaluate IC input at " + pending.block.getLocation(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all queued input changes without evaluating them.
+     */
+    public void clear() {
+
+        queue = new ArrayList<>();
+        index.clear();
+        queueDepth = 0;
+    }
+
+    /**
+     * Gets the amount of evaluations currently waiting for the window to pass.
+     *
+     * @return The queue depth
+     */
+    public int getQueueDepth() {
+
+        return queueDepth;
+    }
+
+    public int getMaxQueueDepth() {
+
+        return maxQueueDepth;
+    }
+
+    public long getSubmitted() {
+
+        return submitted;
+    }
+
+    public long getEvaluated() {
+
+        return evaluated;
+    }
+
+    /**
+     * Gets the fraction of input changes that were merged into another evaluation.
+     *
+     * @return The merge ratio, from 0 to 1
+     */
+    public double getMergeRatio() {
+
+        return submitted == 0 ? 0 : (double) merged / submitted;
+    }
+
+    /**
+     * Schedules a task to run after a delay in ticks.
+     */
+    public interface TaskScheduler {
+
+        void runTaskLater(Runnable task, long delay);
+    }
+
+    /**
+     * Evaluates an input change for an IC.
+     */
+    public interface InputEvaluator {
+
+        void evaluate(Block block, Block source, ICFamily family, IC ic);
+    }
+
+    private static final class PendingInput {
+
+        private final Block block;
+        private Block[] sources = new Block[2];
+        private long[] sourceKeys = new long[2];
+        private int sourceCount;
+        private ICFamily family;
+        private IC ic;
+
+        PendingInput(Block block) {
+
+            this.block = block;
+        }
+
+        /**
+         * Adds a source, if it isn't already pending.
+         *
+         * @param source The source
+         * @return If the source was added
+         */
+        boolean addSource(Block source) {
+
+            long key = LocationUtil.getBlockKey(source);
+            for (int i = 0; i < sourceCount; i++)
+                if (sourceKeys[i] == key)
+                    return false;
+
+            if (sourceCount == sources.length) {
+                sources = Arrays.copyOf(sources, sourceCount * 2);
+                sourceKeys = Arrays.copyOf(sourceKeys, sourceCount * 2);
+            }
+            sources[sourceCount] = source;
+            sourceKeys[sourceCount] = key;
+            sourceCount++;
+            return true;
+        }
+    }
+}
@@ -18,6 +18,7 @@ package com.sk89q.craftbook.mechanics.ic;
 
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
+import com.sk89q.craftbook.core.st.SelfTriggeringManager;
 import com.sk89q.craftbook.mechanics.ic.families.*;
 import com.sk89q.craftbook.mechanics.ic.gates.logic.*;
 import com.sk89q.craftbook.mechanics.ic.gates.variables.IsAtLeast;
@@ -33,15 +34,19 @@ import com.sk89q.craftbook.mechanics.ic.plc.PlcFactory;
 import com.sk89q.craftbook.mechanics.ic.plc.lang.Perlstone;
 import com.sk89q.craftbook.mechanics.variables.VariableManager;
 import com.sk89q.craftbook.util.RegexUtil;
+import com.sk89q.craftbook.util.jinglenote.JingleNoteCache;
 import com.sk89q.util.yaml.YAMLFormat;
 import com.sk89q.util.yaml.YAMLProcessor;
 import org.bukkit.ChatColor;
+import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.Server;
+import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 
 /**
@@ -66,6 +71,8 @@ public class ICManager {
     private File midiFolder;
     private File fireworkFolder;
 
+    private JingleNoteCache songCache;
+
     private static ICManager INSTANCE;
 
     public ICManager() {
@@ -82,11 +89,14 @@ public class ICManager {
 
         midiFolder = new File(CraftBookPlugin.inst().getDataFolder(), "midi/");
         new File(midiFolder, "playlists").mkdirs();
+        songCache = new JingleNoteCache(ICMechanic.instance.midiCacheSize * 1024L);
 
         romFolder = new File(CraftBookPlugin.inst().getDataFolder(), "rom/");
 
         fireworkFolder = new File(CraftBookPlugin.inst().getDataFolder(), "fireworks/");
 
+        cachedICs = new ICCache(ICMechanic.instance.cacheSize, ICManager::unloadEvictedIC);
+
         registerICs(CraftBookPlugin.inst().getServer());
 
         try {
@@ -102,6 +112,8 @@ public class ICManager {
             factory.getFactory().unload();
         }
         icConfiguration = null;
+        if(songCache != null)
+            songCache.clear();
         emptyCache();
         INSTANCE = null;
     }
@@ -116,6 +128,16 @@ public class ICManager {
         return midiFolder;
     }
 
+    /**
+     * Gets the cache of decoded MIDI files and tunes.
+     *
+     * @return The cache
+     */
+    public JingleNoteCache getSongCache() {
+
+        return songCache;
+    }
+
     public File getRomFolder() {
 
         return romFolder;
@@ -135,7 +157,7 @@ public class ICManager {
      */
     public final Map<String, String> longRegistered = new HashMap<>();
 
-    private static final Map<Location, IC> cachedICs = new HashMap<>();
+    private static ICCache cachedICs = new ICCache(0);
 
     private static final Set<String> customPrefix = new HashSet<>();
 
@@ -235,7 +257,19 @@ public class ICManager {
      */
     public static boolean isCachedIC(Location pt) {
 
-        return cachedICs.containsKey(pt);
+        return cachedICs.contains(pt.getWorld(), pt.getBlockX(), pt.getBlockY(), pt.getBlockZ());
+    }
+
+    /**
+     * Checks if the IC Mechanic at the given block is cached. If not it will return false.
+     *
+     * @param block of the ic
+     *
+     * @return true if ic is cached
+     */
+    public static boolean isCachedIC(Block block) {
+
+        return cachedICs.contains(block.getWorld(), block.getX(), block.getY(), block.getZ());
     }
 
     /**
@@ -247,7 +281,19 @@ public class ICManager {
      */
     public static IC getCachedIC(Location pt) {
 
-        return cachedICs.get(pt);
+        return cachedICs.get(pt.getWorld(), pt.getBlockX(), pt.getBlockY(), pt.getBlockZ());
+    }
+
+    /**
+     * Gets the cached IC based on its block in the world.
+     *
+     * @param block of the ic
+     *
+     * @return cached ic, or null if not cached.
+     */
+    public static IC getCachedIC(Block block) {
+
+        return cachedICs.get(block.getWorld(), block.getX(), block.getY(), block.getZ());
     }
 
     /**
@@ -258,10 +304,21 @@ public class ICManager {
      */
     public static void addCachedIC(Location pt, IC ic) {
 
+        addCachedIC(pt.getBlock(), ic);
+    }
+
+    /**
+     * Adds the given IC to the cached IC list.
+     *
+     * @param block of the ic
+     * @param ic to add
+     */
+    public static void addCachedIC(Block block, IC ic) {
+
         if (!ICMechanic.instance.cache) return;
-        if(cachedICs.containsKey(pt)) return;
-        CraftBookPlugin.logDebugMessage("Caching IC at: " + pt.toString(), "ic-cache");
-        cachedICs.put(pt, ic);
+        if (cachedICs.contains(block.getWorld(), block.getX(), block.getY(), block.getZ())) return;
+        CraftBookPlugin.logDebugMessage(() -> "Caching IC at: " + block.getLocation().toString(), "ic-cache");
+        cachedICs.put(block.getWorld(), block.getX(), block.getY(), block.getZ(), ic);
     }
 
     /**
@@ -273,11 +330,67 @@ public class ICManager {
      */
     public static IC removeCachedIC(Location pt) {
 
-        if (cachedICs.containsKey(pt)) {
-            CraftBookPlugin.logDebugMessage("Removing cached IC at: " + pt.toString(), "ic-cache");
-            return cachedICs.remove(pt);
-        }
-        return null;
+        return removeCachedIC(pt.getBlock());
+    }
+
+    /**
+     * Removes the given IC from the cache list based on its block.
+     *
+     * @param block of the ic
+     *
+     * @return the removed ic
+     */
+    public static IC removeCachedIC(Block block) {
+
+        IC ic = cachedICs.remove(block.getWorld(), block.getX(), block.getY(), block.getZ());
+        if (ic != null)
+            CraftBookPlugin.logDebugMessage(() -> "Removing cached IC at: " + block.getLocation().toString(), "ic-cache");
+        return ic;
+    }
+
+    /**
+     * Unloads an IC that the cache dropped by itself. A self-triggered IC's handler notices it's no longer cached and
+     * resolves the sign again on its next think.
+     *
+     * @param ic the evicted ic
+     */
+    private static void unloadEvictedIC(IC ic) {
+
+        CraftBookPlugin.logDebugMessage(() -> "Unloading evicted IC: " + ic.getTitle(), "ic-cache");
+        ic.unload();
+    }
+
+    /**
+     * Gets what was resolved from the sign of the cached IC at the given block.
+     *
+     * @param block of the ic
+     *
+     * @return the resolved ic, or null if the sign has to be read
+     */
+    public static ResolvedIC getResolvedIC(Block block) {
+
+        return cachedICs.getResolved(block.getWorld(), block.getX(), block.getY(), block.getZ());
+    }
+
+    /**
+     * Stores what was resolved from the sign of the cached IC at the given block.
+     *
+     * @param block of the ic
+     * @param resolved the resolved ic, or null to make the sign be read again
+     */
+    public static void setResolvedIC(Block block, ResolvedIC resolved) {
+
+        cachedICs.setResolved(block.getWorld(), block.getX(), block.getY(), block.getZ(), resolved);
+    }
+
+    /**
+     * Removes all cached ICs that match the given filter.
+     *
+     * @param filter the filter
+     */
+    public static void removeCachedICs(Predicate<IC> filter) {
+
+        cachedICs.removeIf(filter);
     }
 
     /**
@@ -290,6 +403,20 @@ public class ICManager {
         removeCachedIC(pt);
     }
 
+    /**
+     * Clears the ICs in the given chunk from the cache and unloads them. Self-triggered ICs that are still registered,
+     * as their unregister was cancelled to keep them loaded, are kept along with their state.
+     *
+     * @param chunk the unloaded chunk
+     */
+    public static void unloadChunk(Chunk chunk) {
+
+        SelfTriggeringManager selfTriggers = CraftBookPlugin.inst().getSelfTriggerManager();
+        int removed = cachedICs.removeChunk(chunk.getWorld(), chunk.getX(), chunk.getZ(), selfTriggers::isSelfTriggering);
+        if (removed > 0)
+            CraftBookPlugin.logDebugMessage(() -> "Removed " + removed + " cached IC(s) in unloaded chunk.", "ic-cache");
+    }
+
     /**
      * Clears the IC cache.
      *
@@ -301,10 +428,18 @@ public class ICManager {
     }
 
     /**
-     * Gets the IC Cache map.
+     * Gets a snapshot of the IC Cache map. Changes to the map are not written back to the cache.
      */
     public static Map<Location, IC> getCachedICs() {
 
+        return cachedICs.asMap();
+    }
+
+    /**
+     * Gets the IC Cache.
+     */
+    public static ICCache getCache() {
+
         return cachedICs;
     }
 
@@ -21,12 +21,17 @@ import com.sk89q.craftbook.ChangedSign;
 import com.sk89q.craftbook.CraftBookPlayer;
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
+import com.sk89q.craftbook.core.st.SelfTriggeringManager;
+import com.sk89q.craftbook.mechanics.ic.plc.PlcStateStore;
 import com.sk89q.craftbook.mechanics.pipe.PipePutEvent;
+import com.sk89q.craftbook.util.CandidateIndexManager;
+import com.sk89q.craftbook.util.EntityGrid;
 import com.sk89q.craftbook.util.EventUtil;
 import com.sk89q.craftbook.util.ICUtil;
 import com.sk89q.craftbook.util.ICUtil.LocationCheckType;
 import com.sk89q.craftbook.util.RegexUtil;
 import com.sk89q.craftbook.util.SignUtil;
+import com.sk89q.craftbook.util.VolumeScanner;
 import com.sk89q.craftbook.util.events.SelfTriggerPingEvent;
 import com.sk89q.craftbook.util.events.SelfTriggerThinkEvent;
 import com.sk89q.craftbook.util.events.SelfTriggerUnregisterEvent;
@@ -35,19 +40,33 @@ import com.sk89q.craftbook.util.events.SignClickEvent;
 import com.sk89q.craftbook.util.events.SourcedBlockRedstoneEvent;
 import com.sk89q.util.yaml.YAMLProcessor;
 import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import io.papermc.lib.PaperLib;
 import org.apache.commons.lang.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
+import org.bukkit.Tag;
 import org.bukkit.block.Block;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.Sign;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.Action;
 import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
 import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 
 /**
@@ -64,6 +83,30 @@ public class ICMechanic extends AbstractCraftBookMechanic {
     protected final ICManager manager;
     public static ICMechanic instance;
 
+    /**
+     * Batches redstone input changes, so each IC is evaluated once per set of inputs in a window.
+     */
+    private ICInputScheduler inputScheduler;
+
+    /**
+     * Holds PLC states in memory, and saves them off the main thread.
+     */
+    private PlcStateStore plcStateStore;
+    private BukkitTask plcSaveTask;
+
+    /**
+     * Entities by chunk, shared by the area searches of all ICs within a tick.
+     */
+    private EntityGrid entityGrid;
+    private BukkitTask entityGridTask;
+    private CandidateIndexManager candidateIndexes;
+
+    /**
+     * Scans areas of blocks off the main thread, for ICs that would otherwise read the whole area each think.
+     */
+    private VolumeScanner volumeScanner;
+    private BukkitTask volumeScannerTask;
+
     //protected final String id;
     //protected final ICFamily family;
     //protected final IC ic;
@@ -79,6 +122,15 @@ public class ICMechanic extends AbstractCraftBookMechanic {
     public boolean enable() {
 
         ICManager.inst().enable();
+        inputScheduler = new ICInputScheduler(this::evaluateInput, 2);
+        plcStateStore = new PlcStateStore();
+        plcSaveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(CraftBookPlugin.inst(), plcStateStore::flush, plcSaveInterval, plcSaveInterval);
+        entityGrid = new EntityGrid();
+        entityGridTask = Bukkit.getScheduler().runTaskTimer(CraftBookPlugin.inst(), entityGrid::nextTick, 1, 1);
+        volumeScanner = new VolumeScanner(task -> Bukkit.getScheduler().runTaskAsynchronously(CraftBookPlugin.inst(), task), volumeChangesPerTick);
+        volumeScannerTask = Bukkit.getScheduler().runTaskTimer(CraftBookPlugin.inst(), volumeScanner::nextTick, 1, 1);
+        candidateIndexes = new CandidateIndexManager(volumeScanner);
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Tag.WALL_SIGNS);
         return true;
     }
 
@@ -86,12 +138,42 @@ public class ICMechanic extends AbstractCraftBookMechanic {
     public void disable() {
 
         manager.disable();
+        if (inputScheduler != null)
+            inputScheduler.clear();
+        if (plcSaveTask != null)
+            plcSaveTask.cancel();
+        if (plcStateStore != null)
+            plcStateStore.close();
+        if (entityGridTask != null)
+            entityGridTask.cancel();
+        entityGrid = null;
+        if (candidateIndexes != null)
+            candidateIndexes.clear();
+        candidateIndexes = null;
+        if (volumeScannerTask != null)
+            volumeScannerTask.cancel();
+        if (volumeScanner != null)
+            volumeScanner.clear();
+        volumeScanner = null;
     }
 
     public Object[] setupIC(Block block, boolean create) {
 
         // if we're not looking at a wall sign, it can't be an IC.
         if (!SignUtil.isWallSign(block)) return null;
+
+        // a cached IC whose sign has already been resolved doesn't need the sign read again.
+        ResolvedIC resolved = ICManager.getResolvedIC(block);
+        if (resolved != null) {
+            if (resolved.isSelfTriggered()) {
+                if (disableSelfTriggered)
+                    return null;
+                if (!CraftBookPlugin.inst().getSelfTriggerManager().isSelfTriggering(block.getLocation()))
+                    registerSelfTriggered(block, resolved.getId(), (SelfTriggeredIC) resolved.getIC(), resolved.getFamily());
+            }
+            return new Object[] {resolved.getId(), resolved.getFamily(), resolved.getIC()};
+        }
+
         ChangedSign sign = CraftBookBukkitUtil.toChangedSign(block);
 
         // detect the text on the sign to see if it's any kind of IC at all.
@@ -142,13 +224,12 @@ public class ICMechanic extends AbstractCraftBookMechanic {
             return null;
         }
 
-        IC ic;
         // check if the ic is cached and get that single instance instead of creating a new one
-        if (ICManager.isCachedIC(block.getLocation())) {
-            ic = ICManager.getCachedIC(block.getLocation());
+        IC ic = ICManager.getCachedIC(block);
+        if (ic != null) {
             if(ic.getSign().updateSign(sign)) {
 
-                ICManager.removeCachedIC(block.getLocation());
+                ICManager.removeCachedIC(block);
                 ic = registration.getFactory().create(sign);
                 if(!sign.getLine(0).equals(ic.getSignTitle()) && !sign.getLine(0).startsWith("=")) {
                     sign.setLine(0, ic.getSignTitle());
@@ -156,7 +237,7 @@ public class ICMechanic extends AbstractCraftBookMechanic {
                 }
                 ic.load();
                 // add the created ic to the cache
-                ICManager.addCachedIC(block.getLocation(), ic);
+                ICManager.addCachedIC(block, ic);
             }
         } else if (create) {
             ic = registration.getFactory().create(sign);
@@ -166,7 +247,7 @@ public class ICMechanic extends AbstractCraftBookMechanic {
             }
             ic.load();
             // add the created ic to the cache
-            ICManager.addCachedIC(block.getLocation(), ic);
+            ICManager.addCachedIC(block, ic);
         } else
             return null;
         // extract the suffix
@@ -176,21 +257,15 @@ public class ICMechanic extends AbstractCraftBookMechanic {
             suffix = str[1];
         }
 
-        ICFamily family = registration.getFamilies()[0];
-        if (suffix != null && !suffix.isEmpty()) {
-            for (ICFamily f : registration.getFamilies()) {
-                if (f.getSuffix().equalsIgnoreCase(suffix)) {
-                    family = f;
-                    break;
-                }
-            }
-        }
+        ICFamily family = getFamily(registration, suffix);
 
         // okay, everything checked out. we can finally make it.
-        if (ic instanceof SelfTriggeredIC && (sign.getLine(1).trim().toUpperCase(Locale.ENGLISH).endsWith("S") || ((SelfTriggeredIC) ic).isAlwaysST())) {
+        boolean selfTriggered = ic instanceof SelfTriggeredIC && (sign.getLine(1).trim().toUpperCase(Locale.ENGLISH).endsWith("S") || ((SelfTriggeredIC) ic).isAlwaysST());
+        ICManager.setResolvedIC(block, new ResolvedIC(id, sign.getRawLine(1), registration, family, ic, selfTriggered));
+        if (selfTriggered) {
             if (disableSelfTriggered)
                 return null;
-            CraftBookPlugin.inst().getSelfTriggerManager().registerSelfTrigger(block.getLocation());
+            registerSelfTriggered(block, id, (SelfTriggeredIC) ic, family);
         }
 
         Object[] rets = new Object[3];
@@ -201,6 +276,57 @@ public class ICMechanic extends AbstractCraftBookMechanic {
         return rets;
     }
 
+    /**
+     * Gets the family of an IC from the suffix of its ID line, falling back to the first family it supports.
+     *
+     * @param registration The registered IC
+     * @param suffix The suffix after the ID
+     * @return The family
+     */
+    private static ICFamily getFamily(RegisteredICFactory registration, String suffix) {
+
+        if (suffix != null && !suffix.isEmpty()) {
+            for (ICFamily f : registration.getFamilies()) {
+                if (f.getSuffix().equalsIgnoreCase(suffix))
+                    return f;
+            }
+        }
+        return registration.getFamilies()[0];
+    }
+
+    /**
+     * Reads the raw ID line of the sign at the given block.
+     *
+     * @param block The sign
+     * @return The ID line, or null if it isn't a sign
+     */
+    private static String getIdLine(Block block) {
+
+        BlockState state = PaperLib.getBlockState(block, false).getState();
+        return state instanceof Sign ? ((Sign) state).getLine(1) : null;
+    }
+
+    /**
+     * Drops the cached IC at the given block, along with its self-trigger, and unloads it.
+     *
+     * @param block The sign
+     */
+    private void dropIC(Block block) {
+
+        IC ic = ICManager.removeCachedIC(block);
+        CraftBookPlugin.inst().getSelfTriggerManager().unregisterSelfTrigger(block.getLocation(), UnregisterReason.UNKNOWN);
+        if (ic != null)
+            ic.unload();
+    }
+
+    private void registerSelfTriggered(Block block, String id, SelfTriggeredIC ic, ICFamily family) {
+
+        // Cached ICs can be thought directly, uncached ones need to be looked up on every think.
+        SelfTriggeredICHandler handler = cache ? new SelfTriggeredICHandler(ic, family) : null;
+        int interval = ic.isWakeOnly() ? SelfTriggeringManager.WAKE_ONLY : getThinkInterval(id);
+        CraftBookPlugin.inst().getSelfTriggerManager().registerSelfTrigger(block.getLocation(), interval, handler);
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onBlockRedstoneChange(final SourcedBlockRedstoneEvent event) {
 
@@ -219,32 +345,63 @@ public class ICMechanic extends AbstractCraftBookMechanic {
             // abort if the sign is the source or the block the sign is attached to
             if (SignUtil.getBackBlock(block).equals(source) || block.equals(source)) return;
 
+            inputScheduler.submit(block, source, (ICFamily) icData[1], (IC) icData[2]);
+        }
+    }
 
-            Runnable runnable = () -> {
+    private void evaluateInput(Block block, Block source, ICFamily family, IC ic) {
 
-                if (!SignUtil.isWallSign(block)) return;
-                try {
-                    ChipState chipState = ((ICFamily) icData[1]).detect(BukkitAdapter.adapt(source.getLocation()), CraftBookBukkitUtil.toChangedSign(block));
-                    int cnt = 0;
-                    for (int i = 0; i < chipState.getInputCount(); i++) {
-                        if (chipState.isTriggered(i)) {
-                            cnt++;
-                        }
-                    }
-                    if (cnt > 0) {
-                        ((IC) icData[2]).trigger(chipState);
-                    }
-                } catch (IllegalArgumentException ex) {
-                    // Exclude these exceptions so that we don't spam consoles because of Bukkit
-                    if (!ex.getMessage().contains("Null ChangedSign found")) throw ex;
+        if (!SignUtil.isWallSign(block)) return;
+        try {
+            ChipState chipState = family.detect(BukkitAdapter.adapt(source.getLocation()), CraftBookBukkitUtil.toChangedSign(block));
+            int cnt = 0;
+            for (int i = 0; i < chipState.getInputCount(); i++) {
+                if (chipState.isTriggered(i)) {
+                    cnt++;
                 }
-            };
-            // FIXME: these should be registered with a global scheduler so we can end up with one runnable actually
-            // running per set of inputs in a given time window.
-            CraftBookPlugin.server().getScheduler().runTaskLater(CraftBookPlugin.inst(), runnable, 2);
+            }
+            if (cnt > 0) {
+                ic.trigger(chipState);
+            }
+        } catch (IllegalArgumentException ex) {
+            // Exclude these exceptions so that we don't spam consoles because of Bukkit
+            if (!ex.getMessage().contains("Null ChangedSign found")) throw ex;
         }
     }
 
+    /**
+     * Gets the scheduler that batches redstone input changes to ICs.
+     *
+     * @return The input scheduler
+     */
+    public ICInputScheduler getInputScheduler() {
+
+        return inputScheduler;
+    }
+
+    public PlcStateStore getPlcStateStore() {
+
+        return plcStateStore;
+    }
+
+    public EntityGrid getEntityGrid() {
+
+        return entityGrid;
+    }
+
+    /**
+     * Gets the candidate blocks of ICs that pick blocks from an area, such as the farming ICs.
+     */
+    public CandidateIndexManager getCandidateIndexes() {
+
+        return candidateIndexes;
+    }
+
+    public VolumeScanner getVolumeScanner() {
+
+        return volumeScanner;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onRightClick(SignClickEvent event) {
 
@@ -252,9 +409,10 @@ public class ICMechanic extends AbstractCraftBookMechanic {
 
         if(!EventUtil.passesFilter(event)) return;
 
-        if(ICManager.isCachedIC(event.getClickedBlock().getLocation()) && event.getPlayer().isSneaking()) {
-            ICManager.getCachedIC(event.getClickedBlock().getLocation()).unload();
-            ICManager.removeCachedIC(event.getClickedBlock().getLocation());
+        if(event.getPlayer().isSneaking()) {
+            IC cached = ICManager.removeCachedIC(event.getClickedBlock());
+            if(cached != null)
+                cached.unload();
         }
 
         final Object[] icData = setupIC(event.getClickedBlock(), true);
@@ -269,6 +427,12 @@ public class ICMechanic extends AbstractCraftBookMechanic {
 
         if(!EventUtil.passesFilter(event)) return;
 
+        // Signs changed by other plugins or WorldEdit don't fire an edit. Rather than reading the sign on every think,
+        // a cached IC is checked against its sign when the sign is pinged.
+        ResolvedIC resolved = ICManager.getResolvedIC(event.getBlock());
+        if (resolved != null && !resolved.getLine().equals(getIdLine(event.getBlock())))
+            dropIC(event.getBlock());
+
         setupIC(event.getBlock(), true);
     }
 
@@ -282,6 +446,7 @@ public class ICMechanic extends AbstractCraftBookMechanic {
         if(icData != null) {
             if(event.getReason() == UnregisterReason.ERROR) {
                 if(breakOnError) {
+                    ICManager.removeCachedIC(event.getBlock());
                     ((IC) icData[2]).unload();
                     event.getBlock().breakNaturally();
                     return;
@@ -291,6 +456,8 @@ public class ICMechanic extends AbstractCraftBookMechanic {
                 event.setCancelled(true);
                 return;
             }
+            // Drop it from the cache as well, so it isn't unloaded again when the cache evicts it.
+            ICManager.removeCachedIC(event.getBlock());
             ((IC) icData[2]).unload();
         }
     }
@@ -300,6 +467,9 @@ public class ICMechanic extends AbstractCraftBookMechanic {
 
         if(!EventUtil.passesFilter(event)) return;
 
+        // Already thought directly through a SelfTriggeredICHandler.
+        if(event.isHandled()) return;
+
         final Object[] icData = setupIC(event.getBlock(), true);
 
         if(icData != null && icData[2] instanceof SelfTriggeredIC) {
@@ -316,11 +486,16 @@ public class ICMechanic extends AbstractCraftBookMechanic {
 
         final Object[] icData = setupIC(event.getBlock(), false);
 
-        if(icData == null) return;
+        if(icData == null) {
+            // Still drop a cached IC that setupIC didn't return, such as a self-triggered IC while they're disabled.
+            if(ICManager.isCachedIC(event.getBlock()))
+                dropIC(event.getBlock());
+            return;
+        }
 
         // remove the ic from cache
         CraftBookPlugin.inst().getSelfTriggerManager().unregisterSelfTrigger(event.getBlock().getLocation(), UnregisterReason.BREAK);
-        ICManager.removeCachedIC(event.getBlock().getLocation());
+        ICManager.removeCachedIC(event.getBlock());
         ((IC) icData[2]).onICBreak(event);
         if(!event.isCancelled())
             ((IC) icData[2]).unload();
@@ -339,6 +514,65 @@ public class ICMechanic extends AbstractCraftBookMechanic {
             ((PipeInputIC) icData[2]).onPipeTransfer(event);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+
+        if(!EventUtil.passesFilter(event)) return;
+
+        // Self-triggered ICs have already been unregistered by the SelfTriggeringManager at this point, so the ones that
+        // are still registered are kept loaded.
+        ICManager.unloadChunk(event.getChunk());
+        candidateIndexes.unloadChunk(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidatePlace(BlockPlaceEvent event) {
+
+        candidateIndexes.update(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidateBreak(BlockBreakEvent event) {
+
+        Block block = event.getBlock();
+        candidateIndexes.update(block.getWorld(), block.getX(), block.getY(), block.getZ(), Material.AIR);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidateGrow(BlockGrowEvent event) {
+
+        Block block = event.getBlock();
+        candidateIndexes.update(block.getWorld(), block.getX(), block.getY(), block.getZ(), event.getNewState().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidateForm(BlockFormEvent event) {
+
+        Block block = event.getBlock();
+        candidateIndexes.update(block.getWorld(), block.getX(), block.getY(), block.getZ(), event.getNewState().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidateSpread(BlockSpreadEvent event) {
+
+        Block block = event.getBlock();
+        candidateIndexes.update(block.getWorld(), block.getX(), block.getY(), block.getZ(), event.getNewState().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidateFade(BlockFadeEvent event) {
+
+        Block block = event.getBlock();
+        candidateIndexes.update(block.getWorld(), block.getX(), block.getY(), block.getZ(), event.getNewState().getType());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCandidateStructureGrow(StructureGrowEvent event) {
+
+        for (BlockState state : event.getBlocks())
+            candidateIndexes.update(state.getWorld(), state.getX(), state.getY(), state.getZ(), state.getType());
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onSignChange(SignChangeEvent event) {
 
@@ -347,6 +581,18 @@ public class ICMechanic extends AbstractCraftBookMechanic {
         initializeIC(event.getBlock(), CraftBookPlugin.inst().wrapPlayer(event.getPlayer()), event, false);
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignEdit(SignChangeEvent event) {
+
+        if(!EventUtil.passesFilter(event)) return;
+
+        if(ICManager.getResolvedIC(event.getBlock()) == null) return;
+
+        // The old IC no longer matches the sign. A new IC is set up from the new text, which is only on the sign after
+        // this event.
+        dropIC(event.getBlock());
+    }
+
     public void initializeIC(final Block block, final CraftBookPlayer player, final SignChangeEvent event, final boolean shortHand) {
 
         boolean matches = true;
@@ -412,11 +658,11 @@ public class ICMechanic extends AbstractCraftBookMechanic {
                 return;
             }
 
-            if (ICManager.isCachedIC(block.getLocation())) {
+            IC existing = ICManager.removeCachedIC(block);
+            if (existing != null) {
 
                 CraftBookPlugin.logDebugMessage("Existing IC found at selected location!", "ic-create");
-                ICManager.getCachedIC(block.getLocation()).unload();
-                ICManager.removeCachedIC(block.getLocation());
+                existing.unload();
             }
 
             final RegisteredICFactory registration = manager.get(id);
@@ -453,6 +699,8 @@ public class ICMechanic extends AbstractCraftBookMechanic {
 
                 IC ic = registration.getFactory().create(sign);
                 ic.load();
+                // add the created ic to the cache, so its self-trigger thinks this instance
+                ICManager.addCachedIC(block, ic);
 
                 sign.setLine(1, "[" + registration.getId() + "]" + suffix);
                 if (!shortHand)
@@ -460,12 +708,15 @@ public class ICMechanic extends AbstractCraftBookMechanic {
 
                 sign.update(false);
 
-                if (ic instanceof SelfTriggeredIC && (event.getLine(1).trim().toUpperCase(Locale.ENGLISH).endsWith("S") || ((SelfTriggeredIC) ic).isAlwaysST())) {
+                ICFamily family = getFamily(registration, suffix);
+                boolean selfTriggered = ic instanceof SelfTriggeredIC && (event.getLine(1).trim().toUpperCase(Locale.ENGLISH).endsWith("S") || ((SelfTriggeredIC) ic).isAlwaysST());
+                ICManager.setResolvedIC(block, new ResolvedIC(registration.getId(), sign.getRawLine(1), registration, family, ic, selfTriggered));
+                if (selfTriggered) {
                     if (disableSelfTriggered) {
                         player.printError("Self-triggered ICs are disabled!");
                         return;
                     }
-                    CraftBookPlugin.inst().getSelfTriggerManager().registerSelfTrigger(block.getLocation());
+                    registerSelfTriggered(block, registration.getId(), (SelfTriggeredIC) ic, family);
                 }
 
                 player.print("You've created " + registration.getId() + ": " + ic.getTitle() + ".");
@@ -497,6 +748,18 @@ public class ICMechanic extends AbstractCraftBookMechanic {
         }
     }
 
+    /**
+     * Gets the amount of self-trigger clock runs between each think of the given IC.
+     *
+     * @param id The IC ID
+     * @return The think interval
+     */
+    public int getThinkInterval(String id) {
+
+        Integer interval = thinkIntervals.get(id.toLowerCase(Locale.ENGLISH));
+        return interval == null ? 1 : interval;
+    }
+
     public static boolean checkPermissionsBoolean(CraftBookPlayer player, ICFactory factory, String id) {
 
         try {
@@ -535,6 +798,7 @@ public class ICMechanic extends AbstractCraftBookMechanic {
     }
 
     public boolean cache;
+    public int cacheSize;
     public boolean shortHand;
     public double maxRange;
     public List<String> disabledICs;
@@ -542,8 +806,12 @@ public class ICMechanic extends AbstractCraftBookMechanic {
     public LocationCheckType defaultCoordinates;
     public boolean savePersistentData;
     public boolean usePercussionMidi;
+    public int midiCacheSize;
     public boolean breakOnError;
     public boolean disableSelfTriggered;
+    public Map<String, Integer> thinkIntervals;
+    public int plcSaveInterval;
+    public int volumeChangesPerTick;
 
     @Override
     public void loadConfiguration (YAMLProcessor config, String path) {
@@ -551,6 +819,9 @@ public class ICMechanic extends AbstractCraftBookMechanic {
         config.setComment(path + "cache", "Saves many CPU cycles with a VERY small cost to memory (Highly Recommended)");
         cache = config.getBoolean(path + "cache", true);
 
+        config.setComment(path + "cache-size", "The maximum amount of ICs to cache. When full, the least recently used IC is removed from the cache. 0 means no limit.");
+        cacheSize = config.getInt(path + "cache-size", 0);
+
         config.setComment(path + "max-radius", "The max radius IC's with a radius setting can use. (WILL cause lag at higher values)");
         maxRange = config.getDouble(path + "max-radius", 10);
 
@@ -572,10 +843,27 @@ public class ICMechanic extends AbstractCraftBookMechanic {
         config.setComment(path + "midi-use-percussion", "Plays the MIDI percussion channel when using a MIDI playing IC. Note: This may sound horrible on some songs.");
         usePercussionMidi = config.getBoolean(path + "midi-use-percussion", false);
 
+        config.setComment(path + "midi-cache-size", "The maximum memory in kilobytes used to keep decoded MIDI files and tunes, so they aren't decoded each time they are played.");
+        midiCacheSize = config.getInt(path + "midi-cache-size", 4096);
+
         config.setComment(path + "break-on-error", "Break the IC sign when an error occurs from that specific IC.");
         breakOnError = config.getBoolean(path + "break-on-error", false);
         
         config.setComment(path + "disable-self-triggered", "Disable creation and checking of self-triggered ICs.");
         disableSelfTriggered = config.getBoolean(path + "disable-self-triggered", false);
+
+        config.setComment(path + "think-intervals", "A map of IC IDs to the amount of self-trigger runs between each think. Use this to slow down expensive ICs.");
+        thinkIntervals = new HashMap<>();
+        if(config.getKeys(path + "think-intervals") != null) {
+            for(String key : config.getKeys(path + "think-intervals"))
+                thinkIntervals.put(key.toLowerCase(Locale.ENGLISH), Math.max(1, config.getInt(path + "think-intervals." + key, 1)));
+        } else
+            config.addNode(path + "think-intervals");
+
+        config.setComment(path + "plc-save-interval", "The amount of ticks between saving changed PLC states to disk. States are always saved when CraftBook is disabled.");
+        plcSaveInterval = Math.max(1, config.getInt(path + "plc-save-interval", 100));
+
+        config.setComment(path + "volume-changes-per-tick", "The maximum amount of blocks changed per tick by ICs that fill or drain areas, such as the Liquid Flooder. Larger changes are spread over several ticks.");
+        volumeChangesPerTick = Math.max(1, config.getInt(path + "volume-changes-per-tick", 1024));
     }
 }
\ No newline at end of file
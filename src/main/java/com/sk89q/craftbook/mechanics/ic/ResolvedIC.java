@@ -0,0 +1,66 @@
+package com.sk89q.craftbook.mechanics.ic;
+
+/**
+ * What {@link ICMechanic#setupIC} worked out from the sign of a cached IC, so later events can skip reading and
+ * parsing the sign. It is kept alongside the IC in the {@link ICCache}, and dropped with it. The IC is dropped when its
+ * sign is edited or broken, or when the sign is pinged and its ID line no longer matches.
+ */
+public final class ResolvedIC {
+
+    private final String id;
+    private final String line;
+    private final RegisteredICFactory registration;
+    private final ICFamily family;
+    private final IC ic;
+    private final boolean selfTriggered;
+
+    public ResolvedIC(String id, String line, RegisteredICFactory registration, ICFamily family, IC ic, boolean selfTriggered) {
+
+        this.id = id;
+        this.line = line;
+        this.registration = registration;
+        this.family = family;
+        this.ic = ic;
+        this.selfTriggered = selfTriggered;
+    }
+
+    public String getId() {
+
+        return id;
+    }
+
+    /**
+     * Gets the raw ID line of the sign it was resolved from, to notice signs changed without an edit event.
+     *
+     * @return The ID line
+     */
+    public String getLine() {
+
+        return line;
+    }
+
+    public RegisteredICFactory getRegistration() {
+
+        return registration;
+    }
+
+    public ICFamily getFamily() {
+
+        return family;
+    }
+
+    public IC getIC() {
+
+        return ic;
+    }
+
+    /**
+     * Gets if the IC runs as a self-triggered IC.
+     *
+     * @return If it is self-triggered
+     */
+    public boolean isSelfTriggered() {
+
+        return selfTriggered;
+    }
+}
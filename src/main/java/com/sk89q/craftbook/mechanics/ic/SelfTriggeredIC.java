@@ -16,6 +16,7 @@
 
 package com.sk89q.craftbook.mechanics.ic;
 
+import com.sk89q.craftbook.core.st.SelfTriggeringManager;
 import com.sk89q.craftbook.mechanics.ic.gates.logic.Clock;
 
 /**
@@ -40,4 +41,15 @@ public interface SelfTriggeredIC extends PersistentIC {
      * @return if the {@link IC} should always be ST.
      */
     boolean isAlwaysST();
+
+    /**
+     * Checks whether an {@link IC} only needs to think after being woken through
+     * {@link SelfTriggeringManager#wakeSelfTrigger(org.bukkit.Location)}, rather than every think interval.
+     *
+     * @return if the {@link IC} only thinks when woken.
+     */
+    default boolean isWakeOnly() {
+
+        return false;
+    }
 }
@@ -0,0 +1,60 @@
+package com.sk89q.craftbook.mechanics.ic;
+
+import com.sk89q.craftbook.core.st.SelfTriggerHandler;
+import com.sk89q.craftbook.util.SignUtil;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.util.Location;
+import org.bukkit.block.Block;
+
+/**
+ * Thinks a loaded {@link SelfTriggeredIC} directly, without resolving its sign again on every think. It only checks
+ * that the IC is still the one in the {@link ICCache}.
+ */
+public class SelfTriggeredICHandler implements SelfTriggerHandler {
+
+    private final SelfTriggeredIC ic;
+    private final ICFamily family;
+
+    private Location location;
+
+    public SelfTriggeredICHandler(SelfTriggeredIC ic, ICFamily family) {
+
+        this.ic = ic;
+        this.family = family;
+    }
+
+    public SelfTriggeredIC getIC() {
+
+        return ic;
+    }
+
+    public ICFamily getFamily() {
+
+        return family;
+    }
+
+    @Override
+    public boolean think(Block block) {
+
+        if (!SignUtil.isWallSign(block))
+            return false;
+
+        if (location == null)
+            location = BukkitAdapter.adapt(block.getLocation());
+
+        // An IC that has been dropped from the cache has also been unloaded, so it must not think again. The sign is
+        // resolved again instead, which registers a handler for the new IC.
+        if (ICManager.getCachedIC(block) != ic) {
+            Object[] icData = ICMechanic.instance.setupIC(block, true);
+            if (icData == null || !(icData[2] instanceof SelfTriggeredIC))
+                return false;
+            ChipState chipState = ((ICFamily) icData[1]).detectSelfTriggered(location, ((IC) icData[2]).getSign());
+            ((SelfTriggeredIC) icData[2]).think(chipState);
+            return true;
+        }
+
+        ChipState chipState = family.detectSelfTriggered(location, ic.getSign());
+        ic.think(chipState);
+        return true;
+    }
+}
@@ -8,7 +8,9 @@ import com.sk89q.craftbook.mechanics.ic.AbstractSelfTriggeredIC;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
 import com.sk89q.craftbook.mechanics.ic.ICFactory;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
+import com.sk89q.craftbook.util.CandidateIndex;
 import com.sk89q.craftbook.util.InventoryUtil;
 import com.sk89q.craftbook.util.SearchArea;
 import org.bukkit.Material;
@@ -21,11 +23,23 @@ import org.bukkit.block.data.Ageable;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
 
+import java.util.EnumSet;
 import java.util.Random;
+import java.util.Set;
 
 public class BonemealTerraformer extends AbstractSelfTriggeredIC {
 
+    private static final Set<Material> growable = EnumSet.of(Material.WHEAT, Material.CARROTS, Material.POTATOES, Material.MELON_STEM,
+            Material.BEETROOTS, Material.NETHER_WART, Material.COCOA, Material.PUMPKIN_STEM, Material.BROWN_MUSHROOM, Material.RED_MUSHROOM,
+            Material.SUGAR_CANE, Material.CACTUS, Material.DIRT, Material.GRASS_BLOCK, Material.SAND, Material.VINE, Material.WATER,
+            Material.MYCELIUM);
+
+    static {
+        growable.addAll(Tag.SAPLINGS.getValues());
+    }
+
     private SearchArea area;
+    private CandidateIndex candidates;
 
     public BonemealTerraformer(Server server, ChangedSign block, ICFactory factory) {
 
@@ -36,6 +50,15 @@ public class BonemealTerraformer extends AbstractSelfTriggeredIC {
     public void load() {
 
         area = SearchArea.createArea(getLocation().getBlock(), getLine(2));
+        candidates = ICMechanic.instance.getCandidateIndexes().get(getLocation().getBlock(), area, growable);
+    }
+
+    @Override
+    public void unload() {
+
+        super.unload();
+        if (ICMechanic.instance.getCandidateIndexes() != null)
+            ICMechanic.instance.getCandidateIndexes().release(getLocation().getBlock());
     }
 
     @Override
@@ -63,13 +86,16 @@ public class BonemealTerraformer extends AbstractSelfTriggeredIC {
 
         if(state.getInput(0)) return;
 
+        if(candidates != null)
+            candidates.scan();
+
         for(int i = 0; i < 10; i++)
             terraform();
     }
 
     public void terraform() {
 
-        Block b = area.getRandomBlockInArea();
+        Block b = candidates == null ? null : candidates.getRandomBlock();
 
         if(b == null) return;
 
@@ -182,9 +208,13 @@ public class BonemealTerraformer extends AbstractSelfTriggeredIC {
     public boolean consumeBonemeal() {
 
         Block chest = getBackBlock().getRelative(0, 1, 0);
-        return InventoryUtil.doesBlockHaveInventory(chest) && InventoryUtil.removeItemsFromInventory((InventoryHolder) chest.getState(),
-                new ItemStack(Material.BONE_MEAL, 1));
-
+        if (InventoryUtil.doesBlockHaveInventory(chest) && InventoryUtil.removeItemsFromInventory((InventoryHolder) chest.getState(),
+                new ItemStack(Material.BONE_MEAL, 1))) {
+            if (candidates != null)
+                candidates.hit();
+            return true;
+        }
+        return false;
     }
 
     public boolean refundBonemeal() {
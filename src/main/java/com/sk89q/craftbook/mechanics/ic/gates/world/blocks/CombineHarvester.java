@@ -7,8 +7,10 @@ import com.sk89q.craftbook.mechanics.ic.AbstractSelfTriggeredIC;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
 import com.sk89q.craftbook.mechanics.ic.ICFactory;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
 import com.sk89q.craftbook.util.BlockUtil;
+import com.sk89q.craftbook.util.CandidateIndex;
 import com.sk89q.craftbook.util.ICUtil;
 import com.sk89q.craftbook.util.SearchArea;
 import com.sk89q.worldedit.math.BlockVector3;
@@ -18,6 +20,9 @@ import org.bukkit.Tag;
 import org.bukkit.block.Block;
 import org.bukkit.block.data.Ageable;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 public class CombineHarvester extends AbstractSelfTriggeredIC {
 
     public CombineHarvester(Server server, ChangedSign sign, ICFactory factory) {
@@ -25,12 +30,29 @@ public class CombineHarvester extends AbstractSelfTriggeredIC {
         super(server, sign, factory);
     }
 
+    private static final Set<Material> crops = EnumSet.of(Material.WHEAT, Material.CARROTS, Material.POTATOES, Material.BEETROOTS,
+            Material.NETHER_WART, Material.COCOA, Material.CACTUS, Material.SUGAR_CANE, Material.VINE, Material.MELON, Material.PUMPKIN);
+
+    static {
+        crops.addAll(Tag.LOGS.getValues());
+    }
+
     SearchArea area;
+    private CandidateIndex candidates;
 
     @Override
     public void load() {
 
         area = SearchArea.createArea(getLocation().getBlock(), getLine(2));
+        candidates = ICMechanic.instance.getCandidateIndexes().get(getLocation().getBlock(), area, crops);
+    }
+
+    @Override
+    public void unload() {
+
+        super.unload();
+        if (ICMechanic.instance.getCandidateIndexes() != null)
+            ICMechanic.instance.getCandidateIndexes().release(getLocation().getBlock());
     }
 
     @Override
@@ -56,19 +78,24 @@ public class CombineHarvester extends AbstractSelfTriggeredIC {
 
         if(chip.getInput(0)) return;
 
+        if(candidates != null)
+            candidates.scan();
+
         for(int i = 0; i < 10; i++)
             chip.setOutput(0, harvest());
     }
 
     public boolean harvest() {
 
-        Block b = area.getRandomBlockInArea();
+        Block b = candidates == null ? null : candidates.getRandomBlock();
 
         if(b == null) return false;
 
         if (harvestable(b)) {
             ICUtil.collectItem(this, BlockVector3.at(0, 1, 0), BlockUtil.getBlockDrops(b, null));
             b.setType(Material.AIR);
+            candidates.hit();
+            ICMechanic.instance.getCandidateIndexes().update(b);
             return true;
         }
         return false;
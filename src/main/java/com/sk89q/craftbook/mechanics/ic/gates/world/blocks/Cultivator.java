@@ -7,7 +7,9 @@ import com.sk89q.craftbook.mechanics.ic.AbstractSelfTriggeredIC;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
 import com.sk89q.craftbook.mechanics.ic.ICFactory;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
+import com.sk89q.craftbook.util.CandidateIndex;
 import com.sk89q.craftbook.util.ItemUtil;
 import com.sk89q.craftbook.util.SearchArea;
 import org.bukkit.Material;
@@ -39,12 +41,24 @@ public class Cultivator extends AbstractSelfTriggeredIC {
         return "CULTIVATOR";
     }
 
+    private static final Set<Material> tillable = EnumSet.of(Material.DIRT, Material.GRASS_BLOCK);
+
     private SearchArea area;
+    private CandidateIndex candidates;
 
     @Override
     public void load() {
 
         area = SearchArea.createArea(getLocation().getBlock(), getLine(2));
+        candidates = ICMechanic.instance.getCandidateIndexes().get(getLocation().getBlock(), area, tillable);
+    }
+
+    @Override
+    public void unload() {
+
+        super.unload();
+        if (ICMechanic.instance.getCandidateIndexes() != null)
+            ICMechanic.instance.getCandidateIndexes().release(getLocation().getBlock());
     }
 
     @Override
@@ -58,19 +72,24 @@ public class Cultivator extends AbstractSelfTriggeredIC {
 
         if(state.getInput(0)) return;
 
+        if(candidates != null)
+            candidates.scan();
+
         for(int i = 0; i < 10; i++)
             state.setOutput(0, cultivate());
     }
 
     public boolean cultivate() {
 
-        Block b = area.getRandomBlockInArea();
+        Block b = candidates == null ? null : candidates.getRandomBlock();
 
         if(b == null) return false;
 
         if (b.getType() == Material.DIRT || b.getType() == Material.GRASS_BLOCK) {
             if (b.getRelative(BlockFace.UP).getType() == Material.AIR && damageHoe()) {
                 b.setType(Material.FARMLAND);
+                candidates.hit();
+                ICMechanic.instance.getCandidateIndexes().update(b);
                 return true;
             }
         }
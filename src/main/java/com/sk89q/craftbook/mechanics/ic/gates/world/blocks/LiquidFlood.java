@@ -1,25 +1,34 @@
 package com.sk89q.craftbook.mechanics.ic.gates.world.blocks;
 
 import com.sk89q.craftbook.ChangedSign;
-import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
 import com.sk89q.craftbook.mechanics.ic.AbstractICFactory;
 import com.sk89q.craftbook.mechanics.ic.AbstractSelfTriggeredIC;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
 import com.sk89q.craftbook.mechanics.ic.ICFactory;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 import com.sk89q.craftbook.mechanics.ic.RestrictedIC;
+import com.sk89q.craftbook.util.BlockChange;
 import com.sk89q.craftbook.util.ICUtil;
+import com.sk89q.craftbook.util.VolumeScanner;
+import com.sk89q.craftbook.util.VolumeSnapshot;
 import com.sk89q.worldedit.math.BlockVector3;
 import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.Server;
-import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Levelled;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class LiquidFlood extends AbstractSelfTriggeredIC {
 
     BlockVector3 radius;
     String liquid;
+    Material liquidType;
     Location centre;
+    boolean filling;
 
     public LiquidFlood(Server server, ChangedSign block, ICFactory factory) {
 
@@ -45,39 +54,68 @@ public class LiquidFlood extends AbstractSelfTriggeredIC {
         radius = ICUtil.parseRadius(getSign()).toBlockPoint();
 
         liquid = getSign().getLine(2).equalsIgnoreCase("lava") ? "lava" : "water";
+        liquidType = liquid.equals("lava") ? Material.LAVA : Material.WATER;
+    }
+
+    @Override
+    public void unload() {
+
+        super.unload();
+        if (ICMechanic.instance.getVolumeScanner() != null)
+            ICMechanic.instance.getVolumeScanner().cancel(this);
     }
 
     public void doStuff(ChipState chip) {
 
-        if (chip.getInput(0)) {
-            for (int x = -radius.getBlockX() + 1; x < radius.getBlockX(); x++) {
-                for (int y = -radius.getBlockY() + 1; y < radius.getBlockY(); y++) {
-                    for (int z = -radius.getBlockZ() + 1; z < radius.getBlockZ(); z++) {
-                        int rx = centre.getBlockX() - x;
-                        int ry = centre.getBlockY() - y;
-                        int rz = centre.getBlockZ() - z;
-                        Block b = CraftBookBukkitUtil.toSign(getSign()).getWorld().getBlockAt(rx, ry, rz);
-                        if (b.getType() == Material.AIR || b.getType() == (liquid.equalsIgnoreCase("water") ? Material.WATER : Material.LAVA)) {
-                            b.setType(liquid.equalsIgnoreCase("water") ? Material.WATER : Material.LAVA);
-                        }
-                    }
-                }
-            }
-        } else if (!chip.getInput(0)) {
-            for (int x = -radius.getBlockX() + 1; x < radius.getBlockX(); x++) {
-                for (int y = -radius.getBlockY() + 1; y < radius.getBlockY(); y++) {
-                    for (int z = -radius.getBlockZ() + 1; z < radius.getBlockZ(); z++) {
-                        int rx = centre.getBlockX() - x;
-                        int ry = centre.getBlockY() - y;
-                        int rz = centre.getBlockZ() - z;
-                        Block b = CraftBookBukkitUtil.toSign(getSign()).getWorld().getBlockAt(rx, ry, rz);
-                        if (b.getType() == (liquid.equalsIgnoreCase("water") ? Material.WATER : Material.LAVA)) {
-                            b.setType(Material.AIR);
-                        }
-                    }
+        VolumeScanner scanner = ICMechanic.instance.getVolumeScanner();
+        if (scanner == null || radius.getBlockX() < 1 || radius.getBlockY() < 1 || radius.getBlockZ() < 1)
+            return;
+
+        boolean fill = chip.getInput(0);
+        // A change of input replaces whatever is left of the last fill or drain.
+        if (fill != filling)
+            scanner.cancel(this);
+        filling = fill;
+
+        BlockVector3 offset = radius.subtract(1, 1, 1);
+        BlockVector3 min = BlockVector3.at(centre.getBlockX(), centre.getBlockY(), centre.getBlockZ()).subtract(offset);
+        BlockVector3 max = BlockVector3.at(centre.getBlockX(), centre.getBlockY(), centre.getBlockZ()).add(offset);
+        Material type = liquidType;
+
+        // The blocks are read and compared off the main thread, and only those that need to change are set.
+        scanner.edit(this, centre.getWorld(), min, max, snapshot -> flood(snapshot, type, fill));
+    }
+
+    /**
+     * Works out the blocks to change to fill or drain the snapshot.
+     *
+     * @param snapshot The area
+     * @param liquid The liquid
+     * @param fill If the area is filled, otherwise it's drained
+     * @return The blocks to change
+     */
+    static List<BlockChange> flood(VolumeSnapshot snapshot, Material liquid, boolean fill) {
+
+        List<BlockChange> changes = new ArrayList<>();
+        for (int x = snapshot.getMaxX(); x >= snapshot.getMinX(); x--) {
+            for (int y = snapshot.getMaxY(); y >= snapshot.getMinY(); y--) {
+                for (int z = snapshot.getMaxZ(); z >= snapshot.getMinZ(); z--) {
+                    Material type = snapshot.getType(x, y, z);
+                    if (fill) {
+                        // Flowing liquid is set again as well, which turns it into a source.
+                        if (type == Material.AIR || type == liquid && !isSource(snapshot.getBlockData(x, y, z)))
+                            changes.add(new BlockChange(x, y, z, type, liquid));
+                    } else if (type == liquid)
+                        changes.add(new BlockChange(x, y, z, type, Material.AIR));
                 }
             }
         }
+        return changes;
+    }
+
+    private static boolean isSource(BlockData data) {
+
+        return !(data instanceof Levelled) || ((Levelled) data).getLevel() == 0;
     }
 
     @Override
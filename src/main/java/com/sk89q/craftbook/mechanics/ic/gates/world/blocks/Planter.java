@@ -8,7 +8,9 @@ import com.sk89q.craftbook.mechanics.ic.AbstractSelfTriggeredIC;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
 import com.sk89q.craftbook.mechanics.ic.ICFactory;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
+import com.sk89q.craftbook.util.CandidateIndex;
 import com.sk89q.craftbook.util.ItemSyntax;
 import com.sk89q.craftbook.util.ItemUtil;
 import com.sk89q.craftbook.util.SearchArea;
@@ -26,7 +28,9 @@ import org.bukkit.inventory.ItemStack;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Sapling planter Hybrid variant of MCX206 and MCX203 chest collector When there is a sapling or seed item drop in
@@ -42,9 +46,20 @@ public class Planter extends AbstractSelfTriggeredIC {
         super(server, block, factory);
     }
 
+    /**
+     * The blocks that something can be planted on or next to. Mushrooms can be planted on any solid block, so they
+     * are planted at random blocks in the area instead.
+     */
+    private static final Set<Material> soil = EnumSet.of(Material.FARMLAND, Material.DIRT, Material.GRASS_BLOCK, Material.PODZOL,
+            Material.SOUL_SAND, Material.SAND, Material.WATER, Material.JUNGLE_LOG);
+
+    private static final BlockFace[] horizontal = {BlockFace.EAST, BlockFace.WEST, BlockFace.NORTH, BlockFace.SOUTH};
+
     ItemStack item;
 
     SearchArea area;
+    private CandidateIndex candidates;
+    private boolean fromCandidates;
 
     @Override
     public void load() {
@@ -55,6 +70,15 @@ public class Planter extends AbstractSelfTriggeredIC {
             item = ItemSyntax.getItem(getLine(2));
 
         area = SearchArea.createArea(getLocation().getBlock(), getLine(3));
+        candidates = ICMechanic.instance.getCandidateIndexes().get(getLocation().getBlock(), area, soil);
+    }
+
+    @Override
+    public void unload() {
+
+        super.unload();
+        if (ICMechanic.instance.getCandidateIndexes() != null)
+            ICMechanic.instance.getCandidateIndexes().release(getLocation().getBlock());
     }
 
     @Override
@@ -80,6 +104,9 @@ public class Planter extends AbstractSelfTriggeredIC {
 
         if(state.getInput(0)) return;
 
+        if(candidates != null)
+            candidates.scan();
+
         for(int i = 0; i < 10; i++)
             plant();
     }
@@ -102,7 +129,7 @@ public class Planter extends AbstractSelfTriggeredIC {
 
                 if ((b = searchBlocks(it)) != null) {
                     if (c.getInventory().removeItem(new ItemStack(it.getType(), 1, it.getDurability())).isEmpty()) {
-                        return plantBlockAt(it, b);
+                        return planted(plantBlockAt(it, b), b);
                     }
                 }
             }
@@ -120,7 +147,7 @@ public class Planter extends AbstractSelfTriggeredIC {
                     Block b = null;
                     if ((b = searchBlocks(stack)) != null) {
                         if (ItemUtil.takeFromItemEntity(itemEnt, 1)) {
-                            return plantBlockAt(stack, b);
+                            return planted(plantBlockAt(stack, b), b);
                         }
                     }
                 }
@@ -132,7 +159,21 @@ public class Planter extends AbstractSelfTriggeredIC {
 
     public Block searchBlocks(ItemStack stack) {
 
-        Block b = area.getRandomBlockInArea();
+        Block b;
+        fromCandidates = !(stack.getType() == Material.RED_MUSHROOM || stack.getType() == Material.BROWN_MUSHROOM || candidates == null
+                || !candidates.isScanned());
+        if (!fromCandidates)
+            b = area.getRandomBlockInArea();
+        else {
+            b = candidates.getRandomBlock();
+            if (b != null) {
+                // Cocoa is planted beside jungle logs, everything else on top of its soil.
+                b = b.getType() == Material.JUNGLE_LOG ? b.getRelative(horizontal[CraftBookPlugin.inst().getRandom().nextInt(4)])
+                        : b.getRelative(BlockFace.UP);
+                if (!area.isWithinArea(b.getLocation()))
+                    return null;
+            }
+        }
 
         if (b == null || b.getType() != Material.AIR)
             return null;
@@ -143,6 +184,17 @@ public class Planter extends AbstractSelfTriggeredIC {
         return null;
     }
 
+    private boolean planted(boolean planted, Block block) {
+
+        if (planted) {
+            if (fromCandidates)
+                candidates.hit();
+            if (ICMechanic.instance.getCandidateIndexes() != null)
+                ICMechanic.instance.getCandidateIndexes().update(block);
+        }
+        return planted;
+    }
+
     protected boolean plantableItem(ItemStack item) {
         switch (item.getType()) {
             case WHEAT_SEEDS:
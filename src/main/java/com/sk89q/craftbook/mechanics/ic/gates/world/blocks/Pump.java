@@ -60,6 +60,8 @@ public class Pump extends AbstractSelfTriggeredIC {
         Block pump = getBackBlock();
         if (!InventoryUtil.doesBlockHaveInventory(pump.getRelative(0, 1, 0))) return false;
         InventoryHolder c = (InventoryHolder) pump.getRelative(0, 1, 0).getState();
+        // Nothing can be pumped without a bucket, so don't bother searching.
+        if (!c.getInventory().contains(Material.BUCKET)) return false;
         for (int y = -1; y > -11; y--) {
             Block liquid = pump.getRelative(0, y, 0);
             if (check(c, liquid, 0)) return true;
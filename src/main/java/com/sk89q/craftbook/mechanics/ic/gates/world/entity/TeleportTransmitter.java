@@ -11,7 +11,6 @@ import org.bukkit.Location;
 import org.bukkit.Server;
 import org.bukkit.entity.Player;
 
-import java.util.HashSet;
 import java.util.Map.Entry;
 import java.util.Set;
 
@@ -164,7 +163,6 @@ public class TeleportTransmitter extends AbstractSelfTriggeredIC {
                 throw new ICVerificationException("Invalid SearchArea on 4th line!");
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public void load() {
 
@@ -172,7 +170,7 @@ public class TeleportTransmitter extends AbstractSelfTriggeredIC {
 
             if(CraftBookPlugin.inst().getPersistentStorage().has("teleport-ic-locations.list")) {
 
-                Set<String> list = new HashSet<>((Set<String>) CraftBookPlugin.inst().getPersistentStorage().get("teleport-ic-locations.list"));
+                Set<String> list = CraftBookPlugin.inst().getPersistentStorage().getStringSet("teleport-ic-locations.list");
 
                 for(String ent : list) {
                     String locString = (String) CraftBookPlugin.inst().getPersistentStorage().get("teleport-ic-locations." + ent);
@@ -188,8 +186,8 @@ public class TeleportTransmitter extends AbstractSelfTriggeredIC {
 
             if(!(ICMechanic.instance.savePersistentData && CraftBookPlugin.inst().hasPersistentStorage())) return;
 
-            CraftBookPlugin.inst().getPersistentStorage().set("teleport-ic-locations.list",
-                    new HashSet<>(TeleportTransmitter.lastKnownLocations.keySet()));
+            CraftBookPlugin.inst().getPersistentStorage().setStringSet("teleport-ic-locations.list",
+                    TeleportTransmitter.lastKnownLocations.keySet());
 
             for(Entry<String, Location> locations : TeleportTransmitter.lastKnownLocations.entrySet()) {
                 if(locations == null || locations.getValue() == null)
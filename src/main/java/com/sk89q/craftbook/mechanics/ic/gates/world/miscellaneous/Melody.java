@@ -1,18 +1,13 @@
 package com.sk89q.craftbook.mechanics.ic.gates.world.miscellaneous;
 
 import java.io.File;
-import java.io.IOException;
-import java.util.HashSet;
 import java.util.Locale;
-import java.util.Set;
-
-import javax.sound.midi.InvalidMidiDataException;
-import javax.sound.midi.MidiUnavailableException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import com.sk89q.craftbook.CraftBookPlayer;
 import com.sk89q.craftbook.mechanics.ic.*;
 import com.sk89q.util.yaml.YAMLProcessor;
-import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.Server;
 import org.bukkit.entity.Player;
@@ -23,6 +18,7 @@ import com.sk89q.craftbook.util.RegexUtil;
 import com.sk89q.craftbook.util.SearchArea;
 import com.sk89q.craftbook.util.jinglenote.JingleNoteManager;
 import com.sk89q.craftbook.util.jinglenote.MidiJingleSequencer;
+import com.sk89q.craftbook.util.jinglenote.NoteTimeline;
 
 /**
  * @author Me4502
@@ -64,6 +60,7 @@ public class Melody extends AbstractSelfTriggeredIC {
     boolean forceStart, loop, hasRun;
 
     MelodyPlayer player;
+    CompletableFuture<NoteTimeline> loading;
 
     boolean foundFile = false;
 
@@ -118,13 +115,26 @@ public class Melody extends AbstractSelfTriggeredIC {
             return;
 
         if(player == null || !player.isValid() && (loop || chip.isTriggered(0) && chip.getInput(0))) {
-            try {
-                player = new MelodyPlayer(new MidiJingleSequencer(file, loop));
+            // The file is decoded off the main thread the first time, and starts playing once it's ready.
+            NoteTimeline timeline = ICManager.inst().getSongCache().getMidiIfPresent(file);
+            if(timeline == null) {
+                if(loading == null)
+                    loading = ICManager.inst().getSongCache().loadMidi(file);
+                if(!loading.isDone())
+                    return;
+                try {
+                    timeline = loading.join();
+                } catch (CompletionException e) {
+                    CraftBookPlugin.logger().warning("Found invalid MIDI file: " + file);
+                    e.getCause().printStackTrace();
+                    foundFile = false;
+                } finally {
+                    loading = null;
+                }
+            }
+            if(timeline != null) {
+                player = new MelodyPlayer(new MidiJingleSequencer(timeline, loop));
                 hasRun = false;
-            } catch (MidiUnavailableException | IOException | InvalidMidiDataException e) {
-                CraftBookPlugin.logger().warning("Found invalid MIDI file: " + file);
-                e.printStackTrace();
-                foundFile = false;
             }
         }
 
@@ -141,7 +151,7 @@ public class Melody extends AbstractSelfTriggeredIC {
                             pp.sendMessage(ChatColor.YELLOW + "Playing " + midiName + "...");
                         }
                         if(!hasRun) {
-                            Bukkit.getScheduler().runTaskAsynchronously(getPlugin(), player);
+                            player.start();
                             hasRun = true;
                         }
                     }
@@ -154,81 +164,53 @@ public class Melody extends AbstractSelfTriggeredIC {
         chip.setOutput(0, player.isPlaying());
     }
 
-    private class MelodyPlayer implements Runnable {
+    private class MelodyPlayer {
 
         private JingleNoteManager jNote;
         private MidiJingleSequencer sequencer;
         private boolean isPlaying;
 
-        private final Set<String> toStop, toPlay;
-
         public MelodyPlayer(MidiJingleSequencer sequencer) {
             this.sequencer = sequencer;
             jNote = new JingleNoteManager();
-            toStop = new HashSet<>();
-            toPlay = new HashSet<>();
             isPlaying = false;
             CraftBookPlugin.logDebugMessage("Constructing new player instance.", "ic-mc1270");
         }
 
         public boolean isPlaying(String player) {
-            return isPlaying() && (toPlay.contains(player) || jNote.isPlaying(player));
+            return isPlaying() && jNote.isPlaying(player);
         }
 
         public void stop(String player) {
 
-            toStop.add(player);
-            toPlay.remove(player);
-            CraftBookPlugin.logDebugMessage("Removing " + player + " from melody IC.", "ic-mc1270");
+            jNote.stop(player);
+            CraftBookPlugin.logDebugMessage(() -> "Removing " + player + " from melody IC.", "ic-mc1270");
         }
 
         public void play(String player) {
 
-            if(jNote.isPlaying(player) || toPlay.contains(player)) return;
-            toPlay.add(player);
-            toStop.remove(player);
-            CraftBookPlugin.logDebugMessage("Adding " + player + " to melody IC.", "ic-mc1270");
+            if(sequencer == null || jNote.isPlaying(player)) return;
+            jNote.play(player, sequencer, area);
+            CraftBookPlugin.logDebugMessage(() -> "Adding " + player + " to melody IC.", "ic-mc1270");
         }
 
         public boolean isPlaying() {
-            return isPlaying && /*(!toPlay.isEmpty() || jNote.isPlaying() ||*/ sequencer != null && (sequencer.isPlaying() || !sequencer.hasPlayedBefore())/*)*/;
+            return isPlaying && isValid();
         }
 
-        public void setPlaying(boolean playing) {
-            isPlaying = playing;
+        public void start() {
+            isPlaying = true;
+            CraftBookPlugin.logDebugMessage("Starting run of player instance.", "ic-mc1270");
         }
 
-        @Override
-        public void run () {
-            try {
-                isPlaying = true;
-                CraftBookPlugin.logDebugMessage("Starting run of player instance.", "ic-mc1270");
-
-                while(isPlaying) {
-                    for(String player : toStop)
-                        jNote.stop(player);
-                    toStop.clear();
-                    for(String player : toPlay) {
-                        jNote.play(player, sequencer, area);
-                    }
-                    toPlay.clear();
-
-                    if(!isValid() || !isPlaying() && sequencer.hasPlayedBefore()) {
-                        isPlaying = false;
-                        break;
-                    }
-                }
-
-            } catch(Throwable t) {
-                t.printStackTrace();
-            } finally {
+        public void setPlaying(boolean playing) {
+            isPlaying = playing;
+            if(!playing) {
+                // The listeners themselves are played by the shared dispatcher, so stopping is all that's left.
                 if(sequencer != null)
                     sequencer.stop();
                 jNote.stopAll();
                 sequencer = null;
-                toPlay.clear();
-                toStop.clear();
-                isPlaying = false;
             }
         }
 
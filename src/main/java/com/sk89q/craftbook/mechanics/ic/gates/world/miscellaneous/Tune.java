@@ -9,6 +9,7 @@ import com.sk89q.craftbook.mechanics.ic.AbstractSelfTriggeredIC;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
 import com.sk89q.craftbook.mechanics.ic.ICFactory;
+import com.sk89q.craftbook.mechanics.ic.ICManager;
 import com.sk89q.craftbook.util.RegexUtil;
 import com.sk89q.craftbook.util.SearchArea;
 import com.sk89q.craftbook.util.jinglenote.JingleNoteManager;
@@ -46,7 +47,7 @@ public class Tune extends AbstractSelfTriggeredIC {
 
         if (chip.getInput(0)) {
             if(sequencer == null)
-                sequencer = new StringJingleSequencer(tune, delay);
+                sequencer = new StringJingleSequencer(ICManager.inst().getSongCache().getTune(tune), delay);
             if(sequencer.isPlaying() || !sequencer.hasPlayedBefore()) {
                 for (Player player : getServer().getOnlinePlayers()) {
                     if (!area.isWithinArea(player.getLocation())) {
@@ -0,0 +1,162 @@
+package com.sk89q.craftbook.mechanics.ic.gates.world.miscellaneous;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Holds the state of every wireless band, and notifies subscribers when a band changes.
+ *
+ * <p>
+ *     Band names are interned to ids the first time they are used, and the states are kept in a bitset by id.
+ *     Subscribers are keyed, so subscribing again with the same key, for example from a reloaded IC at the same
+ *     location, replaces the previous subscription instead of adding another. Subscribers are notified on the
+ *     thread that changed the band, after the bus has released its lock.
+ * </p>
+ */
+public class WirelessBandBus {
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final BitSet states = new BitSet();
+
+    private final Map<Integer, Map<Object, Runnable>> subscribers = new HashMap<>();
+    private final Map<Object, Integer> subscribedBands = new HashMap<>();
+
+    /**
+     * Gets the id of a band, assigning one if the band hasn't been used before.
+     *
+     * @param band The band name
+     * @return The band id
+     */
+    public synchronized int getId(String band) {
+
+        Integer id = ids.get(band);
+        if (id == null) {
+            id = names.size();
+            ids.put(band, id);
+            names.add(band);
+        }
+        return id;
+    }
+
+    public synchronized boolean get(int band) {
+
+        return states.get(band);
+    }
+
+    public boolean get(String band) {
+
+        return get(getId(band));
+    }
+
+    /**
+     * Sets the state of a band, notifying its subscribers if it changed.
+     *
+     * @param band The band id
+     * @param value The new state
+     * @return If the state changed
+     */
+    public boolean set(int band, boolean value) {
+
+        Runnable[] toNotify;
+        synchronized (this) {
+            if (states.get(band) == value)
+                return false;
+            states.set(band, value);
+            Map<Object, Runnable> bandSubscribers = subscribers.get(band);
+            if (bandSubscribers == null)
+                return true;
+            toNotify = bandSubscribers.values().toArray(new Runnable[0]);
+        }
+        for (Runnable subscriber : toNotify)
+            subscriber.run();
+        return true;
+    }
+
+    public boolean set(String band, boolean value) {
+
+        return set(getId(band), value);
+    }
+
+    /**
+     * Flips the state of a band.
+     *
+     * @param band The band name
+     * @return The new state
+     */
+    public boolean toggle(String band) {
+
+        int id = getId(band);
+        boolean value;
+        synchronized (this) {
+            value = !states.get(id);
+        }
+        set(id, value);
+        return value;
+    }
+
+    /**
+     * Subscribes to changes of a band. Any existing subscription with the same key is replaced.
+     *
+     * @param band The band id
+     * @param key The subscription key
+     * @param subscriber Run when the band changes
+     */
+    public synchronized void subscribe(int band, Object key, Runnable subscriber) {
+
+        unsubscribe(key);
+        subscribers.computeIfAbsent(band, k -> new HashMap<>()).put(key, subscriber);
+        subscribedBands.put(key, band);
+    }
+
+    /**
+     * Removes the subscription with the given key.
+     *
+     * @param key The subscription key
+     */
+    public synchronized void unsubscribe(Object key) {
+
+        Integer band = subscribedBands.remove(key);
+        if (band == null)
+            return;
+        Map<Object, Runnable> bandSubscribers = subscribers.get(band);
+        bandSubscribers.remove(key);
+        if (bandSubscribers.isEmpty())
+            subscribers.remove(band);
+    }
+
+    public synchronized int getSubscriberCount() {
+
+        return subscribedBands.size();
+    }
+
+    /**
+     * Gets the names of all bands that are on, in the format they are persisted in.
+     *
+     * @return The active bands
+     */
+    public synchronized Set<String> getActiveBands() {
+
+        Set<String> active = new LinkedHashSet<>();
+        for (int id = states.nextSetBit(0); id >= 0; id = states.nextSetBit(id + 1))
+            active.add(names.get(id));
+        return active;
+    }
+
+    /**
+     * Turns on the given bands, without notifying subscribers.
+     *
+     * @param bands The band names
+     */
+    public synchronized void addActiveBands(Collection<String> bands) {
+
+        for (String band : bands)
+            states.set(getId(band));
+    }
+}
@@ -20,6 +20,7 @@ import java.util.UUID;
 
 import com.sk89q.craftbook.CraftBookPlayer;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.Server;
 
@@ -41,6 +42,8 @@ import com.sk89q.util.yaml.YAMLProcessor;
 public class WirelessReceiver extends AbstractSelfTriggeredIC {
 
     private String band;
+    private int bandId;
+    private Location location;
 
     public WirelessReceiver(Server server, ChangedSign sign, ICFactory factory) {
 
@@ -71,6 +74,20 @@ public class WirelessReceiver extends AbstractSelfTriggeredIC {
             }
             band = band + getSign().getLine(3);
         }
+
+        WirelessBandBus bands = WirelessTransmitter.getBandBus();
+        bandId = bands.getId(band);
+        location = getSign().getBlock().getLocation();
+        // Only think when the band changes, instead of polling it every think.
+        bands.subscribe(bandId, location, () -> CraftBookPlugin.inst().getSelfTriggerManager().wakeSelfTrigger(location));
+    }
+
+    @Override
+    public void unload() {
+
+        super.unload();
+        if (location != null)
+            WirelessTransmitter.getBandBus().unsubscribe(location);
     }
 
     @Override
@@ -96,13 +113,7 @@ public class WirelessReceiver extends AbstractSelfTriggeredIC {
 
     public boolean getOutput() {
 
-        Boolean val = WirelessTransmitter.getValue(band);
-
-        if (val == null) {
-            return false;
-        }
-
-        return val;
+        return WirelessTransmitter.getBandBus().get(bandId);
     }
 
     @Override
@@ -178,4 +189,10 @@ public class WirelessReceiver extends AbstractSelfTriggeredIC {
     public boolean isActive () {
         return true;
     }
+
+    @Override
+    public boolean isWakeOnly() {
+
+        return true;
+    }
 }
\ No newline at end of file
@@ -20,7 +20,7 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.LinkedHashSet;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
 
@@ -51,9 +51,10 @@ import com.sk89q.util.yaml.YAMLProcessor;
 
 public class WirelessTransmitter extends AbstractIC {
 
-    protected static final Set<String> memory = new LinkedHashSet<>();
+    protected static final WirelessBandBus bands = new WirelessBandBus();
 
     protected String band;
+    protected int bandId;
 
     public WirelessTransmitter(Server server, ChangedSign sign, ICFactory factory) {
 
@@ -84,6 +85,7 @@ public class WirelessTransmitter extends AbstractIC {
             }
             band = band + getSign().getLine(3);
         }
+        bandId = bands.getId(band);
     }
 
     @Override
@@ -101,21 +103,28 @@ public class WirelessTransmitter extends AbstractIC {
     @Override
     public void trigger(ChipState chip) {
 
-        setValue(band, chip.getInput(0));
+        bands.set(bandId, chip.getInput(0));
         chip.setOutput(0, chip.getInput(0));
     }
 
     public static Boolean getValue(String band) {
 
-        return memory.contains(band);
+        return bands.get(band);
     }
 
     public static void setValue(String band, boolean val) {
 
-        if(!val) //List preening
-            memory.remove(band);
-        else
-            memory.add(band);
+        bands.set(band, val);
+    }
+
+    /**
+     * Gets the bus that holds the state of all wireless bands.
+     *
+     * @return The band bus
+     */
+    public static WirelessBandBus getBandBus() {
+
+        return bands;
     }
 
     public static class Factory extends AbstractICFactory implements PersistentDataIC, ConfigurableIC, CommandIC {
@@ -184,8 +193,10 @@ public class WirelessTransmitter extends AbstractIC {
         public void loadPersistentData (DataInputStream stream) throws IOException {
 
             int length = stream.readInt();
+            Set<String> active = new HashSet<>();
             for(int i = 0; i < length; i++)
-                memory.add(stream.readUTF());
+                active.add(stream.readUTF());
+            bands.addActiveBands(active);
             stream.close();
             getStorageFile().delete();
         }
@@ -199,19 +210,18 @@ public class WirelessTransmitter extends AbstractIC {
             return new File(CraftBookPlugin.inst().getDataFolder(), "wireless-bands.dat");
         }
 
-        @SuppressWarnings("unchecked")
         @Override
         public void load() {
             super.load();
 
-            if(ICMechanic.instance.savePersistentData && CraftBookPlugin.inst().hasPersistentStorage() && CraftBookPlugin.inst().getPersistentStorage().has("wireless-ic-states"))
-                WirelessTransmitter.memory.addAll((Set<String>) CraftBookPlugin.inst().getPersistentStorage().get("wireless-ic-states"));
+            if(ICMechanic.instance.savePersistentData && CraftBookPlugin.inst().hasPersistentStorage())
+                bands.addActiveBands(CraftBookPlugin.inst().getPersistentStorage().getStringSet("wireless-ic-states"));
         }
 
         @Override
         public void unload() {
             if(ICMechanic.instance.savePersistentData && CraftBookPlugin.inst().hasPersistentStorage())
-                CraftBookPlugin.inst().getPersistentStorage().set("wireless-ic-states", memory);
+                CraftBookPlugin.inst().getPersistentStorage().setStringSet("wireless-ic-states", bands.getActiveBands());
         }
 
         @Override
@@ -219,24 +229,21 @@ public class WirelessTransmitter extends AbstractIC {
 
             if (args.getString(1).equalsIgnoreCase("get")) {
 
-                if(memory.contains(args.getString(2)))
+                if(bands.get(args.getString(2)))
                     sender.sendMessage("Wireless-Band-State: TRUE");
                 else
                     sender.sendMessage("Wireless-Band-State: FALSE");
             } else if (args.getString(1).equalsIgnoreCase("set") && args.argsLength() > 3) {
 
                 if (args.getString(3).equalsIgnoreCase("true"))
-                    memory.add(args.getString(2));
+                    bands.set(args.getString(2), true);
                 else if (args.getString(3).equalsIgnoreCase("false"))
-                    memory.remove(args.getString(2));
+                    bands.set(args.getString(2), false);
                 else
                     sender.sendMessage(ChatColor.RED + "Invalid Boolean Argument!");
             } else if (args.getString(1).equalsIgnoreCase("toggle") && args.argsLength() > 2) {
 
-                if(memory.contains(args.getString(2)))
-                    memory.remove(args.getString(2));
-                else
-                    memory.add(args.getString(2));
+                bands.toggle(args.getString(2));
             } else
                 sender.sendMessage(ChatColor.RED + "Usage: /ic ic mc1110 <get/set/toggle> <band> <state>");
         }
@@ -3,7 +3,6 @@ package com.sk89q.craftbook.mechanics.ic.gates.world.sensors;
 import java.util.Set;
 
 import org.bukkit.Server;
-import org.bukkit.entity.Entity;
 
 import com.sk89q.craftbook.ChangedSign;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
@@ -99,13 +98,16 @@ public class EntitySensor extends AbstractSelfTriggeredIC {
 
     protected boolean isDetected() {
 
-        short cur = 0;
+        int[] count = new int[1];
 
-        for (Entity entity : area.getEntitiesInArea(types))
-            if (entity.isValid())
-                for (EntityType type : types) // Check Type
-                    if (type.is(entity)) // Check Radius
-                        cur++;
+        area.forEachEntityInArea(types, entity -> {
+            for (EntityType type : types) // Check Type
+                if (type.is(entity))
+                    count[0]++;
+            return true;
+        });
+
+        short cur = (short) count[0];
 
         if(minMode == 0 && cur >= minimum)
             return true;
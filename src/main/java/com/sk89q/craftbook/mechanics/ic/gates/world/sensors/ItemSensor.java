@@ -3,7 +3,6 @@ package com.sk89q.craftbook.mechanics.ic.gates.world.sensors;
 import java.util.Collections;
 
 import org.bukkit.Server;
-import org.bukkit.entity.Entity;
 import org.bukkit.entity.Item;
 import org.bukkit.inventory.ItemStack;
 
@@ -68,12 +67,8 @@ public class ItemSensor extends AbstractSelfTriggeredIC {
 
     protected boolean isDetected() {
 
-        for (Entity entity : area.getEntitiesInArea(Collections.singleton(EntityType.ITEM))) {
-            ItemStack itemStack = ((Item) entity).getItemStack();
-            if (ItemUtil.areItemsIdentical(itemStack, item))
-                return true;
-        }
-        return false;
+        return !area.forEachEntityInArea(Collections.singleton(EntityType.ITEM),
+                entity -> !ItemUtil.areItemsIdentical(((Item) entity).getItemStack(), item));
     }
 
     public static class Factory extends AbstractICFactory {
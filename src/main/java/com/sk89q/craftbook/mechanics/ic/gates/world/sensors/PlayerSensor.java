@@ -85,19 +85,13 @@ public class PlayerSensor extends AbstractSelfTriggeredIC {
             return p != null && area.isWithinArea(p.getLocation());
         }
 
-        for (Player p : area.getPlayersInArea()) {
+        return !area.forEachPlayerInArea(p -> {
             if (p == null || !p.isValid()) {
-                continue;
-            }
-
-            if (nameLine.isEmpty()) {
-                return true;
-            } else if (invertDetection != type.doesPlayerPass(p, nameLine)) {
                 return true;
             }
-        }
 
-        return false;
+            return !nameLine.isEmpty() && invertDetection == type.doesPlayerPass(p, nameLine);
+        });
     }
 
     public static class Factory extends AbstractICFactory implements RestrictedIC {
@@ -21,6 +21,7 @@ import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
 import com.sk89q.craftbook.mechanics.ic.ChipState;
 import com.sk89q.craftbook.mechanics.ic.IC;
+import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
 import com.sk89q.craftbook.mechanics.ic.SelfTriggeredIC;
 import com.sk89q.craftbook.util.SignUtil;
@@ -38,11 +39,11 @@ import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.BookMeta;
 import org.bukkit.util.Vector;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.security.MessageDigest;
@@ -60,7 +61,9 @@ class PlcIC<StateT, CodeT, Lang extends PlcLanguage<StateT, CodeT>> implements I
     private Lang lang;
     private StateT state;
     private String codeString;
+    private String codeHash = "";
     private CodeT code;
+    private File storageDirectory;
 
     private ChangedSign sign;
 
@@ -88,6 +91,7 @@ class PlcIC<StateT, CodeT, Lang extends PlcLanguage<StateT, CodeT>> implements I
         } catch (CodeNotFoundException e) {
             error("code missing", "Code went missing!!");
         }
+        codeHash = hashCode(codeString);
         try {
             if (codeString != null) {
                 code = lang.compile(codeString);
@@ -118,20 +122,28 @@ class PlcIC<StateT, CodeT, Lang extends PlcLanguage<StateT, CodeT>> implements I
 
     private File getStorageLocation() {
 
-        World w = sign.getBlock().getWorld();
-        File worldDir = w.getWorldFolder();
-        File targetDir = new File(new File(worldDir, "craftbook"), "plcs");
-        if(new File(worldDir, "craftbook-plcs").exists()) {
-
-            File oldFolder = new File(worldDir, "craftbook-plcs");
-            if(!targetDir.exists())
-                targetDir.mkdirs();
-            if(!oldFolder.renameTo(targetDir))
-                logger.warning("Failed to copy PLC States over to new directory!");
-            oldFolder.delete();
+        if (storageDirectory == null) {
+            World w = sign.getBlock().getWorld();
+            File worldDir = w.getWorldFolder();
+            File targetDir = new File(new File(worldDir, "craftbook"), "plcs");
+            if(new File(worldDir, "craftbook-plcs").exists()) {
+
+                File oldFolder = new File(worldDir, "craftbook-plcs");
+                if(!targetDir.exists())
+                    targetDir.mkdirs();
+                if(!oldFolder.renameTo(targetDir))
+                    logger.warning("Failed to copy PLC States over to new directory!");
+                oldFolder.delete();
+            }
+            targetDir.mkdirs();
+            storageDirectory = targetDir;
         }
-        targetDir.mkdirs();
-        return new File(targetDir, getFileName());
+        return new File(storageDirectory, getFileName());
+    }
+
+    private PlcStateStore getStateStore() {
+
+        return ICMechanic.instance.getPlcStateStore();
     }
 
     private String hashCode(String code) {
@@ -162,15 +174,16 @@ class PlcIC<StateT, CodeT, Lang extends PlcLanguage<StateT, CodeT>> implements I
         } catch (IOException e) {
             logger.log(Level.SEVERE, "Failed to load PLC state", e);
             state = lang.initState();
-            getStorageLocation().delete();
+            getStateStore().delete(getStorageLocation());
         }
     }
 
     private void loadState() throws IOException {
 
-        if (!getStorageLocation().exists()) return; // Prevent error spam
+        byte[] data = getStateStore().read(getStorageLocation());
+        if (data == null) return; // Prevent error spam
 
-        try (DataInputStream in = new DataInputStream(new FileInputStream(getStorageLocation()))) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
             switch (in.readInt()) {
                 case 1:
                     error = in.readBoolean();
@@ -178,9 +191,9 @@ class PlcIC<StateT, CodeT, Lang extends PlcLanguage<StateT, CodeT>> implements I
                 case 0:
                     String langName = in.readUTF();
                     String id = in.readUTF();
-                    String code = hashCode(in.readUTF());
+                    String code = in.readUTF();
                     if ((lang.getName().equals(langName) || lang.supports(langName))
-                            && (isShared() || id.equals(getID()) && hashCode(codeString).equals(code))) {
+                            && (isShared() || id.equals(getID()) && codeHash.equals(code))) {
                         lang.loadState(state, in);
                     } else {
                         // Prevent errors from different ICs from affecting this one.
@@ -206,15 +219,17 @@ class PlcIC<StateT, CodeT, Lang extends PlcLanguage<StateT, CodeT>> implements I
 
     private void saveState() throws IOException {
 
-        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(getStorageLocation()))) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
             out.writeInt(PLC_STORE_VERSION);
             out.writeBoolean(error);
             out.writeUTF(errorString);
             out.writeUTF(lang.getName());
             out.writeUTF(error ? "(error)" : getID());
-            out.writeUTF(hashCode(codeString));
+            out.writeUTF(codeHash);
             lang.writeState(state, out);
         }
+        getStateStore().write(getStorageLocation(), bytes.toByteArray());
     }
 
     private String getBookCode(Block chestBlock) throws CodeNotFoundException {
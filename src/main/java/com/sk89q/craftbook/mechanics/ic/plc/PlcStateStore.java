@@ -0,0 +1,146 @@
+package com.sk89q.craftbook.mechanics.ic.plc;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps PLC states in memory, and writes changed states to disk in batches.
+ *
+ * <p>
+ *     States are kept in the same per-PLC files as before, so existing saves stay readable. A file is only read the
+ *     first time its state is needed. Saves mark the state dirty, and {@link #flush()} writes all dirty states, which
+ *     is meant to run off the main thread. Each file is written to a temporary file first and then moved into place,
+ *     so a crash during a flush leaves the previous state behind rather than a partial one.
+ * </p>
+ */
+public class PlcStateStore {
+
+    private static final Logger logger = Logger.getLogger("Minecraft.CraftBook");
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Map<File, Entry> states = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the stored state for the given file.
+     *
+     * @param file The state file
+     * @return The state, or null if there is none
+     * @throws IOException If the file couldn't be read
+     */
+    public byte[] read(File file) throws IOException {
+
+        Entry entry = states.get(file);
+        if (entry == null) {
+            byte[] data = file.exists() ? Files.readAllBytes(file.toPath()) : null;
+            entry = new Entry(data);
+            Entry existing = states.putIfAbsent(file, entry);
+            if (existing != null)
+                entry = existing;
+        }
+        return entry.data;
+    }
+
+    /**
+     * Stores a state, which is written to the given file on the next flush.
+     *
+     * @param file The state file
+     * @param data The state
+     */
+    public void write(File file, byte[] data) {
+
+        Entry entry = states.computeIfAbsent(file, k -> new Entry(null));
+        entry.data = data;
+        entry.dirty.set(true);
+    }
+
+    /**
+     * Removes a state, along with its file.
+     *
+     * @param file The state file
+     */
+    public synchronized void delete(File file) {
+
+        states.remove(file);
+        file.delete();
+    }
+
+    /**
+     * Writes all changed states to disk.
+     *
+     * @return The amount of written states
+     */
+    public synchronized int flush() {
+
+        int written = 0;
+        for (Map.Entry<File, Entry> state : states.entrySet()) {
+            Entry entry = state.getValue();
+            if (!entry.dirty.compareAndSet(true, false))
+                continue;
+            byte[] data = entry.data;
+            try {
+                writeFile(state.getKey(), data);
+                written++;
+            } catch (IOException e) {
+                entry.dirty.set(true);
+                logger.log(Level.SEVERE, "Failed to save PLC state", e);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes all changed states, and forgets all states.
+     */
+    public synchronized void close() {
+
+        flush();
+        states.clear();
+    }
+
+    public int getDirtyCount() {
+
+        int dirty = 0;
+        for (Entry entry : states.values())
+            if (entry.dirty.get())
+                dirty++;
+        return dirty;
+    }
+
+    private static void writeFile(File file, byte[] data) throws IOException {
+
+        File parent = file.getParentFile();
+        if (parent != null)
+            parent.mkdirs();
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static final class Entry {
+
+        private volatile byte[] data;
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        Entry(byte[] data) {
+
+            this.data = data;
+        }
+    }
+}
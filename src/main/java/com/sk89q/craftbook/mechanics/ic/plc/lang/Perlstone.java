@@ -20,7 +20,11 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.EmptyStackException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Stack;
 
 import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
@@ -31,12 +35,45 @@ import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
 import com.sk89q.craftbook.mechanics.ic.plc.PlcException;
 import com.sk89q.craftbook.mechanics.ic.plc.PlcLanguage;
 
-public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]> {
+public class Perlstone implements PlcLanguage<boolean[], PerlstoneProgram> {
 
     private static final int MAX_INSTRUCTION_COUNT = 10000;
     private static final int MAX_STACK_SIZE = 64;
     private static final int MAX_RECURSION = 16;
     private static final int PERLSTONE_STORE_VERSION = 0;
+    private static final int MAX_CACHED_PROGRAMS = 256;
+
+    private static final LineInfo NO_LINE_INFO = new LineInfo(0, 0);
+
+    /**
+     * Compiled programs by their code, as many PLCs tend to share the same code.
+     */
+    private static final Map<String, PerlstoneProgram> programCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, PerlstoneProgram>(16, 0.75f, true) {
+
+                private static final long serialVersionUID = 5178473927541893519L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PerlstoneProgram> eldest) {
+
+                    return size() > MAX_CACHED_PROGRAMS;
+                }
+            });
+
+    private final boolean useCompiled;
+
+    public Perlstone() {
+
+        this(true);
+    }
+
+    /**
+     * @param useCompiled Whether to run the decoded program where possible, instead of interpreting the source
+     */
+    public Perlstone(boolean useCompiled) {
+
+        this.useCompiled = useCompiled;
+    }
 
     @Override
     public String getName() {
@@ -112,7 +149,17 @@ public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]>
     }
 
     @Override
-    public WithLineInfo<String>[] compile(String code) throws ICVerificationException {
+    public PerlstoneProgram compile(String code) throws ICVerificationException {
+
+        PerlstoneProgram program = programCache.get(code);
+        if (program == null) {
+            program = PerlstoneProgram.compile(verify(code));
+            programCache.put(code, program);
+        }
+        return program;
+    }
+
+    private WithLineInfo<String>[] verify(String code) throws ICVerificationException {
 
         WithLineInfo<String>[] functions = splitFunctions(markLines(code));
         for (int l = 0; l < functions.length; l++) {
@@ -263,7 +310,7 @@ public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]>
     }
 
     @Override
-    public void execute(ChipState chip, boolean[] state, WithLineInfo<String>[] code) throws PlcException {
+    public void execute(ChipState chip, boolean[] state, PerlstoneProgram code) throws PlcException {
 
         boolean[] tt = new boolean[32];
         boolean a = chip.getInputCount() > 0 && chip.getInput(0);
@@ -271,8 +318,12 @@ public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]>
         boolean c = chip.getInputCount() > 2 && chip.getInput(2);
 
         for (int i = 0; i < chip.getOutputCount(); i++) {
-            if (i < code.length) {
-                Boolean r = executeFunction(i, state, tt, code, a, b, c, new boolean[0], new int[1], 0);
+            if (i < code.source.length) {
+                Boolean r;
+                if (useCompiled && code.functions != null)
+                    r = executeCompiled(i, state, tt, code.functions, a, b, c, new boolean[0], new int[1], 0);
+                else
+                    r = executeFunction(i, state, tt, code.source, a, b, c, new boolean[0], new int[1], 0);
                 if (r == null) {
                     chip.setOutput(i, false);
                 } else {
@@ -326,7 +377,7 @@ public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]>
 
     private String errmsg(String err, int fno, char opcode, LineInfo li, boolean[] pt, boolean[] tt, boolean[] lt,
             int pshift, int tshift,
-            int lshift, Stack<Boolean> stack, int tc) {
+            int lshift, String stack, int tc) {
 
         String errm = "";
         if (!err.startsWith(ChatColor.RED + "Detailed Error Message: ")) {
@@ -347,8 +398,7 @@ public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]>
                 + fno + "\n";
         errm += ChatColor.RED + "Local Variable Table: \n " + ChatColor.RESET + dumpStateText(lt) + "\n";
         errm += ChatColor.RED + " - Shift: " + ChatColor.RESET + lshift + "\n";
-        errm += ChatColor.RED + "Function Stack: " + ChatColor.RESET + dumpStateText(stack.toArray(new Boolean[stack
-                                                                                                               .size()]));
+        errm += ChatColor.RED + "Function Stack: " + ChatColor.RESET + stack;
         return errm;
     }
 
@@ -612,13 +662,250 @@ public class Perlstone implements PlcLanguage<boolean[], WithLineInfo<String>[]>
                     }
                 } catch (PlcException e) {
                     throw new PlcException(e.getMessage(), errmsg(e.detailedMessage, fno, op, li, pt, tt, lt, pshift,
-                            tshift, lshift, executionStack,
+                            tshift, lshift, dumpStateText(executionStack.toArray(new Boolean[executionStack.size()])),
                             tailcalls));
                 }
                 return null;
             }
     }
 
+    /**
+     * Runs a decoded function. This mirrors {@link #executeFunction}, but works on a primitive stack and a
+     * precomputed jump table.
+     */
+    private Boolean executeCompiled(int fno, boolean[] pt, boolean[] tt, PerlstoneProgram.Function[] funs, boolean a,
+            boolean b, boolean c, boolean[] args, int[] opc, int rec) throws PlcException {
+
+        int tailcalls = 0;
+
+        outer:
+            while (true) {
+                PerlstoneProgram.Function fn = funs[fno];
+                int[] code = fn.code;
+
+                boolean[] stack = new boolean[Math.max(MAX_STACK_SIZE, args.length) + 2];
+                System.arraycopy(args, 0, stack, 0, args.length);
+                int sp = args.length;
+                boolean[] lt = new boolean[32];
+                int pshift = 0;
+                int tshift = 0;
+                int lshift = 0;
+                char op = '?';
+                LineInfo li = NO_LINE_INFO;
+
+                try {
+                    if (rec > MAX_RECURSION)
+                        throw new PlcException("stack overflow", "Aborted due to too many recursive non-tail calls.");
+                    try {
+                        int ip = 0;
+                        while (ip < fn.length) {
+                            opc[0]++;
+                            if (opc[0] == MAX_INSTRUCTION_COUNT)
+                                throw new PlcException("ran too long", "Aborted due to running too many instructions in " +
+                                        "one update");
+                            if (sp > MAX_STACK_SIZE)
+                                throw new PlcException("stack too big", "Aborted due to too many values pushed onto stack" +
+                                        ".");
+                            op = fn.opcodes[ip];
+                            li = fn.lineInfo[ip];
+
+                            int pos = ip * PerlstoneProgram.WIDTH;
+                            ip++;
+                            switch (code[pos]) {
+                                case PerlstoneProgram.PUSH_TRUE:
+                                    stack[sp++] = true;
+                                    break;
+                                case PerlstoneProgram.PUSH_FALSE:
+                                    stack[sp++] = false;
+                                    break;
+                                case PerlstoneProgram.PUSH_A:
+                                    stack[sp++] = a;
+                                    break;
+                                case PerlstoneProgram.PUSH_B:
+                                    stack[sp++] = b;
+                                    break;
+                                case PerlstoneProgram.PUSH_C:
+                                    stack[sp++] = c;
+                                    break;
+
+                                case PerlstoneProgram.SHIFT: {
+                                    int mul = code[pos + 2];
+                                    int add = code[pos + 3];
+                                    switch (code[pos + 1]) {
+                                        case PerlstoneProgram.TABLE_PERSISTENT:
+                                            pshift = mul * pshift + add;
+                                            break;
+                                        case PerlstoneProgram.TABLE_TEMP:
+                                            tshift = mul * tshift + add;
+                                            break;
+                                        default:
+                                            lshift = mul * lshift + add;
+                                            break;
+                                    }
+                                }
+                                break;
+
+                                case PerlstoneProgram.STORE:
+                                case PerlstoneProgram.LOAD: {
+                                    boolean[] table;
+                                    int shift;
+                                    switch (code[pos + 1]) {
+                                        case PerlstoneProgram.TABLE_PERSISTENT:
+                                            table = pt;
+                                            shift = pshift;
+                                            break;
+                                        case PerlstoneProgram.TABLE_TEMP:
+                                            table = tt;
+                                            shift = tshift;
+                                            break;
+                                        default:
+                                            table = lt;
+                                            shift = lshift;
+                                            break;
+                                    }
+                                    int add = mod(code[pos + 3] + (code[pos + 2] == 1 ? shift : 0), 32);
+                                    if (code[pos] == PerlstoneProgram.STORE) {
+                                        if (sp == 0) throw new EmptyStackException();
+                                        table[add] = stack[--sp];
+                                    } else
+                                        stack[sp++] = table[add];
+                                }
+                                break;
+
+                                case PerlstoneProgram.DUP:
+                                    if (sp == 0) throw new EmptyStackException();
+                                    stack[sp] = stack[sp - 1];
+                                    sp++;
+                                    break;
+                                case PerlstoneProgram.POP:
+                                    if (sp == 0) throw new EmptyStackException();
+                                    sp--;
+                                    break;
+                                case PerlstoneProgram.PEEK: {
+                                    int index = sp - 1 - code[pos + 1];
+                                    if (index < 0 || index >= sp)
+                                        throw new PlcException("bad stack pos", "Attempted to call peek on too small a " +
+                                                "stack.");
+                                    stack[sp] = stack[index];
+                                    sp++;
+                                }
+                                break;
+                                case PerlstoneProgram.SWAP: {
+                                    if (sp < 2) {
+                                        sp = 0;
+                                        throw new EmptyStackException();
+                                    }
+                                    boolean x = stack[sp - 1];
+                                    stack[sp - 1] = stack[sp - 2];
+                                    stack[sp - 2] = x;
+                                }
+                                break;
+
+                                case PerlstoneProgram.NOT:
+                                    if (sp == 0) throw new EmptyStackException();
+                                    stack[sp - 1] = !stack[sp - 1];
+                                    break;
+                                case PerlstoneProgram.XOR:
+                                case PerlstoneProgram.AND:
+                                case PerlstoneProgram.OR:
+                                case PerlstoneProgram.EQUALS: {
+                                    if (sp < 2) {
+                                        sp = 0;
+                                        throw new EmptyStackException();
+                                    }
+                                    boolean x = stack[--sp];
+                                    boolean y = stack[sp - 1];
+                                    switch (code[pos]) {
+                                        case PerlstoneProgram.XOR:
+                                            stack[sp - 1] = x ^ y;
+                                            break;
+                                        case PerlstoneProgram.AND:
+                                            stack[sp - 1] = x & y;
+                                            break;
+                                        case PerlstoneProgram.OR:
+                                            stack[sp - 1] = x | y;
+                                            break;
+                                        default:
+                                            stack[sp - 1] = x == y;
+                                            break;
+                                    }
+                                }
+                                break;
+
+                                case PerlstoneProgram.TABLE: {
+                                    if (sp < 2) {
+                                        sp = 0;
+                                        throw new EmptyStackException();
+                                    }
+                                    boolean e = stack[--sp];
+                                    boolean f = stack[sp - 1];
+                                    stack[sp - 1] = (code[pos + 1] >> ((e ? 2 : 0) | (f ? 1 : 0)) & 1) != 0;
+                                }
+                                break;
+
+                                case PerlstoneProgram.CALL:
+                                case PerlstoneProgram.TAIL_CALL: {
+                                    int n = code[pos + 1];
+                                    boolean[] arg = new boolean[code[pos + 2]];
+
+                                    if (n < 0 || n >= funs.length)
+                                        throw new PlcException("func not found", "Attempted to call nonexistent function " +
+                                                "#" + n);
+
+                                    if (code[pos] == PerlstoneProgram.CALL) {
+                                        for (int i = arg.length - 1; i >= 0; i--) {
+                                            if (sp == 0) throw new EmptyStackException();
+                                            arg[i] = stack[--sp];
+                                        }
+                                        Boolean v = executeCompiled(n, pt, tt, funs, a, b, c, arg, opc, rec + 1);
+                                        if (v != null) {
+                                            stack[sp++] = v;
+                                        }
+                                        break;
+                                    } else {
+                                        fno = n;
+                                        args = arg;
+                                        tailcalls++;
+                                        continue outer;
+                                    }
+                                }
+
+                                case PerlstoneProgram.JUMP_IF_FALSE:
+                                    if (sp == 0) throw new EmptyStackException();
+                                    if (!stack[--sp]) {
+                                        ip = code[pos + 1];
+                                    }
+                                    break;
+                                case PerlstoneProgram.JUMP_IF_TRUE:
+                                    if (sp == 0) throw new EmptyStackException();
+                                    if (stack[--sp]) {
+                                        ip = code[pos + 1];
+                                    }
+                                    break;
+
+                                case PerlstoneProgram.STOP:
+                                    return null;
+                                case PerlstoneProgram.RETURN:
+                                    if (sp == 0) throw new EmptyStackException();
+                                    return stack[--sp];
+
+                                default:
+                                    break;
+                            }
+                        }
+                    } catch (EmptyStackException e) {
+                        throw new PlcException("empty stack", "Popped while stack was empty.");
+                    } catch (StackOverflowError e) {
+                        throw new PlcException("stack overflow", "Java stack overflow.");
+                    }
+                } catch (PlcException e) {
+                    throw new PlcException(e.getMessage(), errmsg(e.detailedMessage, fno, op, li, pt, tt, lt, pshift,
+                            tshift, lshift, dumpStateText(Arrays.copyOf(stack, sp)), tailcalls));
+                }
+                return null;
+            }
+    }
+
     private String dumpStateText(boolean[] state) {
 
         char[] c = new char[state.length];
@@ -0,0 +1,298 @@
+package com.sk89q.craftbook.mechanics.ic.plc.lang;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * A verified Perlstone program, along with its functions decoded into flat instruction arrays.
+ *
+ * <p>
+ *     Every instruction takes {@link #WIDTH} ints: the opcode followed by up to three operands. One instruction is
+ *     decoded for every step the interpreter would take, so instruction counts and error locations match. Programs
+ *     that rely on behaviour the decoder can't express, such as brackets used as operands, are left undecoded and
+ *     run on the interpreter instead.
+ * </p>
+ */
+final class PerlstoneProgram {
+
+    static final int WIDTH = 4;
+
+    static final int NOP = 0;
+    static final int PUSH_TRUE = 1;
+    static final int PUSH_FALSE = 2;
+    static final int PUSH_A = 3;
+    static final int PUSH_B = 4;
+    static final int PUSH_C = 5;
+    static final int SHIFT = 6;
+    static final int STORE = 7;
+    static final int LOAD = 8;
+    static final int DUP = 9;
+    static final int POP = 10;
+    static final int PEEK = 11;
+    static final int SWAP = 12;
+    static final int NOT = 13;
+    static final int XOR = 14;
+    static final int AND = 15;
+    static final int OR = 16;
+    static final int EQUALS = 17;
+    static final int TABLE = 18;
+    static final int CALL = 19;
+    static final int TAIL_CALL = 20;
+    static final int JUMP_IF_FALSE = 21;
+    static final int JUMP_IF_TRUE = 22;
+    static final int STOP = 23;
+    static final int RETURN = 24;
+
+    static final int TABLE_PERSISTENT = 0;
+    static final int TABLE_TEMP = 1;
+    static final int TABLE_LOCAL = 2;
+
+    final WithLineInfo<String>[] source;
+
+    /**
+     * The decoded functions, or null if the program has to be interpreted.
+     */
+    final Function[] functions;
+
+    private PerlstoneProgram(WithLineInfo<String>[] source, Function[] functions) {
+
+        this.source = source;
+        this.functions = functions;
+    }
+
+    static PerlstoneProgram compile(WithLineInfo<String>[] source) {
+
+        Function[] functions = new Function[source.length];
+        for (int i = 0; i < source.length; i++) {
+            functions[i] = Function.decode(source[i]);
+            if (functions[i] == null)
+                return new PerlstoneProgram(source, null);
+        }
+        return new PerlstoneProgram(source, functions);
+    }
+
+    static final class Function {
+
+        final int[] code;
+        final char[] opcodes;
+        final LineInfo[] lineInfo;
+        final int length;
+
+        private Function(int[] code, char[] opcodes, LineInfo[] lineInfo, int length) {
+
+            this.code = code;
+            this.opcodes = opcodes;
+            this.lineInfo = lineInfo;
+            this.length = length;
+        }
+
+        /**
+         * Decodes a function the same way the interpreter steps through it.
+         *
+         * @param function The function source
+         * @return The decoded function, or null if it can't be decoded
+         */
+        static Function decode(WithLineInfo<String> function) {
+
+            char[] chars = function.code.toCharArray();
+            int[] code = new int[chars.length * WIDTH];
+            char[] opcodes = new char[chars.length];
+            LineInfo[] lineInfo = new LineInfo[chars.length];
+            int[] instructionAt = new int[chars.length];
+            Arrays.fill(instructionAt, -1);
+
+            int count = 0;
+            for (int ip = 0; ip < chars.length; ip++) {
+                char op = chars[ip];
+                int pos = count * WIDTH;
+                instructionAt[ip] = count;
+                opcodes[count] = op;
+                lineInfo[count] = function.lineInfo[ip];
+
+                switch (op) {
+                    case '+':
+                        code[pos] = PUSH_TRUE;
+                        break;
+                    case '-':
+                        code[pos] = PUSH_FALSE;
+                        break;
+                    case 'A':
+                        code[pos] = PUSH_A;
+                        break;
+                    case 'B':
+                        code[pos] = PUSH_B;
+                        break;
+                    case 'C':
+                        code[pos] = PUSH_C;
+                        break;
+
+                    case '<':
+                    case '>':
+                    case 'e': {
+                        if (++ip >= chars.length)
+                            return null;
+                        int table = getTable(chars[ip]);
+                        if (table == -1) {
+                            code[pos] = NOP;
+                            break;
+                        }
+                        code[pos] = SHIFT;
+                        code[pos + 1] = table;
+                        code[pos + 2] = op == 'e' ? 0 : 1;
+                        code[pos + 3] = op == '<' ? -1 : op == '>' ? 1 : 0;
+                        break;
+                    }
+
+                    case 'S':
+                    case 'L': {
+                        if (++ip >= chars.length)
+                            return null;
+                        char modifier = chars[ip];
+                        int table = getTable(modifier);
+                        if (table == -1) {
+                            // The interpreter doesn't consume an address for an unknown table.
+                            code[pos] = NOP;
+                            break;
+                        }
+                        if (++ip >= chars.length)
+                            return null;
+                        char address = chars[ip];
+                        code[pos] = op == 'S' ? STORE : LOAD;
+                        code[pos + 1] = table;
+                        code[pos + 2] = Character.isLowerCase(modifier) ? 1 : 0;
+                        code[pos + 3] = address >= '0' && address <= '9' ? address - '0' : address - 'a' + 10;
+                        break;
+                    }
+
+                    case 'd':
+                        code[pos] = DUP;
+                        break;
+                    case 'p':
+                        code[pos] = POP;
+                        break;
+                    case 'v':
+                        if (++ip >= chars.length)
+                            return null;
+                        code[pos] = PEEK;
+                        code[pos + 1] = chars[ip] - '0';
+                        break;
+                    case 'x':
+                        code[pos] = SWAP;
+                        break;
+                    case '!':
+                        code[pos] = NOT;
+                        break;
+                    case '^':
+                        code[pos] = XOR;
+                        break;
+                    case '&':
+                        code[pos] = AND;
+                        break;
+                    case '|':
+                        code[pos] = OR;
+                        break;
+                    case '=':
+                        code[pos] = EQUALS;
+                        break;
+
+                    case '.': {
+                        // Bit n is the result when the two popped values, as a 2 bit number, are n.
+                        int table = 0;
+                        for (int i = 0; i < 4; i++) {
+                            if (++ip >= chars.length)
+                                return null;
+                            switch (chars[ip]) {
+                                case '+':
+                                case '1':
+                                    table |= 1 << i;
+                                    break;
+                                case '-':
+                                case '0':
+                                    break;
+                                default:
+                                    return null;
+                            }
+                        }
+                        code[pos] = TABLE;
+                        code[pos + 1] = table;
+                        break;
+                    }
+
+                    case 'c':
+                    case 't': {
+                        if (ip + 3 >= chars.length)
+                            return null;
+                        int n = (chars[++ip] - '0') * 10 + chars[++ip] - '0';
+                        int args = chars[++ip] - '0';
+                        if (args < 0)
+                            return null;
+                        code[pos] = op == 'c' ? CALL : TAIL_CALL;
+                        code[pos + 1] = n;
+                        code[pos + 2] = args;
+                        break;
+                    }
+
+                    case '[':
+                        code[pos] = JUMP_IF_FALSE;
+                        break;
+                    case ']':
+                        code[pos] = JUMP_IF_TRUE;
+                        break;
+
+                    case 's':
+                        code[pos] = STOP;
+                        break;
+                    case 'r':
+                        code[pos] = RETURN;
+                        break;
+
+                    default:
+                        code[pos] = NOP;
+                        break;
+                }
+                count++;
+            }
+
+            // The interpreter pairs every bracket character, so they must all be decoded as jumps.
+            Deque<Integer> brackets = new ArrayDeque<>();
+            for (int i = 0; i < chars.length; i++) {
+                if (chars[i] != '[' && chars[i] != ']')
+                    continue;
+                if (instructionAt[i] == -1)
+                    return null;
+                if (chars[i] == '[') {
+                    brackets.push(i);
+                } else {
+                    if (brackets.isEmpty())
+                        return null;
+                    int open = instructionAt[brackets.pop()];
+                    int close = instructionAt[i];
+                    code[open * WIDTH + 1] = close + 1;
+                    code[close * WIDTH + 1] = open + 1;
+                }
+            }
+            if (!brackets.isEmpty())
+                return null;
+
+            return new Function(code, opcodes, lineInfo, count);
+        }
+
+        private static int getTable(char modifier) {
+
+            switch (modifier) {
+                case 'p':
+                case 'P':
+                    return TABLE_PERSISTENT;
+                case 't':
+                case 'T':
+                    return TABLE_TEMP;
+                case 'l':
+                case 'L':
+                    return TABLE_LOCAL;
+                default:
+                    return -1;
+            }
+        }
+    }
+}
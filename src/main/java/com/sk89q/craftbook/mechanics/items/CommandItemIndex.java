@@ -0,0 +1,180 @@
+package com.sk89q.craftbook.mechanics.items;
+
+import com.sk89q.craftbook.util.ItemUtil;
+import org.bukkit.Material;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Finds the command item definitions that match an item, without comparing it against every definition.
+ *
+ * <p>
+ *     Definitions are indexed by the type of their item. Within a type, a definition is only compared in full if the
+ *     amount of lore lines and enchantments on its item is the same as on the checked item, when both have metadata, as
+ *     items with a different amount never match.
+ * </p>
+ *
+ * <p>
+ *     The passive check also remembers the last contents of each equipment slot of each player, along with the
+ *     definitions they matched, so equipment that hasn't changed since the last check isn't matched again.
+ * </p>
+ */
+public class CommandItemIndex {
+
+    public static final int SLOT_MAIN_HAND = 0;
+    public static final int SLOT_OFF_HAND = 1;
+    public static final int SLOT_ARMOUR = 2;
+
+    private static final int SLOTS = SLOT_ARMOUR + 4;
+
+    private final Map<Material, List<Entry>> byType = new EnumMap<>(Material.class);
+    private final List<Entry> invalid = new ArrayList<>();
+    private boolean hasPassive;
+
+    private final Map<UUID, EquipmentCache> equipment = new HashMap<>();
+
+    public void add(CommandItemDefinition definition) {
+
+        Entry entry = new Entry(definition);
+        if (ItemUtil.isStackValid(definition.getItem()))
+            byType.computeIfAbsent(definition.getItem().getType(), k -> new ArrayList<>()).add(entry);
+        else
+            invalid.add(entry);
+        if (definition.clickType == ClickType.PASSIVE || definition.clickType == ClickType.ANY)
+            hasPassive = true;
+        equipment.clear();
+    }
+
+    public void clear() {
+
+        byType.clear();
+        invalid.clear();
+        hasPassive = false;
+        equipment.clear();
+    }
+
+    /**
+     * Gets if any definition can run without an event.
+     *
+     * @return If there are passive definitions
+     */
+    public boolean hasPassive() {
+
+        return hasPassive;
+    }
+
+    /**
+     * Gets the definitions with an item that is identical to the given item.
+     *
+     * @param item The item
+     * @return The matching definitions
+     */
+    public List<CommandItemDefinition> getMatching(ItemStack item) {
+
+        if (!ItemUtil.isStackValid(item)) {
+            List<CommandItemDefinition> matching = new ArrayList<>(invalid.size());
+            for (Entry entry : invalid)
+                matching.add(entry.definition);
+            return matching;
+        }
+
+        List<Entry> entries = byType.get(item.getType());
+        if (entries == null)
+            return Collections.emptyList();
+
+        List<CommandItemDefinition> matching = null;
+        boolean hasMeta = item.hasItemMeta();
+        int lore = -1;
+        int enchants = -1;
+        for (Entry entry : entries) {
+            if (hasMeta && entry.hasMeta) {
+                if (lore < 0) {
+                    ItemMeta meta = item.getItemMeta();
+                    lore = meta.hasLore() ? meta.getLore().size() : 0;
+                    enchants = meta.getEnchants().size();
+                }
+                if (entry.lore != lore || entry.enchants != enchants)
+                    continue;
+            }
+            if (ItemUtil.areItemsIdentical(entry.definition.getItem(), item)) {
+                if (matching == null)
+                    matching = new ArrayList<>(1);
+                matching.add(entry.definition);
+            }
+        }
+        return matching == null ? Collections.emptyList() : matching;
+    }
+
+    /**
+     * Gets the definitions that match the item in an equipment slot of a player, reusing the last result if the slot
+     * hasn't changed.
+     *
+     * @param player The player
+     * @param slot The slot, {@link #SLOT_MAIN_HAND}, {@link #SLOT_OFF_HAND}, or {@link #SLOT_ARMOUR} plus the armour slot
+     * @param item The item in the slot
+     * @return The matching definitions
+     */
+    public List<CommandItemDefinition> getMatching(UUID player, int slot, ItemStack item) {
+
+        EquipmentCache cache = equipment.computeIfAbsent(player, k -> new EquipmentCache());
+        if (cache.matches[slot] == null || !cache.isSame(slot, item)) {
+            cache.stacks[slot] = item == null ? null : item.clone();
+            cache.matches[slot] = getMatching(item);
+        }
+        return cache.matches[slot];
+    }
+
+    /**
+     * Forgets the remembered equipment of a player.
+     *
+     * @param player The player
+     */
+    public void forget(UUID player) {
+
+        equipment.remove(player);
+    }
+
+    private static final class Entry {
+
+        private final CommandItemDefinition definition;
+        private final boolean hasMeta;
+        private final int lore;
+        private final int enchants;
+
+        Entry(CommandItemDefinition definition) {
+
+            this.definition = definition;
+            ItemStack item = definition.getItem();
+            hasMeta = ItemUtil.isStackValid(item) && item.hasItemMeta();
+            if (hasMeta) {
+                ItemMeta meta = item.getItemMeta();
+                lore = meta.hasLore() ? meta.getLore().size() : 0;
+                enchants = meta.getEnchants().size();
+            } else {
+                lore = 0;
+                enchants = 0;
+            }
+        }
+    }
+
+    private static final class EquipmentCache {
+
+        private final ItemStack[] stacks = new ItemStack[SLOTS];
+        @SuppressWarnings("unchecked")
+        private final List<CommandItemDefinition>[] matches = new List[SLOTS];
+
+        boolean isSame(int slot, ItemStack item) {
+
+            ItemStack last = stacks[slot];
+            return last == null ? item == null : last.equals(item);
+        }
+    }
+}
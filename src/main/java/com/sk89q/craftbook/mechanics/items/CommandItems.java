@@ -44,9 +44,11 @@ import org.bukkit.event.player.PlayerInteractEntityEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.event.player.PlayerItemBreakEvent;
 import org.bukkit.event.player.PlayerItemConsumeEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.inventory.EquipmentSlot;
 import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
 import org.bukkit.permissions.PermissionAttachment;
 
 import java.io.File;
@@ -68,6 +70,7 @@ public class CommandItems extends AbstractCraftBookMechanic {
     private YAMLProcessor config;
 
     private Set<CommandItemDefinition> definitions;
+    private CommandItemIndex index;
 
     private Map<Tuple2<String, String>, Integer> cooldownPeriods;
     private Map<UUID, List<ItemStack>> deathPersistItems = Maps.newHashMap();
@@ -97,6 +100,7 @@ public class CommandItems extends AbstractCraftBookMechanic {
         }
 
         definitions = null;
+        index = null;
         cooldownPeriods = null;
         config = null;
         INSTANCE = null;
@@ -108,6 +112,7 @@ public class CommandItems extends AbstractCraftBookMechanic {
         INSTANCE = this;
 
         definitions = new HashSet<>();
+        index = new CommandItemIndex();
         cooldownPeriods = new HashMap<>();
 
         CraftBookPlugin.inst().createDefaultConfiguration(new File(CraftBookPlugin.inst().getDataFolder(), "command-items.yml"), "command-items.yml");
@@ -153,14 +158,15 @@ public class CommandItems extends AbstractCraftBookMechanic {
                 }
             }, 0, 20);
             Bukkit.getScheduler().runTaskTimer(CraftBookPlugin.inst(), () -> {
+                if(!index.hasPassive())
+                    return;
                 for(Player player : Bukkit.getOnlinePlayers()) {
-                    if(player.getInventory().getItemInMainHand().getType() != Material.AIR)
-                        performCommandItems(player.getInventory().getItemInMainHand(), player, null);
-                    if(player.getInventory().getItemInOffHand().getType() != Material.AIR)
-                        performCommandItems(player.getInventory().getItemInOffHand(), player, null);
-                    for(ItemStack stack : player.getInventory().getArmorContents())
-                        if(stack != null && stack.getType() != Material.AIR)
-                            performCommandItems(stack, player, null);
+                    PlayerInventory inventory = player.getInventory();
+                    performPassiveCommandItems(inventory.getItemInMainHand(), player, CommandItemIndex.SLOT_MAIN_HAND);
+                    performPassiveCommandItems(inventory.getItemInOffHand(), player, CommandItemIndex.SLOT_OFF_HAND);
+                    ItemStack[] armour = inventory.getArmorContents();
+                    for(int i = 0; i < armour.length; i++)
+                        performPassiveCommandItems(armour[i], player, CommandItemIndex.SLOT_ARMOUR + i);
                 }
             }, 10, 10);
         }
@@ -189,7 +195,10 @@ public class CommandItems extends AbstractCraftBookMechanic {
 
     public boolean addDefinition(CommandItemDefinition def) {
 
-        return definitions.add(def);
+        if(!definitions.add(def))
+            return false;
+        index.add(def);
+        return true;
     }
 
     public void save() {
@@ -343,8 +352,8 @@ public class CommandItems extends AbstractCraftBookMechanic {
         while(stackIt.hasNext()) {
             final ItemStack stack = stackIt.next();
             performCommandItems(stack, event.getEntity(), event);
-            for(CommandItemDefinition def : definitions) {
-                if(ItemUtil.areItemsIdentical(stack, def.getItem()) && def.keepOnDeath) {
+            for(CommandItemDefinition def : index.getMatching(stack)) {
+                if(def.keepOnDeath) {
                     List<ItemStack> items = deathPersistItems.get(event.getEntity().getUniqueId());
                     if (items == null) items = Lists.newArrayList();
                     items.add(stack);
@@ -375,6 +384,12 @@ public class CommandItems extends AbstractCraftBookMechanic {
                 () -> performCommandItems(event.getPlayer().getItemInHand(), event.getPlayer(), event));
     }
 
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+
+        index.forget(event.getPlayer().getUniqueId());
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onPlayerRespawn(PlayerRespawnEvent event) {
 
@@ -389,144 +404,158 @@ public class CommandItems extends AbstractCraftBookMechanic {
         deathPersistItems.remove(event.getPlayer().getUniqueId());
     }
 
+    private void performPassiveCommandItems(ItemStack item, Player player, int slot) {
+
+        if(item == null || item.getType() == Material.AIR)
+            return;
+
+        performCommandItems(player, null, index.getMatching(player.getUniqueId(), slot, item));
+    }
+
     public void performCommandItems(ItemStack item, final Player player, final Event event) {
         if (event != null && !EventUtil.passesFilter(event))
             return;
 
+        performCommandItems(player, event, index.getMatching(item));
+    }
+
+    private void performCommandItems(final Player player, final Event event, List<CommandItemDefinition> matching) {
+
+        if(matching.isEmpty())
+            return;
+
         CraftBookPlayer lplayer = CraftBookPlugin.inst().wrapPlayer(player);
 
-        for(CommandItemDefinition def : definitions) {
+        for(CommandItemDefinition def : matching) {
             current: {
-            if(ItemUtil.areItemsIdentical(def.stack, item)) {
-                final CommandItemDefinition comdef = def;
+            final CommandItemDefinition comdef = def;
 
-                if(!comdef.clickType.doesPassType(event)) break current;
+            if(!comdef.clickType.doesPassType(event)) break current;
 
-                if(!comdef.requireSneaking.doesPass(lplayer.isSneaking())) break current;
+            if(!comdef.requireSneaking.doesPass(lplayer.isSneaking())) break current;
 
-                if(!lplayer.hasPermission("craftbook.mech.commanditems") || comdef.permNode != null && !comdef.permNode.isEmpty() && !lplayer.hasPermission(comdef.permNode)) {
-                    if(CraftBookPlugin.inst().getConfiguration().showPermissionMessages)
-                        lplayer.printError("mech.use-permission");
-                    break current;
-                }
+            if(!lplayer.hasPermission("craftbook.mech.commanditems") || comdef.permNode != null && !comdef.permNode.isEmpty() && !lplayer.hasPermission(comdef.permNode)) {
+                if(CraftBookPlugin.inst().getConfiguration().showPermissionMessages)
+                    lplayer.printError("mech.use-permission");
+                break current;
+            }
 
-                if(event instanceof Cancellable && comdef.cancelAction)
-                    ((Cancellable) event).setCancelled(true);
+            if(event instanceof Cancellable && comdef.cancelAction)
+                ((Cancellable) event).setCancelled(true);
 
-                if(cooldownPeriods.containsKey(new Tuple2<>(lplayer.getName(), comdef.name))) {
-                    if(def.clickType != ClickType.PASSIVE && !def.cooldownMessage.isEmpty())
-                        lplayer.printError(lplayer.translate(def.cooldownMessage).replace("%time%", String.valueOf(cooldownPeriods.get(
-                                new Tuple2<>(lplayer.getName(), comdef.name)))));
-                    break current;
-                }
+            if(cooldownPeriods.containsKey(new Tuple2<>(lplayer.getName(), comdef.name))) {
+                if(def.clickType != ClickType.PASSIVE && !def.cooldownMessage.isEmpty())
+                    lplayer.printError(lplayer.translate(def.cooldownMessage).replace("%time%", String.valueOf(cooldownPeriods.get(
+                            new Tuple2<>(lplayer.getName(), comdef.name)))));
+                break current;
+            }
 
-                for (CommandItemAction action : comdef.actions) {
-                    if (action.stage == ActionRunStage.BEFORE) {
-                        if (!action.runAction(comdef, event, player)) {
-                            break current;
-                        }
+            for (CommandItemAction action : comdef.actions) {
+                if (action.stage == ActionRunStage.BEFORE) {
+                    if (!action.runAction(comdef, event, player)) {
+                        break current;
                     }
                 }
+            }
 
-                if (!player.hasPermission("craftbook.mech.commanditems.bypassconsumables") && !player.getGameMode().equals(GameMode.CREATIVE)) {
-                    for (ItemStack stack : def.consumables) {
+            if (!player.hasPermission("craftbook.mech.commanditems.bypassconsumables") && !player.getGameMode().equals(GameMode.CREATIVE)) {
+                for (ItemStack stack : def.consumables) {
 
-                        boolean found = false;
+                    boolean found = false;
 
-                        int amount = 0;
+                    int amount = 0;
 
-                        for (ItemStack tStack : player.getInventory().getContents()) {
-                            if (ItemUtil.areItemsIdentical(stack, tStack)) {
+                    for (ItemStack tStack : player.getInventory().getContents()) {
+                        if (ItemUtil.areItemsIdentical(stack, tStack)) {
 
-                                amount += tStack.getAmount();
+                            amount += tStack.getAmount();
 
-                                if (amount >= stack.getAmount()) {
-                                    found = true;
-                                    break;
-                                }
+                            if (amount >= stack.getAmount()) {
+                                found = true;
+                                break;
                             }
                         }
+                    }
 
-                        if (!found) {
-                            if (!def.missingConsumableMessage.isEmpty()) {
-                                lplayer.printError(lplayer.translate(def.missingConsumableMessage).replace("%item%", stack.getAmount() + " " + stack.getType().name()));
-                            }
-                            break current;
+                    if (!found) {
+                        if (!def.missingConsumableMessage.isEmpty()) {
+                            lplayer.printError(lplayer.translate(def.missingConsumableMessage).replace("%item%", stack.getAmount() + " " + stack.getType().name()));
                         }
+                        break current;
                     }
+                }
 
-                    for (ItemStack stack : def.consumables) {
-
-                        boolean found = false;
-
-                        int amount = stack.getAmount();
-
-                        for (int i = 0; i < player.getInventory().getContents().length; i++) {
-                            ItemStack tStack = player.getInventory().getContents()[i];
-                            if (ItemUtil.areItemsIdentical(stack, tStack)) {
-                                ItemStack toRemove = tStack.clone();
-                                if (toRemove.getAmount() > amount) {
-
-                                    toRemove.setAmount(toRemove.getAmount() - amount);
-                                    player.getInventory().setItem(i, toRemove);
-                                    amount = 0;
-                                } else {
-                                    amount -= toRemove.getAmount();
-                                    player.getInventory().setItem(i, null);
-                                }
-                                if (amount <= 0) {
-                                    found = true;
-                                    break;
-                                }
-                            }
-                        }
+                for (ItemStack stack : def.consumables) {
 
-                        if (!found) {
-                            lplayer.printError("mech.command-items.out-of-sync");
-                            break current;
-                        }
-                    }
+                    boolean found = false;
+
+                    int amount = stack.getAmount();
+
+                    for (int i = 0; i < player.getInventory().getContents().length; i++) {
+                        ItemStack tStack = player.getInventory().getContents()[i];
+                        if (ItemUtil.areItemsIdentical(stack, tStack)) {
+                            ItemStack toRemove = tStack.clone();
+                            if (toRemove.getAmount() > amount) {
 
-                    if (def.consumeSelf) {
-                        if (event instanceof PlayerInteractEvent && ((PlayerInteractEvent) event).getHand() == EquipmentSlot.OFF_HAND
-                                || event instanceof BlockPlaceEvent && ((BlockPlaceEvent) event).getHand() == EquipmentSlot.OFF_HAND) {
-                            if (player.getInventory().getItemInOffHand().getAmount() > 1) {
-                                player.getInventory().getItemInOffHand().setAmount(player.getInventory().getItemInOffHand().getAmount() - 1);
+                                toRemove.setAmount(toRemove.getAmount() - amount);
+                                player.getInventory().setItem(i, toRemove);
+                                amount = 0;
                             } else {
-                                player.getInventory().setItemInOffHand(null);
+                                amount -= toRemove.getAmount();
+                                player.getInventory().setItem(i, null);
                             }
-                        } else if (event instanceof EntityPickupItemEvent) {
-                            ((EntityPickupItemEvent) event).getItem().remove();
-                            ((EntityPickupItemEvent) event).setCancelled(true);
-                        } else {
-                            if (player.getInventory().getItemInMainHand().getAmount() > 1) {
-                                player.getInventory().getItemInMainHand().setAmount(player.getInventory().getItemInMainHand().getAmount() - 1);
-                            } else {
-                                player.getInventory().setItemInMainHand(null);
+                            if (amount <= 0) {
+                                found = true;
+                                break;
                             }
                         }
                     }
 
-                    player.updateInventory();
+                    if (!found) {
+                        lplayer.printError("mech.command-items.out-of-sync");
+                        break current;
+                    }
                 }
 
+                if (def.consumeSelf) {
+                    if (event instanceof PlayerInteractEvent && ((PlayerInteractEvent) event).getHand() == EquipmentSlot.OFF_HAND
+                            || event instanceof BlockPlaceEvent && ((BlockPlaceEvent) event).getHand() == EquipmentSlot.OFF_HAND) {
+                        if (player.getInventory().getItemInOffHand().getAmount() > 1) {
+                            player.getInventory().getItemInOffHand().setAmount(player.getInventory().getItemInOffHand().getAmount() - 1);
+                        } else {
+                            player.getInventory().setItemInOffHand(null);
+                        }
+                    } else if (event instanceof EntityPickupItemEvent) {
+                        ((EntityPickupItemEvent) event).getItem().remove();
+                        ((EntityPickupItemEvent) event).setCancelled(true);
+                    } else {
+                        if (player.getInventory().getItemInMainHand().getAmount() > 1) {
+                            player.getInventory().getItemInMainHand().setAmount(player.getInventory().getItemInMainHand().getAmount() - 1);
+                        } else {
+                            player.getInventory().setItemInMainHand(null);
+                        }
+                    }
+                }
 
-                for(String command : comdef.commands)
-                    doCommand(command, event, comdef, player);
+                player.updateInventory();
+            }
 
-                for(CommandItemAction action : comdef.actions)
-                    if(action.stage == ActionRunStage.AFTER)
-                        action.runAction(comdef, event, player);
 
-                if(comdef.cooldown > 0 && !lplayer.hasPermission("craftbook.mech.commanditems.bypasscooldown"))
-                    cooldownPeriods.put(new Tuple2<>(lplayer.getName(), comdef.name), comdef.cooldown);
+            for(String command : comdef.commands)
+                doCommand(command, event, comdef, player);
 
-                if(comdef.delayedCommands.length > 0)
-                    Bukkit.getScheduler().runTaskLater(CraftBookPlugin.inst(), () -> {
-                        for(String command : comdef.delayedCommands)
-                            doCommand(command, event, comdef, player);
-                    }, comdef.delay);
-            }
+            for(CommandItemAction action : comdef.actions)
+                if(action.stage == ActionRunStage.AFTER)
+                    action.runAction(comdef, event, player);
+
+            if(comdef.cooldown > 0 && !lplayer.hasPermission("craftbook.mech.commanditems.bypasscooldown"))
+                cooldownPeriods.put(new Tuple2<>(lplayer.getName(), comdef.name), comdef.cooldown);
+
+            if(comdef.delayedCommands.length > 0)
+                Bukkit.getScheduler().runTaskLater(CraftBookPlugin.inst(), () -> {
+                    for(String command : comdef.delayedCommands)
+                        doCommand(command, event, comdef, player);
+                }, comdef.delay);
         }
         }
     }
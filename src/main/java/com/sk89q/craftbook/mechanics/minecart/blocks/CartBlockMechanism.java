@@ -9,6 +9,7 @@ import com.sk89q.craftbook.util.EntityUtil;
 import com.sk89q.craftbook.util.EventUtil;
 import com.sk89q.craftbook.util.RedstoneUtil;
 import com.sk89q.craftbook.util.RedstoneUtil.Power;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.util.auth.AuthorizationException;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
 import org.bukkit.block.Block;
@@ -18,6 +19,7 @@ import org.bukkit.entity.Minecart;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.util.BoundingBox;
 
 import java.util.Locale;
 
@@ -37,6 +39,16 @@ public abstract class CartBlockMechanism extends AbstractCraftBookMechanic {
         return material;
     }
 
+    @Override
+    public boolean enable() {
+
+        if (material == null)
+            CraftBookPlugin.inst().getCartMechanismTargets().addTargets(this);
+        else
+            CraftBookPlugin.inst().getCartMechanismTargets().addTargets(this, BukkitAdapter.adapt(material.getBlockType()));
+        return true;
+    }
+
     public static final BlockFace[] powerSupplyOptions = new BlockFace[] {
         BlockFace.NORTH, BlockFace.EAST,
         BlockFace.SOUTH, BlockFace.WEST
@@ -119,9 +131,8 @@ public abstract class CartBlockMechanism extends AbstractCraftBookMechanic {
      */
     public static Minecart getCart(Block rail) {
 
-        for (Entity ent : rail.getChunk().getEntities()) {
-            if (!(ent instanceof Minecart))
-                continue;
+        // Only the entities around the block, rather than every entity in the chunk.
+        for (Entity ent : rail.getWorld().getNearbyEntities(BoundingBox.of(rail), ent -> ent instanceof Minecart)) {
             if(EntityUtil.isEntityInBlock(ent, rail))
                 return (Minecart) ent;
         }
@@ -1,9 +1,11 @@
 package com.sk89q.craftbook.mechanics.minecart.blocks;
 
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import com.sk89q.craftbook.mechanics.minecart.events.CartBlockImpactEvent;
 import com.sk89q.craftbook.util.BlockSyntax;
 import com.sk89q.craftbook.util.RedstoneUtil.Power;
 import com.sk89q.util.yaml.YAMLProcessor;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
 import com.sk89q.worldedit.world.block.BlockTypes;
 import org.bukkit.event.EventHandler;
@@ -37,6 +39,17 @@ public class CartBooster extends CartBlockMechanism {
         event.getVehicle().setVelocity(newVelocity);
     }
 
+    @Override
+    public boolean enable() {
+
+        CraftBookPlugin.inst().getCartMechanismTargets().addTargets(this);
+        for (BlockStateHolder block : new BlockStateHolder[] {minecartSpeedModMaxBoostBlock, minecartSpeedMod25xBoostBlock,
+                minecartSpeedMod20xSlowBlock, minecartSpeedMod50xSlowBlock})
+            if (block != null)
+                CraftBookPlugin.inst().getCartMechanismTargets().addTargets(this, BukkitAdapter.adapt(block.getBlockType()));
+        return true;
+    }
+
     @Override
     public String getName() {
 
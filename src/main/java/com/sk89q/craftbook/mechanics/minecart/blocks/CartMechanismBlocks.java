@@ -78,19 +78,17 @@ public class CartMechanismBlocks {
     public static CartMechanismBlocks findByRail(Block rail) throws InvalidMechanismException {
         if (!RailUtil.isTrack(rail.getType()))
             throw new InvalidMechanismException("rail argument must be a rail!");
-        BlockFace face = BlockFace.DOWN;
+        return findByTrack(rail);
+    }
 
-        if (rail.getType() == Material.LADDER) {
-            face = ((Directional) rail.getBlockData()).getFacing().getOppositeFace();
-        } else if (rail.getType() == Material.VINE) {
-            MultipleFacing vine = (MultipleFacing) rail.getBlockData();
-            for(BlockFace test : vine.getAllowedFaces()) {
-                if(vine.hasFace(test)) {
-                    face = test.getOppositeFace();
-                    break;
-                }
-            }
-        }
+    /**
+     * The same as {@link #findByRail(Block)}, for a block that is already known to be a track.
+     *
+     * @param rail the block containing the rails.
+     */
+    public static CartMechanismBlocks findByTrack(Block rail) {
+
+        BlockFace face = getBaseFace(rail);
 
         if (SignUtil.isSign(rail.getRelative(face, 2))) return new CartMechanismBlocks(rail, rail.getRelative(face, 1), rail.getRelative(face, 2));
         else if (SignUtil.isSign(rail.getRelative(face, 3)))
@@ -106,6 +104,31 @@ public class CartMechanismBlocks {
         return new CartMechanismBlocks(rail, rail.getRelative(face, 1), null);
     }
 
+    /**
+     * Gets the base block of a track, without looking for a sign.
+     *
+     * @param rail the block containing the rails.
+     * @return the block on which the rails sit.
+     */
+    public static Block getBaseByTrack(Block rail) {
+
+        return rail.getRelative(getBaseFace(rail), 1);
+    }
+
+    private static BlockFace getBaseFace(Block rail) {
+
+        if (rail.getType() == Material.LADDER) {
+            return ((Directional) rail.getBlockData()).getFacing().getOppositeFace();
+        } else if (rail.getType() == Material.VINE) {
+            MultipleFacing vine = (MultipleFacing) rail.getBlockData();
+            for(BlockFace test : vine.getAllowedFaces()) {
+                if(vine.hasFace(test))
+                    return test.getOppositeFace();
+            }
+        }
+        return BlockFace.DOWN;
+    }
+
     /**
      * Detecting factory, based on the position of the base. The rails must be one block above and the sign if it
      * exists must be one or two blocks
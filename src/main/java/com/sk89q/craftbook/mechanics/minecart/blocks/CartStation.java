@@ -27,7 +27,7 @@ public class CartStation extends CartBlockMechanism {
     public boolean enable() {
 
         CraftBookPlugin.inst().registerCommands(StationCommands.class);
-        return true;
+        return super.enable();
     }
 
     @EventHandler
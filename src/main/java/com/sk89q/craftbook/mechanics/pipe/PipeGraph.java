@@ -0,0 +1,526 @@
+package com.sk89q.craftbook.mechanics.pipe;
+
+import com.sk89q.craftbook.ChangedSign;
+import com.sk89q.craftbook.util.ItemSyntax;
+import com.sk89q.craftbook.util.ItemUtil;
+import com.sk89q.craftbook.util.LocationUtil;
+import com.sk89q.craftbook.util.LongHashMap;
+import com.sk89q.craftbook.util.RegexUtil;
+import com.sk89q.worldedit.bukkit.BukkitAdapter;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.type.Piston;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * The layout of a pipe network, as seen from the sticky piston that feeds it.
+ *
+ * <p>
+ *     Pipes search the network breadth first, and where the search goes depends on which items are left, so the
+ *     graph doesn't store a fixed order of outputs. It stores, for each block the search can reach, what the search
+ *     does with each of its neighbours, in the order it looks at them. Walking the graph then gives the same result
+ *     as searching the world, without reading any blocks or parsing any signs.
+ * </p>
+ *
+ * <p>
+ *     Every block read while building the graph is recorded along with its type, so the graph can be dropped when
+ *     one of them changes.
+ * </p>
+ */
+public final class PipeGraph {
+
+    /**
+     * A block that items pass through.
+     */
+    static final byte PASS = 0;
+    /**
+     * A piston that puts items into the block it faces.
+     */
+    static final byte PISTON = 1;
+    /**
+     * A dropper that drops items.
+     */
+    static final byte DROPPER = 2;
+
+    /**
+     * The neighbour is marked as visited, but not searched.
+     */
+    static final byte EDGE_MARK = 0;
+    /**
+     * The neighbour is searched after the blocks already queued.
+     */
+    static final byte EDGE_QUEUE = 1;
+    /**
+     * The neighbour is searched before the blocks already queued.
+     */
+    static final byte EDGE_QUEUE_FIRST = 2;
+    /**
+     * The neighbour is a pane, and the block beyond it is searched after the blocks already queued.
+     */
+    static final byte EDGE_PANE = 3;
+
+    private final World world;
+    private final int start;
+    private final int source;
+
+    private final Block[] blocks;
+    private final byte[] kinds;
+    private final Block[] targets;
+    private final List<HashSet<ItemStack>> filters;
+    private final List<HashSet<ItemStack>> exceptions;
+    private final boolean[] signs;
+
+    private final int[] edgeStart;
+    private final int[] edgeEnd;
+    private final int[] edgeNodes;
+    private final byte[] edgeKinds;
+    private final int[] edgeTargets;
+
+    private final LongHashMap<Material> examined;
+    private final int minX, minZ, maxX, maxZ;
+
+    private PipeGraph(Builder builder) {
+
+        world = builder.start.getWorld();
+        start = 0;
+        source = builder.source;
+
+        int size = builder.blocks.size();
+        blocks = builder.blocks.toArray(new Block[0]);
+        kinds = Arrays.copyOf(builder.kinds, size);
+        targets = Arrays.copyOf(builder.targets, size);
+        filters = builder.filters;
+        exceptions = builder.exceptions;
+        signs = Arrays.copyOf(builder.signs, size);
+
+        edgeStart = Arrays.copyOf(builder.edgeStart, size);
+        edgeEnd = Arrays.copyOf(builder.edgeEnd, size);
+        edgeNodes = Arrays.copyOf(builder.edgeNodes, builder.edgeCount);
+        edgeKinds = Arrays.copyOf(builder.edgeKinds, builder.edgeCount);
+        edgeTargets = Arrays.copyOf(builder.edgeTargets, builder.edgeCount);
+
+        examined = builder.examined;
+        minX = builder.minX;
+        minZ = builder.minZ;
+        maxX = builder.maxX;
+        maxZ = builder.maxZ;
+    }
+
+    /**
+     * Builds the graph of the network fed by the given sticky piston.
+     *
+     * @param start The sticky piston
+     * @param diagonal If pipes can connect diagonally
+     * @param insulator The block that stops diagonal connections
+     * @return The graph
+     */
+    public static PipeGraph build(Block start, boolean diagonal, BlockStateHolder<?> insulator) {
+
+        Builder builder = new Builder(start, diagonal, insulator);
+        builder.build();
+        return new PipeGraph(builder);
+    }
+
+    public World getWorld() {
+
+        return world;
+    }
+
+    /**
+     * Gets the amount of blocks in the graph.
+     *
+     * @return The amount of blocks
+     */
+    public int size() {
+
+        return blocks.length;
+    }
+
+    /**
+     * Gets the node of the sticky piston that feeds the network.
+     *
+     * @return The node
+     */
+    public int getStart() {
+
+        return start;
+    }
+
+    /**
+     * Gets the node of the block the sticky piston takes items from, which is never searched.
+     *
+     * @return The node, or -1 if it isn't part of the graph
+     */
+    public int getSource() {
+
+        return source;
+    }
+
+    public Block getBlock(int node) {
+
+        return blocks[node];
+    }
+
+    public byte getKind(int node) {
+
+        return kinds[node];
+    }
+
+    /**
+     * Gets the block a piston puts items into, or the block the sticky piston takes items from.
+     *
+     * @param node The node
+     * @return The block, or null if the node isn't a piston
+     */
+    public Block getTarget(int node) {
+
+        return targets[node];
+    }
+
+    public HashSet<ItemStack> getFilters(int node) {
+
+        return filters.get(node);
+    }
+
+    public HashSet<ItemStack> getExceptions(int node) {
+
+        return exceptions.get(node);
+    }
+
+    /**
+     * Gets if a piston or dropper has a [Pipe] sign.
+     *
+     * @param node The node
+     * @return If it has a sign
+     */
+    public boolean hasSign(int node) {
+
+        return signs[node];
+    }
+
+    public int getEdgeStart(int node) {
+
+        return edgeStart[node];
+    }
+
+    public int getEdgeEnd(int node) {
+
+        return edgeEnd[node];
+    }
+
+    public int getEdgeNode(int edge) {
+
+        return edgeNodes[edge];
+    }
+
+    public byte getEdgeKind(int edge) {
+
+        return edgeKinds[edge];
+    }
+
+    /**
+     * Gets the block beyond a pane.
+     *
+     * @param edge The edge
+     * @return The node, or -1 if the pane doesn't lead anywhere
+     */
+    public int getEdgeTarget(int edge) {
+
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Checks if the block at the given position was read to build this graph.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return If it was read
+     */
+    public boolean isExamined(int x, int y, int z) {
+
+        return examined.containsKey(LocationUtil.getBlockKey(x, y, z));
+    }
+
+    /**
+     * Checks if the block at the given position was read to build this graph, and has since changed type.
+     *
+     * @param block The block
+     * @return If it has changed
+     */
+    public boolean hasChanged(Block block) {
+
+        Material type = examined.get(LocationUtil.getBlockKey(block));
+        return type != null && type != block.getType();
+    }
+
+    public int getMinChunkX() {
+
+        return minX >> 4;
+    }
+
+    public int getMinChunkZ() {
+
+        return minZ >> 4;
+    }
+
+    public int getMaxChunkX() {
+
+        return maxX >> 4;
+    }
+
+    public int getMaxChunkZ() {
+
+        return maxZ >> 4;
+    }
+
+    private static final class Builder {
+
+        private final Block start;
+        private final boolean diagonal;
+        private final BlockStateHolder<?> insulator;
+
+        private final LongHashMap<Integer> nodes = new LongHashMap<>();
+        private final List<Block> blocks = new ArrayList<>();
+        private byte[] kinds = new byte[16];
+        private Block[] targets = new Block[16];
+        private final List<HashSet<ItemStack>> filters = new ArrayList<>();
+        private final List<HashSet<ItemStack>> exceptions = new ArrayList<>();
+        private boolean[] signs = new boolean[16];
+        private boolean[] expanded = new boolean[16];
+        private final Deque<Integer> toExpand = new ArrayDeque<>();
+
+        private int[] edgeStart = new int[16];
+        private int[] edgeEnd = new int[16];
+        private int[] edgeNodes = new int[64];
+        private byte[] edgeKinds = new byte[64];
+        private int[] edgeTargets = new int[64];
+        private int edgeCount;
+
+        private final LongHashMap<Material> examined = new LongHashMap<>();
+        private int minX = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+        private int source = -1;
+
+        Builder(Block start, boolean diagonal, BlockStateHolder<?> insulator) {
+
+            this.start = start;
+            this.diagonal = diagonal;
+            this.insulator = insulator;
+        }
+
+        void build() {
+
+            int startNode = reach(start);
+            Block sourceBlock = targets[startNode];
+            if (sourceBlock != null && Pipes.isValidPipeBlock(sourceBlock))
+                source = getNode(sourceBlock);
+
+            // Every block the search could reach is expanded once, whatever items end up being sent.
+            while (!toExpand.isEmpty()) {
+                int node = toExpand.poll();
+                edgeStart[node] = edgeCount;
+                expand(node);
+                edgeEnd[node] = edgeCount;
+            }
+        }
+
+        private Material read(Block block) {
+
+            Material type = block.getType();
+            examined.put(LocationUtil.getBlockKey(block), type);
+            minX = Math.min(minX, block.getX());
+            minZ = Math.min(minZ, block.getZ());
+            maxX = Math.max(maxX, block.getX());
+            maxZ = Math.max(maxZ, block.getZ());
+            return type;
+        }
+
+        private boolean isInsulator(Block block) {
+
+            read(block);
+            return insulator.equalsFuzzy(BukkitAdapter.adapt(block.getBlockData()));
+        }
+
+        /**
+         * Gets the node of a block, adding it if it isn't yet part of the graph.
+         */
+        private int getNode(Block block) {
+
+            long key = LocationUtil.getBlockKey(block);
+            Integer existing = nodes.get(key);
+            if (existing != null)
+                return existing;
+
+            int node = blocks.size();
+            ensureNodeCapacity(node + 1);
+            nodes.put(key, node);
+            blocks.add(block);
+            filters.add(null);
+            exceptions.add(null);
+
+            Material type = read(block);
+            if (type == Material.PISTON || type == Material.STICKY_PISTON || type == Material.DROPPER) {
+                if (type == Material.PISTON)
+                    kinds[node] = PISTON;
+                else if (type == Material.DROPPER)
+                    kinds[node] = DROPPER;
+                if (type != Material.DROPPER)
+                    targets[node] = block.getRelative(((Piston) block.getBlockData()).getFacing());
+                for (Block face : new Block[] {block.getRelative(1, 0, 0), block.getRelative(-1, 0, 0), block.getRelative(0, 1, 0),
+                        block.getRelative(0, -1, 0), block.getRelative(0, 0, 1), block.getRelative(0, 0, -1)})
+                    read(face);
+                parseSign(node, Pipes.getSignOnPiston(block));
+            }
+            return node;
+        }
+
+        private void parseSign(int node, ChangedSign sign) {
+
+            HashSet<ItemStack> pFilters = new HashSet<>();
+            HashSet<ItemStack> pExceptions = new HashSet<>();
+
+            if (sign != null) {
+                signs[node] = true;
+                for (String line3 : RegexUtil.COMMA_PATTERN.split(sign.getLine(2))) {
+                    pFilters.add(ItemSyntax.getItem(line3.trim()));
+                }
+                for (String line4 : RegexUtil.COMMA_PATTERN.split(sign.getLine(3))) {
+                    pExceptions.add(ItemSyntax.getItem(line4.trim()));
+                }
+
+                pFilters.removeAll(Collections.<ItemStack>singleton(null));
+                pExceptions.removeAll(Collections.<ItemStack>singleton(null));
+            }
+
+            filters.set(node, pFilters);
+            exceptions.set(node, pExceptions);
+        }
+
+        /**
+         * Marks a node as one the search can reach, so its neighbours are added.
+         */
+        private int reach(Block block) {
+
+            int node = getNode(block);
+            if (!expanded[node]) {
+                expanded[node] = true;
+                toExpand.add(node);
+            }
+            return node;
+        }
+
+        private void expand(int node) {
+
+            Block bl = blocks.get(node);
+            Material type = bl.getType();
+
+            for (int x = -1; x < 2; x++) {
+                for (int y = -1; y < 2; y++) {
+                    for (int z = -1; z < 2; z++) {
+
+                        if (!diagonal) {
+                            if (x != 0 && y != 0) continue;
+                            if (x != 0 && z != 0) continue;
+                            if (y != 0 && z != 0) continue;
+                        } else {
+                            boolean xIsY = Math.abs(x) == Math.abs(y);
+                            boolean xIsZ = Math.abs(x) == Math.abs(z);
+                            if (xIsY && xIsZ) {
+                                if (isInsulator(bl.getRelative(x, 0, 0)) && isInsulator(bl.getRelative(0, y, 0))
+                                        && isInsulator(bl.getRelative(0, 0, z))) {
+                                    continue;
+                                }
+                            } else if (xIsY) {
+                                if (isInsulator(bl.getRelative(x, 0, 0)) && isInsulator(bl.getRelative(0, y, 0))) {
+                                    continue;
+                                }
+                            } else if (xIsZ) {
+                                if (isInsulator(bl.getRelative(x, 0, 0)) && isInsulator(bl.getRelative(0, 0, z))) {
+                                    continue;
+                                }
+                            } else {
+                                if (isInsulator(bl.getRelative(0, y, 0)) && isInsulator(bl.getRelative(0, 0, z))) {
+                                    continue;
+                                }
+                            }
+                        }
+
+                        Block off = bl.getRelative(x, y, z);
+                        read(off);
+
+                        if (!Pipes.isValidPipeBlock(off)) continue;
+
+                        Material offType = off.getType();
+                        int offNode = getNode(off);
+
+                        if (ItemUtil.isStainedGlass(type) && ItemUtil.isStainedGlass(offType) && type != offType) {
+                            addEdge(offNode, EDGE_MARK, -1);
+                        } else if (offType == Material.GLASS || ItemUtil.isStainedGlass(offType)) {
+                            addEdge(reach(off), EDGE_QUEUE, -1);
+                        } else if (offType == Material.GLASS_PANE || ItemUtil.isStainedGlassPane(offType)) {
+                            Block offsetBlock = off.getRelative(x, y, z);
+                            read(offsetBlock);
+                            int target = -1;
+                            if (Pipes.isValidPipeBlock(offsetBlock)) {
+                                boolean colourMismatch = false;
+                                if (ItemUtil.isStainedGlassPane(offType)) {
+                                    colourMismatch = (ItemUtil.isStainedGlass(type)
+                                            || ItemUtil.isStainedGlassPane(type)) && ItemUtil.getStainedColor(offType) != ItemUtil
+                                            .getStainedColor(offsetBlock.getType())
+                                            || (ItemUtil.isStainedGlass(offsetBlock.getType())
+                                            || ItemUtil.isStainedGlassPane(offsetBlock.getType())) && ItemUtil.getStainedColor(offType) != ItemUtil
+                                            .getStainedColor(offsetBlock.getType());
+                                }
+                                if (!colourMismatch)
+                                    target = reach(offsetBlock);
+                            }
+                            addEdge(offNode, EDGE_PANE, target);
+                        } else if (offType == Material.PISTON) {
+                            addEdge(reach(off), EDGE_QUEUE_FIRST, -1);
+                        } else {
+                            addEdge(offNode, EDGE_MARK, -1);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void addEdge(int node, byte kind, int target) {
+
+            if (edgeCount == edgeNodes.length) {
+                int capacity = edgeCount * 2;
+                edgeNodes = Arrays.copyOf(edgeNodes, capacity);
+                edgeKinds = Arrays.copyOf(edgeKinds, capacity);
+                edgeTargets = Arrays.copyOf(edgeTargets, capacity);
+            }
+            edgeNodes[edgeCount] = node;
+            edgeKinds[edgeCount] = kind;
+            edgeTargets[edgeCount] = target;
+            edgeCount++;
+        }
+
+        private void ensureNodeCapacity(int size) {
+
+            if (size <= kinds.length)
+                return;
+            int capacity = Math.max(size, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            signs = Arrays.copyOf(signs, capacity);
+            expanded = Arrays.copyOf(expanded, capacity);
+            edgeStart = Arrays.copyOf(edgeStart, capacity);
+            edgeEnd = Arrays.copyOf(edgeEnd, capacity);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.sk89q.craftbook.mechanics.pipe;
+
+import com.sk89q.craftbook.util.LocationUtil;
+import com.sk89q.craftbook.util.LongHashMap;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+import org.bukkit.Chunk;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link PipeGraph} of each sticky piston that has been used, until a block it was built from changes.
+ *
+ * <p>
+ *     Graphs are also indexed by every chunk they cover, so a block change only has to check the graphs near it.
+ * </p>
+ */
+public class PipeGraphCache {
+
+    private final boolean diagonal;
+    private final BlockStateHolder<?> insulator;
+
+    private final Map<UUID, LongHashMap<PipeGraph>> graphs = new HashMap<>();
+    private final Map<UUID, LongHashMap<List<PipeGraph>>> graphsByChunk = new HashMap<>();
+
+    private long builds;
+    private long hits;
+
+    public PipeGraphCache(boolean diagonal, BlockStateHolder<?> insulator) {
+
+        this.diagonal = diagonal;
+        this.insulator = insulator;
+    }
+
+    /**
+     * Gets the graph of the network fed by the given sticky piston, building it if needed.
+     *
+     * @param start The sticky piston
+     * @return The graph
+     */
+    public PipeGraph get(Block start) {
+
+        LongHashMap<PipeGraph> worldGraphs = graphs.computeIfAbsent(start.getWorld().getUID(), k -> new LongHashMap<>());
+        long key = LocationUtil.getBlockKey(start);
+        PipeGraph graph = worldGraphs.get(key);
+        if (graph != null) {
+            hits++;
+            return graph;
+        }
+
+        graph = PipeGraph.build(start, diagonal, insulator);
+        builds++;
+        worldGraphs.put(key, graph);
+
+        LongHashMap<List<PipeGraph>> chunks = graphsByChunk.computeIfAbsent(start.getWorld().getUID(), k -> new LongHashMap<>());
+        for (int x = graph.getMinChunkX(); x <= graph.getMaxChunkX(); x++) {
+            for (int z = graph.getMinChunkZ(); z <= graph.getMaxChunkZ(); z++) {
+                long chunkKey = LocationUtil.getChunkKey(x, z);
+                List<PipeGraph> list = chunks.get(chunkKey);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    chunks.put(chunkKey, list);
+                }
+                list.add(graph);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Drops the graphs that were built from the given block. Used when a block is placed, broken or edited.
+     *
+     * @param block The block
+     */
+    public void invalidate(Block block) {
+
+        List<PipeGraph> nearby = getNearby(block);
+        if (nearby == null) return;
+
+        for (int i = nearby.size() - 1; i >= 0 && i < nearby.size(); i--) {
+            PipeGraph graph = nearby.get(i);
+            if (graph.isExamined(block.getX(), block.getY(), block.getZ()))
+                remove(graph);
+        }
+    }
+
+    /**
+     * Drops the graphs that were built from the given block, if it has changed type since.
+     *
+     * @param block The block
+     */
+    public void invalidateIfChanged(Block block) {
+
+        List<PipeGraph> nearby = getNearby(block);
+        if (nearby == null) return;
+
+        for (int i = nearby.size() - 1; i >= 0 && i < nearby.size(); i--) {
+            PipeGraph graph = nearby.get(i);
+            if (graph.hasChanged(block))
+                remove(graph);
+        }
+    }
+
+    /**
+     * Drops every graph that covers the given chunk.
+     *
+     * @param chunk The chunk
+     */
+    public void invalidate(Chunk chunk) {
+
+        LongHashMap<List<PipeGraph>> chunks = graphsByChunk.get(chunk.getWorld().getUID());
+        if (chunks == null) return;
+        List<PipeGraph> nearby = chunks.get(LocationUtil.getChunkKey(chunk));
+        if (nearby == null) return;
+
+        for (PipeGraph graph : new ArrayList<>(nearby))
+            remove(graph);
+    }
+
+    public void invalidate(World world) {
+
+        graphs.remove(world.getUID());
+        graphsByChunk.remove(world.getUID());
+    }
+
+    public void clear() {
+
+        graphs.clear();
+        graphsByChunk.clear();
+    }
+
+    private List<PipeGraph> getNearby(Block block) {
+
+        LongHashMap<List<PipeGraph>> chunks = graphsByChunk.get(block.getWorld().getUID());
+        if (chunks == null) return null;
+        return chunks.get(LocationUtil.getChunkKeyAt(block.getX(), block.getZ()));
+    }
+
+    private void remove(PipeGraph graph) {
+
+        UUID world = graph.getWorld().getUID();
+        LongHashMap<PipeGraph> worldGraphs = graphs.get(world);
+        if (worldGraphs != null) {
+            Block start = graph.getBlock(graph.getStart());
+            long key = LocationUtil.getBlockKey(start);
+            if (worldGraphs.get(key) == graph)
+                worldGraphs.remove(key);
+            if (worldGraphs.isEmpty())
+                graphs.remove(world);
+        }
+
+        LongHashMap<List<PipeGraph>> chunks = graphsByChunk.get(world);
+        if (chunks == null) return;
+        for (int x = graph.getMinChunkX(); x <= graph.getMaxChunkX(); x++) {
+            for (int z = graph.getMinChunkZ(); z <= graph.getMaxChunkZ(); z++) {
+                long chunkKey = LocationUtil.getChunkKey(x, z);
+                List<PipeGraph> list = chunks.get(chunkKey);
+                if (list == null) continue;
+                list.remove(graph);
+                if (list.isEmpty())
+                    chunks.remove(chunkKey);
+            }
+        }
+        if (chunks.isEmpty())
+            graphsByChunk.remove(world);
+    }
+
+    /**
+     * Gets the amount of cached graphs.
+     *
+     * @return The amount of graphs
+     */
+    public int size() {
+
+        int size = 0;
+        for (LongHashMap<PipeGraph> worldGraphs : graphs.values())
+            size += worldGraphs.size();
+        return size;
+    }
+
+    /**
+     * Gets the amount of times a graph has been built.
+     *
+     * @return The amount of builds
+     */
+    public long getBuildCount() {
+
+        return builds;
+    }
+
+    /**
+     * Gets the amount of times a cached graph was used.
+     *
+     * @return The amount of hits
+     */
+    public long getHitCount() {
+
+        return hits;
+    }
+}
@@ -9,16 +9,13 @@ import com.sk89q.craftbook.util.BlockSyntax;
 import com.sk89q.craftbook.util.BlockUtil;
 import com.sk89q.craftbook.util.EventUtil;
 import com.sk89q.craftbook.util.InventoryUtil;
-import com.sk89q.craftbook.util.ItemSyntax;
 import com.sk89q.craftbook.util.ItemUtil;
 import com.sk89q.craftbook.util.LocationUtil;
 import com.sk89q.craftbook.util.ProtectionUtil;
-import com.sk89q.craftbook.util.RegexUtil;
 import com.sk89q.craftbook.util.SignUtil;
 import com.sk89q.craftbook.util.VerifyUtil;
 import com.sk89q.craftbook.util.events.SourcedBlockRedstoneEvent;
 import com.sk89q.util.yaml.YAMLProcessor;
-import com.sk89q.worldedit.bukkit.BukkitAdapter;
 import com.sk89q.worldedit.world.block.BlockStateHolder;
 import com.sk89q.worldedit.world.block.BlockTypes;
 import org.bukkit.Bukkit;
@@ -34,22 +31,54 @@ import org.bukkit.block.data.Directional;
 import org.bukkit.block.data.type.Piston;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPhysicsEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.block.SignChangeEvent;
+import org.bukkit.event.world.ChunkUnloadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
 import org.bukkit.inventory.InventoryHolder;
 import org.bukkit.inventory.ItemStack;
-import org.bukkit.util.Vector;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
 public class Pipes extends AbstractCraftBookMechanic {
 
+    private PipeGraphCache graphs;
+
+    @Override
+    public boolean enable() {
+
+        graphs = new PipeGraphCache(pipesDiagonal, pipeInsulator);
+        CraftBookPlugin.inst().getRedstoneTargets().addTargets(this, Material.STICKY_PISTON);
+        return true;
+    }
+
+    @Override
+    public void disable() {
+
+        if (graphs != null)
+            graphs.clear();
+        graphs = null;
+    }
+
+    /**
+     * Gets the cache of pipe networks that have been used.
+     *
+     * @return The cache
+     */
+    public PipeGraphCache getGraphs() {
+
+        return graphs;
+    }
+
     @EventHandler(priority = EventPriority.HIGH)
     public void onSignChange(SignChangeEvent event) {
 
@@ -104,7 +133,7 @@ public class Pipes extends AbstractCraftBookMechanic {
         return block.getType() == Material.PISTON || block.getType() == Material.STICKY_PISTON;
     }
 
-    private static ChangedSign getSignOnPiston(Block block) {
+    static ChangedSign getSignOnPiston(Block block) {
         BlockData blockData = block.getBlockData();
         BlockFace facing = BlockFace.SELF;
         if(blockData instanceof Directional) {
@@ -128,41 +157,27 @@ public class Pipes extends AbstractCraftBookMechanic {
         return null;
     }
 
-    private void searchNearbyPipes(Block block, Set<Vector> visitedPipes, List<ItemStack> items) {
-        Deque<Block> searchQueue = new ArrayDeque<>();
-        searchQueue.addFirst(block);
-
-        //Use the queue to search blocks.
-        while (!searchQueue.isEmpty()) {
-            Block bl = searchQueue.poll();
-            if (bl.getType() == Material.PISTON) {
-                Piston p = (Piston) bl.getBlockData();
+    private void searchNearbyPipes(PipeGraph graph, List<ItemStack> items) {
+        boolean[] visitedPipes = new boolean[graph.size()];
+        if (graph.getSource() >= 0)
+            visitedPipes[graph.getSource()] = true;
 
-                ChangedSign sign = getSignOnPiston(bl);
-
-                HashSet<ItemStack> pFilters = new HashSet<>();
-                HashSet<ItemStack> pExceptions = new HashSet<>();
-
-                if(sign != null) {
-                    for(String line3 : RegexUtil.COMMA_PATTERN.split(sign.getLine(2))) {
-                        pFilters.add(ItemSyntax.getItem(line3.trim()));
-                    }
-                    for(String line4 : RegexUtil.COMMA_PATTERN.split(sign.getLine(3))) {
-                        pExceptions.add(ItemSyntax.getItem(line4.trim()));
-                    }
+        Deque<Integer> searchQueue = new ArrayDeque<>();
+        searchQueue.addFirst(graph.getStart());
 
-                    pFilters.removeAll(Collections.<ItemStack>singleton(null));
-                    pExceptions.removeAll(Collections.<ItemStack>singleton(null));
-                }
-
-                List<ItemStack> filteredItems = new ArrayList<>(VerifyUtil.withoutNulls(ItemUtil.filterItems(items, pFilters, pExceptions)));
+        //Use the queue to walk the graph, in the same order as searching the world would.
+        while (!searchQueue.isEmpty()) {
+            int node = searchQueue.poll();
+            Block bl = graph.getBlock(node);
+            if (graph.getKind(node) == PipeGraph.PISTON) {
+                List<ItemStack> filteredItems = new ArrayList<>(VerifyUtil.withoutNulls(ItemUtil.filterItems(items, graph.getFilters(node), graph.getExceptions(node))));
 
                 if(filteredItems.isEmpty())
                     continue;
 
                 List<ItemStack> newItems = new ArrayList<>();
 
-                Block fac = bl.getRelative(p.getFacing());
+                Block fac = graph.getTarget(node);
 
                 PipePutEvent event = new PipePutEvent(bl, new ArrayList<>(filteredItems), fac);
                 Bukkit.getPluginManager().callEvent(event);
@@ -193,25 +208,8 @@ public class Pipes extends AbstractCraftBookMechanic {
                     items.removeAll(filteredItems);
                     items.addAll(newItems);
                 }
-            } else if (bl.getType() == Material.DROPPER) {
-                ChangedSign sign = getSignOnPiston(bl);
-
-                HashSet<ItemStack> pFilters = new HashSet<>();
-                HashSet<ItemStack> pExceptions = new HashSet<>();
-
-                if(sign != null) {
-                    for(String line3 : RegexUtil.COMMA_PATTERN.split(sign.getLine(2))) {
-                        pFilters.add(ItemSyntax.getItem(line3.trim()));
-                    }
-                    for(String line4 : RegexUtil.COMMA_PATTERN.split(sign.getLine(3))) {
-                        pExceptions.add(ItemSyntax.getItem(line4.trim()));
-                    }
-
-                    pFilters.removeAll(Collections.<ItemStack>singleton(null));
-                    pExceptions.removeAll(Collections.<ItemStack>singleton(null));
-                }
-
-                List<ItemStack> filteredItems = new ArrayList<>(VerifyUtil.withoutNulls(ItemUtil.filterItems(items, pFilters, pExceptions)));
+            } else if (graph.getKind(node) == PipeGraph.DROPPER) {
+                List<ItemStack> filteredItems = new ArrayList<>(VerifyUtil.withoutNulls(ItemUtil.filterItems(items, graph.getFilters(node), graph.getExceptions(node))));
 
                 if(filteredItems.isEmpty())
                     continue;
@@ -229,81 +227,37 @@ public class Pipes extends AbstractCraftBookMechanic {
                 items.addAll(newItems);
             }
 
-            if (!items.isEmpty()) {
-                //Enumerate the search queue.
-                for (int x = -1; x < 2; x++) {
-                    for (int y = -1; y < 2; y++) {
-                        for (int z = -1; z < 2; z++) {
-
-                            if(items.isEmpty())
-                                return;
-
-                            if (!pipesDiagonal) {
-                                if (x != 0 && y != 0) continue;
-                                if (x != 0 && z != 0) continue;
-                                if (y != 0 && z != 0) continue;
-                            } else {
-                                boolean xIsY = Math.abs(x) == Math.abs(y);
-                                boolean xIsZ = Math.abs(x) == Math.abs(z);
-                                if (xIsY && xIsZ) {
-                                    if (pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(x, 0, 0).getBlockData()))
-                                            && pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(0, y, 0).getBlockData()))
-                                            && pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(0, 0, z).getBlockData()))) {
-                                        continue;
-                                    }
-                                } else if (xIsY) {
-                                    if (pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(x, 0, 0).getBlockData()))
-                                            && pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(0, y, 0).getBlockData()))) {
-                                        continue;
-                                    }
-                                } else if (xIsZ) {
-                                    if (pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(x, 0, 0).getBlockData()))
-                                            && pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(0, 0, z).getBlockData()))) {
-                                        continue;
-                                    }
-                                } else {
-                                    if (pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(0, y, 0).getBlockData()))
-                                            && pipeInsulator.equalsFuzzy(BukkitAdapter.adapt(bl.getRelative(0, 0, z).getBlockData()))) {
-                                        continue;
-                                    }
-                                }
-                            }
+            if(items.isEmpty())
+                return;
 
-                            Block off = bl.getRelative(x, y, z);
-
-                            if (!isValidPipeBlock(off)) continue;
-
-                            if (visitedPipes.contains(off.getLocation().toVector())) continue;
-                            visitedPipes.add(off.getLocation().toVector());
-
-                            if(ItemUtil.isStainedGlass(bl.getType()) && ItemUtil.isStainedGlass(off.getType()) && bl.getType() != off.getType()) continue;
-
-                            if(off.getType() == Material.GLASS || ItemUtil.isStainedGlass(off.getType())) {
-                                searchQueue.add(off);
-                            } else if (off.getType() == Material.GLASS_PANE || ItemUtil.isStainedGlassPane(off.getType())) {
-                                Block offsetBlock = off.getRelative(x, y, z);
-                                if (!isValidPipeBlock(offsetBlock)) continue;
-                                if (visitedPipes.contains(offsetBlock.getLocation().toVector())) continue;
-                                if(ItemUtil.isStainedGlassPane(off.getType())) {
-                                    if((ItemUtil.isStainedGlass(bl.getType())
-                                            || ItemUtil.isStainedGlassPane(bl.getType())) && ItemUtil.getStainedColor(off.getType()) != ItemUtil
-                                            .getStainedColor(offsetBlock.getType())
-                                            || (ItemUtil.isStainedGlass(offsetBlock.getType())
-                                            || ItemUtil.isStainedGlassPane(offsetBlock.getType())) && ItemUtil.getStainedColor(off.getType()) != ItemUtil
-                                            .getStainedColor(offsetBlock.getType())) continue;
-                                }
-                                visitedPipes.add(offsetBlock.getLocation().toVector());
-                                searchQueue.add(off.getRelative(x, y, z));
-                            } else if(off.getType() == Material.PISTON)
-                                searchQueue.addFirst(off); //Pistons are treated with higher priority.
-                        }
-                    }
+            //Enumerate the search queue.
+            for (int edge = graph.getEdgeStart(node); edge < graph.getEdgeEnd(node); edge++) {
+                int off = graph.getEdgeNode(edge);
+
+                if (visitedPipes[off]) continue;
+                visitedPipes[off] = true;
+
+                switch (graph.getEdgeKind(edge)) {
+                    case PipeGraph.EDGE_QUEUE:
+                        searchQueue.add(off);
+                        break;
+                    case PipeGraph.EDGE_QUEUE_FIRST:
+                        searchQueue.addFirst(off); //Pistons are treated with higher priority.
+                        break;
+                    case PipeGraph.EDGE_PANE:
+                        int offsetNode = graph.getEdgeTarget(edge);
+                        if (offsetNode < 0 || visitedPipes[offsetNode]) continue;
+                        visitedPipes[offsetNode] = true;
+                        searchQueue.add(offsetNode);
+                        break;
+                    default:
+                        break;
                 }
             }
         }
     }
 
-    private static boolean isValidPipeBlock(Block block) {
+    static boolean isValidPipeBlock(Block block) {
         switch (block.getType()) {
             case GLASS:
             case PISTON:
@@ -320,24 +274,10 @@ public class Pipes extends AbstractCraftBookMechanic {
 
     private void startPipe(Block block, List<ItemStack> items, boolean request) {
 
-        Set<ItemStack> filters = new HashSet<>();
-        Set<ItemStack> exceptions = new HashSet<>();
-
-        ChangedSign sign = getSignOnPiston(block);
-
-        if(sign != null) {
-            for(String line3 : RegexUtil.COMMA_PATTERN.split(sign.getLine(2))) {
-                filters.add(ItemSyntax.getItem(line3.trim()));
-            }
-            for(String line4 : RegexUtil.COMMA_PATTERN.split(sign.getLine(3))) {
-                exceptions.add(ItemSyntax.getItem(line4.trim()));
-            }
-        }
-
-        filters.removeAll(Collections.<ItemStack>singleton(null));
-        exceptions.removeAll(Collections.<ItemStack>singleton(null));
+        PipeGraph graph = graphs.get(block);
 
-        Set<Vector> visitedPipes = new HashSet<>();
+        Set<ItemStack> filters = graph.getFilters(graph.getStart());
+        Set<ItemStack> exceptions = graph.getExceptions(graph.getStart());
 
         if (block.getType() == Material.STICKY_PISTON) {
 
@@ -372,8 +312,7 @@ public class Pipes extends AbstractCraftBookMechanic {
                 items.clear();
                 items.addAll(event.getItems());
                 if(!event.isCancelled()) {
-                    visitedPipes.add(fac.getLocation().toVector());
-                    searchNearbyPipes(block, visitedPipes, items);
+                    searchNearbyPipes(graph, items);
                 }
 
                 if (!items.isEmpty()) {
@@ -395,8 +334,7 @@ public class Pipes extends AbstractCraftBookMechanic {
                 items.clear();
                 items.addAll(event.getItems());
                 if(!event.isCancelled()) {
-                    visitedPipes.add(fac.getLocation().toVector());
-                    searchNearbyPipes(block, visitedPipes, items);
+                    searchNearbyPipes(graph, items);
                 }
 
                 if (!items.isEmpty()) {
@@ -421,8 +359,7 @@ public class Pipes extends AbstractCraftBookMechanic {
                     items.addAll(event.getItems());
 
                     if (!event.isCancelled()) {
-                        visitedPipes.add(fac.getLocation().toVector());
-                        searchNearbyPipes(block, visitedPipes, items);
+                        searchNearbyPipes(graph, items);
                     }
 
                     if (!items.isEmpty()) {
@@ -441,8 +378,7 @@ public class Pipes extends AbstractCraftBookMechanic {
                 items.clear();
                 items.addAll(event.getItems());
                 if(!event.isCancelled() && !items.isEmpty()) {
-                    visitedPipes.add(fac.getLocation().toVector());
-                    searchNearbyPipes(block, visitedPipes, items);
+                    searchNearbyPipes(graph, items);
                 }
                 leftovers.addAll(items);
             }
@@ -494,6 +430,65 @@ public class Pipes extends AbstractCraftBookMechanic {
         }
     }
 
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent event) {
+
+        graphs.invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent event) {
+
+        graphs.invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSignEdit(SignChangeEvent event) {
+
+        graphs.invalidate(event.getBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onBlockPhysics(BlockPhysicsEvent event) {
+
+        // Physics fires very often, so only a change of type drops a graph.
+        graphs.invalidateIfChanged(event.getBlock());
+        if (event.getSourceBlock() != event.getBlock())
+            graphs.invalidateIfChanged(event.getSourceBlock());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonExtend(BlockPistonExtendEvent event) {
+
+        graphs.invalidate(event.getBlock());
+        for (Block block : event.getBlocks()) {
+            graphs.invalidate(block);
+            graphs.invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPistonRetract(BlockPistonRetractEvent event) {
+
+        graphs.invalidate(event.getBlock());
+        for (Block block : event.getBlocks()) {
+            graphs.invalidate(block);
+            graphs.invalidate(block.getRelative(event.getDirection()));
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onChunkUnload(ChunkUnloadEvent event) {
+
+        graphs.invalidate(event.getChunk());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldUnload(WorldUnloadEvent event) {
+
+        graphs.invalidate(event.getWorld());
+    }
+
     private boolean pipesDiagonal;
     private BlockStateHolder<?> pipeInsulator;
     private boolean pipeStackPerPull;
@@ -206,8 +206,7 @@ public class VariableCommands {
 
         if(ICManager.inst() != null) {//Make sure IC's are enabled.
 
-            ICManager.getCachedICs().entrySet()
-                    .removeIf(ic -> ic.getValue().getSign().hasVariable(namespace + '|' + variable) || ic.getValue().getSign().hasVariable(variable));
+            ICManager.removeCachedICs(ic -> ic.getSign().hasVariable(namespace + '|' + variable) || ic.getSign().hasVariable(variable));
         }
     }
 
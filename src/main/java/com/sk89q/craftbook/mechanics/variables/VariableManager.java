@@ -20,8 +20,10 @@ import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.event.server.ServerCommandEvent;
 
 import java.io.File;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class VariableManager extends AbstractCraftBookMechanic {
 
@@ -30,15 +32,22 @@ public class VariableManager extends AbstractCraftBookMechanic {
     public static VariableManager instance;
 
     /**
-     * Stores the variables used in VariableStore ((Variable, Namespace), Value).
+     * Stores the variables used in VariableStore ((Variable, Namespace), Value). This is read from the async chat
+     * thread, so it has to be concurrent.
      */
-    private HashMap<Tuple2<String, String>, String> variableStore;
+    private Map<Tuple2<String, String>, String> variableStore;
+
+    /**
+     * Changes whenever a variable is set or removed, so parsed lines can be reused until then.
+     */
+    private static final AtomicLong VERSION = new AtomicLong();
 
     @Override
     public boolean enable() {
 
         instance = this;
-        variableStore = new HashMap<>();
+        variableStore = new ConcurrentHashMap<>();
+        VERSION.incrementAndGet();
         CraftBookPlugin.logDebugMessage("Initializing Variables!", "startup.variables");
 
         try {
@@ -67,6 +76,7 @@ public class VariableManager extends AbstractCraftBookMechanic {
         }
         variableStore.clear();
         instance = null;
+        VERSION.incrementAndGet();
     }
 
     public boolean hasVariable(String variable, String namespace) {
@@ -81,15 +91,31 @@ public class VariableManager extends AbstractCraftBookMechanic {
 
     public String setVariable(String variable, String namespace, String value) {
 
-        return variableStore.put(new Tuple2<>(variable, namespace), value);
+        if(value == null)
+            return removeVariable(variable, namespace);
+        String old = variableStore.put(new Tuple2<>(variable, namespace), value);
+        VERSION.incrementAndGet();
+        return old;
     }
 
     public String removeVariable(String variable, String namespace) {
 
-        return variableStore.remove(new Tuple2<>(variable, namespace));
+        String old = variableStore.remove(new Tuple2<>(variable, namespace));
+        VERSION.incrementAndGet();
+        return old;
+    }
+
+    /**
+     * Gets the version of the variable store, which changes whenever a variable is set or removed.
+     *
+     * @return The version
+     */
+    public static long getVersion() {
+
+        return VERSION.get();
     }
 
-    public HashMap<Tuple2<String, String>, String> getVariableStore() {
+    public Map<Tuple2<String, String>, String> getVariableStore() {
 
         return variableStore;
     }
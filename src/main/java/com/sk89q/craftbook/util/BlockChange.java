@@ -0,0 +1,54 @@
+package com.sk89q.craftbook.util;
+
+import org.bukkit.Material;
+
+/**
+ * A block to set by the {@link VolumeScanner}, if it still has the type it had in the {@link VolumeSnapshot}.
+ */
+public final class BlockChange {
+
+    private final int x, y, z;
+    private final Material expected;
+    private final Material type;
+
+    /**
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @param expected The type the block had when it was scanned
+     * @param type The type to set it to
+     */
+    public BlockChange(int x, int y, int z, Material expected, Material type) {
+
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.expected = expected;
+        this.type = type;
+    }
+
+    public int getX() {
+
+        return x;
+    }
+
+    public int getY() {
+
+        return y;
+    }
+
+    public int getZ() {
+
+        return z;
+    }
+
+    public Material getExpected() {
+
+        return expected;
+    }
+
+    public Material getType() {
+
+        return type;
+    }
+}
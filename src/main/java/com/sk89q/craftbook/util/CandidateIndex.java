@@ -0,0 +1,331 @@
+package com.sk89q.craftbook.util;
+
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
+import com.sk89q.worldedit.math.BlockVector3;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The blocks of a {@link SearchArea} whose type an IC can work on, so it can pick from those instead of sampling the
+ * whole area.
+ *
+ * <p>
+ *     The area is first scanned from chunk snapshots by the {@link VolumeScanner}, off the main thread. Until that is
+ *     done, blocks are sampled from the whole area as before. Block events are passed in through the
+ *     {@link CandidateIndexManager}, and a candidate that no longer has a matching type is dropped when it is picked.
+ *     To pick up blocks changed without an event, one chunk of the area is scanned again every so often.
+ * </p>
+ */
+public class CandidateIndex {
+
+    /**
+     * The amount of calls to {@link #scan()} between rescans of a chunk of the area.
+     */
+    private static final int RESCAN_INTERVAL = 1200;
+
+    private final SearchArea area;
+    private final World world;
+    private final Set<Material> types;
+    private final VolumeScanner scanner;
+
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+    private final boolean empty;
+    private boolean scanned;
+    private int untilRescan = RESCAN_INTERVAL;
+    private int rescanChunk;
+
+    private final LongHashMap<Integer> positions = new LongHashMap<>();
+    private int[] xs = new int[16];
+    private int[] ys = new int[16];
+    private int[] zs = new int[16];
+    private int size;
+
+    private long samples;
+    private long hits;
+
+    /**
+     * The chunk of the IC that owns this index, set by the {@link CandidateIndexManager}.
+     */
+    long ownerChunk;
+
+    /**
+     * @param area The area
+     * @param types The types of blocks the IC can work on
+     * @param scanner The scanner that reads the area
+     */
+    public CandidateIndex(SearchArea area, Set<Material> types, VolumeScanner scanner) {
+
+        this.area = area;
+        this.world = area.getWorld();
+        this.types = types;
+        this.scanner = scanner;
+
+        BlockVector3 min = area.getMinimumPoint();
+        BlockVector3 max = area.getMaximumPoint();
+        minX = min.getBlockX();
+        minY = Math.max(0, min.getBlockY());
+        minZ = min.getBlockZ();
+        maxX = max.getBlockX();
+        maxY = Math.min(world.getMaxHeight() - 1, max.getBlockY());
+        maxZ = max.getBlockZ();
+        empty = maxY < minY;
+        scanned = empty;
+    }
+
+    /**
+     * Starts the first scan of the area, or a rescan of one of its chunks when it is due. Nothing is read on the main
+     * thread, the result is added once the {@link VolumeScanner} hands it back.
+     */
+    public void scan() {
+
+        if (empty || scanner.isBusy(this))
+            return;
+
+        if (!scanned) {
+            scanner.scan(this, world, BlockVector3.at(minX, minY, minZ), BlockVector3.at(maxX, maxY, maxZ), this::find, found -> {
+                addFound(found);
+                scanned = true;
+            });
+            return;
+        }
+
+        if (--untilRescan > 0)
+            return;
+        untilRescan = RESCAN_INTERVAL;
+
+        // Rescan the chunks of the area in turn, only within the area.
+        int chunksX = (maxX >> 4) - (minX >> 4) + 1;
+        int chunksZ = (maxZ >> 4) - (minZ >> 4) + 1;
+        int chunkX = (minX >> 4) + rescanChunk % chunksX;
+        int chunkZ = (minZ >> 4) + rescanChunk / chunksX;
+        rescanChunk = (rescanChunk + 1) % (chunksX * chunksZ);
+        if (!world.isChunkLoaded(chunkX, chunkZ))
+            return;
+        BlockVector3 min = BlockVector3.at(Math.max(minX, chunkX << 4), minY, Math.max(minZ, chunkZ << 4));
+        BlockVector3 max = BlockVector3.at(Math.min(maxX, (chunkX << 4) + 15), maxY, Math.min(maxZ, (chunkZ << 4) + 15));
+        scanner.scan(this, world, min, max, this::find, this::addFound);
+    }
+
+    /**
+     * Finds the blocks of the snapshot with a matching type. Runs off the main thread.
+     *
+     * @param snapshot The snapshot
+     * @return The positions of the blocks
+     */
+    private List<BlockVector3> find(VolumeSnapshot snapshot) {
+
+        List<BlockVector3> found = new ArrayList<>();
+        for (int y = snapshot.getMinY(); y <= snapshot.getMaxY(); y++) {
+            for (int z = snapshot.getMinZ(); z <= snapshot.getMaxZ(); z++) {
+                for (int x = snapshot.getMinX(); x <= snapshot.getMaxX(); x++) {
+                    Material type = snapshot.getType(x, y, z);
+                    if (type != null && types.contains(type))
+                        found.add(BlockVector3.at(x, y, z));
+                }
+            }
+        }
+        return found;
+    }
+
+    private void addFound(List<BlockVector3> found) {
+
+        // Candidates that have changed since the snapshot are dropped when they are picked, so they are only added.
+        Location location = new Location(world, 0, 0, 0);
+        for (BlockVector3 position : found) {
+            location.setX(position.getBlockX());
+            location.setY(position.getBlockY());
+            location.setZ(position.getBlockZ());
+            if (area.isWithinArea(location))
+                add(position.getBlockX(), position.getBlockY(), position.getBlockZ());
+        }
+    }
+
+    /**
+     * Updates a block that is about to change, or has just changed, to the given type.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @param type The new type
+     */
+    public void update(int x, int y, int z, Material type) {
+
+        if (!contains(x, y, z))
+            return;
+
+        if (!types.contains(type))
+            remove(x, y, z);
+        else if (area.isWithinArea(new Location(world, x, y, z)))
+            add(x, y, z);
+    }
+
+    /**
+     * Picks a random candidate. Until the first pass of the area is done, this is any block in the area.
+     *
+     * @return The block, or null if there isn't one to pick
+     */
+    public Block getRandomBlock() {
+
+        if (!scanned)
+            return area.getRandomBlockInArea();
+        if (size == 0)
+            return null;
+
+        samples++;
+        int index = CraftBookPlugin.inst().getRandom().nextInt(size);
+        int x = xs[index], y = ys[index], z = zs[index];
+        if (!world.isChunkLoaded(x >> 4, z >> 4))
+            return null;
+
+        Block block = world.getBlockAt(x, y, z);
+        if (!types.contains(block.getType())) {
+            remove(x, y, z);
+            return null;
+        }
+        return block;
+    }
+
+    /**
+     * Records that the last picked block was used.
+     */
+    public void hit() {
+
+        if (scanned)
+            hits++;
+    }
+
+    private void add(int x, int y, int z) {
+
+        long key = LocationUtil.getBlockKey(x, y, z);
+        if (positions.containsKey(key))
+            return;
+
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+            zs = Arrays.copyOf(zs, size * 2);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        zs[size] = z;
+        positions.put(key, size++);
+    }
+
+    private void remove(int x, int y, int z) {
+
+        Integer index = positions.remove(LocationUtil.getBlockKey(x, y, z));
+        if (index == null)
+            return;
+
+        // Move the last candidate into the gap.
+        size--;
+        if (index != size) {
+            xs[index] = xs[size];
+            ys[index] = ys[size];
+            zs[index] = zs[size];
+            positions.put(LocationUtil.getBlockKey(xs[index], ys[index], zs[index]), index);
+        }
+    }
+
+    /**
+     * Checks if the given position is inside the box that contains the area.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return If it is inside
+     */
+    public boolean contains(int x, int y, int z) {
+
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Checks if this index was made for the same area and types, so it can be kept for a recreated IC.
+     *
+     * @param area The area
+     * @param types The types
+     * @return If it matches
+     */
+    public boolean matches(SearchArea area, Set<Material> types) {
+
+        BlockVector3 min = area.getMinimumPoint();
+        BlockVector3 max = area.getMaximumPoint();
+        return this.types == types && world.equals(area.getWorld()) && min.getBlockX() == minX && min.getBlockZ() == minZ
+                && max.getBlockX() == maxX && max.getBlockZ() == maxZ && Math.max(0, min.getBlockY()) == minY
+                && Math.min(world.getMaxHeight() - 1, max.getBlockY()) == maxY
+                && (this.area.getRegion() == null ? area.getRegion() == null : this.area.getRegion().equals(area.getRegion()));
+    }
+
+    public World getWorld() {
+
+        return world;
+    }
+
+    public int getMinChunkX() {
+
+        return minX >> 4;
+    }
+
+    public int getMinChunkZ() {
+
+        return minZ >> 4;
+    }
+
+    public int getMaxChunkX() {
+
+        return maxX >> 4;
+    }
+
+    public int getMaxChunkZ() {
+
+        return maxZ >> 4;
+    }
+
+    /**
+     * Gets if the first pass of the area is done.
+     *
+     * @return If it has been scanned
+     */
+    public boolean isScanned() {
+
+        return scanned;
+    }
+
+    /**
+     * Gets the amount of candidates.
+     *
+     * @return The amount of candidates
+     */
+    public int size() {
+
+        return size;
+    }
+
+    /**
+     * Gets the amount of candidates that have been picked.
+     *
+     * @return The amount of samples
+     */
+    public long getSamples() {
+
+        return samples;
+    }
+
+    /**
+     * Gets the amount of picked candidates that were used.
+     *
+     * @return The amount of hits
+     */
+    public long getHits() {
+
+        return hits;
+    }
+}
@@ -0,0 +1,222 @@
+package com.sk89q.craftbook.util;
+
+import org.bukkit.Chunk;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps the {@link CandidateIndex} of each IC that picks blocks from an area, and passes block changes to the
+ * indexes that cover them.
+ *
+ * <p>
+ *     Indexes are kept by the position of their IC, so an IC that is created again with the same area keeps its
+ *     index. They are also indexed by every chunk they cover, so a block change only has to check the indexes near it.
+ * </p>
+ */
+public class CandidateIndexManager {
+
+    private final VolumeScanner scanner;
+
+    private final Map<UUID, LongHashMap<CandidateIndex>> byOwner = new HashMap<>();
+    private final Map<UUID, LongHashMap<List<CandidateIndex>>> byChunk = new HashMap<>();
+
+    /**
+     * @param scanner The scanner that reads the areas of the indexes
+     */
+    public CandidateIndexManager(VolumeScanner scanner) {
+
+        this.scanner = scanner;
+    }
+
+    /**
+     * Gets the index of the IC at the given block, creating it if the IC has none or it was made for another area.
+     *
+     * @param owner The block of the IC
+     * @param area The area
+     * @param types The types of blocks the IC can work on
+     * @return The index, or null if the area is invalid
+     */
+    public CandidateIndex get(Block owner, SearchArea area, Set<Material> types) {
+
+        if (area == null || !area.isValid() || area.getWorld() == null)
+            return null;
+
+        long key = LocationUtil.getBlockKey(owner);
+        LongHashMap<CandidateIndex> owners = byOwner.computeIfAbsent(owner.getWorld().getUID(), k -> new LongHashMap<>());
+        CandidateIndex index = owners.get(key);
+        if (index != null) {
+            if (index.matches(area, types))
+                return index;
+            unregister(index);
+        }
+
+        index = new CandidateIndex(area, types, scanner);
+        index.ownerChunk = LocationUtil.getChunkKeyAt(owner.getX(), owner.getZ());
+        owners.put(key, index);
+
+        LongHashMap<List<CandidateIndex>> chunks = byChunk.computeIfAbsent(index.getWorld().getUID(), k -> new LongHashMap<>());
+        for (int x = index.getMinChunkX(); x <= index.getMaxChunkX(); x++) {
+            for (int z = index.getMinChunkZ(); z <= index.getMaxChunkZ(); z++) {
+                long chunkKey = LocationUtil.getChunkKey(x, z);
+                List<CandidateIndex> list = chunks.get(chunkKey);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    chunks.put(chunkKey, list);
+                }
+                list.add(index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Drops the index of the IC at the given block.
+     *
+     * @param owner The block of the IC
+     */
+    public void release(Block owner) {
+
+        LongHashMap<CandidateIndex> owners = byOwner.get(owner.getWorld().getUID());
+        if (owners == null) return;
+        CandidateIndex index = owners.remove(LocationUtil.getBlockKey(owner));
+        if (index != null)
+            unregister(index);
+        if (owners.isEmpty())
+            byOwner.remove(owner.getWorld().getUID());
+    }
+
+    /**
+     * Drops the indexes of the ICs in the given chunk.
+     *
+     * @param chunk The chunk
+     */
+    public void unloadChunk(Chunk chunk) {
+
+        LongHashMap<CandidateIndex> owners = byOwner.get(chunk.getWorld().getUID());
+        if (owners == null) return;
+        long chunkKey = LocationUtil.getChunkKey(chunk);
+        for (long key : owners.keys()) {
+            if (owners.get(key).ownerChunk == chunkKey)
+                unregister(owners.remove(key));
+        }
+        if (owners.isEmpty())
+            byOwner.remove(chunk.getWorld().getUID());
+    }
+
+    /**
+     * Updates the indexes that cover a block that is about to change, or has just changed, to the given type.
+     *
+     * @param world The world
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @param type The new type
+     */
+    public void update(World world, int x, int y, int z, Material type) {
+
+        LongHashMap<List<CandidateIndex>> chunks = byChunk.get(world.getUID());
+        if (chunks == null) return;
+        List<CandidateIndex> indexes = chunks.get(LocationUtil.getChunkKeyAt(x, z));
+        if (indexes == null) return;
+        for (CandidateIndex index : indexes)
+            index.update(x, y, z, type);
+    }
+
+    /**
+     * Updates the indexes that cover a block that has just changed.
+     *
+     * @param block The block
+     */
+    public void update(Block block) {
+
+        update(block.getWorld(), block.getX(), block.getY(), block.getZ(), block.getType());
+    }
+
+    private void unregister(CandidateIndex index) {
+
+        scanner.cancel(index);
+        LongHashMap<List<CandidateIndex>> chunks = byChunk.get(index.getWorld().getUID());
+        if (chunks == null) return;
+        for (int x = index.getMinChunkX(); x <= index.getMaxChunkX(); x++) {
+            for (int z = index.getMinChunkZ(); z <= index.getMaxChunkZ(); z++) {
+                long chunkKey = LocationUtil.getChunkKey(x, z);
+                List<CandidateIndex> list = chunks.get(chunkKey);
+                if (list == null) continue;
+                list.remove(index);
+                if (list.isEmpty())
+                    chunks.remove(chunkKey);
+            }
+        }
+        if (chunks.isEmpty())
+            byChunk.remove(index.getWorld().getUID());
+    }
+
+    public void clear() {
+
+        byOwner.clear();
+        byChunk.clear();
+    }
+
+    /**
+     * Gets the amount of indexes.
+     *
+     * @return The amount of indexes
+     */
+    public int size() {
+
+        int size = 0;
+        for (LongHashMap<CandidateIndex> owners : byOwner.values())
+            size += owners.size();
+        return size;
+    }
+
+    /**
+     * Gets the amount of candidates in all indexes.
+     *
+     * @return The amount of candidates
+     */
+    public long getCandidateCount() {
+
+        long count = 0;
+        for (LongHashMap<CandidateIndex> owners : byOwner.values())
+            for (CandidateIndex index : owners.values())
+                count += index.size();
+        return count;
+    }
+
+    /**
+     * Gets the amount of candidates picked from all indexes.
+     *
+     * @return The amount of samples
+     */
+    public long getSamples() {
+
+        long samples = 0;
+        for (LongHashMap<CandidateIndex> owners : byOwner.values())
+            for (CandidateIndex index : owners.values())
+                samples += index.getSamples();
+        return samples;
+    }
+
+    /**
+     * Gets the amount of picked candidates that were used, in all indexes.
+     *
+     * @return The amount of hits
+     */
+    public long getHits() {
+
+        long hits = 0;
+        for (LongHashMap<CandidateIndex> owners : byOwner.values())
+            for (CandidateIndex index : owners.values())
+                hits += index.getHits();
+        return hits;
+    }
+}
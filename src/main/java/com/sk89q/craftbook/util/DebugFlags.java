@@ -0,0 +1,88 @@
+package com.sk89q.craftbook.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Matches debug codes against the configured debug flags.
+ *
+ * <p>
+ *     A code is enabled if a flag equals the code, or one of its parents. For example the flag <code>ic</code> enables
+ *     <code>ic</code> and <code>ic.cache</code>, but not <code>ic-cache</code>. The flags are compiled into a tree of
+ *     their dot separated parts, and the result for each code is remembered, as the same few codes are checked over
+ *     and over.
+ * </p>
+ */
+public final class DebugFlags {
+
+    /**
+     * Matches nothing, for when debug mode is off.
+     */
+    public static final DebugFlags NONE = new DebugFlags(Collections.emptyList());
+
+    private static final int MAX_CACHED_CODES = 4096;
+
+    private final Node root = new Node();
+    private final boolean empty;
+    private final Map<String, Boolean> cache = new ConcurrentHashMap<>();
+
+    public DebugFlags(List<String> flags) {
+
+        for (String flag : flags) {
+            Node node = root;
+            for (String part : RegexUtil.PERIOD_PATTERN.split(flag.toLowerCase(Locale.ENGLISH)))
+                node = node.children.computeIfAbsent(part, k -> new Node());
+            if (node != root)
+                node.enabled = true;
+        }
+        empty = root.children.isEmpty();
+    }
+
+    /**
+     * Gets if the given debug code is enabled.
+     *
+     * @param code The debug code
+     * @return If it is enabled
+     */
+    public boolean isEnabled(String code) {
+
+        if (empty)
+            return false;
+
+        Boolean enabled = cache.get(code);
+        if (enabled == null) {
+            enabled = match(code);
+            if (cache.size() < MAX_CACHED_CODES)
+                cache.put(code, enabled);
+        }
+        return enabled;
+    }
+
+    private boolean match(String code) {
+
+        Node node = root;
+        int start = 0;
+        while (start <= code.length()) {
+            int end = code.indexOf('.', start);
+            if (end < 0)
+                end = code.length();
+            node = node.children.get(code.substring(start, end));
+            if (node == null)
+                return false;
+            if (node.enabled)
+                return true;
+            start = end + 1;
+        }
+        return false;
+    }
+
+    private static final class Node {
+
+        private final Map<String, Node> children = new HashMap<>();
+        private boolean enabled;
+    }
+}
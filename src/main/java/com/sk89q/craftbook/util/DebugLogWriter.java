@@ -0,0 +1,114 @@
+package com.sk89q.craftbook.util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes debug messages to a file from a background thread.
+ *
+ * <p>
+ *     Messages are put in a bounded queue, so logging never waits on the disk. If the writer falls too far behind, new
+ *     messages are dropped and counted, and the count is written to the file once there is room again.
+ * </p>
+ */
+public final class DebugLogWriter {
+
+    private static final int CAPACITY = 8192;
+    private static final String CLOSE = new String("close");
+
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Writer writer;
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    /**
+     * Opens the file for writing, replacing its contents.
+     *
+     * @param file The file
+     * @throws IOException If the file couldn't be opened
+     */
+    public DebugLogWriter(File file) throws IOException {
+
+        this(new BufferedWriter(new FileWriter(file, false)));
+    }
+
+    DebugLogWriter(Writer writer) {
+
+        this.writer = writer;
+        thread = new Thread(this::run, "CraftBook Debug Log Writer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queues a line to be written. This never blocks.
+     *
+     * @param line The line
+     */
+    public void println(String line) {
+
+        if (closed || !queue.offer(line))
+            dropped.incrementAndGet();
+    }
+
+    public long getDroppedCount() {
+
+        return dropped.get();
+    }
+
+    /**
+     * Writes all queued lines, and closes the file.
+     */
+    public void close() {
+
+        if (closed)
+            return;
+        closed = true;
+        try {
+            queue.put(CLOSE);
+            thread.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+
+        long reported = 0;
+        try {
+            while (true) {
+                String line = queue.take();
+                if (line == CLOSE)
+                    break;
+                writer.write(line);
+                writer.write(System.lineSeparator());
+
+                long missed = dropped.get();
+                if (missed != reported) {
+                    writer.write("[debug-log] Dropped " + (missed - reported) + " messages, as the log couldn't keep up.");
+                    writer.write(System.lineSeparator());
+                    reported = missed;
+                }
+                if (queue.isEmpty())
+                    writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
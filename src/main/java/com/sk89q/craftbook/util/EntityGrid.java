@@ -0,0 +1,111 @@
+package com.sk89q.craftbook.util;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A snapshot of entities by chunk, shared by all area searches within a tick.
+ *
+ * <p>
+ *     A chunk is only snapshotted the first time it is searched, after which every search in the same tick reads the
+ *     same entities, locations and type masks. {@link #nextTick()} drops the snapshot, so nothing is kept for chunks
+ *     that aren't searched.
+ * </p>
+ */
+public class EntityGrid {
+
+    private final Map<UUID, LongHashMap<Cell>> worlds = new HashMap<>();
+    private Cell players;
+
+    private long snapshots;
+
+    /**
+     * Drops the current snapshot. Called once per tick.
+     */
+    public void nextTick() {
+
+        worlds.clear();
+        players = null;
+    }
+
+    /**
+     * Gets the entities in a chunk. Unloaded chunks are empty.
+     *
+     * @param world The world
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return The entities in the chunk
+     */
+    public Cell getCell(World world, int chunkX, int chunkZ) {
+
+        LongHashMap<Cell> cells = worlds.computeIfAbsent(world.getUID(), k -> new LongHashMap<>());
+        long key = LocationUtil.getChunkKey(chunkX, chunkZ);
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            if (world.isChunkLoaded(chunkX, chunkZ)) {
+                cell = new Cell(world.getChunkAt(chunkX, chunkZ).getEntities());
+                snapshots++;
+            } else
+                cell = Cell.EMPTY;
+            cells.put(key, cell);
+        }
+        return cell;
+    }
+
+    /**
+     * Gets all online players.
+     *
+     * @return The players
+     */
+    public Cell getPlayers() {
+
+        if (players == null)
+            players = new Cell(Bukkit.getOnlinePlayers().toArray(new Player[0]));
+        return players;
+    }
+
+    /**
+     * Gets the amount of chunks that have been snapshotted.
+     *
+     * @return The amount of snapshots
+     */
+    public long getSnapshotCount() {
+
+        return snapshots;
+    }
+
+    /**
+     * The entities of one chunk, with their locations and type masks at the time of the snapshot.
+     */
+    public static final class Cell {
+
+        private static final Cell EMPTY = new Cell(new Entity[0]);
+
+        final Entity[] entities;
+        final Location[] locations;
+        final int[] types;
+
+        Cell(Entity[] entities) {
+
+            this.entities = entities;
+            this.locations = new Location[entities.length];
+            this.types = new int[entities.length];
+            for (int i = 0; i < entities.length; i++) {
+                locations[i] = entities[i].getLocation();
+                types[i] = EntityType.getMask(entities[i]);
+            }
+        }
+
+        public int size() {
+
+            return entities.length;
+        }
+    }
+}
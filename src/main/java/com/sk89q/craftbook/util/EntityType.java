@@ -6,6 +6,7 @@ import org.bukkit.entity.minecart.PoweredMinecart;
 import org.bukkit.entity.minecart.RideableMinecart;
 import org.bukkit.entity.minecart.StorageMinecart;
 
+import java.util.Collection;
 import java.util.EnumSet;
 import java.util.Set;
 
@@ -94,6 +95,37 @@ public enum EntityType {
         return types;
     }
 
+    private static final EntityType[] VALUES = values();
+
+    /**
+     * Gets a bit mask of the given types, with a bit set for the ordinal of each type.
+     *
+     * @param types The types
+     * @return The mask
+     */
+    public static int getMask(Collection<EntityType> types) {
+
+        int mask = 0;
+        for (EntityType type : types)
+            mask |= 1 << type.ordinal();
+        return mask;
+    }
+
+    /**
+     * Gets a bit mask of all types that the given entity is.
+     *
+     * @param entity The entity
+     * @return The mask
+     */
+    public static int getMask(Entity entity) {
+
+        int mask = 0;
+        for (EntityType type : VALUES)
+            if (type.is(entity))
+                mask |= 1 << type.ordinal();
+        return mask;
+    }
+
     public static EntityType fromString(String name) {
 
         return EnumUtil.getEnumFromString(EntityType.class, name);
@@ -374,7 +374,7 @@ public final class ItemUtil {
     public static boolean areItemsIdentical(ItemStack item, ItemStack item2) {
 
         if(!isStackValid(item) || !isStackValid(item2)) {
-            CraftBookPlugin.logDebugMessage("An invalid item was compared. Was first? " + !isStackValid(item), "item-checks");
+            CraftBookPlugin.logDebugMessage(() -> "An invalid item was compared. Was first? " + !isStackValid(item), "item-checks");
             return !isStackValid(item) && !isStackValid(item2);
         }
         else {
@@ -412,10 +412,10 @@ public final class ItemUtil {
 
     public static boolean isStackValid(ItemStack item) {
         if (item == null) {
-            CraftBookPlugin.logDebugMessage("item-checks", "Item is null.");
+            CraftBookPlugin.logDebugMessage("Item is null.", "item-checks");
             return false;
         } else if (item.getAmount() <= 0) {
-            CraftBookPlugin.logDebugMessage("item-checks", "Item has amount of " + item.getAmount());
+            CraftBookPlugin.logDebugMessage(() -> "Item has amount of " + item.getAmount(), "item-checks");
             return false;
         }
         return true;
@@ -290,6 +290,59 @@ public final class LocationUtil {
         return false;
     }
 
+    /**
+     * Packs chunk coordinates into a single long, for use as a primitive map key.
+     *
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return The packed chunk key
+     */
+    public static long getChunkKey(int chunkX, int chunkZ) {
+
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public static long getChunkKey(Chunk chunk) {
+
+        return getChunkKey(chunk.getX(), chunk.getZ());
+    }
+
+    /**
+     * Gets the key of the chunk that contains the given block coordinates.
+     *
+     * @param blockX The block X coordinate
+     * @param blockZ The block Z coordinate
+     * @return The packed chunk key
+     */
+    public static long getChunkKeyAt(int blockX, int blockZ) {
+
+        return getChunkKey(blockX >> 4, blockZ >> 4);
+    }
+
+    /**
+     * Packs block coordinates into a single long, for use as a primitive map key.
+     * X and Z use 26 bits each, Y uses 12 bits.
+     *
+     * @param x The block X coordinate
+     * @param y The block Y coordinate
+     * @param z The block Z coordinate
+     * @return The packed block key
+     */
+    public static long getBlockKey(int x, int y, int z) {
+
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static long getBlockKey(Block block) {
+
+        return getBlockKey(block.getX(), block.getY(), block.getZ());
+    }
+
+    public static long getBlockKey(Location location) {
+
+        return getBlockKey(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
     /**
      * Gets an array of {@link BlockFace} that are direct.
      * 
@@ -0,0 +1,217 @@
+package com.sk89q.craftbook.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An open-addressing hash map keyed by primitive longs. Used for block and chunk position lookups on hot paths, where
+ * boxing a key or hashing a {@link org.bukkit.Location} is too expensive.
+ *
+ * <p>
+ *     Uses linear probing with backward-shift deletion, so no tombstones are left behind after a removal.
+ *     This class is not thread-safe.
+ * </p>
+ *
+ * @param <V> The value type
+ */
+public final class LongHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private Object[] values;
+    private boolean[] used;
+
+    private int size;
+    private int mask;
+    private int resizeAt;
+
+    public LongHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashMap(int expectedSize) {
+
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+
+        keys = new long[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int mix(long key) {
+
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private int indexOf(long key) {
+
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key)
+                return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the value mapped to the given key.
+     *
+     * @param key The key
+     * @return The value, or null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+
+        int slot = indexOf(key);
+        return slot < 0 ? null : (V) values[slot];
+    }
+
+    public boolean containsKey(long key) {
+
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * Maps the given key to the given value.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The previous value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+
+        int slot = mix(key) & mask;
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                V old = (V) values[slot];
+                values[slot] = value;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (++size > resizeAt)
+            rehash(keys.length << 1);
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the given key.
+     *
+     * @param key The key
+     * @return The removed value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+
+        int slot = indexOf(key);
+        if (slot < 0)
+            return null;
+
+        V old = (V) values[slot];
+        size--;
+
+        // Shift back any entries in the same probe run, so lookups never stop early.
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (used[next]) {
+            int home = mix(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[gap] = false;
+        values[gap] = null;
+
+        return old;
+    }
+
+    private void rehash(int capacity) {
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+
+        allocate(capacity);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int slot = mix(oldKeys[i]) & mask;
+            while (used[slot])
+                slot = (slot + 1) & mask;
+            used[slot] = true;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    public int size() {
+
+        return size;
+    }
+
+    public boolean isEmpty() {
+
+        return size == 0;
+    }
+
+    public void clear() {
+
+        if (size == 0)
+            return;
+        Arrays.fill(used, false);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Gets a snapshot of all keys in this map.
+     *
+     * @return The keys
+     */
+    public long[] keys() {
+
+        long[] out = new long[size];
+        int j = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (used[i])
+                out[j++] = keys[i];
+        return out;
+    }
+
+    /**
+     * Gets a snapshot of all values in this map.
+     *
+     * @return The values
+     */
+    @SuppressWarnings("unchecked")
+    public Collection<V> values() {
+
+        List<V> out = new ArrayList<>(size);
+        for (int i = 0; i < values.length; i++)
+            if (used[i])
+                out.add((V) values[i]);
+        return out;
+    }
+}
@@ -12,7 +12,6 @@ import org.bukkit.entity.Player;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
 
 public final class ParsingUtil {
@@ -76,45 +75,34 @@ public final class ParsingUtil {
         }
     });
 
+    private static final LoadingCache<String, VariableTemplate> variableTemplateCache = CacheBuilder.newBuilder().maximumSize(1024).expireAfterAccess(10, TimeUnit.MINUTES).build(new CacheLoader<String, VariableTemplate>() {
+        @Override
+        public VariableTemplate load (String line) throws Exception {
+
+            return VariableTemplate.compile(line);
+        }
+    });
+
     public static String parseVariables(String line, CommandSender player) {
 
         if(CraftBookPlugin.inst() == null || VariableManager.instance == null || VariableManager.instance.getVariableStore().isEmpty())
             return line;
 
-        for(String var : getPossibleVariables(line)) {
-
-            CraftBookPlugin.logDebugMessage("Possible variable: " + var + " detected!", "variables.line-parsing");
-
-            String key, value;
-
-            if(var.contains("|")) {
-                String[] bits = RegexUtil.PIPE_PATTERN.split(var);
-                if(bits.length < 2) {
-                    key = "global";
-                    value = var;
-                } else {
-                    key = bits[0];
-                    value = bits[1];
-                }
-                CraftBookPlugin.logDebugMessage("Variable " + value + " at " + key + " detected!", "variables.line-parsing");
-            } else {
-                key = "global";
-                value = var;
-                CraftBookPlugin.logDebugMessage("Global Variable " + value + " detected!", "variables.line-parsing");
-            }
+        if(line.indexOf('%') < 0)
+            return line;
+
+        VariableManager variables = VariableManager.instance;
+
+        return variableTemplateCache.getUnchecked(line).render(var -> {
+
+            CraftBookPlugin.logDebugMessage(() -> "Variable " + var.getName() + " at " + var.getNamespace() + " detected!", "variables.line-parsing");
 
             if(player != null)
-                if(!VariableCommands.hasVariablePermission(player, key, value, "use"))
-                    continue;
-            CraftBookPlugin.logDebugMessage(var + " permissions granted!", "variables.line-parsing");
-
-            for(Entry<Tuple2<String, String>, String> bit : VariableManager.instance.getVariableStore().entrySet()) {
-                if(bit.getKey().b.equals(key) && bit.getKey().a.equals(value)) {
-                    line = StringUtils.replace(line, "%" + var + "%", bit.getValue());
-                }
-            }
-        }
+                if(!VariableCommands.hasVariablePermission(player, var.getNamespace(), var.getName(), "use"))
+                    return null;
+            CraftBookPlugin.logDebugMessage(() -> var.getText() + " permissions granted!", "variables.line-parsing");
 
-        return StringUtils.replace(line, "\\%", "%");
+            return variables.getVariable(var.getName(), var.getNamespace());
+        });
     }
 }
\ No newline at end of file
@@ -9,7 +9,6 @@ import com.sk89q.worldedit.math.Vector3;
 import com.sk89q.worldguard.WorldGuard;
 import com.sk89q.worldguard.protection.regions.ProtectedRegion;
 import org.apache.commons.lang.StringUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.Location;
 import org.bukkit.World;
@@ -23,6 +22,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Predicate;
 
 public final class SearchArea {
 
@@ -61,6 +61,17 @@ public final class SearchArea {
         this.world = world;
     }
 
+    /**
+     * Creates a SearchArea using a radius around a center point.
+     *
+     * @param center The center point
+     * @param radius The radius
+     */
+    public static SearchArea createArea(Location center, Vector3 radius) {
+
+        return new SearchArea(center, radius);
+    }
+
     public static SearchArea createEmptyArea() {
 
         return new SearchArea();
@@ -132,12 +143,26 @@ public final class SearchArea {
     public List<Player> getPlayersInArea() {
 
         List<Player> players = new ArrayList<>();
+        forEachPlayerInArea(player -> {
+            players.add(player);
+            return true;
+        });
+        return players;
+    }
 
-        for(Player player : Bukkit.getOnlinePlayers())
-            if(isWithinArea(player.getLocation()))
-                players.add(player);
+    /**
+     * Passes each player within this SearchArea to the visitor, until the visitor returns false.
+     *
+     * @param visitor The visitor
+     * @return False if the visitor stopped the search
+     */
+    public boolean forEachPlayerInArea(Predicate<Player> visitor) {
 
-        return players;
+        EntityGrid.Cell players = getEntityGrid().getPlayers();
+        for(int i = 0; i < players.entities.length; i++)
+            if(isWithinArea(players.locations[i]) && !visitor.test((Player) players.entities[i]))
+                return false;
+        return true;
     }
 
     /**
@@ -149,24 +174,78 @@ public final class SearchArea {
     public List<Entity> getEntitiesInArea(Collection<EntityType> types) {
 
         List<Entity> entities = new ArrayList<>();
+        forEachEntityInArea(types, entity -> {
+            entities.add(entity);
+            return true;
+        });
+        return entities;
+    }
 
-        for(Chunk chunk : getChunksInArea())
-            for(Entity ent : chunk.getEntities()) {
-                if(!ent.isValid() || !isWithinArea(ent.getLocation())) continue;
+    /**
+     * Passes each entity in the area that is of one of the given types to the visitor, until the visitor returns
+     * false.
+     *
+     * @param types The list of types.
+     * @param visitor The visitor
+     * @return False if the visitor stopped the search
+     */
+    public boolean forEachEntityInArea(Collection<EntityType> types, Predicate<Entity> visitor) {
 
-                boolean isType = false;
-                for(EntityType type : types) {
-                    if(type.is(ent)) {
-                        isType = true;
-                        break;
-                    }
-                }
-                if(!isType) continue;
+        return forEachEntityInArea(getEntityGrid(), types, visitor);
+    }
 
-                entities.add(ent);
+    boolean forEachEntityInArea(EntityGrid grid, Collection<EntityType> types, Predicate<Entity> visitor) {
+
+        World world = getWorld();
+        if(world == null)
+            return true;
+
+        int typeMask = EntityType.getMask(types);
+        int minX, maxX, minZ, maxZ;
+        if(hasRegion()) {
+            if(!region.isPhysicalArea()) {
+                for(Chunk chunk : world.getLoadedChunks())
+                    if(!visitCell(grid.getCell(world, chunk.getX(), chunk.getZ()), typeMask, visitor))
+                        return false;
+                return true;
             }
+            minX = region.getMinimumPoint().getBlockX() >> 4;
+            maxX = region.getMaximumPoint().getBlockX() >> 4;
+            minZ = region.getMinimumPoint().getBlockZ() >> 4;
+            maxZ = region.getMaximumPoint().getBlockZ() >> 4;
+        } else if(hasRadiusAndCenter()) {
+            // One block of leeway, as spherical checks floor the distance.
+            int range = (int) Math.ceil(Math.max(Math.abs(radius.getX()), Math.abs(radius.getZ()))) + 1;
+            minX = (center.getBlockX() - range) >> 4;
+            maxX = (center.getBlockX() + range) >> 4;
+            minZ = (center.getBlockZ() - range) >> 4;
+            maxZ = (center.getBlockZ() + range) >> 4;
+        } else
+            return true;
 
-        return entities;
+        for(int x = minX; x <= maxX; x++)
+            for(int z = minZ; z <= maxZ; z++)
+                if(!visitCell(grid.getCell(world, x, z), typeMask, visitor))
+                    return false;
+        return true;
+    }
+
+    private boolean visitCell(EntityGrid.Cell cell, int typeMask, Predicate<Entity> visitor) {
+
+        for(int i = 0; i < cell.entities.length; i++) {
+            if((cell.types[i] & typeMask) == 0) continue;
+            Entity ent = cell.entities[i];
+            if(!ent.isValid() || !isWithinArea(cell.locations[i])) continue;
+            if(!visitor.test(ent))
+                return false;
+        }
+        return true;
+    }
+
+    private static EntityGrid getEntityGrid() {
+
+        EntityGrid grid = ICMechanic.instance == null ? null : ICMechanic.instance.getEntityGrid();
+        return grid == null ? new EntityGrid() : grid;
     }
 
     public List<Entity> getEntitiesInArea() {
@@ -231,6 +310,34 @@ public final class SearchArea {
         return chunks;
     }
 
+    /**
+     * Get the lowest corner of the box that contains this area.
+     *
+     * @return the lowest corner, or null if the area is invalid.
+     */
+    public BlockVector3 getMinimumPoint() {
+
+        if(hasRegion())
+            return region.getMinimumPoint();
+        else if(hasRadiusAndCenter())
+            return BlockVector3.at(center.getBlockX(), center.getBlockY(), center.getBlockZ()).subtract(blockRadius.abs());
+        return null;
+    }
+
+    /**
+     * Get the highest corner of the box that contains this area.
+     *
+     * @return the highest corner, or null if the area is invalid.
+     */
+    public BlockVector3 getMaximumPoint() {
+
+        if(hasRegion())
+            return region.getMaximumPoint();
+        else if(hasRadiusAndCenter())
+            return BlockVector3.at(center.getBlockX(), center.getBlockY(), center.getBlockZ()).add(blockRadius.abs());
+        return null;
+    }
+
     /**
      * Get a random block from within the area.
      * 
@@ -238,28 +345,14 @@ public final class SearchArea {
      */
     public Block getRandomBlockInArea() {
 
-        int xMin,xMax,yMin,yMax,zMin,zMax;
-
-        if(hasRegion()) {
-            xMin = region.getMinimumPoint().getBlockX();
-            xMax = region.getMaximumPoint().getBlockX();
-            yMin = region.getMinimumPoint().getBlockY();
-            yMax = region.getMaximumPoint().getBlockY();
-            zMin = region.getMinimumPoint().getBlockZ();
-            zMax = region.getMaximumPoint().getBlockZ();
-        } else if(hasRadiusAndCenter()) {
-            xMin = Math.min(center.getBlockX() - blockRadius.getBlockX(), center.getBlockX() + blockRadius.getBlockX());
-            xMax = Math.max(center.getBlockX() - blockRadius.getBlockX(), center.getBlockX() + blockRadius.getBlockX());
-            yMin = Math.min(center.getBlockY() - blockRadius.getBlockY(), center.getBlockY() + blockRadius.getBlockY());
-            yMax = Math.max(center.getBlockY() - blockRadius.getBlockY(), center.getBlockY() + blockRadius.getBlockY());
-            zMin = Math.min(center.getBlockZ() - blockRadius.getBlockZ(), center.getBlockZ() + blockRadius.getBlockZ());
-            zMax = Math.max(center.getBlockZ() - blockRadius.getBlockZ(), center.getBlockZ() + blockRadius.getBlockZ());
-        } else
+        BlockVector3 min = getMinimumPoint();
+        BlockVector3 max = getMaximumPoint();
+        if(min == null || max == null)
             return null;
 
-        int x = xMin + CraftBookPlugin.inst().getRandom().nextInt(xMax - xMin + 1);
-        int y = yMin + CraftBookPlugin.inst().getRandom().nextInt(yMax - yMin + 1);
-        int z = zMin + CraftBookPlugin.inst().getRandom().nextInt(zMax - zMin + 1);
+        int x = min.getBlockX() + CraftBookPlugin.inst().getRandom().nextInt(max.getBlockX() - min.getBlockX() + 1);
+        int y = min.getBlockY() + CraftBookPlugin.inst().getRandom().nextInt(max.getBlockY() - min.getBlockY() + 1);
+        int z = min.getBlockZ() + CraftBookPlugin.inst().getRandom().nextInt(max.getBlockZ() - min.getBlockZ() + 1);
         Location loc = new Location(getWorld(), x, y, z);
         if(!isWithinArea(loc))
             return null;
@@ -3,14 +3,39 @@ package com.sk89q.craftbook.util;
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 
 import java.sql.*;
+import java.util.Map;
 import java.util.UUID;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Maps player UUIDs to short CraftBook IDs, and back.
+ *
+ * <p>
+ *     All mappings are read into memory when enabled, so lookups never touch the database and are safe from any
+ *     thread. New IDs are allocated in memory, and written to the database by a background thread.
+ * </p>
+ */
 public final class UUIDMappings {
 
+    private final Map<UUID, String> cbIds = new ConcurrentHashMap<>();
+    private final Map<String, UUID> uuids = new ConcurrentHashMap<>();
+
     private Connection db;
+    private ExecutorService writer;
 
     public void enable() {
         createConnection();
+        load();
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CraftBook UUID Mappings Writer");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     private void createConnection() {
@@ -33,27 +58,26 @@ public final class UUIDMappings {
         } catch(Exception e) {
             e.printStackTrace();
         }
-}
-
-    private static void close(ResultSet results) {
-
-        if(results != null) {
-            try {
-                results.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-        }
     }
 
-    private static void close(PreparedStatement statement) {
+    private void load() {
 
-        if(statement != null) {
-            try {
-                statement.close();
-            } catch (SQLException e) {
-                e.printStackTrace();
+        if(db == null)
+            return;
+
+        try (Statement statement = db.createStatement(); ResultSet results = statement.executeQuery("SELECT UUID, CBID FROM mappings")) {
+            while(results.next()) {
+                try {
+                    UUID uuid = UUID.fromString(results.getString(1));
+                    String cbId = results.getString(2);
+                    cbIds.put(uuid, cbId);
+                    uuids.put(cbId, uuid);
+                } catch(IllegalArgumentException e) {
+                    CraftBookPlugin.logger().warning("Invalid UUID mapping: " + results.getString(1));
+                }
             }
+        } catch(SQLException e) {
+            e.printStackTrace();
         }
     }
 
@@ -65,29 +89,10 @@ public final class UUIDMappings {
      */
     public UUID getUUID(String cbID) {
 
-        UUID uuid = null;
-
-        PreparedStatement statement = null;
-        ResultSet results = null;
-
-        try {
-            statement = db.prepareStatement("SELECT UUID FROM mappings WHERE CBID = ?");
-            statement.setString(1, cbID);
-
-            results = statement.executeQuery();
+        if(cbID == null)
+            return null;
 
-            if(!results.next())
-                return null;
-
-            uuid = UUID.fromString(results.getString(1));
-        } catch (SQLException e) {
-            e.printStackTrace();
-        } finally {
-            close(statement);
-            close(results);
-        }
-
-        return uuid;
+        return uuids.get(cbID);
     }
 
     /**
@@ -98,68 +103,62 @@ public final class UUIDMappings {
      */
     public String getCBID(UUID uuid) {
 
-        String cbId = null;
-
-        PreparedStatement statement = null;
-        PreparedStatement insertStatement = null;
-        ResultSet results = null;
+        String cbId = cbIds.get(uuid);
+        if(cbId != null)
+            return cbId;
 
-        try {
-            statement = db.prepareStatement("SELECT CBID FROM mappings WHERE UUID = ?");
-            statement.setString(1, uuid.toString());
-
-            results = statement.executeQuery();
-
-            if(!results.next()) {
-
-                //We need to generate one.
-                boolean foundOne = false;
-                while(!foundOne) {
-                    StringBuilder sb = new StringBuilder();
-                    for(int i = 0; i < 6; i++)
-                        sb.append(Integer.toHexString(CraftBookPlugin.inst().getRandom().nextInt(16)));
-
-                    sb.setLength(6); //Just makin' sure.
-
-                    cbId = sb.toString();
+        synchronized (this) {
+            cbId = cbIds.get(uuid);
+            if(cbId != null)
+                return cbId;
 
-                    statement = db.prepareStatement("SELECT UUID FROM mappings WHERE CBID = ?");
-                    statement.setString(1, cbId);
+            //We need to generate one.
+            do {
+                StringBuilder sb = new StringBuilder();
+                for(int i = 0; i < 6; i++)
+                    sb.append(Integer.toHexString(ThreadLocalRandom.current().nextInt(16)));
+                cbId = sb.toString();
+            } while(uuids.putIfAbsent(cbId, uuid) != null);
+            cbIds.put(uuid, cbId);
+        }
 
-                    close(results);
-                    results = statement.executeQuery();
+        queueInsert(uuid, cbId);
 
-                    if(!results.next()) {
-                        foundOne = true;
-                    } else
-                        continue;
+        return cbId;
+    }
 
-                    insertStatement = db.prepareStatement("INSERT INTO mappings VALUES(?,?)");
-                    insertStatement.setString(1, uuid.toString());
-                    insertStatement.setString(2, cbId);
+    private void queueInsert(UUID uuid, String cbId) {
 
-                    insertStatement.executeUpdate();
-                }
+        if(writer == null || db == null)
+            return;
 
-                return cbId;
+        writer.execute(() -> {
+            try (PreparedStatement insertStatement = db.prepareStatement("INSERT INTO mappings VALUES(?,?)")) {
+                insertStatement.setString(1, uuid.toString());
+                insertStatement.setString(2, cbId);
+                insertStatement.executeUpdate();
+            } catch(SQLException e) {
+                CraftBookPlugin.logger().log(Level.SEVERE, "Failed to save the CraftBook ID of " + uuid, e);
             }
-
-            cbId = results.getString(1);
-        } catch(SQLException e) {
-            e.printStackTrace();
-        } finally {
-            close(statement);
-            close(insertStatement);
-            close(results);
-        }
-
-        return cbId;
+        });
     }
 
     public void disable() {
+        if(writer != null) {
+            writer.shutdown();
+            try {
+                if(!writer.awaitTermination(10, TimeUnit.SECONDS))
+                    CraftBookPlugin.logger().warning("Timed out saving new UUID mappings!");
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            writer = null;
+        }
         try {
             if(db != null && !db.isClosed())
                 db.close();
         } catch(SQLException ignored){}
+        cbIds.clear();
+        uuids.clear();
     }
-}
\ No newline at end of file
+}
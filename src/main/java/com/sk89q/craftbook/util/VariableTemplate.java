@@ -0,0 +1,174 @@
+package com.sk89q.craftbook.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A line split into literal text and the variables in it, so it only has to be parsed once.
+ *
+ * <p>
+ *     A variable is written as <code>%name%</code> or <code>%namespace|name%</code>, and <code>\%</code> is a literal
+ *     percent sign. The line is split at every unescaped percent sign, and each piece between two of them is a possible
+ *     variable. Variables are resolved from left to right, like the replacement this replaces: a variable that
+ *     resolves uses up both of its percent signs, so the piece after it is text, and <code>%a%b%</code> renders
+ *     <code>a</code> followed by <code>b%</code>. A percent sign that doesn't end up in a resolved variable is kept as
+ *     text, so <code>50% off %sale%</code> still has the variable <code>sale</code>.
+ * </p>
+ */
+public final class VariableTemplate {
+
+    /**
+     * The text between the percent signs of the line, with escapes removed.
+     */
+    private final String[] pieces;
+    /**
+     * The variable each piece could be, or null. The first and last pieces are never variables.
+     */
+    private final Variable[] variables;
+
+    private VariableTemplate(String[] pieces, Variable[] variables) {
+
+        this.pieces = pieces;
+        this.variables = variables;
+    }
+
+    /**
+     * Parses a line into a template.
+     *
+     * @param line The line
+     * @return The template
+     */
+    public static VariableTemplate compile(String line) {
+
+        List<String> pieces = new ArrayList<>();
+        List<Boolean> escaped = new ArrayList<>();
+        StringBuilder piece = new StringBuilder();
+        boolean hasEscape = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length() && line.charAt(i + 1) == '%') {
+                piece.append('%');
+                hasEscape = true;
+                i++;
+            } else if (c == '%') {
+                pieces.add(piece.toString());
+                escaped.add(hasEscape);
+                piece.setLength(0);
+                hasEscape = false;
+            } else
+                piece.append(c);
+        }
+        pieces.add(piece.toString());
+        escaped.add(hasEscape);
+
+        Variable[] variables = new Variable[pieces.size()];
+        for (int i = 1; i < pieces.size() - 1; i++) {
+            if (!escaped.get(i) && isVariable(pieces.get(i)))
+                variables[i] = new Variable(pieces.get(i));
+        }
+        return new VariableTemplate(pieces.toArray(new String[0]), variables);
+    }
+
+    private static boolean isVariable(String var) {
+
+        return !var.isEmpty() && var.trim().equals(var);
+    }
+
+    public boolean hasVariables() {
+
+        for (Variable variable : variables)
+            if (variable != null)
+                return true;
+        return false;
+    }
+
+    public List<Variable> getVariables() {
+
+        List<Variable> list = new ArrayList<>();
+        for (Variable variable : variables)
+            if (variable != null)
+                list.add(variable);
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * Builds the line, with each variable replaced by the value given by the resolver. Variables that the resolver
+     * returns null for are left as they were written.
+     *
+     * @param resolver Gets the value of a variable
+     * @return The line
+     */
+    public String render(Function<Variable, String> resolver) {
+
+        if (pieces.length == 1)
+            return pieces[0];
+
+        StringBuilder builder = new StringBuilder(pieces[0]);
+        // If the percent sign before the current piece closed a resolved variable, so it can't open another.
+        boolean usedUp = false;
+        for (int i = 1; i < pieces.length; i++) {
+            String value = usedUp || variables[i] == null ? null : resolver.apply(variables[i]);
+            if (value != null) {
+                builder.append(value);
+                usedUp = true;
+            } else {
+                if (!usedUp)
+                    builder.append('%');
+                builder.append(pieces[i]);
+                usedUp = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * A variable in a template.
+     */
+    public static final class Variable {
+
+        private final String text;
+        private final String namespace;
+        private final String name;
+
+        Variable(String text) {
+
+            this.text = text;
+            if (text.contains("|")) {
+                String[] bits = RegexUtil.PIPE_PATTERN.split(text);
+                if (bits.length < 2) {
+                    namespace = "global";
+                    name = text;
+                } else {
+                    namespace = bits[0];
+                    name = bits[1];
+                }
+            } else {
+                namespace = "global";
+                name = text;
+            }
+        }
+
+        /**
+         * Gets the variable as it was written, without the percent signs.
+         *
+         * @return The text
+         */
+        public String getText() {
+
+            return text;
+        }
+
+        public String getNamespace() {
+
+            return namespace;
+        }
+
+        public String getName() {
+
+            return name;
+        }
+    }
+}
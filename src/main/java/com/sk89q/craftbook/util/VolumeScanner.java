@@ -0,0 +1,317 @@
+package com.sk89q.craftbook.util;
+
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
+import com.sk89q.worldedit.math.BlockVector3;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+
+/**
+ * Scans boxes of blocks off the main thread, for ICs that would otherwise read every block of an area each think.
+ *
+ * <p>
+ *     A scan takes {@link ChunkSnapshot}s of the box on the main thread, shared by every scan within a tick, and reads
+ *     them on the executor. Its result is handed back on the main thread by {@link #nextTick()}. An edit is a scan
+ *     that results in a list of {@link BlockChange}s, which are applied a limited amount per tick, and only to blocks
+ *     that still have the type they were scanned with.
+ * </p>
+ *
+ * <p>
+ *     Each owner, usually an IC, has at most one scan or edit in progress at a time, so an IC that thinks faster than
+ *     its scans finish skips those thinks instead of queueing them up.
+ * </p>
+ */
+public class VolumeScanner {
+
+    private final Executor executor;
+    private final int budget;
+
+    private final Map<UUID, LongHashMap<ChunkSnapshot>> snapshots = new HashMap<>();
+    private final Map<Object, Job> jobs = new IdentityHashMap<>();
+    private final Queue<Runnable> completed = new ConcurrentLinkedQueue<>();
+    private final Queue<Job> edits = new ArrayDeque<>();
+
+    private long scans;
+    private long chunkSnapshots;
+    private long applied;
+    private long skipped;
+
+    /**
+     * @param executor The executor that scans run on
+     * @param budget The maximum amount of block changes applied per tick
+     */
+    public VolumeScanner(Executor executor, int budget) {
+
+        this.executor = executor;
+        this.budget = Math.max(1, budget);
+    }
+
+    /**
+     * Hands back finished scans and applies queued block changes. Called once per tick.
+     */
+    public void nextTick() {
+
+        snapshots.clear();
+
+        Runnable done;
+        while ((done = completed.poll()) != null)
+            done.run();
+
+        int remaining = budget;
+        while (remaining > 0 && !edits.isEmpty()) {
+            Job job = edits.peek();
+            if (jobs.get(job.owner) != job) {
+                edits.poll();
+                continue;
+            }
+
+            while (remaining > 0 && job.next < job.changes.size()) {
+                apply(job.world, job.changes.get(job.next++));
+                remaining--;
+            }
+            if (job.next == job.changes.size()) {
+                edits.poll();
+                jobs.remove(job.owner);
+            }
+        }
+    }
+
+    private void apply(World world, BlockChange change) {
+
+        // Don't load chunks that have been unloaded since the scan.
+        if (!world.isChunkLoaded(change.getX() >> 4, change.getZ() >> 4)) {
+            skipped++;
+            return;
+        }
+
+        Block block = world.getBlockAt(change.getX(), change.getY(), change.getZ());
+        if (block.getType() != change.getExpected()) {
+            skipped++;
+            return;
+        }
+        block.setType(change.getType());
+        applied++;
+    }
+
+    /**
+     * Takes a snapshot of a box. Chunks are only copied the first time they are used within a tick.
+     *
+     * @param world The world
+     * @param minX The minimum x coordinate
+     * @param minY The minimum y coordinate
+     * @param minZ The minimum z coordinate
+     * @param maxX The maximum x coordinate
+     * @param maxY The maximum y coordinate
+     * @param maxZ The maximum z coordinate
+     * @return The snapshot
+     */
+    public VolumeSnapshot snapshot(World world, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+
+        minY = Math.max(0, minY);
+        maxY = Math.min(world.getMaxHeight() - 1, maxY);
+
+        LongHashMap<ChunkSnapshot> worldSnapshots = snapshots.computeIfAbsent(world.getUID(), k -> new LongHashMap<>());
+        int minChunkX = minX >> 4, minChunkZ = minZ >> 4;
+        int chunksX = (maxX >> 4) - minChunkX + 1, chunksZ = (maxZ >> 4) - minChunkZ + 1;
+        ChunkSnapshot[] chunks = new ChunkSnapshot[chunksX * chunksZ];
+        for (int cz = 0; cz < chunksZ; cz++) {
+            for (int cx = 0; cx < chunksX; cx++) {
+                long key = LocationUtil.getChunkKey(minChunkX + cx, minChunkZ + cz);
+                ChunkSnapshot chunk = worldSnapshots.get(key);
+                if (chunk == null && !worldSnapshots.containsKey(key)) {
+                    if (world.isChunkLoaded(minChunkX + cx, minChunkZ + cz)) {
+                        chunk = world.getChunkAt(minChunkX + cx, minChunkZ + cz).getChunkSnapshot(false, false, false);
+                        chunkSnapshots++;
+                    }
+                    worldSnapshots.put(key, chunk);
+                }
+                chunks[cz * chunksX + cx] = chunk;
+            }
+        }
+        return new VolumeSnapshot(minX, minY, minZ, maxX, maxY, maxZ, chunks);
+    }
+
+    /**
+     * Scans a box on the executor, and passes the result to the callback on the main thread.
+     *
+     * @param owner The owner of the scan
+     * @param world The world
+     * @param min The minimum point of the box
+     * @param max The maximum point of the box
+     * @param scanner Reads the snapshot of the box. This runs off the main thread, so it may only use the snapshot
+     * @param callback Uses the result, on the main thread
+     * @param <T> The type of the result
+     * @return If the scan was started, false if the owner already has one in progress
+     */
+    public <T> boolean scan(Object owner, World world, BlockVector3 min, BlockVector3 max, Function<VolumeSnapshot, T> scanner, Consumer<T> callback) {
+
+        if (jobs.containsKey(owner))
+            return false;
+
+        Job job = new Job(owner, world);
+        jobs.put(owner, job);
+        submit(job, snapshot(world, min.getBlockX(), min.getBlockY(), min.getBlockZ(), max.getBlockX(), max.getBlockY(), max.getBlockZ()), scanner, result -> {
+            jobs.remove(owner);
+            callback.accept(result);
+        });
+        return true;
+    }
+
+    /**
+     * Scans a box on the executor for the blocks to change, and applies them over the following ticks.
+     *
+     * @param owner The owner of the edit
+     * @param world The world
+     * @param min The minimum point of the box
+     * @param max The maximum point of the box
+     * @param differ Works out the blocks to change from the snapshot of the box. This runs off the main thread, so it
+     *               may only use the snapshot
+     * @return If the edit was started, false if the owner already has a scan or edit in progress
+     */
+    public boolean edit(Object owner, World world, BlockVector3 min, BlockVector3 max, Function<VolumeSnapshot, List<BlockChange>> differ) {
+
+        if (jobs.containsKey(owner))
+            return false;
+
+        Job job = new Job(owner, world);
+        jobs.put(owner, job);
+        submit(job, snapshot(world, min.getBlockX(), min.getBlockY(), min.getBlockZ(), max.getBlockX(), max.getBlockY(), max.getBlockZ()), differ, changes -> {
+            if (changes == null || changes.isEmpty()) {
+                jobs.remove(owner);
+                return;
+            }
+            job.changes = changes;
+            edits.add(job);
+        });
+        return true;
+    }
+
+    private <T> void submit(Job job, VolumeSnapshot snapshot, Function<VolumeSnapshot, T> scanner, Consumer<T> callback) {
+
+        scans++;
+        executor.execute(() -> {
+            T result;
+            try {
+                result = scanner.apply(snapshot);
+            } catch (Throwable t) {
+                CraftBookPlugin.logger().log(Level.WARNING, "Failed to scan blocks for " + job.owner, t);
+                completed.add(() -> {
+                    if (jobs.get(job.owner) == job)
+                        jobs.remove(job.owner);
+                });
+                return;
+            }
+            completed.add(() -> {
+                // Dropped if the owner was cancelled in the meantime.
+                if (jobs.get(job.owner) == job)
+                    callback.accept(result);
+            });
+        });
+    }
+
+    /**
+     * Gets if the owner has a scan or edit in progress.
+     *
+     * @param owner The owner
+     * @return If it is busy
+     */
+    public boolean isBusy(Object owner) {
+
+        return jobs.containsKey(owner);
+    }
+
+    /**
+     * Drops the scan or edit of the owner, including any block changes that haven't been applied yet.
+     *
+     * @param owner The owner
+     */
+    public void cancel(Object owner) {
+
+        jobs.remove(owner);
+    }
+
+    public void clear() {
+
+        jobs.clear();
+        edits.clear();
+        completed.clear();
+        snapshots.clear();
+    }
+
+    /**
+     * Gets the amount of scans and edits that are in progress.
+     *
+     * @return The amount of scans
+     */
+    public int getPending() {
+
+        return jobs.size();
+    }
+
+    /**
+     * Gets the amount of scans and edits that have been started.
+     *
+     * @return The amount of scans
+     */
+    public long getScanCount() {
+
+        return scans;
+    }
+
+    /**
+     * Gets the amount of chunks that have been snapshotted.
+     *
+     * @return The amount of snapshots
+     */
+    public long getSnapshotCount() {
+
+        return chunkSnapshots;
+    }
+
+    /**
+     * Gets the amount of blocks that have been changed.
+     *
+     * @return The amount of changed blocks
+     */
+    public long getAppliedCount() {
+
+        return applied;
+    }
+
+    /**
+     * Gets the amount of block changes that were skipped, as the block changed since it was scanned.
+     *
+     * @return The amount of skipped changes
+     */
+    public long getSkippedCount() {
+
+        return skipped;
+    }
+
+    private static final class Job {
+
+        private final Object owner;
+        private final World world;
+        private List<BlockChange> changes;
+        private int next;
+
+        private Job(Object owner, World world) {
+
+            this.owner = owner;
+            this.world = world;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.sk89q.craftbook.util;
+
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.block.data.BlockData;
+
+/**
+ * The blocks of a box, read from {@link ChunkSnapshot}s so they can be read off the main thread.
+ *
+ * <p>
+ *     Chunks that weren't loaded when the snapshot was taken have no blocks, so scans skip them rather than loading
+ *     them.
+ * </p>
+ */
+public class VolumeSnapshot {
+
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+    private final int minChunkX, minChunkZ, chunksX;
+    private final ChunkSnapshot[] chunks;
+
+    VolumeSnapshot(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, ChunkSnapshot[] chunks) {
+
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+        this.chunks = chunks;
+
+        minChunkX = minX >> 4;
+        minChunkZ = minZ >> 4;
+        chunksX = (maxX >> 4) - minChunkX + 1;
+    }
+
+    /**
+     * Gets the type of a block.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The type, or null if the block is outside the box or its chunk isn't loaded
+     */
+    public Material getType(int x, int y, int z) {
+
+        ChunkSnapshot chunk = getChunk(x, y, z);
+        return chunk == null ? null : chunk.getBlockType(x & 15, y, z & 15);
+    }
+
+    /**
+     * Gets the data of a block.
+     *
+     * @param x The x coordinate
+     * @param y The y coordinate
+     * @param z The z coordinate
+     * @return The data, or null if the block is outside the box or its chunk isn't loaded
+     */
+    public BlockData getBlockData(int x, int y, int z) {
+
+        ChunkSnapshot chunk = getChunk(x, y, z);
+        return chunk == null ? null : chunk.getBlockData(x & 15, y, z & 15);
+    }
+
+    private ChunkSnapshot getChunk(int x, int y, int z) {
+
+        if (!contains(x, y, z))
+            return null;
+        return chunks[((z >> 4) - minChunkZ) * chunksX + (x >> 4) - minChunkX];
+    }
+
+    public boolean contains(int x, int y, int z) {
+
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    public int getMinX() {
+
+        return minX;
+    }
+
+    public int getMinY() {
+
+        return minY;
+    }
+
+    public int getMinZ() {
+
+        return minZ;
+    }
+
+    public int getMaxX() {
+
+        return maxX;
+    }
+
+    public int getMaxY() {
+
+        return maxY;
+    }
+
+    public int getMaxZ() {
+
+        return maxZ;
+    }
+}
@@ -0,0 +1,183 @@
+package com.sk89q.craftbook.util.jinglenote;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MidiSystem;
+
+/**
+ * A cache of decoded MIDI files and tunes, so songs that are played repeatedly are only decoded once.
+ *
+ * <p>
+ *     MIDI files are keyed by their path, modification time and size, so a changed file is decoded again. The cache is
+ *     bounded by the estimated memory of its timelines, and the least recently used are removed first.
+ * </p>
+ */
+public class JingleNoteCache {
+
+    private final Cache<Object, NoteTimeline> cache;
+
+    private final ThreadPoolExecutor loader;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maximumSize The maximum memory of the cached timelines, in bytes
+     */
+    public JingleNoteCache(long maximumSize) {
+
+        cache = CacheBuilder.newBuilder().maximumWeight(maximumSize).weigher((Object key, NoteTimeline timeline) -> timeline.getMemorySize()).build();
+
+        loader = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "CraftBook MIDI Loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        loader.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets the notes of a MIDI file, decoding it if it isn't cached.
+     *
+     * @param file The MIDI file
+     * @return The notes
+     * @throws IOException If the file can't be read
+     * @throws InvalidMidiDataException If the file isn't a valid MIDI file
+     */
+    public NoteTimeline getMidi(File file) throws IOException, InvalidMidiDataException {
+
+        try {
+            return cache.get(new FileKey(file), () -> MidiJingleSequencer.decode(MidiSystem.getSequence(file)));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof InvalidMidiDataException)
+                throw (InvalidMidiDataException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Gets the notes of a MIDI file, if they are cached.
+     *
+     * @param file The MIDI file
+     * @return The notes, or null if they aren't cached
+     */
+    public NoteTimeline getMidiIfPresent(File file) {
+
+        return cache.getIfPresent(new FileKey(file));
+    }
+
+    /**
+     * Gets the notes of a MIDI file, decoding it on a background thread if it isn't cached.
+     *
+     * <p>
+     *     If decoding fails, the future completes exceptionally with a {@link CompletionException} caused by the
+     *     {@link IOException} or {@link InvalidMidiDataException}.
+     * </p>
+     *
+     * @param file The MIDI file
+     * @return The notes, once decoded
+     */
+    public CompletableFuture<NoteTimeline> loadMidi(File file) {
+
+        NoteTimeline timeline = getMidiIfPresent(file);
+        if (timeline != null)
+            return CompletableFuture.completedFuture(timeline);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return getMidi(file);
+            } catch (IOException | InvalidMidiDataException e) {
+                throw new CompletionException(e);
+            }
+        }, loader);
+    }
+
+    /**
+     * Gets the notes of a tune, parsing it if it isn't cached.
+     *
+     * @param tune The tune
+     * @return The notes, or null if the tune is invalid
+     */
+    public NoteTimeline getTune(String tune) {
+
+        if (tune == null)
+            return null;
+
+        NoteTimeline timeline = cache.getIfPresent(tune);
+        if (timeline == null) {
+            timeline = StringJingleSequencer.parseTune(tune);
+            if (timeline != null)
+                cache.put(tune, timeline);
+        }
+        return timeline;
+    }
+
+    /**
+     * Gets the amount of cached songs.
+     *
+     * @return The amount of songs
+     */
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * Gets the estimated memory of the cached songs.
+     *
+     * @return The size in bytes
+     */
+    public long getMemorySize() {
+
+        long size = 0;
+        for (NoteTimeline timeline : cache.asMap().values())
+            size += timeline.getMemorySize();
+        return size;
+    }
+
+    public void clear() {
+
+        cache.invalidateAll();
+    }
+
+    private static final class FileKey {
+
+        private final String path;
+        private final long lastModified;
+        private final long length;
+
+        FileKey(File file) {
+
+            path = file.getAbsolutePath();
+            lastModified = file.lastModified();
+            length = file.length();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof FileKey))
+                return false;
+            FileKey other = (FileKey) o;
+            return lastModified == other.lastModified && length == other.length && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+
+            return path.hashCode() * 31 + Long.hashCode(lastModified);
+        }
+    }
+}
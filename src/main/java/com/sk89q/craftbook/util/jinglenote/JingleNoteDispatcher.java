@@ -0,0 +1,178 @@
+package com.sk89q.craftbook.util.jinglenote;
+
+import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs every {@link JingleNotePlayer} from a single thread.
+ *
+ * <p>
+ *     Each sequencer decodes its song once and sends every note to all of its listeners, so the dispatcher only has
+ *     to start listeners, and stop them once they are no longer playing. MIDI songs are also played from here, by
+ *     advancing their {@link NoteTimeline}. It runs every 10 milliseconds while anything is playing, and its thread
+ *     exits after a few idle seconds.
+ * </p>
+ */
+public final class JingleNoteDispatcher implements Runnable {
+
+    private static final long PERIOD = 10L;
+
+    private static final JingleNoteDispatcher INSTANCE = new JingleNoteDispatcher();
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final Queue<JingleNotePlayer> starting = new ConcurrentLinkedQueue<>();
+    private final Set<JingleNotePlayer> listeners = ConcurrentHashMap.newKeySet();
+    private final Set<MidiJingleSequencer> sequencers = ConcurrentHashMap.newKeySet();
+
+    private ScheduledFuture<?> task;
+
+    private JingleNoteDispatcher() {
+
+        executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "CraftBook JingleNote Dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setKeepAliveTime(5, TimeUnit.SECONDS);
+        executor.allowCoreThreadTimeOut(true);
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    public static JingleNoteDispatcher inst() {
+
+        return INSTANCE;
+    }
+
+    /**
+     * Queues a listener to start playing on the next run.
+     *
+     * @param listener The listener
+     */
+    public synchronized void play(JingleNotePlayer listener) {
+
+        starting.add(listener);
+        if(task == null)
+            task = executor.scheduleAtFixedRate(this, 0, PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Plays the notes of a MIDI sequencer as they are due, until it stops.
+     *
+     * @param sequencer The sequencer
+     */
+    synchronized void schedule(MidiJingleSequencer sequencer) {
+
+        sequencers.add(sequencer);
+        if(task == null)
+            task = executor.scheduleAtFixedRate(this, 0, PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops every listener, including those that haven't started yet.
+     */
+    public void stopAll() {
+
+        JingleNotePlayer listener;
+        while((listener = starting.poll()) != null)
+            listener.stop();
+        for(Iterator<JingleNotePlayer> it = listeners.iterator(); it.hasNext(); ) {
+            it.next().stop();
+            it.remove();
+        }
+        for(Iterator<MidiJingleSequencer> it = sequencers.iterator(); it.hasNext(); ) {
+            it.next().stop();
+            it.remove();
+        }
+    }
+
+    @Override
+    public void run() {
+
+        JingleNotePlayer listener;
+        while((listener = starting.poll()) != null) {
+            if(listener.start())
+                listeners.add(listener);
+        }
+
+        long now = System.nanoTime();
+        for(Iterator<MidiJingleSequencer> it = sequencers.iterator(); it.hasNext(); ) {
+            MidiJingleSequencer sequencer = it.next();
+            try {
+                if(sequencer.advance(now))
+                    continue;
+            } catch (Throwable t) {
+                CraftBookBukkitUtil.printStacktrace(t);
+                sequencer.stop();
+            }
+            it.remove();
+        }
+
+        for(Iterator<JingleNotePlayer> it = listeners.iterator(); it.hasNext(); ) {
+            listener = it.next();
+            try {
+                if(listener.isPlaying())
+                    continue;
+            } catch (Throwable t) {
+                CraftBookBukkitUtil.printStacktrace(t);
+            }
+            it.remove();
+            listener.finish();
+        }
+
+        synchronized (this) {
+            if(task != null && starting.isEmpty() && listeners.isEmpty() && sequencers.isEmpty()) {
+                task.cancel(false);
+                task = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of threads the dispatcher is using, either 0 or 1.
+     *
+     * @return The amount of threads
+     */
+    public int getThreadCount() {
+
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Gets the amount of listeners waiting to start.
+     *
+     * @return The amount of listeners
+     */
+    public int getQueueDepth() {
+
+        return starting.size();
+    }
+
+    /**
+     * Gets the amount of listeners that are playing.
+     *
+     * @return The amount of listeners
+     */
+    public int getListenerCount() {
+
+        return listeners.size();
+    }
+
+    /**
+     * Gets the amount of MIDI songs that are playing.
+     *
+     * @return The amount of songs
+     */
+    public int getSequencerCount() {
+
+        return sequencers.size();
+    }
+}
@@ -48,14 +48,10 @@ public class JingleNoteManager {
             stop(player);
         }
 
-        CraftBookPlugin.logDebugMessage("Playing sequencer for player: " + player, "midi");
+        CraftBookPlugin.logDebugMessage(() -> "Playing sequencer for player: " + player, "midi");
 
         JingleNotePlayer notePlayer = new BukkitJingleNotePlayer(player, sequencer, area);
-        Thread thread = new Thread(notePlayer);
-        thread.setDaemon(true);
-        thread.setPriority(Thread.MAX_PRIORITY);
-        thread.setName("JingleNotePlayer for " + player);
-        thread.start();
+        JingleNoteDispatcher.inst().play(notePlayer);
 
         instances.put(player, notePlayer);
     }
@@ -10,10 +10,13 @@ import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
 import com.sk89q.craftbook.util.SearchArea;
 import com.sk89q.craftbook.util.jinglenote.JingleSequencer.Note;
 
-public abstract class JingleNotePlayer implements Runnable {
+/**
+ * A player hearing a {@link JingleSequencer}. Players are started and stopped by the {@link JingleNoteDispatcher}.
+ */
+public abstract class JingleNotePlayer {
 
     protected final String player;
-    private JingleSequencer sequencer;
+    private volatile JingleSequencer sequencer;
     protected SearchArea area;
 
     /**
@@ -30,31 +33,36 @@ public abstract class JingleNotePlayer implements Runnable {
         this.area = area;
     }
 
-    @Override
-    public void run() {
+    /**
+     * Starts listening to the sequencer, starting it if it hasn't played yet.
+     *
+     * @return False if this has already been stopped
+     */
+    boolean start() {
 
+        JingleSequencer sequencer = this.sequencer;
         if(sequencer == null)
-            return;
+            return false;
         try {
-            try {
-                sequencer.play(this);
-            } catch (Throwable t) {
-                CraftBookBukkitUtil.printStacktrace(t);
-            }
-
-            while(isPlaying()){
-                Thread.sleep(10L);
-            }
-        } catch (InterruptedException e) {
-            CraftBookBukkitUtil.printStacktrace(e);
-        } finally {
-            CraftBookPlugin.logDebugMessage("Finished playing for: " + player, "midi.stop");
-            stop();
+            sequencer.play(this);
+        } catch (Throwable t) {
+            CraftBookBukkitUtil.printStacktrace(t);
         }
+        return true;
+    }
+
+    /**
+     * Called once this is no longer playing.
+     */
+    void finish() {
+
+        CraftBookPlugin.logDebugMessage(() -> "Finished playing for: " + player, "midi.stop");
+        stop();
     }
 
     public boolean isPlaying() {
 
+        JingleSequencer sequencer = this.sequencer;
         return sequencer != null && (sequencer.isPlaying() || !sequencer.hasPlayedBefore());
     }
 
@@ -65,9 +73,10 @@ public abstract class JingleNotePlayer implements Runnable {
 
     public void stop() {
 
+        JingleSequencer sequencer = this.sequencer;
         if (sequencer != null) {
+            this.sequencer = null;
             sequencer.stop(this);
-            sequencer = null;
         }
     }
 
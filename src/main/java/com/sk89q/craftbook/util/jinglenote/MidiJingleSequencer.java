@@ -1,28 +1,30 @@
 package com.sk89q.craftbook.util.jinglenote;
 
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
-import com.sk89q.craftbook.bukkit.util.CraftBookBukkitUtil;
 import com.sk89q.craftbook.mechanics.ic.ICMechanic;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MetaMessage;
 import javax.sound.midi.MidiMessage;
 import javax.sound.midi.MidiSystem;
-import javax.sound.midi.MidiUnavailableException;
-import javax.sound.midi.Receiver;
 import javax.sound.midi.Sequence;
-import javax.sound.midi.Sequencer;
 import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
 
 /**
  * A sequencer that reads MIDI files.
  *
+ * <p>
+ *     The file is decoded into a {@link NoteTimeline} up front, which is then played by the
+ *     {@link JingleNoteDispatcher}.
+ * </p>
+ *
  * @author sk89q
  * @author me4502
  */
@@ -58,105 +60,146 @@ public final class MidiJingleSequencer implements JingleSequencer {
             15, 15,                 //82 - Open Triangle
     };
 
-    private Sequencer sequencer;
-    private boolean running = false;
-    private boolean playedBefore = false;
+    private final NoteTimeline timeline;
+    private final boolean loop;
 
-    private static final Object PLAYER_LOCK = new Object();
+    private volatile boolean running = false;
+    private volatile boolean playedBefore = false;
 
-    private volatile Set<JingleNotePlayer> players = new HashSet<>();
+    // Only touched by the dispatcher thread.
+    private int position;
+    private long startTime;
 
-    public MidiJingleSequencer(File midiFile, boolean loop) throws MidiUnavailableException, InvalidMidiDataException, IOException {
-        try {
-            sequencer = MidiSystem.getSequencer(false);
-            sequencer.open();
-            Sequence seq = MidiSystem.getSequence(midiFile);
-            sequencer.setSequence(seq);
-            if(loop)
-                sequencer.setLoopCount(Sequencer.LOOP_CONTINUOUSLY);
-        } catch (MidiUnavailableException | IOException | InvalidMidiDataException e) {
-            stop();
-            throw e;
+    // Listeners change rarely compared to how often notes are sent to them.
+    private final Set<JingleNotePlayer> players = new CopyOnWriteArraySet<>();
+
+    public MidiJingleSequencer(File midiFile, boolean loop) throws InvalidMidiDataException, IOException {
+
+        this(decode(MidiSystem.getSequence(midiFile)), loop);
+    }
+
+    public MidiJingleSequencer(NoteTimeline timeline, boolean loop) {
+
+        this.timeline = timeline;
+        this.loop = loop;
+    }
+
+    /**
+     * Decodes the notes of a MIDI sequence.
+     *
+     * @param sequence The sequence
+     * @return The notes
+     */
+    public static NoteTimeline decode(Sequence sequence) {
+
+        Track[] tracks = sequence.getTracks();
+        int[] cursors = new int[tracks.length];
+        Integer[] patches = new Integer[16];
+        NoteTimeline.Builder builder = new NoteTimeline.Builder();
+
+        long tempo = 500000; // Microseconds per quarter note, 120 BPM until a tempo is set.
+        long lastTick = 0;
+        double time = 0; // Microseconds
+
+        while (true) {
+            // Merge the tracks, in the order their events are played.
+            int track = -1;
+            long tick = Long.MAX_VALUE;
+            for (int i = 0; i < tracks.length; i++) {
+                if (cursors[i] < tracks[i].size() && tracks[i].get(cursors[i]).getTick() < tick) {
+                    track = i;
+                    tick = tracks[i].get(cursors[i]).getTick();
+                }
+            }
+            if (track == -1)
+                break;
+
+            MidiMessage message = tracks[track].get(cursors[track]++).getMessage();
+
+            if (sequence.getDivisionType() == Sequence.PPQ)
+                time += (tick - lastTick) * (double) tempo / sequence.getResolution();
+            else
+                time += (tick - lastTick) * 1000000D / (sequence.getDivisionType() * sequence.getResolution());
+            lastTick = tick;
+
+            if (message instanceof MetaMessage) {
+                MetaMessage meta = (MetaMessage) message;
+                byte[] data = meta.getData();
+                if (meta.getType() == 0x51 && data.length >= 3) // Set Tempo
+                    tempo = (data[0] & 0xFF) << 16 | (data[1] & 0xFF) << 8 | data[2] & 0xFF;
+            } else if (message instanceof ShortMessage) {
+                ShortMessage msg = (ShortMessage) message;
+                int chan = msg.getChannel();
+                if (msg.getCommand() == ShortMessage.PROGRAM_CHANGE)
+                    patches[chan] = msg.getData1();
+                else if (msg.getCommand() == ShortMessage.NOTE_ON && msg.getData2() > 0) {
+                    int ms = (int) (time / 1000);
+                    if (chan == 9) // Percussion
+                        builder.add(ms, toMCPercussion(patches[chan]), toMCNote(msg.getData1()), 10 * (msg.getData2() / 127f), true);
+                    else
+                        builder.add(ms, toMCInstrument(patches[chan]), toMCNote(msg.getData1()), 10 * (msg.getData2() / 127f), false);
+                }
+            }
         }
+
+        return builder.build((int) (time / 1000));
     }
 
     @Override
     public void run() {
 
-        final Map<Integer, Integer> patches = new HashMap<>();
-
-        try {
-            if(sequencer == null || sequencer.getSequence() == null)
-                return;
-
-            if (!sequencer.isOpen())
-                sequencer.open();
-
-            sequencer.getTransmitter().setReceiver(new Receiver() {
-
-                @Override
-                public void send(MidiMessage message, long timeStamp) {
-                    if (getPlayerCount() == 0) {
-                        running = false;
-                        return;
-                    }
-
-                    if ((message.getStatus() & 0xF0) == ShortMessage.PROGRAM_CHANGE) {
-
-                        ShortMessage msg = (ShortMessage) message;
-                        int chan = msg.getChannel();
-                        int patch = msg.getData1();
-                        patches.put(chan, patch);
-                    } else if ((message.getStatus() & 0xF0) == ShortMessage.NOTE_ON) {
-
-                        ShortMessage msg = (ShortMessage) message;
-                        int chan = msg.getChannel();
-                        int n = msg.getData1();
-                        synchronized(PLAYER_LOCK) {
-                            if (chan == 9) { // Percussion
-                                // Sounds like utter crap
-                                if(ICMechanic.instance.usePercussionMidi)
-                                    for(JingleNotePlayer player : players)
-                                        player.play(new Note(Instrument.toMCSound(toMCPercussion(patches.get(chan))), toMCNote(n),  10 * (msg.getData2() / 127f)));
-                            } else {
-                                for(JingleNotePlayer player : players)
-                                    player.play(new Note(Instrument.toMCSound(toMCInstrument(patches.get(chan))), toMCNote(n), 10 * (msg.getData2() / 127f)));
-                            }
-                        }
-                    }
-                }
+        if (timeline == null)
+            return;
 
-                @Override
-                public void close() {
-                    running = false;
-                }
-            });
+        position = 0;
+        startTime = System.nanoTime();
+        running = true;
+        playedBefore = true;
+        if (CraftBookPlugin.inst().getConfiguration().debugMode) {
+            for (JingleNotePlayer player : players)
+                CraftBookPlugin.logDebugMessage("Opening midi sequencer: " + player.player, "midi");
+        }
+        JingleNoteDispatcher.inst().schedule(this);
+    }
 
-            sequencer.addMetaEventListener(meta -> {
-                // END_OF_TRACK_MESSAGE
-                if (meta.getType() == 47) {
-                    running = false;
-                }
-            });
-
-            try {
-                if (sequencer.isOpen()) {
-                    sequencer.start();
-                    running = true;
-                    playedBefore = true;
-                    if (CraftBookPlugin.inst().getConfiguration().debugMode) {
-                        synchronized (PLAYER_LOCK) {
-                            for (JingleNotePlayer player : players)
-                                CraftBookPlugin.logDebugMessage("Opening midi sequencer: " + player.player, "midi");
-                        }
-                    }
-                } else
-                    throw new IllegalArgumentException("Sequencer is not open!");
-            } catch(Exception e){
-                CraftBookBukkitUtil.printStacktrace(e);
+    /**
+     * Plays the notes that are due. This is called by the {@link JingleNoteDispatcher}.
+     *
+     * @param now The current {@link System#nanoTime()}
+     * @return If the song is still playing
+     */
+    boolean advance(long now) {
+
+        if (!running)
+            return false;
+        if (players.isEmpty()) {
+            running = false;
+            return false;
+        }
+
+        boolean percussion = ICMechanic.instance != null && ICMechanic.instance.usePercussionMidi;
+        long elapsed = (now - startTime) / 1000000;
+        while (true) {
+            for (; position < timeline.size() && timeline.getTime(position) <= elapsed; position++) {
+                // Sounds like utter crap
+                if (timeline.isPercussion(position) && !percussion)
+                    continue;
+                Note note = timeline.getNote(position);
+                for (JingleNotePlayer player : players)
+                    player.play(note);
+            }
+
+            if (position < timeline.size() || elapsed < timeline.getLength())
+                return true;
+
+            if (!loop || timeline.getLength() <= 0) {
+                running = false;
+                return false;
             }
-        } catch (MidiUnavailableException e) {
-            CraftBookBukkitUtil.printStacktrace(e);
+
+            startTime += timeline.getLength() * 1000000L;
+            elapsed -= timeline.getLength();
+            position = 0;
         }
     }
 
@@ -164,19 +207,8 @@ public final class MidiJingleSequencer implements JingleSequencer {
     public void stop() {
 
         if(!running) return;
-        synchronized(PLAYER_LOCK) {
-            players.clear();
-        }
+        players.clear();
         CraftBookPlugin.logDebugMessage("Stopping MIDI sequencer. (Stop called)", "midi");
-        if (sequencer != null) {
-            try {
-                if(sequencer.isRunning())
-                    sequencer.stop();
-                if(sequencer.isOpen())
-                    sequencer.close();
-                sequencer = null;
-            } catch(Exception ignored){}
-        }
         running = false;
     }
 
@@ -209,13 +241,9 @@ public final class MidiJingleSequencer implements JingleSequencer {
         return (byte) percussion[i];
     }
 
-    Sequencer getSequencer() {
-        return sequencer;
-    }
-
     @Override
     public boolean isPlaying () {
-        return running && sequencer != null;
+        return running;
     }
 
     @Override
@@ -225,9 +253,7 @@ public final class MidiJingleSequencer implements JingleSequencer {
 
     @Override
     public void stop (JingleNotePlayer player) {
-        synchronized(PLAYER_LOCK) {
-            players.remove(player);
-        }
+        players.remove(player);
 
         if (this.getPlayerCount() == 0) {
             stop();
@@ -236,9 +262,7 @@ public final class MidiJingleSequencer implements JingleSequencer {
 
     @Override
     public void play (JingleNotePlayer player) {
-        synchronized(PLAYER_LOCK) {
-            players.add(player);
-        }
+        players.add(player);
         if(!playedBefore) {
             run();
         }
@@ -251,10 +275,6 @@ public final class MidiJingleSequencer implements JingleSequencer {
 
     @Override
     public Set<JingleNotePlayer> getPlayers () {
-        Set<JingleNotePlayer> copy;
-        synchronized(PLAYER_LOCK) {
-            copy = new HashSet<>(players);
-        }
-        return copy;
+        return new HashSet<>(players);
     }
 }
\ No newline at end of file
@@ -0,0 +1,124 @@
+package com.sk89q.craftbook.util.jinglenote;
+
+import com.sk89q.craftbook.util.jinglenote.JingleSequencer.Note;
+
+import java.util.Arrays;
+
+/**
+ * The notes of a song, decoded once so it can be played any number of times.
+ *
+ * <p>
+ *     Notes are stored in the order they are played, as parallel primitive arrays. The time of a note is in
+ *     milliseconds for MIDI files, and in steps for tunes.
+ * </p>
+ */
+public final class NoteTimeline {
+
+    private static final int PERCUSSION = 0x80;
+
+    private final int[] times;
+    private final byte[] instruments;
+    private final byte[] pitches;
+    private final float[] velocities;
+    private final int length;
+
+    private NoteTimeline(int[] times, byte[] instruments, byte[] pitches, float[] velocities, int length) {
+
+        this.times = times;
+        this.instruments = instruments;
+        this.pitches = pitches;
+        this.velocities = velocities;
+        this.length = length;
+    }
+
+    /**
+     * Gets the amount of notes.
+     *
+     * @return The amount of notes
+     */
+    public int size() {
+
+        return times.length;
+    }
+
+    /**
+     * Gets the length of the song, which may run past the time of its last note.
+     *
+     * @return The length
+     */
+    public int getLength() {
+
+        return length;
+    }
+
+    public int getTime(int index) {
+
+        return times[index];
+    }
+
+    public boolean isPercussion(int index) {
+
+        return (instruments[index] & PERCUSSION) != 0;
+    }
+
+    public Note getNote(int index) {
+
+        return new Note(Instrument.toMCSound((byte) (instruments[index] & ~PERCUSSION)), pitches[index], velocities[index]);
+    }
+
+    /**
+     * Gets a rough estimate of the memory used by this timeline.
+     *
+     * @return The size in bytes
+     */
+    public int getMemorySize() {
+
+        // 4 array headers, and 4 + 1 + 1 + 4 bytes per note.
+        return 96 + times.length * 10;
+    }
+
+    static final class Builder {
+
+        private int[] times = new int[64];
+        private byte[] instruments = new byte[64];
+        private byte[] pitches = new byte[64];
+        private float[] velocities = new float[64];
+        private int size;
+
+        /**
+         * Adds a note, which must not be earlier than the last note added.
+         *
+         * @param time The time of the note
+         * @param instrument The Minecraft instrument ID, see {@link Instrument#toMCSound(byte)}
+         * @param pitch The pitch
+         * @param velocity The velocity
+         * @param percussion If the note is from a percussion channel
+         */
+        void add(int time, byte instrument, byte pitch, float velocity, boolean percussion) {
+
+            if(size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                instruments = Arrays.copyOf(instruments, capacity);
+                pitches = Arrays.copyOf(pitches, capacity);
+                velocities = Arrays.copyOf(velocities, capacity);
+            }
+            times[size] = time;
+            instruments[size] = (byte) (percussion ? instrument | PERCUSSION : instrument);
+            pitches[size] = pitch;
+            velocities[size] = velocity;
+            size++;
+        }
+
+        int size() {
+
+            return size;
+        }
+
+        NoteTimeline build(int length) {
+
+            return new NoteTimeline(Arrays.copyOf(times, size), Arrays.copyOf(instruments, size), Arrays.copyOf(pitches, size),
+                    Arrays.copyOf(velocities, size), length);
+        }
+    }
+}
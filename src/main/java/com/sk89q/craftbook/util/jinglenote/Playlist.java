@@ -21,7 +21,6 @@ import java.util.Map;
 import java.util.Map.Entry;
 
 import javax.sound.midi.InvalidMidiDataException;
-import javax.sound.midi.MidiUnavailableException;
 
 public class Playlist {
 
@@ -246,10 +245,7 @@ public class Playlist {
                     }
 
                     try {
-                        sequencer = new MidiJingleSequencer(file, false);
-                        if (!((MidiJingleSequencer) sequencer).getSequencer().isOpen()) {
-                            ((MidiJingleSequencer) sequencer).getSequencer().open();
-                        }
+                        sequencer = new MidiJingleSequencer(ICManager.inst().getSongCache().getMidi(file), false);
 
                         CraftBookPlugin.logDebugMessage("Player list on midi create: " + players.toString(), "playlist");
 
@@ -265,14 +261,14 @@ public class Playlist {
                         } catch (InterruptedException e) {
                             CraftBookBukkitUtil.printStacktrace(e);
                         }
-                    } catch (MidiUnavailableException | IOException | InvalidMidiDataException e) {
+                    } catch (IOException | InvalidMidiDataException e) {
                         CraftBookBukkitUtil.printStacktrace(e);
                     }
                 } else if (line.startsWith("tune ")) {
 
                     String tune = StringUtils.replace(line, "tune ", "");
 
-                    sequencer = new StringJingleSequencer(tune, 0);
+                    sequencer = new StringJingleSequencer(ICManager.inst().getSongCache().getTune(tune), 0);
 
                     for(Entry<String, SearchArea> player : players.entrySet()) {
                         jNote.play(player.getKey(), sequencer, player.getValue());
@@ -3,10 +3,8 @@ package com.sk89q.craftbook.util.jinglenote;
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 import org.bukkit.Bukkit;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * @author Me4502 with code borrowed from CraftBook Extra
@@ -16,16 +14,20 @@ public class StringJingleSequencer implements JingleSequencer {
     private int delay;
     private int position;
     private int taskID;
-    private boolean isPlaying;
-    private boolean playedBefore = false;
+    private volatile boolean isPlaying;
+    private volatile boolean playedBefore = false;
 
-    private List<Note> song;
+    private NoteTimeline song;
 
-    private Set<JingleNotePlayer> players = new HashSet<>();
+    private final Set<JingleNotePlayer> players = new CopyOnWriteArraySet<>();
 
     public StringJingleSequencer(String tune, int delay) {
+        this(parseTune(tune), delay);
+    }
+
+    public StringJingleSequencer(NoteTimeline song, int delay) {
         this.delay = delay;
-        song = parseTune(tune);
+        this.song = song;
     }
 
     @Override
@@ -46,16 +48,22 @@ public class StringJingleSequencer implements JingleSequencer {
                 return;
             }
             for(JingleNotePlayer player : players)
-                player.play(song.get(position));
+                player.play(song.getNote(position));
             position++;
         }, delay, delay);
     }
 
-    private static ArrayList<Note> parseTune(String tune) {
+    /**
+     * Parses a tune into its notes, one note per step.
+     *
+     * @param tune The tune
+     * @return The notes, or null if the tune is invalid
+     */
+    public static NoteTimeline parseTune(String tune) {
 
         if (tune == null) return null;
 
-        ArrayList<Note> musicKeys = new ArrayList<>();
+        NoteTimeline.Builder musicKeys = new NoteTimeline.Builder();
 
         byte instrument = -1;
         for (int i = 0; i < tune.length(); i++) {
@@ -88,7 +96,7 @@ public class StringJingleSequencer implements JingleSequencer {
                 }
 
                 if (skip) {
-                    musicKeys.add(new Note(Instrument.HARP, (byte) 0, 0));
+                    musicKeys.add(musicKeys.size(), (byte) 0, (byte) 0, 0, false);
                 } else {
                     if (octave < 2) octave = 2;
 
@@ -97,7 +105,7 @@ public class StringJingleSequencer implements JingleSequencer {
                     if (pitch < 0) pitch = 0;
                     else if (pitch > 24) pitch = 24;
 
-                    musicKeys.add(new Note(Instrument.toMCSound(instrument), (byte) pitch, 60F));
+                    musicKeys.add(musicKeys.size(), instrument, (byte) pitch, 60F, false);
                 }
 
                 i++;
@@ -106,7 +114,7 @@ public class StringJingleSequencer implements JingleSequencer {
 
         if (musicKeys.size() == 0) return null;
 
-        return musicKeys;
+        return musicKeys.build(musicKeys.size());
     }
 
     private static byte getTypeFromChar(char type) {
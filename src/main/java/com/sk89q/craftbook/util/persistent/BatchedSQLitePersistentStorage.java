@@ -0,0 +1,341 @@
+package com.sk89q.craftbook.util.persistent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Level;
+
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.scheduler.BukkitTask;
+import org.bukkit.util.io.BukkitObjectInputStream;
+import org.bukkit.util.io.BukkitObjectOutputStream;
+
+import com.sk89q.craftbook.bukkit.CraftBookPlugin;
+
+/**
+ * A {@link PersistentStorage} that keeps all data in memory, and writes changes to SQLite in the background.
+ *
+ * <p>
+ *     The whole table is read once when the storage is opened, so reads never touch the database. Values are
+ *     serialized when they are set, and the changed keys are committed in a single transaction every save interval
+ *     from an asynchronous task. Closing the storage commits anything that is still pending.
+ * </p>
+ *
+ * <p>
+ *     Keys are stored flat, but reading a key that only has children returns them as a nested map, the same way the
+ *     YAML storage does. This lets data converted from YAML be read with the same keys.
+ * </p>
+ *
+ * <p>
+ *     It uses the same database and table as {@link SQLitePersistentStorage}, and can read values written by it.
+ * </p>
+ */
+public class BatchedSQLitePersistentStorage extends PersistentStorage {
+
+    private static final String VERSION_KEY = "VERSION";
+    private static final String ENCODED_PREFIX = "b64:";
+
+    private final NavigableMap<String, Object> values = new ConcurrentSkipListMap<>();
+
+    /**
+     * Changed keys, to their encoded value or null if they were removed. Guarded by itself.
+     */
+    private final Map<String, String> dirty = new HashMap<>();
+    private boolean clearOnFlush;
+
+    private final Object flushLock = new Object();
+
+    private Connection db;
+    private BukkitTask saveTask;
+
+    @Override
+    public void open () {
+
+        try {
+            Class.forName("org.sqlite.JDBC");
+            db = DriverManager.getConnection("jdbc:sqlite:" + new File(CraftBookPlugin.inst().getDataFolder(), "persistence.db").getPath());
+            db.setAutoCommit(false);
+
+            try (Statement statement = db.createStatement()) {
+                statement.executeUpdate("CREATE TABLE IF NOT EXISTS PersistentData (KEY VARCHAR(255) PRIMARY KEY, VALUE TEXT)");
+            }
+            db.commit();
+
+            try (Statement statement = db.createStatement(); ResultSet results = statement.executeQuery("SELECT KEY, VALUE FROM PersistentData")) {
+                while (results.next()) {
+                    String key = results.getString(1);
+                    if (VERSION_KEY.equals(key))
+                        continue;
+                    try {
+                        values.put(key, decode(results.getString(2)));
+                    } catch (IOException | ClassNotFoundException e) {
+                        CraftBookPlugin.logger().warning("Failed to read persistent data at " + key + ", it will be ignored.");
+                    }
+                }
+            }
+        } catch (Exception e) {
+            CraftBookPlugin.logger().log(Level.SEVERE, "Failed to open the persistent data database!", e);
+            db = null;
+            return;
+        }
+
+        int interval = Math.max(1, CraftBookPlugin.inst().getConfiguration().persistentStorageSaveInterval);
+        saveTask = Bukkit.getScheduler().runTaskTimerAsynchronously(CraftBookPlugin.inst(), this::flush, interval, interval);
+    }
+
+    @Override
+    public void close () {
+
+        if (saveTask != null) {
+            saveTask.cancel();
+            saveTask = null;
+        }
+        if (db == null)
+            return;
+
+        flush();
+        try {
+            db.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        db = null;
+    }
+
+    @Override
+    public String getType () {
+        return "BatchedSQLite";
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object get (String location) {
+
+        Object value = values.get(location);
+        if (value != null)
+            return value;
+
+        NavigableMap<String, Object> children = getChildren(location);
+        if (children.isEmpty())
+            return null;
+
+        // Build the same nested map that a hierarchical storage would return.
+        Map<String, Object> tree = new LinkedHashMap<>();
+        for (Entry<String, Object> child : children.entrySet()) {
+            String[] path = child.getKey().substring(location.length() + 1).split("\\.");
+            Map<String, Object> node = tree;
+            for (int i = 0; i < path.length - 1; i++) {
+                Object next = node.get(path[i]);
+                if (!(next instanceof LinkedHashMap)) {
+                    next = new LinkedHashMap<String, Object>();
+                    node.put(path[i], next);
+                }
+                node = (Map<String, Object>) next;
+            }
+            node.put(path[path.length - 1], child.getValue());
+        }
+        return tree;
+    }
+
+    @Override
+    public void set (String location, Object data) {
+
+        String encoded = null;
+        if (data != null) {
+            if (!(data instanceof Serializable) && !(data instanceof ConfigurationSerializable)) {
+                CraftBookPlugin.logger().warning("Failed to put item in db! " + data.getClass().getSimpleName() + " is NOT serializable!");
+                return;
+            }
+            try {
+                // Serialized now, so later changes to the object by the caller can't race the save task.
+                encoded = encode(data);
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+
+        synchronized (dirty) {
+            // Setting a key replaces everything below it.
+            for (String child : new ArrayList<>(getChildren(location).keySet())) {
+                values.remove(child);
+                dirty.put(child, null);
+            }
+            if (data == null)
+                values.remove(location);
+            else
+                values.put(location, data);
+            dirty.put(location, encoded);
+        }
+    }
+
+    @Override
+    public boolean has (String location) {
+
+        return values.containsKey(location) || !getChildren(location).isEmpty();
+    }
+
+    @Override
+    public boolean isValid () {
+        return db != null;
+    }
+
+    @Override
+    public int getVersion () {
+        return getCurrentVersion();
+    }
+
+    @Override
+    public int getCurrentVersion () {
+        return 1;
+    }
+
+    @Override
+    public void convertVersion (int version) {
+        //Not needed atm.
+    }
+
+    @Override
+    public void importData (Map<String, Object> data, boolean replace) {
+
+        if (replace) {
+            synchronized (dirty) {
+                values.clear();
+                dirty.clear();
+                clearOnFlush = true;
+            }
+        }
+        importData("", data);
+    }
+
+    private void importData(String prefix, Map<?, ?> data) {
+
+        for (Entry<?, ?> dat : data.entrySet()) {
+            String key = prefix + dat.getKey();
+            if (dat.getValue() instanceof Map)
+                importData(key + '.', (Map<?, ?>) dat.getValue());
+            else if (!VERSION_KEY.equals(key))
+                set(key, dat.getValue());
+        }
+    }
+
+    @Override
+    public Map<String, Object> exportData () {
+        return new HashMap<>(values);
+    }
+
+    /**
+     * Commits all pending changes to the database in a single transaction.
+     *
+     * @return The amount of committed keys
+     */
+    public int flush() {
+
+        synchronized (flushLock) {
+            if (db == null)
+                return 0;
+
+            Map<String, String> batch;
+            boolean clear;
+            synchronized (dirty) {
+                if (dirty.isEmpty() && !clearOnFlush)
+                    return 0;
+                batch = new HashMap<>(dirty);
+                clear = clearOnFlush;
+                dirty.clear();
+                clearOnFlush = false;
+            }
+
+            try (PreparedStatement upsert = db.prepareStatement("INSERT OR REPLACE INTO PersistentData VALUES(?,?)");
+                    PreparedStatement delete = db.prepareStatement("DELETE FROM PersistentData WHERE KEY = ?")) {
+                if (clear) {
+                    try (Statement statement = db.createStatement()) {
+                        statement.executeUpdate("DELETE FROM PersistentData WHERE KEY <> '" + VERSION_KEY + "'");
+                    }
+                }
+                for (Entry<String, String> entry : batch.entrySet()) {
+                    if (entry.getValue() == null) {
+                        delete.setString(1, entry.getKey());
+                        delete.addBatch();
+                    } else {
+                        upsert.setString(1, entry.getKey());
+                        upsert.setString(2, entry.getValue());
+                        upsert.addBatch();
+                    }
+                }
+                delete.executeBatch();
+                upsert.executeBatch();
+                db.commit();
+                return batch.size();
+            } catch (SQLException e) {
+                CraftBookPlugin.logger().log(Level.SEVERE, "Failed to save persistent data!", e);
+                try {
+                    db.rollback();
+                } catch (SQLException ignored) {
+                }
+                // Retry on the next flush, unless the keys have been changed again since.
+                synchronized (dirty) {
+                    for (Entry<String, String> entry : batch.entrySet())
+                        if (!dirty.containsKey(entry.getKey()))
+                            dirty.put(entry.getKey(), entry.getValue());
+                    clearOnFlush |= clear;
+                }
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gets the amount of keys with changes that haven't been committed yet.
+     *
+     * @return The amount of pending keys
+     */
+    public int getPendingCount() {
+
+        synchronized (dirty) {
+            return dirty.size();
+        }
+    }
+
+    private NavigableMap<String, Object> getChildren(String location) {
+
+        // Every key starting with "location." sorts between "location." and "location/".
+        return values.subMap(location + '.', true, location + '/', false);
+    }
+
+    private static String encode(Object o) throws IOException {
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (BukkitObjectOutputStream oos = new BukkitObjectOutputStream(baos)) {
+            oos.writeObject(o);
+        }
+        return ENCODED_PREFIX + Base64.getEncoder().encodeToString(baos.toByteArray());
+    }
+
+    private static Object decode(String s) throws IOException, ClassNotFoundException {
+
+        if (!s.startsWith(ENCODED_PREFIX))
+            return SQLitePersistentStorage.fromString(s);
+        byte[] data = Base64.getDecoder().decode(s.substring(ENCODED_PREFIX.length()));
+        try (BukkitObjectInputStream ois = new BukkitObjectInputStream(new ByteArrayInputStream(data))) {
+            return ois.readObject();
+        }
+    }
+}
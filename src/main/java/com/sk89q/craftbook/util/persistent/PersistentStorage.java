@@ -1,6 +1,10 @@
 package com.sk89q.craftbook.util.persistent;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.sk89q.craftbook.bukkit.CraftBookPlugin;
 
@@ -50,6 +54,72 @@ public abstract class PersistentStorage {
      */
     public abstract boolean has(String location);
 
+    /**
+     * Gets the boolean at the provided location.
+     *
+     * @param location A location, with '.'s seperating heirarchy.
+     * @param def The value to return if there is no boolean at the location.
+     * @return The boolean.
+     */
+    public boolean getBoolean(String location, boolean def) {
+
+        Object data = get(location);
+        return data instanceof Boolean ? (Boolean) data : def;
+    }
+
+    public void setBoolean(String location, boolean data) {
+
+        set(location, data);
+    }
+
+    /**
+     * Gets the number at the provided location as a long.
+     *
+     * @param location A location, with '.'s seperating heirarchy.
+     * @param def The value to return if there is no number at the location.
+     * @return The long.
+     */
+    public long getLong(String location, long def) {
+
+        Object data = get(location);
+        return data instanceof Number ? ((Number) data).longValue() : def;
+    }
+
+    public void setLong(String location, long data) {
+
+        set(location, data);
+    }
+
+    /**
+     * Gets the set of strings at the provided location. Any collection is accepted, as some storage methods load sets
+     * back as lists.
+     *
+     * @param location A location, with '.'s seperating heirarchy.
+     * @return The strings, or an empty set if there are none.
+     */
+    public Set<String> getStringSet(String location) {
+
+        Set<String> set = new LinkedHashSet<>();
+        Object data = get(location);
+        if (data instanceof Collection)
+            for (Object element : (Collection<?>) data)
+                if (element != null)
+                    set.add(element.toString());
+        return set;
+    }
+
+    /**
+     * Sets a set of strings at the provided location. The strings are stored as a list, which every storage method
+     * can save.
+     *
+     * @param location The location to set the data at, with '.'s seperating heirarchy.
+     * @param data The strings to set.
+     */
+    public void setStringSet(String location, Collection<String> data) {
+
+        set(location, new ArrayList<>(data));
+    }
+
     /**
      * Determines whether this storage method is usable.
      * 
@@ -87,7 +157,9 @@ public abstract class PersistentStorage {
 
         Map<String, Object> data = exportData();
         PersistentStorage stor = createFromType(type);
+        stor.open();
         stor.importData(data, true);
+        close();
         CraftBookPlugin.inst().setPersistentStorage(stor);
     }
 
@@ -119,6 +191,8 @@ public abstract class PersistentStorage {
             return new DummyPersistentStorage();
         else if(type.equalsIgnoreCase("SQLite"))
             return new SQLitePersistentStorage();
+        else if(type.equalsIgnoreCase("BatchedSQLite"))
+            return new BatchedSQLitePersistentStorage();
         else
             return null;
     }
@@ -252,7 +252,7 @@ public class SQLitePersistentStorage extends PersistentStorage {
         return data;
     }
 
-    private static Object fromString(String s) throws IOException, ClassNotFoundException {
+    static Object fromString(String s) throws IOException, ClassNotFoundException {
         byte[] data = s.getBytes(StandardCharsets.UTF_8);
         BukkitObjectInputStream ois = new BukkitObjectInputStream(new ByteArrayInputStream(data));
         Object o  = ois.readObject();
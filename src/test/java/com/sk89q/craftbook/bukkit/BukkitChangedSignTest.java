@@ -1,19 +1,30 @@
 package com.sk89q.craftbook.bukkit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.sk89q.craftbook.ChangedSign;
+import com.sk89q.craftbook.mechanics.variables.VariableManager;
+import com.sk89q.craftbook.util.ParsingUtil;
 import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
+import org.bukkit.entity.Player;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import org.powermock.reflect.Whitebox;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest(ChangedSign.class)
+@PrepareForTest({ChangedSign.class, ParsingUtil.class})
 public class BukkitChangedSignTest {
 
     @Test(expected=IllegalArgumentException.class)
@@ -28,4 +39,36 @@ public class BukkitChangedSignTest {
         assertTrue(sign.getSign() != null);
         assertTrue(sign.getLines().length == 4);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParsedLinesAreReused() {
+
+        AtomicInteger parses = new AtomicInteger();
+        PowerMockito.mockStatic(ParsingUtil.class);
+        when(ParsingUtil.parseLine(anyString(), any(Player.class))).thenAnswer(invocation -> invocation.getArguments()[0] + "#" + parses.incrementAndGet());
+
+        VariableManager variables = new VariableManager();
+        Whitebox.setInternalState(variables, "variableStore", new ConcurrentHashMap<>());
+
+        ChangedSign sign = new ChangedSign(mock(Block.class), new String[]{"", "%a%", "plain", ""});
+
+        assertEquals("%a%#1", sign.getLine(1));
+        // Nothing has changed, so the line isn't parsed again.
+        assertEquals("%a%#1", sign.getLine(1));
+        // Lines without variables are never parsed.
+        assertEquals("plain", sign.getLine(2));
+        assertEquals(1, parses.get());
+
+        sign.setLine(1, "%b%");
+        assertEquals("%b%#2", sign.getLine(1));
+        assertEquals("%b%#2", sign.getLine(1));
+
+        variables.setVariable("b", "global", "1");
+        assertEquals("%b%#3", sign.getLine(1));
+        assertEquals("%b%#3", sign.getLine(1));
+
+        variables.removeVariable("b", "global");
+        assertEquals("%b%#4", sign.getLine(1));
+        assertEquals(4, parses.get());
+    }
+}
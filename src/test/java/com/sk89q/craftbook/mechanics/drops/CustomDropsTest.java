@@ -0,0 +1,82 @@
+package com.sk89q.craftbook.mechanics.drops;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.entity.EntityType;
+import org.bukkit.entity.ExperienceOrb;
+import org.bukkit.entity.Player;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.PlayerInventory;
+import org.junit.Test;
+
+import com.sk89q.craftbook.mechanics.drops.rewards.DropReward;
+import com.sk89q.craftbook.util.TernaryState;
+import com.sk89q.worldedit.world.block.BlockStateHolder;
+
+public class CustomDropsTest {
+
+    private static BlockCustomDropDefinition definition(ItemStack drop, boolean append) {
+
+        BlockStateHolder type = mock(BlockStateHolder.class);
+        when(type.equalsFuzzy(any(BlockStateHolder.class))).thenReturn(true);
+
+        BlockCustomDropDefinition definition = mock(BlockCustomDropDefinition.class);
+        when(definition.getBlockType()).thenReturn(type);
+        when(definition.matchesRegions(any(World.class), anyInt(), anyInt(), anyInt())).thenReturn(true);
+        when(definition.matchesBiome(any())).thenReturn(true);
+        when(definition.matchesItem(any(ItemStack.class))).thenReturn(true);
+        when(definition.getSilkTouch()).thenReturn(TernaryState.NONE);
+        when(definition.getAppend()).thenReturn(append);
+        when(definition.getRandomDrops()).thenReturn(new ItemStack[] {drop});
+        when(definition.getRewards()).thenReturn(new DropReward[0]);
+        return definition;
+    }
+
+    @Test
+    public void testOverlappingDefinitionsDropOnce() {
+
+        World world = mock(World.class);
+        when(world.spawnEntity(any(Location.class), eq(EntityType.EXPERIENCE_ORB))).thenReturn(mock(ExperienceOrb.class));
+
+        Block block = mock(Block.class);
+        when(block.getType()).thenReturn(Material.STONE);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getLocation()).thenReturn(new Location(world, 0, 64, 0));
+
+        PlayerInventory inventory = mock(PlayerInventory.class);
+        when(inventory.getItemInMainHand()).thenReturn(mock(ItemStack.class));
+        Player player = mock(Player.class);
+        when(player.getInventory()).thenReturn(inventory);
+
+        BlockBreakEvent event = new BlockBreakEvent(block, player);
+        event.setExpToDrop(5);
+
+        ItemStack appended = mock(ItemStack.class);
+        ItemStack first = mock(ItemStack.class);
+        ItemStack second = mock(ItemStack.class);
+        assertTrue(new CustomDrops().dropForBlock(event, Arrays.asList(definition(appended, true), definition(first, false),
+                definition(second, false)), mock(BlockStateHolder.class)));
+
+        // The first definition that replaces the drops removes the block, so the second no longer matches it.
+        assertTrue(event.isCancelled());
+        verify(world).dropItemNaturally(any(Location.class), eq(appended));
+        verify(world).dropItemNaturally(any(Location.class), eq(first));
+        verify(world, times(0)).dropItemNaturally(any(Location.class), eq(second));
+        verify(world, times(1)).spawnEntity(any(Location.class), eq(EntityType.EXPERIENCE_ORB));
+        verify(block, times(1)).setType(Material.AIR);
+    }
+}
@@ -0,0 +1,156 @@
+package com.sk89q.craftbook.mechanics.ic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.junit.Test;
+
+public class ICCacheTest {
+
+    private static World mockWorld() {
+
+        World world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        return world;
+    }
+
+    @Test
+    public void testLookupAndCounters() {
+
+        World world = mockWorld();
+        World other = mockWorld();
+        ICCache cache = new ICCache(0);
+        IC ic = mock(IC.class);
+
+        cache.put(world, 10, 64, -3, ic);
+        assertSame(ic, cache.get(world, 10, 64, -3));
+        assertNull(cache.get(other, 10, 64, -3));
+        assertNull(cache.get(world, 10, 65, -3));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        assertSame(ic, cache.remove(world, 10, 64, -3));
+        assertFalse(cache.contains(world, 10, 64, -3));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testChunkEviction() {
+
+        World world = mockWorld();
+        ICCache cache = new ICCache(0);
+
+        cache.put(world, 0, 64, 0, mock(IC.class));
+        cache.put(world, 15, 10, 15, mock(IC.class));
+        cache.put(world, -1, 64, 0, mock(IC.class));
+
+        assertEquals(2, cache.removeChunk(world, 0, 0));
+        assertEquals(1, cache.size());
+        assertFalse(cache.contains(world, 0, 64, 0));
+        assertTrue(cache.contains(world, -1, 64, 0));
+        assertEquals(0, cache.removeChunk(world, 0, 0));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+
+        World world = mockWorld();
+        ICCache cache = new ICCache(2);
+
+        cache.put(world, 1, 1, 1, mock(IC.class));
+        cache.put(world, 2, 2, 2, mock(IC.class));
+        cache.get(world, 1, 1, 1);
+        cache.put(world, 3, 3, 3, mock(IC.class));
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(cache.contains(world, 1, 1, 1));
+        assertFalse(cache.contains(world, 2, 2, 2));
+        assertTrue(cache.contains(world, 3, 3, 3));
+    }
+
+    @Test
+    public void testResolved() {
+
+        World world = mockWorld();
+        ICCache cache = new ICCache(0);
+        IC ic = mock(IC.class);
+        ResolvedIC resolved = new ResolvedIC("MC1000", "[MC1000]", null, null, ic, false);
+
+        cache.setResolved(world, 5, 5, 5, resolved);
+        assertNull(cache.getResolved(world, 5, 5, 5));
+
+        cache.put(world, 5, 5, 5, ic);
+        cache.setResolved(world, 5, 5, 5, new ResolvedIC("MC1000", "[MC1000]", null, null, mock(IC.class), false));
+        assertNull(cache.getResolved(world, 5, 5, 5));
+
+        cache.setResolved(world, 5, 5, 5, resolved);
+        assertSame(resolved, cache.getResolved(world, 5, 5, 5));
+        assertEquals(1, cache.getResolvedHits());
+
+        cache.put(world, 5, 5, 5, mock(IC.class));
+        assertNull(cache.getResolved(world, 5, 5, 5));
+
+        cache.put(world, 5, 5, 5, ic);
+        cache.setResolved(world, 5, 5, 5, resolved);
+        cache.setResolved(world, 5, 5, 5, null);
+        assertNull(cache.getResolved(world, 5, 5, 5));
+    }
+
+    @Test
+    public void testEvictionListener() {
+
+        World world = mockWorld();
+        List<IC> evicted = new ArrayList<>();
+        ICCache cache = new ICCache(2, evicted::add);
+        IC first = mock(IC.class);
+        IC second = mock(IC.class);
+        IC third = mock(IC.class);
+        IC fourth = mock(IC.class);
+
+        cache.put(world, 1, 1, 1, first);
+        cache.put(world, 2, 2, 2, second);
+        cache.put(world, 3, 3, 3, third);
+        assertEquals(Collections.singletonList(first), evicted);
+
+        // ICs removed by position are left to the caller.
+        cache.remove(world, 2, 2, 2);
+        assertEquals(1, evicted.size());
+
+        cache.put(world, 40, 4, 40, fourth);
+        assertEquals(2, cache.removeChunk(world, 0, 0) + cache.removeChunk(world, 2, 2));
+        assertEquals(Arrays.asList(first, third, fourth), evicted);
+    }
+
+    @Test
+    public void testChunkEvictionKeepsLocations() {
+
+        World world = mockWorld();
+        List<IC> evicted = new ArrayList<>();
+        ICCache cache = new ICCache(0, evicted::add);
+        IC kept = mock(IC.class);
+        IC dropped = mock(IC.class);
+
+        cache.put(world, 1, 1, 1, kept);
+        cache.put(world, 2, 2, 2, dropped);
+        assertEquals(1, cache.removeChunk(world, 0, 0, location -> location.getBlockX() == 1));
+        assertEquals(Collections.singletonList(dropped), evicted);
+        assertSame(kept, cache.get(world, 1, 1, 1));
+        assertEquals(1, cache.size());
+
+        assertEquals(1, cache.removeChunk(world, 0, 0));
+        assertEquals(0, cache.size());
+    }
+}
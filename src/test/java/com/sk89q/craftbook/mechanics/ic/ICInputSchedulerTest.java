@@ -0,0 +1,94 @@
+package com.sk89q.craftbook.mechanics.ic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.junit.Test;
+
+public class ICInputSchedulerTest {
+
+    private final World world = mockWorld();
+
+    private static World mockWorld() {
+
+        World world = mock(World.class);
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        return world;
+    }
+
+    private Block mockBlock(int x, int y, int z) {
+
+        Block block = mock(Block.class);
+        when(block.getWorld()).thenReturn(world);
+        when(block.getX()).thenReturn(x);
+        when(block.getY()).thenReturn(y);
+        when(block.getZ()).thenReturn(z);
+        return block;
+    }
+
+    @Test
+    public void testMergesSameSourceWithinWindow() {
+
+        List<Runnable> tasks = new ArrayList<>();
+        List<Block> evaluatedSources = new ArrayList<>();
+        ICInputScheduler scheduler = new ICInputScheduler((task, delay) -> tasks.add(task),
+                (block, source, family, ic) -> evaluatedSources.add(source), 2);
+
+        Block sign = mockBlock(0, 64, 0);
+        Block clock = mockBlock(1, 64, 0);
+        Block data = mockBlock(-1, 64, 0);
+        IC ic = mock(IC.class);
+
+        for (int i = 0; i < 10; i++)
+            scheduler.submit(sign, clock, null, ic);
+        scheduler.submit(sign, data, null, ic);
+
+        assertEquals(1, tasks.size());
+        assertEquals(2, scheduler.getQueueDepth());
+        assertEquals(0, evaluatedSources.size());
+
+        tasks.get(0).run();
+
+        assertEquals(2, evaluatedSources.size());
+        assertSame(clock, evaluatedSources.get(0));
+        assertSame(data, evaluatedSources.get(1));
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(11, scheduler.getSubmitted());
+        assertEquals(2, scheduler.getEvaluated());
+        assertEquals(9 / 11.0, scheduler.getMergeRatio(), 0.0001);
+    }
+
+    @Test
+    public void testNewWindowAfterFlush() {
+
+        List<Runnable> tasks = new ArrayList<>();
+        List<IC> evaluated = new ArrayList<>();
+        ICInputScheduler scheduler = new ICInputScheduler((task, delay) -> tasks.add(task),
+                (block, source, family, ic) -> evaluated.add(ic), 2);
+
+        Block sign = mockBlock(0, 64, 0);
+        Block source = mockBlock(1, 64, 0);
+        IC first = mock(IC.class);
+        IC second = mock(IC.class);
+
+        scheduler.submit(sign, source, null, first);
+        tasks.get(0).run();
+        scheduler.submit(sign, source, null, first);
+        scheduler.submit(sign, source, null, second);
+
+        assertEquals(2, tasks.size());
+        tasks.get(1).run();
+
+        assertEquals(2, evaluated.size());
+        assertSame(first, evaluated.get(0));
+        assertSame(second, evaluated.get(1));
+    }
+}
@@ -0,0 +1,81 @@
+package com.sk89q.craftbook.mechanics.ic.gates.world.miscellaneous;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+public class WirelessBandBusTest {
+
+    @Test
+    public void testBandIds() {
+
+        WirelessBandBus bus = new WirelessBandBus();
+        int a = bus.getId("a");
+        int b = bus.getId("b");
+
+        assertEquals(a, bus.getId("a"));
+        assertTrue(a != b);
+    }
+
+    @Test
+    public void testSubscribersAreOnlyNotifiedOnChange() {
+
+        WirelessBandBus bus = new WirelessBandBus();
+        int band = bus.getId("band");
+        int[] wakes = new int[1];
+        bus.subscribe(band, "receiver", () -> wakes[0]++);
+
+        assertTrue(bus.set(band, true));
+        assertFalse(bus.set(band, true));
+        assertTrue(bus.get(band));
+        assertEquals(1, wakes[0]);
+
+        assertFalse(bus.toggle("band"));
+        assertEquals(2, wakes[0]);
+
+        bus.set("other", true);
+        assertEquals(2, wakes[0]);
+    }
+
+    @Test
+    public void testResubscribingReplaces() {
+
+        WirelessBandBus bus = new WirelessBandBus();
+        int first = bus.getId("first");
+        int second = bus.getId("second");
+        int[] wakes = new int[1];
+        bus.subscribe(first, "receiver", () -> wakes[0]++);
+        bus.subscribe(second, "receiver", () -> wakes[0]++);
+
+        assertEquals(1, bus.getSubscriberCount());
+        bus.set(first, true);
+        assertEquals(0, wakes[0]);
+        bus.set(second, true);
+        assertEquals(1, wakes[0]);
+
+        bus.unsubscribe("receiver");
+        bus.set(second, false);
+        assertEquals(1, wakes[0]);
+        assertEquals(0, bus.getSubscriberCount());
+    }
+
+    @Test
+    public void testActiveBands() {
+
+        WirelessBandBus bus = new WirelessBandBus();
+        bus.addActiveBands(Arrays.asList("a", "b", "c"));
+        bus.set("b", false);
+
+        assertEquals(new HashSet<>(Arrays.asList("a", "c")), bus.getActiveBands());
+
+        bus.set("a", false);
+        bus.set("c", false);
+        assertEquals(Collections.emptySet(), bus.getActiveBands());
+    }
+}
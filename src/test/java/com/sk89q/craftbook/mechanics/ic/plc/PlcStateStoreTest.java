@@ -0,0 +1,99 @@
+package com.sk89q.craftbook.mechanics.ic.plc;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PlcStateStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWritesStayInMemoryUntilFlushed() throws IOException {
+
+        File file = new File(folder.getRoot(), "Perlstone-1.1$$1_2_3");
+        PlcStateStore store = new PlcStateStore();
+
+        assertNull(store.read(file));
+        store.write(file, new byte[] {1, 2, 3});
+        assertArrayEquals(new byte[] {1, 2, 3}, store.read(file));
+        assertFalse(file.exists());
+        assertEquals(1, store.getDirtyCount());
+
+        assertEquals(1, store.flush());
+        assertTrue(file.exists());
+        assertEquals(0, store.getDirtyCount());
+        assertEquals(0, store.flush());
+    }
+
+    @Test
+    public void testBatchesChangesToTheSameState() throws IOException {
+
+        File file = new File(folder.getRoot(), "state");
+        PlcStateStore store = new PlcStateStore();
+
+        for (byte i = 0; i < 20; i++)
+            store.write(file, new byte[] {i});
+        assertEquals(1, store.flush());
+        assertArrayEquals(new byte[] {19}, new PlcStateStore().read(file));
+    }
+
+    @Test
+    public void testCloseFlushes() throws IOException {
+
+        File file = new File(folder.getRoot(), "state");
+        PlcStateStore store = new PlcStateStore();
+        store.write(file, new byte[] {4, 2});
+        store.close();
+
+        assertArrayEquals(new byte[] {4, 2}, new PlcStateStore().read(file));
+    }
+
+    @Test
+    public void testRecoversFromCrash() throws IOException {
+
+        File file = new File(folder.getRoot(), "state");
+        PlcStateStore store = new PlcStateStore();
+        store.write(file, new byte[] {1});
+        store.flush();
+
+        // Crash with an unflushed change, half way through writing the temporary file.
+        store.write(file, new byte[] {2});
+        try (FileOutputStream out = new FileOutputStream(new File(folder.getRoot(), "state.tmp"))) {
+            out.write(9);
+        }
+
+        PlcStateStore restarted = new PlcStateStore();
+        assertArrayEquals(new byte[] {1}, restarted.read(file));
+
+        restarted.write(file, new byte[] {3});
+        restarted.flush();
+        assertArrayEquals(new byte[] {3}, new PlcStateStore().read(file));
+        assertFalse(new File(folder.getRoot(), "state.tmp").exists());
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+
+        File file = new File(folder.getRoot(), "state");
+        PlcStateStore store = new PlcStateStore();
+        store.write(file, new byte[] {1});
+        store.flush();
+        store.delete(file);
+
+        assertFalse(file.exists());
+        assertNull(store.read(file));
+        assertEquals(0, store.flush());
+    }
+}
@@ -0,0 +1,245 @@
+package com.sk89q.craftbook.mechanics.ic.plc.lang;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.sk89q.craftbook.mechanics.ic.ChipState;
+import com.sk89q.craftbook.mechanics.ic.ICVerificationException;
+import com.sk89q.craftbook.mechanics.ic.plc.PlcException;
+
+/**
+ * Runs Perlstone programs on both the interpreter and the compiled backend, and checks they behave the same.
+ */
+public class PerlstoneTest {
+
+    private static final String[] PROGRAMS = {
+            "Ar",
+            "A!r",
+            "ABC&&r",
+            "AB|C^r",
+            "AB=r",
+            "AB.0110r",
+            "AB.+--+r",
+            "Lp1AdSp1.0100[Lp0!dSp0r]Lp0r",
+            "Lp1AdSp1.0010[Lp0!dSp0r]Lp0r",
+            "ABxpr",
+            "ABCv2r",
+            "ABCv5r",
+            "Ad&dr",
+            ">pLp0!Sp0<pLp0r",
+            ">p>p>pALp0Sp0Lp0r:ePLp0r",
+            ">lALl1Sl1elLl1r",
+            "ASl0BSl1Ll0Ll1&r",
+            "LPaLP0|!SP0LP0r",
+            "Srr",
+            "Sr+r",
+            "ABc012r:&r",
+            "Ac011!r:!r",
+            "At011:r",
+            "c000",
+            "AB-[!]r",
+            "+[A[B!]-]Cr",
+            "-[+]Ar",
+            "+[+]r",
+            "c990r",
+            "pr",
+            "&r",
+            "Axr",
+            "s:Ar",
+            "A[s]Br",
+            "c000r:c000r",
+            "+++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++++r",
+            "ABCc113r:[r]r",
+            "ABC.1001.0110r:AB&r:AB|r",
+    };
+
+    @Test
+    public void testBackendsMatch() throws ICVerificationException {
+
+        for (String code : PROGRAMS) {
+            assertNotNull(code, new Perlstone().compile(code).functions);
+            assertSameBehaviour(code);
+        }
+    }
+
+    @Test
+    public void testGeneratedProgramsMatch() {
+
+        Random random = new Random(5000);
+        String opcodes = "+-ABCdpx!|=&^srvSL<>e.ct[]";
+        int verified = 0;
+
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder code = new StringBuilder();
+            int functions = 1 + random.nextInt(3);
+            for (int f = 0; f < functions; f++) {
+                if (f > 0)
+                    code.append(':');
+                int length = random.nextInt(16);
+                for (int j = 0; j < length; j++) {
+                    char op = opcodes.charAt(random.nextInt(opcodes.length()));
+                    code.append(op);
+                    switch (op) {
+                        case 'v':
+                            code.append(random.nextInt(4));
+                            break;
+                        case 'S':
+                        case 'L':
+                            code.append("plPLrR".charAt(random.nextInt(6)));
+                            code.append("0123456789abcdefv".charAt(random.nextInt(17)));
+                            break;
+                        case '<':
+                        case '>':
+                        case 'e':
+                            code.append("plPLrR".charAt(random.nextInt(6)));
+                            break;
+                        case '.':
+                            for (int k = 0; k < 4; k++)
+                                code.append("+-10".charAt(random.nextInt(4)));
+                            break;
+                        case 'c':
+                        case 't':
+                            code.append('0').append(random.nextInt(functions + 1)).append(random.nextInt(3));
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+
+            try {
+                assertSameBehaviour(code.toString());
+                verified++;
+            } catch (ICVerificationException ignored) {
+                // Unbalanced brackets and the like.
+            }
+        }
+
+        assertTrue(verified > 0);
+    }
+
+    @Test
+    public void testCompiledProgramsAreCached() throws ICVerificationException {
+
+        Perlstone perlstone = new Perlstone();
+        assertSame(perlstone.compile("AB&r"), new Perlstone().compile("AB&r"));
+    }
+
+    @Test
+    public void testUnsupportedProgramsAreInterpreted() throws ICVerificationException {
+
+        // The '[' is a table index to the verifier, but gets paired as a bracket by the interpreter.
+        PerlstoneProgram program = new Perlstone().compile("Lp[[]Ar");
+        assertNull(program.functions);
+    }
+
+    private static void assertSameBehaviour(String code) throws ICVerificationException {
+
+        Perlstone interpreted = new Perlstone(false);
+        Perlstone compiled = new Perlstone(true);
+        PerlstoneProgram program = compiled.compile(code);
+
+        boolean[] interpretedState = interpreted.initState();
+        boolean[] compiledState = compiled.initState();
+
+        for (int trigger = 0; trigger < 16; trigger++) {
+            boolean[] inputs = {(trigger & 1) != 0, (trigger & 2) != 0, (trigger & 4) != 0};
+
+            TestChipState interpretedChip = new TestChipState(inputs);
+            TestChipState compiledChip = new TestChipState(inputs);
+            String interpretedError = run(interpreted, interpretedChip, interpretedState, program);
+            String compiledError = run(compiled, compiledChip, compiledState, program);
+
+            assertEquals(code, interpretedError, compiledError);
+            assertArrayEquals(code, interpretedChip.outputs, compiledChip.outputs);
+            assertArrayEquals(code, interpretedState, compiledState);
+        }
+    }
+
+    private static String run(Perlstone perlstone, ChipState chip, boolean[] state, PerlstoneProgram program) {
+
+        try {
+            perlstone.execute(chip, state, program);
+            return null;
+        } catch (PlcException e) {
+            return e.getMessage() + '\n' + e.detailedMessage;
+        } catch (RuntimeException e) {
+            // The interpreter lets some malformed programs fail with internal errors.
+            return e.getClass().getName();
+        }
+    }
+
+    private static final class TestChipState implements ChipState {
+
+        private final boolean[] inputs;
+        private final boolean[] outputs = new boolean[3];
+
+        TestChipState(boolean[] inputs) {
+
+            this.inputs = inputs;
+        }
+
+        @Override
+        public boolean get(int pin) {
+
+            return pin < 3 ? inputs[pin] : outputs[pin - 3];
+        }
+
+        @Override
+        public boolean getInput(int inputIndex) {
+
+            return inputs[inputIndex];
+        }
+
+        @Override
+        public boolean getOutput(int outputIndex) {
+
+            return outputs[outputIndex];
+        }
+
+        @Override
+        public void set(int pin, boolean value) {
+
+            if (pin >= 3)
+                outputs[pin - 3] = value;
+        }
+
+        @Override
+        public void setOutput(int outputIndex, boolean value) {
+
+            outputs[outputIndex] = value;
+        }
+
+        @Override
+        public boolean isTriggered(int pin) {
+
+            return false;
+        }
+
+        @Override
+        public boolean isValid(int pin) {
+
+            return true;
+        }
+
+        @Override
+        public int getInputCount() {
+
+            return 3;
+        }
+
+        @Override
+        public int getOutputCount() {
+
+            return 3;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.junit.Test;
+
+import com.sk89q.worldedit.math.BlockVector3;
+
+public class CandidateIndexTest {
+
+    private final World world = mock(World.class);
+    private final SearchArea area = mock(SearchArea.class);
+    private final Map<BlockVector3, Material> blocks = new HashMap<>();
+    private final List<Runnable> executor = new ArrayList<>();
+    private final VolumeScanner scanner = new VolumeScanner(executor::add, 100);
+
+    public CandidateIndexTest() {
+
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getMaxHeight()).thenReturn(256);
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        when(world.getChunkAt(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int chunkX = (Integer) invocation.getArguments()[0];
+            int chunkZ = (Integer) invocation.getArguments()[1];
+            Chunk chunk = mock(Chunk.class);
+            when(chunk.getChunkSnapshot(anyBoolean(), anyBoolean(), anyBoolean())).thenAnswer(copy -> {
+                Map<BlockVector3, Material> copied = new HashMap<>(blocks);
+                ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+                when(snapshot.getBlockType(anyInt(), anyInt(), anyInt())).thenAnswer(read -> copied.getOrDefault(BlockVector3.at(
+                        chunkX * 16 + (Integer) read.getArguments()[0], (Integer) read.getArguments()[1],
+                        chunkZ * 16 + (Integer) read.getArguments()[2]), Material.AIR));
+                return snapshot;
+            });
+            return chunk;
+        });
+
+        when(area.getWorld()).thenReturn(world);
+        when(area.getMinimumPoint()).thenReturn(BlockVector3.at(-2, 60, -2));
+        when(area.getMaximumPoint()).thenReturn(BlockVector3.at(20, 70, 5));
+        when(area.isWithinArea(any(Location.class))).thenAnswer(invocation -> ((Location) invocation.getArguments()[0]).getBlockX() != 1);
+    }
+
+    private void nextTick() {
+
+        List<Runnable> tasks = new ArrayList<>(executor);
+        executor.clear();
+        tasks.forEach(Runnable::run);
+        scanner.nextTick();
+    }
+
+    @Test
+    public void testFirstScanIsReadFromSnapshots() {
+
+        blocks.put(BlockVector3.at(0, 64, 0), Material.STONE);
+        blocks.put(BlockVector3.at(1, 64, 0), Material.STONE);
+        blocks.put(BlockVector3.at(20, 64, 3), Material.STONE);
+        CandidateIndex index = new CandidateIndex(area, EnumSet.of(Material.STONE), scanner);
+
+        index.scan();
+        index.scan();
+        assertEquals(1, scanner.getScanCount());
+        assertFalse(index.isScanned());
+
+        nextTick();
+        assertTrue(index.isScanned());
+        // The block outside of the area isn't a candidate.
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testRescansAreRare() {
+
+        CandidateIndex index = new CandidateIndex(area, EnumSet.of(Material.STONE), scanner);
+        index.scan();
+        nextTick();
+        assertEquals(0, index.size());
+
+        blocks.put(BlockVector3.at(5, 65, 5), Material.STONE);
+        // The area covers 6 chunks, which are rescanned one at a time.
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < 1200; j++)
+                index.scan();
+            nextTick();
+        }
+        assertEquals(7, scanner.getScanCount());
+        assertEquals(1, index.size());
+    }
+}
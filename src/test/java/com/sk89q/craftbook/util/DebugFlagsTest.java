@@ -0,0 +1,42 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class DebugFlagsTest {
+
+    @Test
+    public void testParentFlags() {
+
+        DebugFlags flags = new DebugFlags(Arrays.asList("ic", "advanced-data.compare-recipes"));
+
+        assertTrue(flags.isEnabled("ic"));
+        assertTrue(flags.isEnabled("ic.cache"));
+        assertFalse(flags.isEnabled("ic-cache"));
+        assertTrue(flags.isEnabled("advanced-data.compare-recipes.shaped"));
+        assertFalse(flags.isEnabled("advanced-data"));
+        assertFalse(flags.isEnabled("advanced-data.init"));
+        assertFalse(flags.isEnabled("startup"));
+    }
+
+    @Test
+    public void testFlagsAreLowercased() {
+
+        DebugFlags flags = new DebugFlags(Arrays.asList("ST.Unregister"));
+
+        assertTrue(flags.isEnabled("st.unregister"));
+        assertTrue(flags.isEnabled("st.unregister"));
+        assertFalse(flags.isEnabled("st"));
+    }
+
+    @Test
+    public void testNone() {
+
+        assertFalse(DebugFlags.NONE.isEnabled("ic"));
+        assertFalse(DebugFlags.NONE.isEnabled(""));
+    }
+}
@@ -0,0 +1,28 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class DebugLogWriterTest {
+
+    @Test
+    public void testWritesOnClose() {
+
+        StringWriter out = new StringWriter();
+        DebugLogWriter writer = new DebugLogWriter(out);
+        for (int i = 0; i < 100; i++)
+            writer.println("[test] " + i);
+        writer.close();
+
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(100, lines.length);
+        assertEquals("[test] 0", lines[0]);
+        assertEquals("[test] 99", lines[99]);
+
+        writer.println("[test] late");
+        assertEquals(1, writer.getDroppedCount());
+    }
+}
@@ -0,0 +1,126 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Item;
+import org.bukkit.entity.Pig;
+import org.bukkit.entity.Zombie;
+import org.junit.Test;
+
+import com.sk89q.worldedit.math.Vector3;
+
+public class EntityGridTest {
+
+    private final World world = mock(World.class);
+    private final Map<Long, List<Entity>> chunkEntities = new HashMap<>();
+    private final List<Entity> allEntities = new ArrayList<>();
+
+    public EntityGridTest() {
+
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenReturn(true);
+        when(world.getChunkAt(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int x = (Integer) invocation.getArguments()[0];
+            int z = (Integer) invocation.getArguments()[1];
+            List<Entity> entities = chunkEntities.getOrDefault(LocationUtil.getChunkKey(x, z), Collections.emptyList());
+            Chunk chunk = mock(Chunk.class);
+            when(chunk.getEntities()).thenReturn(entities.toArray(new Entity[0]));
+            return chunk;
+        });
+    }
+
+    private void addEntity(Entity entity, double x, double z) {
+
+        when(entity.getLocation()).thenReturn(new Location(world, x, 64, z));
+        when(entity.isValid()).thenReturn(true);
+        chunkEntities.computeIfAbsent(LocationUtil.getChunkKeyAt((int) Math.floor(x), (int) Math.floor(z)), k -> new ArrayList<>()).add(entity);
+        allEntities.add(entity);
+    }
+
+    @Test
+    public void testTypeFiltering() {
+
+        addEntity(mock(Pig.class), 1.5, 1.5);
+        addEntity(mock(Zombie.class), 2.5, 1.5);
+        addEntity(mock(Item.class), 3.5, 1.5);
+        addEntity(mock(Pig.class), 40.5, 40.5);
+
+        EntityGrid grid = new EntityGrid();
+        SearchArea area = SearchArea.createArea(new Location(world, 2, 64, 2), Vector3.at(5, 5, 5));
+
+        assertEquals(1, count(area, grid, Collections.singleton(EntityType.MOB_PEACEFUL)));
+        assertEquals(1, count(area, grid, Collections.singleton(EntityType.MOB_HOSTILE)));
+        assertEquals(1, count(area, grid, Collections.singleton(EntityType.ITEM)));
+        assertEquals(2, count(area, grid, Collections.singleton(EntityType.MOB_ANY)));
+        assertEquals(3, count(area, grid, Collections.singleton(EntityType.ANY)));
+
+        // The visitor can stop the search early.
+        assertFalse(area.forEachEntityInArea(grid, Collections.singleton(EntityType.ANY), entity -> false));
+        assertTrue(area.forEachEntityInArea(grid, Collections.singleton(EntityType.PLAYER), entity -> false));
+    }
+
+    /**
+     * 500 sensors spread over a populated area, all reading the same snapshot.
+     */
+    @Test
+    public void testManySensorsShareOneSnapshot() {
+
+        Random random = new Random(500);
+        for (int i = 0; i < 2000; i++) {
+            Entity entity = random.nextBoolean() ? mock(Pig.class) : mock(Zombie.class);
+            addEntity(entity, random.nextDouble() * 128, random.nextDouble() * 128);
+        }
+
+        List<SearchArea> sensors = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Location center = new Location(world, random.nextInt(128), 64, random.nextInt(128));
+            sensors.add(SearchArea.createArea(center, Vector3.at(8, 8, 8)));
+        }
+
+        Set<EntityType> types = Collections.singleton(EntityType.MOB_PEACEFUL);
+        EntityGrid grid = new EntityGrid();
+        int ticks = 20;
+        for (int tick = 0; tick < ticks; tick++) {
+            grid.nextTick();
+            for (SearchArea sensor : sensors) {
+                int expected = 0;
+                for (Entity entity : allEntities)
+                    if (entity instanceof Pig && sensor.isWithinArea(entity.getLocation()))
+                        expected++;
+                assertEquals(expected, count(sensor, grid, types));
+            }
+        }
+
+        // Every chunk is snapshotted at most once a tick, rather than once per sensor.
+        int chunks = (128 + 9 * 2) / 16 + 2;
+        assertTrue(grid.getSnapshotCount() <= (long) ticks * chunks * chunks);
+    }
+
+    private static int count(SearchArea area, EntityGrid grid, Set<EntityType> types) {
+
+        int[] count = new int[1];
+        area.forEachEntityInArea(grid, types, entity -> {
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+}
@@ -0,0 +1,57 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+
+        LongHashMap<String> map = new LongHashMap<>();
+        assertNull(map.put(5L, "five"));
+        assertNull(map.put(-5L, "minus five"));
+        assertEquals("five", map.put(5L, "FIVE"));
+        assertEquals("FIVE", map.get(5L));
+        assertEquals("minus five", map.get(-5L));
+        assertEquals(2, map.size());
+        assertEquals("FIVE", map.remove(5L));
+        assertNull(map.get(5L));
+        assertNull(map.remove(5L));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(1234);
+
+        for (int i = 0; i < 20000; i++) {
+            // A small key space forces lots of collisions, overwrites and removals.
+            long key = LocationUtil.getBlockKey(random.nextInt(64) - 32, random.nextInt(4), random.nextInt(64) - 32);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet())
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        assertEquals(expected.size(), map.keys().length);
+        assertEquals(expected.size(), map.values().size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.Test;
+
+/**
+ * Tests the in-memory mappings, without a database.
+ */
+public class UUIDMappingsTest {
+
+    @Test
+    public void testMappingsAreStable() {
+
+        UUIDMappings mappings = new UUIDMappings();
+        UUID uuid = UUID.randomUUID();
+
+        String cbId = mappings.getCBID(uuid);
+        assertEquals(6, cbId.length());
+        assertTrue(cbId.matches("[0-9a-f]{6}"));
+        assertEquals(cbId, mappings.getCBID(uuid));
+        assertEquals(uuid, mappings.getUUID(cbId));
+        assertNull(mappings.getUUID("zzzzzz"));
+        assertNull(mappings.getUUID(null));
+    }
+
+    @Test
+    public void testIdsAreUnique() {
+
+        UUIDMappings mappings = new UUIDMappings();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < 5000; i++)
+            assertTrue(ids.add(mappings.getCBID(UUID.randomUUID())));
+    }
+
+    @Test
+    public void testConcurrentAllocation() throws InterruptedException {
+
+        UUIDMappings mappings = new UUIDMappings();
+        UUID uuid = UUID.randomUUID();
+        String[] results = new String[8];
+        Thread[] threads = new Thread[results.length];
+        for (int i = 0; i < threads.length; i++) {
+            int index = i;
+            threads[i] = new Thread(() -> results[index] = mappings.getCBID(uuid));
+            threads[i].start();
+        }
+        for (Thread thread : threads)
+            thread.join();
+
+        for (String result : results)
+            assertEquals(results[0], result);
+        assertEquals(uuid, mappings.getUUID(results[0]));
+    }
+}
@@ -0,0 +1,90 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class VariableTemplateTest {
+
+    private static String render(String line, Map<String, String> values) {
+
+        return VariableTemplate.compile(line).render(var -> values.get(var.getNamespace() + '|' + var.getName()));
+    }
+
+    @Test
+    public void testNoVariables() {
+
+        VariableTemplate template = VariableTemplate.compile("Hello world");
+        assertFalse(template.hasVariables());
+        assertEquals("Hello world", template.render(var -> "x"));
+    }
+
+    @Test
+    public void testNamespaces() {
+
+        List<VariableTemplate.Variable> variables = VariableTemplate.compile("%a% %ns|b%").getVariables();
+        assertEquals(2, variables.size());
+        assertEquals("global", variables.get(0).getNamespace());
+        assertEquals("a", variables.get(0).getName());
+        assertEquals("ns", variables.get(1).getNamespace());
+        assertEquals("b", variables.get(1).getName());
+        assertEquals("ns|b", variables.get(1).getText());
+    }
+
+    @Test
+    public void testRender() {
+
+        Map<String, String> values = new HashMap<>();
+        values.put("global|money", "10");
+        values.put("bob|score", "3");
+
+        assertEquals("You have 10 coins", render("You have %money% coins", values));
+        assertEquals("10/3", render("%money%/%bob|score%", values));
+        assertEquals("Unknown %missing%", render("Unknown %missing%", values));
+    }
+
+    @Test
+    public void testStrayPercent() {
+
+        Map<String, String> values = new HashMap<>();
+        values.put("global|sale", "half");
+
+        assertTrue(VariableTemplate.compile("50% off %sale%").hasVariables());
+        assertEquals("50% off half", render("50% off %sale%", values));
+        assertEquals("100%", render("100%", values));
+    }
+
+    @Test
+    public void testAdjacentVariables() {
+
+        Map<String, String> values = new HashMap<>();
+        values.put("global|a", "x");
+        values.put("global|b", "y");
+
+        // A resolved variable uses up its closing percent sign, as with the old left to right replacement.
+        assertEquals(2, VariableTemplate.compile("%a%b%").getVariables().size());
+        assertEquals("xb%", render("%a%b%", values));
+        assertEquals("xbx", render("%a%b%a%", values));
+        assertEquals("xy", render("%a%%b%", values));
+        assertEquals("xc%", render("%a%c%", values));
+        assertEquals("%cx", render("%c%a%", values));
+        assertEquals("%c%d%", render("%c%d%", values));
+        assertEquals("x b%", render("%a% b%", values));
+    }
+
+    @Test
+    public void testEscapes() {
+
+        Map<String, String> values = new HashMap<>();
+        values.put("global|a", "x");
+
+        assertEquals("%a% x", render("\\%a% %a%", values));
+        assertEquals("%a%", render("\\%a\\%", values));
+    }
+}
@@ -0,0 +1,196 @@
+package com.sk89q.craftbook.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.anyBoolean;
+import static org.mockito.Mockito.anyInt;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.junit.Test;
+
+import com.sk89q.worldedit.math.BlockVector3;
+
+public class VolumeScannerTest {
+
+    private final World world = mock(World.class);
+    private final Map<BlockVector3, Material> blocks = new HashMap<>();
+    private final Set<Long> unloaded = new HashSet<>();
+    private final List<Runnable> executor = new ArrayList<>();
+    private int chunkCopies;
+
+    public VolumeScannerTest() {
+
+        when(world.getUID()).thenReturn(UUID.randomUUID());
+        when(world.getMaxHeight()).thenReturn(256);
+        when(world.isChunkLoaded(anyInt(), anyInt())).thenAnswer(invocation ->
+                !unloaded.contains(LocationUtil.getChunkKey((Integer) invocation.getArguments()[0], (Integer) invocation.getArguments()[1])));
+        when(world.getChunkAt(anyInt(), anyInt())).thenAnswer(invocation -> {
+            int chunkX = (Integer) invocation.getArguments()[0];
+            int chunkZ = (Integer) invocation.getArguments()[1];
+            Chunk chunk = mock(Chunk.class);
+            when(chunk.getChunkSnapshot(anyBoolean(), anyBoolean(), anyBoolean())).thenAnswer(copy -> {
+                chunkCopies++;
+                Map<BlockVector3, Material> copied = new HashMap<>(blocks);
+                ChunkSnapshot snapshot = mock(ChunkSnapshot.class);
+                when(snapshot.getBlockType(anyInt(), anyInt(), anyInt())).thenAnswer(read -> copied.getOrDefault(BlockVector3.at(
+                        chunkX * 16 + (Integer) read.getArguments()[0], (Integer) read.getArguments()[1],
+                        chunkZ * 16 + (Integer) read.getArguments()[2]), Material.AIR));
+                return snapshot;
+            });
+            return chunk;
+        });
+        when(world.getBlockAt(anyInt(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            BlockVector3 position = BlockVector3.at((Integer) invocation.getArguments()[0], (Integer) invocation.getArguments()[1],
+                    (Integer) invocation.getArguments()[2]);
+            Block block = mock(Block.class);
+            when(block.getType()).thenAnswer(read -> blocks.getOrDefault(position, Material.AIR));
+            doAnswer(write -> blocks.put(position, (Material) write.getArguments()[0])).when(block).setType(any(Material.class));
+            return block;
+        });
+    }
+
+    private void runScans() {
+
+        List<Runnable> tasks = new ArrayList<>(executor);
+        executor.clear();
+        tasks.forEach(Runnable::run);
+    }
+
+    private static List<BlockChange> fill(VolumeSnapshot snapshot) {
+
+        List<BlockChange> changes = new ArrayList<>();
+        for (int x = snapshot.getMinX(); x <= snapshot.getMaxX(); x++)
+            for (int y = snapshot.getMinY(); y <= snapshot.getMaxY(); y++)
+                for (int z = snapshot.getMinZ(); z <= snapshot.getMaxZ(); z++)
+                    if (snapshot.getType(x, y, z) == Material.AIR)
+                        changes.add(new BlockChange(x, y, z, Material.AIR, Material.WATER));
+        return changes;
+    }
+
+    @Test
+    public void testSnapshotsAreSharedWithinATick() {
+
+        VolumeScanner scanner = new VolumeScanner(executor::add, 100);
+        blocks.put(BlockVector3.at(-1, 64, 20), Material.STONE);
+        unloaded.add(LocationUtil.getChunkKey(1, 0));
+
+        VolumeSnapshot snapshot = scanner.snapshot(world, -1, -10, 0, 20, 300, 20);
+        assertEquals(5, chunkCopies);
+        assertEquals(0, snapshot.getMinY());
+        assertEquals(255, snapshot.getMaxY());
+        assertEquals(Material.STONE, snapshot.getType(-1, 64, 20));
+        assertEquals(Material.AIR, snapshot.getType(0, 64, 0));
+        assertNull(snapshot.getType(16, 64, 0));
+        assertNull(snapshot.getType(21, 64, 0));
+
+        scanner.snapshot(world, 0, 0, 0, 15, 15, 15);
+        assertEquals(5, chunkCopies);
+        scanner.nextTick();
+        scanner.snapshot(world, 0, 0, 0, 15, 15, 15);
+        assertEquals(6, chunkCopies);
+    }
+
+    @Test
+    public void testEditIsAppliedWithinBudget() {
+
+        VolumeScanner scanner = new VolumeScanner(executor::add, 10);
+        Object owner = new Object();
+
+        assertTrue(scanner.edit(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(2, 66, 2), VolumeScannerTest::fill));
+        assertFalse(scanner.edit(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(2, 66, 2), VolumeScannerTest::fill));
+        runScans();
+
+        scanner.nextTick();
+        assertEquals(10, scanner.getAppliedCount());
+        assertTrue(scanner.isBusy(owner));
+        scanner.nextTick();
+        scanner.nextTick();
+        assertEquals(27, scanner.getAppliedCount());
+        assertFalse(scanner.isBusy(owner));
+        assertEquals(Material.WATER, blocks.get(BlockVector3.at(1, 65, 1)));
+
+        // Nothing is left to change.
+        assertTrue(scanner.edit(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(2, 66, 2), VolumeScannerTest::fill));
+        runScans();
+        scanner.nextTick();
+        assertFalse(scanner.isBusy(owner));
+        assertEquals(27, scanner.getAppliedCount());
+    }
+
+    @Test
+    public void testChangedBlocksAreSkipped() {
+
+        VolumeScanner scanner = new VolumeScanner(executor::add, 100);
+        Object owner = new Object();
+
+        scanner.edit(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(0, 65, 0), VolumeScannerTest::fill);
+        runScans();
+        blocks.put(BlockVector3.at(0, 65, 0), Material.STONE);
+        scanner.nextTick();
+
+        assertEquals(1, scanner.getAppliedCount());
+        assertEquals(1, scanner.getSkippedCount());
+        assertEquals(Material.STONE, blocks.get(BlockVector3.at(0, 65, 0)));
+    }
+
+    @Test
+    public void testCancel() {
+
+        VolumeScanner scanner = new VolumeScanner(executor::add, 1);
+        Object owner = new Object();
+
+        scanner.edit(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(0, 65, 0), VolumeScannerTest::fill);
+        runScans();
+        scanner.nextTick();
+        scanner.cancel(owner);
+        scanner.nextTick();
+        assertEquals(1, scanner.getAppliedCount());
+        assertFalse(scanner.isBusy(owner));
+
+        // A scan that finishes after its owner was cancelled and started again is dropped.
+        List<String> results = new ArrayList<>();
+        scanner.scan(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(0, 64, 0), snapshot -> "old", results::add);
+        scanner.cancel(owner);
+        scanner.scan(owner, world, BlockVector3.at(0, 64, 0), BlockVector3.at(0, 64, 0), snapshot -> "new", results::add);
+        runScans();
+        scanner.nextTick();
+        assertEquals(Collections.singletonList("new"), results);
+        assertFalse(scanner.isBusy(owner));
+    }
+
+    @Test
+    public void testScanResultIsHandedBackOnNextTick() {
+
+        VolumeScanner scanner = new VolumeScanner(executor::add, 1);
+        Object owner = new Object();
+        blocks.put(BlockVector3.at(3, 10, 3), Material.STONE);
+        List<Material> results = new ArrayList<>();
+
+        scanner.scan(owner, world, BlockVector3.at(3, 0, 3), BlockVector3.at(3, 20, 3), snapshot -> snapshot.getType(3, 10, 3), results::add);
+        blocks.put(BlockVector3.at(3, 10, 3), Material.DIRT);
+        runScans();
+        assertTrue(results.isEmpty());
+        scanner.nextTick();
+        assertSame(Material.STONE, results.get(0));
+    }
+}
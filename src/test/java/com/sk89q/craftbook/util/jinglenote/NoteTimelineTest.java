@@ -0,0 +1,89 @@
+package com.sk89q.craftbook.util.jinglenote;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import javax.sound.midi.InvalidMidiDataException;
+import javax.sound.midi.MetaMessage;
+import javax.sound.midi.MidiEvent;
+import javax.sound.midi.Sequence;
+import javax.sound.midi.ShortMessage;
+import javax.sound.midi.Track;
+
+import org.junit.Test;
+
+public class NoteTimelineTest {
+
+    private static MidiEvent note(int channel, int key, int velocity, long tick) throws InvalidMidiDataException {
+
+        return new MidiEvent(new ShortMessage(ShortMessage.NOTE_ON, channel, key, velocity), tick);
+    }
+
+    private static MidiEvent tempo(int microsecondsPerQuarter, long tick) throws InvalidMidiDataException {
+
+        byte[] data = {(byte) (microsecondsPerQuarter >> 16), (byte) (microsecondsPerQuarter >> 8), (byte) microsecondsPerQuarter};
+        return new MidiEvent(new MetaMessage(0x51, data, 3), tick);
+    }
+
+    @Test
+    public void testDecodeTiming() throws InvalidMidiDataException {
+
+        Sequence sequence = new Sequence(Sequence.PPQ, 100);
+        Track conductor = sequence.createTrack();
+        conductor.add(tempo(1000000, 200)); // 120 BPM, then 60 BPM from the third beat.
+
+        Track melody = sequence.createTrack();
+        melody.add(note(0, 60, 127, 0));
+        melody.add(note(0, 62, 127, 100));
+        melody.add(note(0, 62, 0, 150)); // A note off, which isn't played.
+        melody.add(note(0, 64, 127, 300));
+
+        NoteTimeline timeline = MidiJingleSequencer.decode(sequence);
+
+        assertEquals(3, timeline.size());
+        assertEquals(0, timeline.getTime(0));
+        assertEquals(500, timeline.getTime(1));
+        assertEquals(2000, timeline.getTime(2));
+        assertEquals(2000, timeline.getLength());
+        assertEquals(Instrument.HARP, timeline.getNote(0).getInstrument());
+        assertEquals(10f, timeline.getNote(0).getVelocity(), 0.001f);
+    }
+
+    @Test
+    public void testDecodeMergesTracks() throws InvalidMidiDataException {
+
+        Sequence sequence = new Sequence(Sequence.PPQ, 100);
+        Track first = sequence.createTrack();
+        first.add(note(0, 60, 100, 200));
+        Track second = sequence.createTrack();
+        second.add(new MidiEvent(new ShortMessage(ShortMessage.PROGRAM_CHANGE, 1, 32, 0), 0));
+        second.add(note(1, 60, 100, 100));
+        second.add(note(9, 40, 100, 300));
+
+        NoteTimeline timeline = MidiJingleSequencer.decode(sequence);
+
+        assertEquals(3, timeline.size());
+        assertEquals(500, timeline.getTime(0));
+        assertEquals(Instrument.BASS, timeline.getNote(0).getInstrument());
+        assertEquals(1000, timeline.getTime(1));
+        assertEquals(Instrument.HARP, timeline.getNote(1).getInstrument());
+        assertFalse(timeline.isPercussion(1));
+        assertTrue(timeline.isPercussion(2));
+    }
+
+    @Test
+    public void testParseTune() {
+
+        NoteTimeline timeline = StringJingleSequencer.parseTune("1a2-2b2");
+
+        assertEquals(3, timeline.size());
+        assertEquals(Instrument.BASS, timeline.getNote(0).getInstrument());
+        assertEquals(0f, timeline.getNote(1).getVelocity(), 0f);
+        assertEquals(2, timeline.getTime(2));
+        assertEquals(3, timeline.getLength());
+
+        assertNull(StringJingleSequencer.parseTune("a2"));
+    }
+}
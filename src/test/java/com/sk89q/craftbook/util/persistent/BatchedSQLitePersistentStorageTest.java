@@ -0,0 +1,79 @@
+package com.sk89q.craftbook.util.persistent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests the in-memory side of the storage. The database is only touched by open, close and flush.
+ */
+public class BatchedSQLitePersistentStorageTest {
+
+    @Test
+    public void testTypedAccessors() {
+
+        PersistentStorage storage = new BatchedSQLitePersistentStorage();
+        storage.setBoolean("a.bool", true);
+        storage.setLong("a.long", 5000000000L);
+        storage.setStringSet("a.set", new LinkedHashSet<>(Arrays.asList("x", "y")));
+        storage.set("a.int", 5);
+
+        assertTrue(storage.getBoolean("a.bool", false));
+        assertTrue(storage.getBoolean("a.missing", true));
+        assertEquals(5000000000L, storage.getLong("a.long", 0));
+        assertEquals(5, storage.getLong("a.int", 0));
+        assertEquals(new HashSet<>(Arrays.asList("x", "y")), storage.getStringSet("a.set"));
+        assertEquals(Collections.emptySet(), storage.getStringSet("a.missing"));
+    }
+
+    @Test
+    public void testChangesArePending() {
+
+        BatchedSQLitePersistentStorage storage = new BatchedSQLitePersistentStorage();
+        storage.set("a", "1");
+        storage.set("a", "2");
+        storage.set("b", "3");
+        storage.set("b", null);
+
+        assertEquals("2", storage.get("a"));
+        assertFalse(storage.has("b"));
+        assertEquals(2, storage.getPendingCount());
+    }
+
+    @Test
+    public void testHierarchy() {
+
+        PersistentStorage storage = new BatchedSQLitePersistentStorage();
+        Map<String, Object> locations = new HashMap<>();
+        locations.put("list", Arrays.asList("one"));
+        locations.put("one", "world:1:2:3");
+        Map<String, Object> data = new HashMap<>();
+        data.put("teleport-ic-locations", locations);
+        data.put("wireless-ic-states", Arrays.asList("band"));
+
+        // Nested maps, as exported by the YAML storage.
+        storage.importData(data, true);
+
+        assertTrue(storage.has("teleport-ic-locations.list"));
+        assertEquals("world:1:2:3", storage.get("teleport-ic-locations.one"));
+        assertEquals(Collections.singleton("one"), storage.getStringSet("teleport-ic-locations.list"));
+        assertEquals(Collections.singleton("band"), storage.getStringSet("wireless-ic-states"));
+
+        assertTrue(storage.has("teleport-ic-locations"));
+        assertEquals(locations, storage.get("teleport-ic-locations"));
+
+        storage.set("teleport-ic-locations", "replaced");
+        assertNull(storage.get("teleport-ic-locations.one"));
+        assertEquals("replaced", storage.get("teleport-ic-locations"));
+    }
+}